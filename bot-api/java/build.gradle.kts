@@ -1,3 +1,4 @@
+import build.tasks.GenerateSchemaCodecs
 import java.nio.file.Files
 import org.jsonschema2pojo.AnnotationStyle
 import org.jsonschema2pojo.SourceType
@@ -22,7 +23,6 @@ plugins {
 
 dependencies {
     implementation(libs.gson)
-    implementation(libs.gson.extras)
     implementation(libs.nv.i18n)
 
     testImplementation(platform(testLibs.junit.bom))
@@ -47,12 +47,25 @@ jsonSchema2Pojo {
     targetDirectory = layout.buildDirectory.dir("generated-sources/schema").get().asFile
 }
 
+// Streaming type adapters of the schema classes used for the messages sent every turn
+val generateSchemaCodecs by tasks.registering(GenerateSchemaCodecs::class) {
+    schemaDir = layout.projectDirectory.dir("../../schema/schemas")
+    packageName = schemaPackage
+    rootSchemas = listOf("tick-event-for-bot", "bot-intent")
+    outputDir = layout.buildDirectory.dir("generated-sources/schema-codecs")
+}
+
 sourceSets {
     main {
         java {
             srcDir(layout.buildDirectory.dir("generated-sources/schema"))
+            srcDir(layout.buildDirectory.dir("generated-sources/schema-codecs"))
         }
     }
+    test {
+        // Golden fixtures of the binary wire format shared by the server, Bot API and client library
+        resources.srcDir(layout.projectDirectory.dir("../../schema/fixtures"))
+    }
 }
 
 tasks {
@@ -62,6 +75,10 @@ tasks {
         mustRunAfter(rootProject.tasks.named("generateSchemaDiagrams"))
     }
 
+    compileJava {
+        dependsOn(generateSchemaCodecs)
+    }
+
     test {
         useJUnitPlatform()
         failFast = true
@@ -167,6 +184,7 @@ tasks {
     val javadocJar = named("javadocJar")
     val sourcesJar = named("sourcesJar") {
         dependsOn(compileJava)
+        dependsOn(generateSchemaCodecs)
     }
 
     // Configure the maven publication to use the shadow jar as the main artifact
@@ -0,0 +1,268 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import dev.robocode.tankroyale.schema.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoder for tick events sent in binary WebSocket frames with the "binary-v1" wire format, which the bot selects
+ * in its handshake when the server advertises the wire format in its handshake features.
+ * <p>
+ * The layout is the one written by the BinaryTickCodec of the server. Numbers are fixed-size big-endian values, and
+ * a string is an int byte length followed by the UTF-8 bytes, where a length of -1 means null. Counts and string
+ * lengths are checked against the bytes left before anything is allocated for them.
+ */
+final class BinaryTickDecoder {
+
+    /** Name of the wire format in the handshakes */
+    static final String WIRE_FORMAT = "binary-v1";
+
+    private static final byte MAGIC = 'T';
+    private static final byte VERSION = 1;
+
+    private static final byte KIND_TICK_FOR_BOT = 1;
+
+    private static final int FLAG_IS_DROID = 1;
+    private static final int FLAG_IS_DEBUGGING_ENABLED = 2;
+    private static final int FLAG_IS_DROID_NULL = 4;
+    private static final int FLAG_IS_DEBUGGING_ENABLED_NULL = 8;
+
+    private static final byte BOT_DEATH = 1;
+    private static final byte BOT_HIT_BOT = 2;
+    private static final byte BOT_HIT_WALL = 3;
+    private static final byte BULLET_FIRED = 4;
+    private static final byte BULLET_HIT_BOT = 5;
+    private static final byte BULLET_HIT_BULLET = 6;
+    private static final byte BULLET_HIT_WALL = 7;
+    private static final byte HIT_BY_BULLET = 8;
+    private static final byte SCANNED_BOT = 9;
+    private static final byte SKIPPED_TURN = 10;
+    private static final byte TEAM_MESSAGE = 11;
+    private static final byte WON_ROUND = 12;
+
+    // Hide constructor to prevent instantiation
+    private BinaryTickDecoder() {
+    }
+
+    /**
+     * Decodes a tick event for a bot.
+     *
+     * @param bytes is the encoded tick event.
+     * @return the decoded tick event.
+     * @throws IllegalArgumentException if the bytes are not a tick event for a bot in this wire format.
+     */
+    static TickEventForBot decode(ByteBuffer bytes) {
+        ByteBuffer buffer = bytes.duplicate();
+        try {
+            if (buffer.get() != MAGIC || buffer.get() != VERSION) {
+                throw new IllegalArgumentException("Not a binary-v1 tick event");
+            }
+            byte kind = buffer.get();
+            if (kind != KIND_TICK_FOR_BOT) {
+                throw new IllegalArgumentException("Not a tick event for a bot: " + kind);
+            }
+            var tick = new TickEventForBot();
+            tick.setType(Message.Type.TICK_EVENT_FOR_BOT);
+            tick.setRoundNumber(buffer.getInt());
+            tick.setTurnNumber(buffer.getInt());
+            tick.setBotState(readBotState(buffer));
+
+            int bulletCount = readCount(buffer);
+            List<BulletState> bulletStates = new ArrayList<>(bulletCount);
+            for (int i = 0; i < bulletCount; i++) {
+                bulletStates.add(readBulletState(buffer));
+            }
+            tick.setBulletStates(bulletStates);
+
+            int eventCount = readCount(buffer);
+            List<Event> events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                events.add(readEvent(buffer));
+            }
+            tick.setEvents(events);
+            return tick;
+
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated binary-v1 tick event", ex);
+        }
+    }
+
+    private static BotState readBotState(ByteBuffer buffer) {
+        var botState = new BotState();
+        int flags = buffer.get();
+        botState.setIsDroid((flags & FLAG_IS_DROID_NULL) != 0 ? null : (flags & FLAG_IS_DROID) != 0);
+        botState.setIsDebuggingEnabled(
+                (flags & FLAG_IS_DEBUGGING_ENABLED_NULL) != 0 ? null : (flags & FLAG_IS_DEBUGGING_ENABLED) != 0);
+        botState.setEnergy(buffer.getDouble());
+        botState.setX(buffer.getDouble());
+        botState.setY(buffer.getDouble());
+        botState.setDirection(buffer.getDouble());
+        botState.setGunDirection(buffer.getDouble());
+        botState.setRadarDirection(buffer.getDouble());
+        botState.setRadarSweep(buffer.getDouble());
+        botState.setSpeed(buffer.getDouble());
+        botState.setTurnRate(buffer.getDouble());
+        botState.setGunTurnRate(buffer.getDouble());
+        botState.setRadarTurnRate(buffer.getDouble());
+        botState.setGunHeat(buffer.getDouble());
+        botState.setEnemyCount(buffer.getInt());
+        botState.setBodyColor(readString(buffer));
+        botState.setTurretColor(readString(buffer));
+        botState.setRadarColor(readString(buffer));
+        botState.setBulletColor(readString(buffer));
+        botState.setScanColor(readString(buffer));
+        botState.setTracksColor(readString(buffer));
+        botState.setGunColor(readString(buffer));
+        return botState;
+    }
+
+    private static BulletState readBulletState(ByteBuffer buffer) {
+        var bulletState = new BulletState();
+        bulletState.setBulletId(buffer.getInt());
+        bulletState.setOwnerId(buffer.getInt());
+        bulletState.setPower(buffer.getDouble());
+        bulletState.setX(buffer.getDouble());
+        bulletState.setY(buffer.getDouble());
+        bulletState.setDirection(buffer.getDouble());
+        bulletState.setColor(readString(buffer));
+        return bulletState;
+    }
+
+    private static Event readEvent(ByteBuffer buffer) {
+        byte code = buffer.get();
+        int turnNumber = buffer.getInt();
+
+        Event event;
+        Message.Type type;
+        switch (code) {
+            case BOT_DEATH: {
+                var e = new BotDeathEvent();
+                e.setVictimId(buffer.getInt());
+                event = e;
+                type = Message.Type.BOT_DEATH_EVENT;
+                break;
+            }
+            case BOT_HIT_BOT: {
+                var e = new BotHitBotEvent();
+                e.setVictimId(buffer.getInt());
+                e.setBotId(buffer.getInt());
+                e.setEnergy(buffer.getDouble());
+                e.setX(buffer.getDouble());
+                e.setY(buffer.getDouble());
+                e.setRammed(buffer.get() != 0);
+                event = e;
+                type = Message.Type.BOT_HIT_BOT_EVENT;
+                break;
+            }
+            case BOT_HIT_WALL: {
+                var e = new BotHitWallEvent();
+                e.setVictimId(buffer.getInt());
+                event = e;
+                type = Message.Type.BOT_HIT_WALL_EVENT;
+                break;
+            }
+            case BULLET_FIRED: {
+                var e = new BulletFiredEvent();
+                e.setBullet(readBulletState(buffer));
+                event = e;
+                type = Message.Type.BULLET_FIRED_EVENT;
+                break;
+            }
+            case BULLET_HIT_BOT: {
+                var e = new BulletHitBotEvent();
+                e.setVictimId(buffer.getInt());
+                e.setBullet(readBulletState(buffer));
+                e.setDamage(buffer.getDouble());
+                e.setEnergy(buffer.getDouble());
+                event = e;
+                type = Message.Type.BULLET_HIT_BOT_EVENT;
+                break;
+            }
+            case BULLET_HIT_BULLET: {
+                var e = new BulletHitBulletEvent();
+                e.setBullet(readBulletState(buffer));
+                e.setHitBullet(readBulletState(buffer));
+                event = e;
+                type = Message.Type.BULLET_HIT_BULLET_EVENT;
+                break;
+            }
+            case BULLET_HIT_WALL: {
+                var e = new BulletHitWallEvent();
+                e.setBullet(readBulletState(buffer));
+                event = e;
+                type = Message.Type.BULLET_HIT_WALL_EVENT;
+                break;
+            }
+            case HIT_BY_BULLET: {
+                var e = new HitByBulletEvent();
+                e.setBullet(readBulletState(buffer));
+                e.setDamage(buffer.getDouble());
+                e.setEnergy(buffer.getDouble());
+                event = e;
+                type = Message.Type.HIT_BY_BULLET_EVENT;
+                break;
+            }
+            case SCANNED_BOT: {
+                var e = new ScannedBotEvent();
+                e.setScannedByBotId(buffer.getInt());
+                e.setScannedBotId(buffer.getInt());
+                e.setEnergy(buffer.getDouble());
+                e.setX(buffer.getDouble());
+                e.setY(buffer.getDouble());
+                e.setDirection(buffer.getDouble());
+                e.setSpeed(buffer.getDouble());
+                event = e;
+                type = Message.Type.SCANNED_BOT_EVENT;
+                break;
+            }
+            case SKIPPED_TURN:
+                event = new SkippedTurnEvent();
+                type = Message.Type.SKIPPED_TURN_EVENT;
+                break;
+            case TEAM_MESSAGE: {
+                var e = new TeamMessageEvent();
+                e.setMessage(readString(buffer));
+                e.setMessageType(readString(buffer));
+                e.setSenderId(buffer.getInt());
+                event = e;
+                type = Message.Type.TEAM_MESSAGE_EVENT;
+                break;
+            }
+            case WON_ROUND:
+                event = new WonRoundEvent();
+                type = Message.Type.WON_ROUND_EVENT;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event code: " + code);
+        }
+        event.setType(type);
+        event.setTurnNumber(turnNumber);
+        return event;
+    }
+
+    // Reads a count of items, each taking at least one of the bytes left
+    private static int readCount(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid count in binary-v1 tick event: " + count);
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String length exceeds binary-v1 tick event: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
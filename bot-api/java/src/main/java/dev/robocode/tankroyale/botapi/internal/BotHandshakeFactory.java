@@ -17,7 +17,7 @@ final class BotHandshakeFactory {
     private BotHandshakeFactory() {
     }
 
-    static BotHandshake create(String sessionId, BotInfo botInfo, boolean isDroid, String secret) {
+    static BotHandshake create(String sessionId, BotInfo botInfo, boolean isDroid, String secret, String wireFormat) {
         BotHandshake handshake = new BotHandshake();
         handshake.setSessionId(sessionId);
         handshake.setType(Type.BOT_HANDSHAKE);
@@ -36,6 +36,7 @@ final class BotHandshakeFactory {
         handshake.setTeamVersion(EnvVars.getTeamVersion());
         handshake.setIsDroid(isDroid);
         handshake.setSecret(secret);
+        handshake.setWireFormat(wireFormat);
         
         // Set debuggerAttached field (ADR-0035)
         boolean debuggerAttached = isDebuggerAttached();
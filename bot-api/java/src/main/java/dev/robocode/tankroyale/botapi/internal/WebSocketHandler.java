@@ -22,12 +22,15 @@ import dev.robocode.tankroyale.schema.RoundStartedEvent;
 import dev.robocode.tankroyale.schema.TickEventForBot;
 import dev.robocode.tankroyale.schema.ServerHandshake;
 
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
 
 import static dev.robocode.tankroyale.botapi.mapper.ResultsMapper.map;
 
@@ -44,6 +47,7 @@ final class WebSocketHandler implements WebSocket.Listener {
 
     private WebSocket socket;
     private final StringBuilder payload = new StringBuilder();
+    private final ByteArrayOutputStream binaryPayload = new ByteArrayOutputStream();
 
     WebSocketHandler(
             BaseBotInternals baseBotInternals,
@@ -107,7 +111,7 @@ final class WebSocketHandler implements WebSocket.Listener {
                 }
                 switch (messageType) {
                     case TICK_EVENT_FOR_BOT:
-                        handleTick(jsonMsg);
+                        handleTick(() -> JsonConverter.fromJson(jsonMsg, TickEventForBot.class));
                         break;
                     case ROUND_STARTED_EVENT:
                         handleRoundStarted(jsonMsg);
@@ -138,13 +142,28 @@ final class WebSocketHandler implements WebSocket.Listener {
         return WebSocket.Listener.super.onText(webSocket, data, last);
     }
 
-    private void handleTick(JsonObject jsonMsg) {
+    // Only tick events are sent in binary frames, and only when selected with the wire format of the bot handshake
+    @Override
+    public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        binaryPayload.writeBytes(bytes);
+        if (last) {
+            var tickBytes = ByteBuffer.wrap(binaryPayload.toByteArray());
+            binaryPayload.reset(); // clear payload buffer
+
+            handleTick(() -> BinaryTickDecoder.decode(tickBytes));
+        }
+        return WebSocket.Listener.super.onBinary(webSocket, data, last);
+    }
+
+    private void handleTick(Supplier<TickEventForBot> tickDecoder) {
         boolean disabled = baseBotInternals.isEventHandlingDisabled();
         if (disabled) return;
 
         baseBotInternals.setTickStartNanoTime(System.nanoTime());
 
-        var tickEventForBot = JsonConverter.fromJson(jsonMsg, TickEventForBot.class);
+        var tickEventForBot = tickDecoder.get();
 
         var mappedTickEvent = EventMapper.map(tickEventForBot, baseBot);
 
@@ -248,12 +267,24 @@ final class WebSocketHandler implements WebSocket.Listener {
 
         // Reply by sending bot handshake
         var isDroid = baseBot instanceof Droid;
-        var botHandshake = BotHandshakeFactory.create(serverHandshake.getSessionId(), botInfo, isDroid, serverSecret);
+        var botHandshake = BotHandshakeFactory.create(
+                serverHandshake.getSessionId(), botInfo, isDroid, serverSecret, selectWireFormat(serverHandshake));
         String msg = JsonConverter.toJson(botHandshake);
 
         socket.sendText(msg, true);
     }
 
+    /**
+     * Selects the binary wire format for receiving tick events when the server advertises it, as the tick events are
+     * then decoded without parsing JSON text. Otherwise, null is returned to receive the tick events as JSON.
+     */
+    private static String selectWireFormat(ServerHandshake serverHandshake) {
+        var features = serverHandshake.getFeatures();
+        boolean isBinarySupported = features != null && features.getWireFormats() != null &&
+                features.getWireFormats().contains(BinaryTickDecoder.WIRE_FORMAT);
+        return isBinarySupported ? BinaryTickDecoder.WIRE_FORMAT : null;
+    }
+
     /**
      * Verifies that the server uses a protocol version compatible with this Bot API.
      * Per SemVer, versions are compatible when the major versions are equal; for the 0.x range
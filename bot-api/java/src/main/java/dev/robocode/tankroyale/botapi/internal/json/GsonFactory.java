@@ -6,18 +6,17 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
-import com.google.gson.typeadapters.RuntimeTypeAdapterFactory;
 import dev.robocode.tankroyale.botapi.graphics.Color;
 import dev.robocode.tankroyale.botapi.graphics.Point;
 import dev.robocode.tankroyale.botapi.util.ColorUtil;
-import dev.robocode.tankroyale.schema.Event;
+import dev.robocode.tankroyale.schema.SchemaTypeAdapters;
 
 import java.io.IOException;
 
 /**
  * The GsonFactory class provides a singleton instance of the Gson object configured for
  * specific serialization and deserialization needs, including custom type adapters and
- * runtime type adapter factories.
+ * the type adapters of the schema classes generated from the schemas by the build.
  * <p>
  * This class ensures a single Gson instance is shared across the application, preventing
  * redundant creation and supporting custom JSON handling for various data types.
@@ -36,7 +35,8 @@ final class GsonFactory {
     private static Gson createGson() {
         if (gson == null) {
             gson = new GsonBuilder()
-                    .registerTypeAdapterFactory(getEventTypeFactory())
+                    // streaming type adapters of the tick events and bot intents, which read events by their type
+                    .registerTypeAdapterFactory(SchemaTypeAdapters.FACTORY)
                     .registerTypeAdapter(Color.class, new ColorTypeAdapter())
                     .registerTypeAdapter(Point.class, new PointTypeAdapter())
                     // to avoid IllegalArgumentException: -Infinity is not a valid double value as per JSON specification
@@ -46,20 +46,6 @@ final class GsonFactory {
         return gson;
     }
 
-    private static RuntimeTypeAdapterFactory<Event> getEventTypeFactory() {
-        return RuntimeTypeAdapterFactory.of(dev.robocode.tankroyale.schema.Event.class, "type", true)
-                .registerSubtype(dev.robocode.tankroyale.schema.BotDeathEvent.class, "BotDeathEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.BotHitBotEvent.class, "BotHitBotEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.BotHitWallEvent.class, "BotHitWallEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.BulletFiredEvent.class, "BulletFiredEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.BulletHitBotEvent.class, "BulletHitBotEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.BulletHitBulletEvent.class, "BulletHitBulletEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.BulletHitWallEvent.class, "BulletHitWallEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.ScannedBotEvent.class, "ScannedBotEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.WonRoundEvent.class, "WonRoundEvent")
-                .registerSubtype(dev.robocode.tankroyale.schema.TeamMessageEvent.class, "TeamMessageEvent");
-    }
-
     private static final class ColorTypeAdapter extends TypeAdapter<Color> {
         @Override
         public void write(JsonWriter out, Color color) throws IOException {
@@ -0,0 +1,190 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import dev.robocode.tankroyale.schema.BotDeathEvent;
+import dev.robocode.tankroyale.schema.Message;
+import dev.robocode.tankroyale.schema.ScannedBotEvent;
+import dev.robocode.tankroyale.schema.TeamMessageEvent;
+import dev.robocode.tankroyale.schema.WonRoundEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UTL")
+@Tag("TR-API-UTL-004")
+@DisplayName("TR-API-UTL-004 Binary tick event decoding")
+class BinaryTickDecoderTest {
+
+    /** Tick event for a bot in the binary-v1 layout written by the server */
+    private static byte[] encodeTick() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte('T'); // magic
+            out.writeByte(1); // version
+            out.writeByte(1); // tick event for bot
+            out.writeInt(3); // round number
+            out.writeInt(42); // turn number
+
+            // bot state
+            out.writeByte(2); // flags: debugging enabled
+            for (int i = 1; i <= 12; i++) {
+                out.writeDouble(i * 1.5); // energy, x, y, ..., gunHeat
+            }
+            out.writeInt(4); // enemy count
+            writeString(out, "#FF0000"); // body color
+            for (int i = 0; i < 6; i++) {
+                writeString(out, null); // turret, radar, bullet, scan, tracks, gun colors
+            }
+
+            // bullet states
+            out.writeInt(1);
+            out.writeInt(7); // bullet id
+            out.writeInt(2); // owner id
+            out.writeDouble(3.0); // power
+            out.writeDouble(10.0); // x
+            out.writeDouble(20.0); // y
+            out.writeDouble(90.0); // direction
+            writeString(out, null); // color
+
+            // events
+            out.writeInt(3);
+            out.writeByte(1); // bot death
+            out.writeInt(41);
+            out.writeInt(5); // victim id
+            out.writeByte(11); // team message
+            out.writeInt(42);
+            writeString(out, "{\"x\":1}");
+            writeString(out, "Point");
+            out.writeInt(6); // sender id
+            out.writeByte(12); // won round
+            out.writeInt(42);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /** Reads the golden fixture encoded by the server, which is hex text where whitespace is ignored */
+    private static byte[] readFixture(String name) throws IOException {
+        try (var in = Objects.requireNonNull(BinaryTickDecoderTest.class.getResourceAsStream("/binary-v1/" + name))) {
+            var hex = new String(in.readAllBytes(), StandardCharsets.US_ASCII).replaceAll("\\s", "");
+            var bytes = new byte[hex.length() / 2];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+            }
+            return bytes;
+        }
+    }
+
+    @Test
+    void givenTickEncodedByServer_whenDecoding_thenTickEventForBotHasSameFields() throws IOException {
+        var tick = BinaryTickDecoder.decode(ByteBuffer.wrap(readFixture("tick-event-for-bot.hex")));
+
+        assertThat(tick.getRoundNumber()).isEqualTo(2);
+        assertThat(tick.getTurnNumber()).isEqualTo(42);
+
+        var botState = tick.getBotState();
+        assertThat(botState.getIsDroid()).isNull();
+        assertThat(botState.getIsDebuggingEnabled()).isTrue();
+        assertThat(botState.getEnergy()).isEqualTo(87.5);
+        assertThat(botState.getSpeed()).isEqualTo(-4.0);
+        assertThat(botState.getGunHeat()).isEqualTo(0.6);
+        assertThat(botState.getEnemyCount()).isEqualTo(3);
+        assertThat(botState.getBodyColor()).isEqualTo("#FF0000");
+        assertThat(botState.getTurretColor()).isNull();
+
+        assertThat(tick.getBulletStates()).hasSize(1);
+        assertThat(tick.getBulletStates().get(0).getBulletId()).isEqualTo(7);
+        assertThat(tick.getBulletStates().get(0).getColor()).isEqualTo("#FFFF00");
+
+        assertThat(tick.getEvents()).extracting(event -> event.getType()).containsExactly(
+                Message.Type.BOT_DEATH_EVENT, Message.Type.SCANNED_BOT_EVENT, Message.Type.TEAM_MESSAGE_EVENT,
+                Message.Type.WON_ROUND_EVENT);
+        var scannedBot = (ScannedBotEvent) tick.getEvents().get(1);
+        assertThat(scannedBot.getScannedBotId()).isEqualTo(2);
+        assertThat(scannedBot.getSpeed()).isEqualTo(8.0);
+        var teamMessage = (TeamMessageEvent) tick.getEvents().get(2);
+        assertThat(teamMessage.getMessage()).isEqualTo("{\"x\":1}");
+        assertThat(teamMessage.getSenderId()).isEqualTo(3);
+    }
+
+    @Test
+    void givenBinaryTick_whenDecoding_thenTickEventForBotHasSameFields() throws IOException {
+        var tick = BinaryTickDecoder.decode(ByteBuffer.wrap(encodeTick()));
+
+        assertThat(tick.getType()).isEqualTo(Message.Type.TICK_EVENT_FOR_BOT);
+        assertThat(tick.getRoundNumber()).isEqualTo(3);
+        assertThat(tick.getTurnNumber()).isEqualTo(42);
+
+        var botState = tick.getBotState();
+        assertThat(botState.getIsDroid()).isFalse();
+        assertThat(botState.getIsDebuggingEnabled()).isTrue();
+        assertThat(botState.getEnergy()).isEqualTo(1.5);
+        assertThat(botState.getGunHeat()).isEqualTo(18.0);
+        assertThat(botState.getEnemyCount()).isEqualTo(4);
+        assertThat(botState.getBodyColor()).isEqualTo("#FF0000");
+        assertThat(botState.getGunColor()).isNull();
+
+        assertThat(tick.getBulletStates()).hasSize(1);
+        assertThat(tick.getBulletStates().get(0).getBulletId()).isEqualTo(7);
+        assertThat(tick.getBulletStates().get(0).getDirection()).isEqualTo(90.0);
+
+        assertThat(tick.getEvents()).hasSize(3);
+        var botDeath = (BotDeathEvent) tick.getEvents().get(0);
+        assertThat(botDeath.getType()).isEqualTo(Message.Type.BOT_DEATH_EVENT);
+        assertThat(botDeath.getTurnNumber()).isEqualTo(41);
+        assertThat(botDeath.getVictimId()).isEqualTo(5);
+        var teamMessage = (TeamMessageEvent) tick.getEvents().get(1);
+        assertThat(teamMessage.getMessage()).isEqualTo("{\"x\":1}");
+        assertThat(teamMessage.getMessageType()).isEqualTo("Point");
+        assertThat(teamMessage.getSenderId()).isEqualTo(6);
+        assertThat(tick.getEvents().get(2)).isInstanceOf(WonRoundEvent.class);
+    }
+
+    @Test
+    void givenOtherMagic_whenDecoding_thenThrowIllegalArgumentException() throws IOException {
+        var bytes = encodeTick();
+        bytes[0] = '{';
+
+        assertThatThrownBy(() -> BinaryTickDecoder.decode(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenStringLengthBeyondEnd_whenDecoding_thenThrowIllegalArgumentException() throws IOException {
+        var bytes = encodeTick();
+        // The body color is the first string, after the header, flags, 12 doubles and the enemy count
+        ByteBuffer.wrap(bytes).putInt(3 + 2 * Integer.BYTES + 1 + 12 * Double.BYTES + Integer.BYTES, Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> BinaryTickDecoder.decode(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("String length");
+    }
+
+    @Test
+    void givenTruncatedBinaryTick_whenDecoding_thenThrowIllegalArgumentException() throws IOException {
+        var bytes = Arrays.copyOf(encodeTick(), 40);
+
+        assertThatThrownBy(() -> BinaryTickDecoder.decode(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Truncated");
+    }
+}
@@ -12,6 +12,7 @@ repositories {
 
 dependencies {
     implementation(libs.json)
+    implementation(libs.snakeyaml)
 }
 
 java {
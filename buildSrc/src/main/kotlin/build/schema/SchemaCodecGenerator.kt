@@ -0,0 +1,651 @@
+package build.schema
+
+import org.gradle.api.GradleException
+import org.yaml.snakeyaml.Yaml
+import java.io.File
+
+/**
+ * Generates streaming Gson type adapters for the schema classes, which are generated from the YAML schemas by
+ * jsonschema2pojo.
+ *
+ * The adapters read and write the classes field by field with `JsonReader` and `JsonWriter`, without reflection. They
+ * write the fields in the same order as Gson writes the schema classes with reflection, which is the properties of a
+ * schema in schema order, followed by the properties of the schema it extends. Hence, the JSON is the same as with
+ * Gson reflection.
+ *
+ * Adapters are generated for the root schemas, the schemas referenced by their properties, and the schemas extending
+ * them, as the fields of a schema class can hold any of its subclasses. Objects are read as the declared class, except
+ * for schemas having a `type` enum property, like events, which are read as the class given by their type. As the
+ * type can be any field, even the last one, the fields of such an object are read in one pass into slots shared by
+ * all the classes it can be read as, and set on the object of its type afterward, without building a JSON tree. Such
+ * a schema that is only extended by the root schemas, like the message schema, gets a reader of these schemas too.
+ *
+ * The generation fails on schema constructs the adapters do not support, so a schema change can never silently drop
+ * a field from the wire.
+ *
+ * @param schemaDir is the directory containing the `*.schema.yaml` files.
+ */
+class SchemaCodecGenerator(schemaDir: File) {
+
+    /** YAML nodes of the schemas by schema id, which is the file name without the extension */
+    private val nodes: Map<String, Map<*, *>> = loadNodes(schemaDir)
+
+    /** Parsed schemas, where only the schemas given adapters are parsed */
+    private val schemas = HashMap<String, Schema>()
+
+    private val directSubtypeIds: Map<String, List<String>> = nodes.entries
+        .mapNotNull { (id, node) -> superId(id, node)?.let { it to id } }
+        .groupBy({ it.first }, { it.second })
+
+    /**
+     * Generates the source code of a Java class with the type adapters.
+     * @param packageName is the package of the schema classes, which is also the package of the generated class.
+     * @param className is the name of the generated class.
+     * @param rootSchemaIds are the ids of the root schemas, e.g. `tick-event-for-bot`.
+     * @return the Java source code.
+     */
+    fun generate(packageName: String, className: String, rootSchemaIds: List<String>): String {
+        val covered = sortedSetOf<String>()
+        rootSchemaIds.forEach { cover(it, covered) }
+        return JavaWriter(packageName, className, covered.map(::schema)).write()
+    }
+
+    private fun cover(id: String, covered: MutableSet<String>) {
+        val schema = schema(id)
+        if (!covered.add(id)) return
+        allProperties(schema).forEach { property -> referencedIds(property.type).forEach { cover(it, covered) } }
+        directSubtypeIds[id]?.forEach { cover(it, covered) }
+    }
+
+    private fun schema(id: String): Schema = schemas.getOrPut(id) {
+        parseSchema(id, nodes[id] ?: throw GradleException("Schema '$id' does not exist"))
+    }
+
+    private fun referencedIds(type: PropertyType): List<String> = when (type) {
+        is PropertyType.ObjectRef -> listOf(type.schemaId)
+        is PropertyType.ArrayOf -> referencedIds(type.items)
+        else -> emptyList()
+    }
+
+    /** Properties of a schema in the order Gson writes them: its own properties, then the inherited properties */
+    private fun allProperties(schema: Schema): List<Property> {
+        val properties = schema.properties + (schema.superId?.let { allProperties(schema(it)) } ?: emptyList())
+        properties.groupBy { it.name }.filterValues { it.size > 1 }.keys.firstOrNull()?.let {
+            throw GradleException("Schema '${schema.id}' declares property '$it' already declared by a schema it extends")
+        }
+        return properties
+    }
+
+    /** All schemas extending a schema, directly or indirectly, where the most derived schemas come first */
+    private fun allSubtypes(schema: Schema): List<Schema> {
+        fun collect(id: String): List<Schema> = directSubtypeIds[id].orEmpty().flatMap { listOf(schema(it)) + collect(it) }
+        return collect(schema.id).sortedWith(compareByDescending<Schema> { depth(it) }.thenBy { it.className })
+    }
+
+    private fun depth(schema: Schema): Int = schema.superId?.let { depth(schema(it)) + 1 } ?: 0
+
+    /** The `type` enum property used for reading the class given by the type, if any */
+    private fun discriminator(schema: Schema): PropertyType.EnumType? =
+        allProperties(schema).firstOrNull { it.name == "type" }?.type as? PropertyType.EnumType
+
+    private fun loadNodes(schemaDir: File): Map<String, Map<*, *>> {
+        val files = schemaDir.listFiles { file -> file.name.endsWith(SCHEMA_FILE_EXTENSION) }
+            ?: throw GradleException("Schema directory '${schemaDir.absolutePath}' cannot be read")
+        return files.sortedBy { it.name }.associate { file ->
+            val node = file.reader().use { Yaml().load<Any?>(it) } as? Map<*, *>
+                ?: throw GradleException("Schema '${file.name}' is not a YAML object")
+            file.name.removeSuffix(SCHEMA_FILE_EXTENSION) to node
+        }
+    }
+
+    private fun superId(id: String, node: Map<*, *>): String? =
+        (node["extends"] as? Map<*, *>)?.let { refId(id, it["\$ref"]) }
+
+    private fun parseSchema(id: String, node: Map<*, *>): Schema {
+        val className = className(id)
+        val properties = (node["properties"] as? Map<*, *>).orEmpty().map { (name, propertyNode) ->
+            val propertyName = name.toString()
+            if (!JAVA_IDENTIFIER.matches(propertyName) || propertyName in JAVA_KEYWORDS) {
+                throw unsupported(id, propertyName, "the name is not a Java identifier")
+            }
+            Property(propertyName, parseType(id, className, propertyName, propertyNode as? Map<*, *>))
+        }
+        return Schema(id, className, superId(id, node), properties)
+    }
+
+    private fun className(id: String): String = id.split('-').joinToString("") { it.replaceFirstChar(Char::uppercaseChar) }
+
+    private fun parseType(id: String, className: String, name: String, node: Map<*, *>?): PropertyType {
+        if (node == null) throw unsupported(id, name, "the property has no schema")
+        UNSUPPORTED_KEYWORDS.firstOrNull { it in node }?.let { throw unsupported(id, name, "'$it' is not supported") }
+
+        node["\$ref"]?.let { ref ->
+            val refId = refId(id, ref)
+            val refNode = nodes[refId] ?: throw unsupported(id, name, "the referenced schema '$ref' does not exist")
+            val isObject = refNode["type"] == "object" || "properties" in refNode || "extends" in refNode
+            return if (isObject) PropertyType.ObjectRef(refId) else parseType(id, className, name, refNode)
+        }
+        (node["enum"] as? List<*>)?.let { values ->
+            if (node["type"] != null && node["type"] != "string") throw unsupported(id, name, "only string enums are supported")
+            return PropertyType.EnumType(className, name.replaceFirstChar(Char::uppercaseChar), values.map { it.toString() })
+        }
+        return when (node["type"]) {
+            "integer" -> PropertyType.Scalar.INTEGER
+            "number" -> PropertyType.Scalar.NUMBER
+            "boolean" -> PropertyType.Scalar.BOOLEAN
+            "string" -> PropertyType.Scalar.STRING
+            "array" -> when (val items = parseType(id, className, name, node["items"] as? Map<*, *>)) {
+                is PropertyType.ArrayOf -> throw unsupported(id, name, "arrays of arrays are not supported")
+                else -> PropertyType.ArrayOf(items)
+            }
+            else -> throw unsupported(id, name, "type '${node["type"]}' is not supported")
+        }
+    }
+
+    private fun refId(id: String, ref: Any?): String =
+        ref?.toString()?.substringAfterLast('/')?.removeSuffix(SCHEMA_FILE_EXTENSION)
+            ?: throw GradleException("Schema '$id' has a \$ref without a value")
+
+    private fun unsupported(id: String, property: String, reason: String) =
+        GradleException("Cannot generate a type adapter for property '$property' of schema '$id': $reason")
+
+    private class Schema(val id: String, val className: String, val superId: String?, val properties: List<Property>)
+
+    private class Property(val name: String, val type: PropertyType) {
+        val accessorSuffix get() = name.replaceFirstChar(Char::uppercaseChar)
+    }
+
+    private sealed interface PropertyType {
+        enum class Scalar(val javaType: String) : PropertyType {
+            INTEGER("Integer"), NUMBER("Double"), BOOLEAN("Boolean"), STRING("String")
+        }
+
+        data class EnumType(val ownerClassName: String, val enumName: String, val values: List<String>) : PropertyType {
+            val javaType get() = "$ownerClassName.$enumName"
+            val helperSuffix get() = "$ownerClassName$enumName"
+        }
+
+        data class ObjectRef(val schemaId: String) : PropertyType
+
+        data class ArrayOf(val items: PropertyType) : PropertyType
+    }
+
+    /** Java source writer of the class with the type adapters */
+    private inner class JavaWriter(
+        private val packageName: String,
+        private val className: String,
+        private val covered: List<Schema>,
+    ) {
+        private val out = StringBuilder()
+
+        private val enums: List<PropertyType.EnumType> =
+            covered.flatMap { allProperties(it) }.mapNotNull { it.type as? PropertyType.EnumType }.distinct()
+                .sortedBy { it.helperSuffix }
+
+        fun write(): String {
+            writeHeader()
+            writeFactory()
+            enums.forEach(::writeEnumHelpers)
+            covered.forEach(::writeSchemaAdapter)
+            uncoveredTypedSupertypes().forEach { (schema, discriminator) ->
+                val subtypes = covered.filter { subtype ->
+                    generateSequence(subtype.superId) { id -> schema(id).superId }.any { it == schema.id }
+                }
+                writeTypedRead(schema, subtypes, discriminator)
+            }
+            writeHelpers()
+            line("}")
+            return out.toString()
+        }
+
+        private fun writeHeader() {
+            line("package $packageName;")
+            line()
+            listOf(
+                "com.google.gson.Gson",
+                "com.google.gson.JsonElement",
+                "com.google.gson.JsonParseException",
+                "com.google.gson.JsonParser",
+                "com.google.gson.JsonSyntaxException",
+                "com.google.gson.TypeAdapter",
+                "com.google.gson.TypeAdapterFactory",
+                "com.google.gson.reflect.TypeToken",
+                "com.google.gson.stream.JsonReader",
+                "com.google.gson.stream.JsonToken",
+                "com.google.gson.stream.JsonWriter",
+            ).forEach { line("import $it;") }
+            line()
+            listOf(
+                "java.io.IOException", "java.util.ArrayList", "java.util.Arrays", "java.util.HashMap", "java.util.List",
+                "java.util.Map",
+            )
+                .forEach { line("import $it;") }
+            line()
+            line("/**")
+            line(" * Streaming type adapters of the schema classes, which are generated from the schemas by the build.")
+            line(" * The fields are written in the same order as Gson writes the schema classes with reflection.")
+            line(" * <p>")
+            line(" * Generated by ${SchemaCodecGenerator::class.simpleName}. Do not edit.")
+            line(" */")
+            line("public final class $className {")
+            line()
+            line("    private $className() {")
+            line("    }")
+            line()
+        }
+
+        private fun writeFactory() {
+            line("    /** Factory of the type adapters, which can be registered with a GsonBuilder */")
+            line("    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {")
+            line("        @Override")
+            line("        @SuppressWarnings(\"unchecked\")")
+            line("        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {")
+            line("            return (TypeAdapter<T>) ADAPTERS.get(type.getRawType());")
+            line("        }")
+            line("    };")
+            line()
+            line("    private static final Map<Class<?>, TypeAdapter<?>> ADAPTERS = new HashMap<>();")
+            line()
+            line("    static {")
+            covered.forEach {
+                line("        ADAPTERS.put(${it.className}.class, adapter($className::write${it.className}, $className::read${it.className}));")
+            }
+            line("    }")
+            line()
+        }
+
+        private fun writeEnumHelpers(enum: PropertyType.EnumType) {
+            val values = "${constantName(enum.helperSuffix)}_VALUES"
+            line("    private static final Map<String, ${enum.javaType}> $values = new HashMap<>();")
+            line()
+            line("    static {")
+            line("        for (${enum.javaType} value : ${enum.javaType}.values()) {")
+            line("            $values.put(value.value(), value);")
+            line("        }")
+            line("    }")
+            line()
+            line("    private static void write${enum.helperSuffix}(JsonWriter out, ${enum.javaType} value) throws IOException {")
+            line("        out.value(value == null ? null : value.value());")
+            line("    }")
+            line()
+            line("    private static ${enum.javaType} read${enum.helperSuffix}(JsonReader in) throws IOException {")
+            line("        String value = readString(in);")
+            line("        return value == null ? null : $values.get(value);")
+            line("    }")
+            line()
+        }
+
+        /**
+         * Schemas with a type enum property that are not covered themselves, but extended by covered schemas, e.g. the
+         * message schema when only the messages received are covered. These are given a reader of the covered schemas
+         * extending them, but no writer and no type adapter.
+         */
+        private fun uncoveredTypedSupertypes(): List<Pair<Schema, PropertyType.EnumType>> {
+            val coveredIds = covered.mapTo(HashSet()) { it.id }
+            return covered.asSequence()
+                .flatMap { generateSequence(it.superId) { id -> schema(id).superId } }
+                .filter { it !in coveredIds }
+                .distinct()
+                .sorted()
+                .mapNotNull { id -> schema(id).let { schema -> discriminator(schema)?.let { schema to it } } }
+                .toList()
+        }
+
+        private fun writeSchemaAdapter(schema: Schema) {
+            val name = schema.className
+            val subtypes = allSubtypes(schema)
+
+            line("    public static void write$name(JsonWriter out, $name value) throws IOException {")
+            line("        if (value == null) {")
+            line("            out.nullValue();")
+            line("            return;")
+            line("        }")
+            subtypes.forEach { subtype ->
+                val writeSubtype = "write${subtype.className}${if (allSubtypes(subtype).isEmpty()) "" else "Object"}"
+                line("        if (value instanceof ${subtype.className}) {")
+                line("            $writeSubtype(out, (${subtype.className}) value);")
+                line("            return;")
+                line("        }")
+            }
+            if (subtypes.isNotEmpty()) {
+                line("        write${name}Object(out, value);")
+                line("    }")
+                line()
+                line("    private static void write${name}Object(JsonWriter out, $name value) throws IOException {")
+            }
+            line("        out.beginObject();")
+            allProperties(schema).forEach { property ->
+                line("        out.name(\"${property.name}\");")
+                line("        ${writeExpression(property.type, "value.get${property.accessorSuffix}()")};")
+            }
+            line("        out.endObject();")
+            line("    }")
+            line()
+
+            val discriminator = discriminator(schema)
+            if (subtypes.isNotEmpty() && discriminator != null) {
+                writeTypedRead(schema, subtypes, discriminator)
+                return
+            }
+            // Without a type, the object is read as the declared class
+            line("    public static $name read$name(JsonReader in) throws IOException {")
+            line("        if (in.peek() == JsonToken.NULL) {")
+            line("            in.nextNull();")
+            line("            return null;")
+            line("        }")
+            line("        $name value = new $name();")
+            line("        in.beginObject();")
+            line("        while (in.hasNext()) {")
+            line("            switch (in.nextName()) {")
+            allProperties(schema).forEach { property ->
+                line("                case \"${property.name}\":")
+                line("                    value.set${property.accessorSuffix}(${readExpression(property.type)});")
+                line("                    break;")
+            }
+            line("                default:")
+            line("                    in.skipValue();")
+            line("            }")
+            line("        }")
+            line("        in.endObject();")
+            line("        return value;")
+            line("    }")
+            line()
+        }
+
+        /**
+         * Writes the reader of a schema with a type enum property, which reads the object as the class of its type.
+         * Each field name of the classes is given a slot, so the field can be read before the type is known. A field
+         * declared with different types by the classes is read with the type of the class once the type is known, and
+         * only if it comes before the type, it is read as a JSON tree.
+         */
+        private fun writeTypedRead(schema: Schema, subtypes: List<Schema>, discriminator: PropertyType.EnumType) {
+            val name = schema.className
+            val targets = (listOf(schema) + subtypes).filter { target ->
+                val isTypeValue = target.className in discriminator.values
+                if (!isTypeValue && target !== schema && allSubtypes(target).isEmpty()) {
+                    throw GradleException(
+                        "Schema '${target.id}' extends '${schema.id}', but '${target.className}' is not a value of " +
+                                "the 'type' enum in ${discriminator.ownerClassName}"
+                    )
+                }
+                isTypeValue
+            }
+            // Schemas extending the schema without properties and without 'type: object' get no class from
+            // jsonschema2pojo, like the stop-game command, and are read as the schema
+            val classless = directSubtypeIds[schema.id].orEmpty()
+                .filter { id -> nodes.getValue(id).let { "properties" !in it && it["type"] != "object" } }
+                .map(::className)
+                .filter { it in discriminator.values }
+            val cases = targets.map { listOf(it.className) to it }.toMutableList()
+            if (classless.isNotEmpty()) {
+                cases.removeAll { it.second === schema }
+                cases += (listOfNotNull(name.takeIf { schema in targets }) + classless) to schema
+            }
+            // Types of each field name, with the classes declaring the field with each type
+            val slots = LinkedHashMap<String, LinkedHashMap<PropertyType, MutableList<String>>>()
+            cases.forEach { (typeNames, target) ->
+                allProperties(target).filter { it.name != "type" }.forEach { property ->
+                    slots.getOrPut(property.name) { LinkedHashMap() }
+                        .getOrPut(property.type) { mutableListOf() } += typeNames
+                }
+            }
+            val slotIndexes = slots.keys.withIndex().associate { (index, slotName) -> slotName to index }
+            val typeValues = "${constantName(discriminator.helperSuffix)}_VALUES"
+
+            line("    @SuppressWarnings(\"unchecked\")")
+            line("    public static $name read$name(JsonReader in) throws IOException {")
+            line("        if (in.peek() == JsonToken.NULL) {")
+            line("            in.nextNull();")
+            line("            return null;")
+            line("        }")
+            line("        // The type is usually the last field, so the fields are read into slots until the type is known")
+            line("        Object[] slots = unsetSlots(${slots.size});")
+            line("        String type = null;")
+            line("        in.beginObject();")
+            line("        while (in.hasNext()) {")
+            line("            switch (in.nextName()) {")
+            line("                case \"type\":")
+            line("                    type = readString(in);")
+            line("                    break;")
+            slots.forEach { (slotName, types) ->
+                val slot = "slots[${slotIndexes[slotName]}]"
+                line("                case \"$slotName\":")
+                if (types.size == 1) {
+                    line("                    $slot = ${readExpression(types.keys.single())};")
+                } else {
+                    types.forEach { (type, classNames) ->
+                        val condition = classNames.joinToString(" || ") { "\"$it\".equals(type)" }
+                        val keyword = if (type == types.keys.first()) "if" else "} else if"
+                        line("                    $keyword ($condition) {")
+                        line("                        $slot = ${readExpression(type)};")
+                    }
+                    line("                    } else if (type != null) {")
+                    line("                        in.skipValue();")
+                    line("                    } else {")
+                    line("                        $slot = JsonParser.parseReader(in);")
+                    line("                    }")
+                }
+                line("                    break;")
+            }
+            line("                default:")
+            line("                    in.skipValue();")
+            line("            }")
+            line("        }")
+            line("        in.endObject();")
+            line("        if (type == null) {")
+            line("            throw new JsonParseException(\"Cannot read $name without a type\");")
+            line("        }")
+            line("        switch (type) {")
+            cases.forEach { (typeNames, target) ->
+                typeNames.dropLast(1).forEach { line("            case \"$it\":") }
+                line("            case \"${typeNames.last()}\": {")
+                line("                ${target.className} value = new ${target.className}();")
+                allProperties(target).forEach { property ->
+                    if (property.name == "type") {
+                        line("                value.setType($typeValues.get(type));")
+                        return@forEach
+                    }
+                    val slot = "slots[${slotIndexes[property.name]}]"
+                    val setter = "value.set${property.accessorSuffix}"
+                    if (slots.getValue(property.name).size > 1) {
+                        line("                if ($slot instanceof JsonElement) {")
+                        line("                    $setter(readTree((JsonElement) $slot, tree -> ${readExpression(property.type, "tree")}));")
+                        line("                } else if ($slot != UNSET) {")
+                    } else {
+                        line("                if ($slot != UNSET) {")
+                    }
+                    line("                    $setter((${javaType(property.type)}) $slot);")
+                    line("                }")
+                }
+                line("                return value;")
+                line("            }")
+            }
+            line("            default:")
+            line("                throw new JsonParseException(\"Cannot read $name with unknown type: \" + type);")
+            line("        }")
+            line("    }")
+            line()
+        }
+
+        private fun javaType(type: PropertyType): String = when (type) {
+            is PropertyType.Scalar -> type.javaType
+            is PropertyType.EnumType -> type.javaType
+            is PropertyType.ObjectRef -> schema(type.schemaId).className
+            is PropertyType.ArrayOf -> "List<${javaType(type.items)}>"
+        }
+
+        private fun writeExpression(type: PropertyType, value: String): String = when (type) {
+            is PropertyType.ArrayOf -> "writeList(out, $value, $className::${writerName(type.items)})"
+            else -> "${writerName(type)}(out, $value)"
+        }
+
+        private fun readExpression(type: PropertyType, reader: String = "in"): String = when (type) {
+            is PropertyType.ArrayOf -> "readList($reader, $className::${readerName(type.items)})"
+            else -> "${readerName(type)}($reader)"
+        }
+
+        private fun writerName(type: PropertyType): String = "write${helperSuffix(type)}"
+
+        private fun readerName(type: PropertyType): String = "read${helperSuffix(type)}"
+
+        private fun helperSuffix(type: PropertyType): String = when (type) {
+            is PropertyType.Scalar -> type.javaType
+            is PropertyType.EnumType -> type.helperSuffix
+            is PropertyType.ObjectRef -> schema(type.schemaId).className
+            is PropertyType.ArrayOf -> throw IllegalStateException("Arrays have no helpers")
+        }
+
+        private fun writeHelpers() {
+            line(
+                """
+                |    private interface ValueWriter<T> {
+                |        void write(JsonWriter out, T value) throws IOException;
+                |    }
+                |
+                |    private interface ValueReader<T> {
+                |        T read(JsonReader in) throws IOException;
+                |    }
+                |
+                |    private static <T> TypeAdapter<T> adapter(ValueWriter<T> writer, ValueReader<T> reader) {
+                |        return new TypeAdapter<T>() {
+                |            @Override
+                |            public void write(JsonWriter out, T value) throws IOException {
+                |                writer.write(out, value);
+                |            }
+                |
+                |            @Override
+                |            public T read(JsonReader in) throws IOException {
+                |                return reader.read(in);
+                |            }
+                |        };
+                |    }
+                |
+                |    private static <T> T readTree(JsonElement tree, ValueReader<T> reader) {
+                |        return adapter(null, reader).fromJsonTree(tree);
+                |    }
+                |
+                |    /** Value of a slot not read, where the field is left at its default value */
+                |    private static final Object UNSET = new Object();
+                |
+                |    private static Object[] unsetSlots(int count) {
+                |        Object[] slots = new Object[count];
+                |        Arrays.fill(slots, UNSET);
+                |        return slots;
+                |    }
+                |
+                |    private static <T> void writeList(JsonWriter out, List<T> list, ValueWriter<T> writer) throws IOException {
+                |        if (list == null) {
+                |            out.nullValue();
+                |            return;
+                |        }
+                |        out.beginArray();
+                |        for (T element : list) {
+                |            writer.write(out, element);
+                |        }
+                |        out.endArray();
+                |    }
+                |
+                |    private static <T> List<T> readList(JsonReader in, ValueReader<T> reader) throws IOException {
+                |        if (in.peek() == JsonToken.NULL) {
+                |            in.nextNull();
+                |            return null;
+                |        }
+                |        List<T> list = new ArrayList<>();
+                |        in.beginArray();
+                |        while (in.hasNext()) {
+                |            list.add(reader.read(in));
+                |        }
+                |        in.endArray();
+                |        return list;
+                |    }
+                |
+                |    private static void writeInteger(JsonWriter out, Integer value) throws IOException {
+                |        out.value(value);
+                |    }
+                |
+                |    private static void writeDouble(JsonWriter out, Double value) throws IOException {
+                |        out.value(value);
+                |    }
+                |
+                |    private static void writeBoolean(JsonWriter out, Boolean value) throws IOException {
+                |        out.value(value);
+                |    }
+                |
+                |    private static void writeString(JsonWriter out, String value) throws IOException {
+                |        out.value(value);
+                |    }
+                |
+                |    // The readers of the values accept the same JSON as the Gson type adapters of the value types
+                |
+                |    private static Integer readInteger(JsonReader in) throws IOException {
+                |        if (in.peek() == JsonToken.NULL) {
+                |            in.nextNull();
+                |            return null;
+                |        }
+                |        try {
+                |            return in.nextInt();
+                |        } catch (NumberFormatException e) {
+                |            throw new JsonSyntaxException(e);
+                |        }
+                |    }
+                |
+                |    private static Double readDouble(JsonReader in) throws IOException {
+                |        if (in.peek() == JsonToken.NULL) {
+                |            in.nextNull();
+                |            return null;
+                |        }
+                |        try {
+                |            return in.nextDouble();
+                |        } catch (NumberFormatException e) {
+                |            throw new JsonSyntaxException(e);
+                |        }
+                |    }
+                |
+                |    private static Boolean readBoolean(JsonReader in) throws IOException {
+                |        JsonToken token = in.peek();
+                |        if (token == JsonToken.NULL) {
+                |            in.nextNull();
+                |            return null;
+                |        }
+                |        return token == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+                |    }
+                |
+                |    private static String readString(JsonReader in) throws IOException {
+                |        JsonToken token = in.peek();
+                |        if (token == JsonToken.NULL) {
+                |            in.nextNull();
+                |            return null;
+                |        }
+                |        return token == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+                |    }
+                """.trimMargin()
+            )
+        }
+
+        private fun constantName(name: String) = name.replace(Regex("([a-z0-9])([A-Z])"), "$1_$2").uppercase()
+
+        private fun line(text: String = "") {
+            out.append(text).append('\n')
+        }
+    }
+
+    private companion object {
+        const val SCHEMA_FILE_EXTENSION = ".schema.yaml"
+
+        /** Keywords making jsonschema2pojo generate Java types or names the adapters do not support */
+        val UNSUPPORTED_KEYWORDS = listOf(
+            "javaType", "existingJavaType", "javaName", "format", "uniqueItems", "properties", "additionalProperties",
+            "patternProperties", "oneOf", "anyOf", "allOf", "extends",
+        )
+
+        val JAVA_IDENTIFIER = Regex("[A-Za-z_$][A-Za-z0-9_$]*")
+
+        val JAVA_KEYWORDS = setOf(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null",
+        )
+    }
+}
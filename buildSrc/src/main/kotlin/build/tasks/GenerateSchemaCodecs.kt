@@ -0,0 +1,59 @@
+package build.tasks
+
+import build.schema.SchemaCodecGenerator
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+
+/**
+ * Generates the streaming Gson type adapters of the schema classes from the YAML schemas with [SchemaCodecGenerator].
+ */
+@CacheableTask
+abstract class GenerateSchemaCodecs : DefaultTask() {
+
+    /** Directory containing the `*.schema.yaml` files */
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val schemaDir: DirectoryProperty
+
+    /** Package of the schema classes, which the type adapters are generated into */
+    @get:Input
+    abstract val packageName: Property<String>
+
+    /** Name of the generated class */
+    @get:Input
+    abstract val className: Property<String>
+
+    /** Ids of the schemas to generate type adapters for, e.g. `tick-event-for-bot` */
+    @get:Input
+    abstract val rootSchemas: ListProperty<String>
+
+    /** Directory the Java source is generated into */
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    init {
+        className.convention("SchemaTypeAdapters")
+    }
+
+    @TaskAction
+    fun generate() {
+        val source = SchemaCodecGenerator(schemaDir.get().asFile)
+            .generate(packageName.get(), className.get(), rootSchemas.get())
+
+        val dir = outputDir.get().asFile
+        dir.deleteRecursively()
+        dir.resolve(packageName.get().replace('.', '/')).resolve("${className.get()}.java").apply {
+            parentFile.mkdirs()
+            writeText(source)
+        }
+    }
+}
@@ -18,12 +18,20 @@ plugins {
 dependencies {
     api(project(":lib:common"))
     implementation(libs.kotlinx.serialization.json)
+    implementation(libs.java.websocket)
 
     testImplementation(platform(testLibs.junit.bom))
     testImplementation(testLibs.kotest.junit6)
     testImplementation(testLibs.bundles.junit)
 }
 
+sourceSets {
+    test {
+        // Golden fixtures of the binary wire format shared by the server, Bot API and client library
+        resources.srcDir(layout.projectDirectory.dir("../../schema/fixtures"))
+    }
+}
+
 tasks {
     test {
         useJUnitPlatform()
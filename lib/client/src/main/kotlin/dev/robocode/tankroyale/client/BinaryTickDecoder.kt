@@ -0,0 +1,189 @@
+package dev.robocode.tankroyale.client
+
+import dev.robocode.tankroyale.client.model.*
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+
+/**
+ * Decoder for tick events for observers sent in binary WebSocket frames with the `binary-v1` wire format, which an
+ * observer selects with the `wireFormat` of its handshake when the server advertises it in [Features.wireFormats].
+ *
+ * The layout is the one written by the `BinaryTickCodec` of the server. Events without a model class in this library,
+ * like team message events, are skipped, and a bot state flag that is `null` is read as `false` like the defaults of
+ * [BotState]. Counts and string lengths are checked against the bytes left before anything is allocated for them.
+ */
+object BinaryTickDecoder {
+
+    /** Name of the wire format in the handshakes */
+    const val WIRE_FORMAT = "binary-v1"
+
+    private const val MAGIC: Byte = 'T'.code.toByte()
+    private const val VERSION: Byte = 1
+
+    private const val KIND_TICK_FOR_OBSERVER: Byte = 2
+
+    private const val FLAG_IS_DROID = 1
+    private const val FLAG_IS_DEBUGGING_ENABLED = 2
+
+    private const val BOT_DEATH: Byte = 1
+    private const val BOT_HIT_BOT: Byte = 2
+    private const val BOT_HIT_WALL: Byte = 3
+    private const val BULLET_FIRED: Byte = 4
+    private const val BULLET_HIT_BOT: Byte = 5
+    private const val BULLET_HIT_BULLET: Byte = 6
+    private const val BULLET_HIT_WALL: Byte = 7
+    private const val HIT_BY_BULLET: Byte = 8
+    private const val SCANNED_BOT: Byte = 9
+    private const val SKIPPED_TURN: Byte = 10
+    private const val TEAM_MESSAGE: Byte = 11
+    private const val WON_ROUND: Byte = 12
+
+    /**
+     * Decodes a tick event for observers.
+     * @param bytes is the encoded tick event.
+     * @return the decoded tick event.
+     * @throws IllegalArgumentException if the bytes are not a tick event for observers in this wire format.
+     */
+    fun decode(bytes: ByteBuffer): TickEvent {
+        val buffer = bytes.duplicate()
+        try {
+            require(buffer.get() == MAGIC && buffer.get() == VERSION) { "Not a binary-v1 tick event" }
+            val kind = buffer.get()
+            require(kind == KIND_TICK_FOR_OBSERVER) { "Not a tick event for observers: $kind" }
+
+            val roundNumber = buffer.getInt()
+            val turnNumber = buffer.getInt()
+            val botStates = List(readCount(buffer)) { readBotState(buffer) }
+            val bulletStates = List(readCount(buffer)) { readBulletState(buffer) }
+            val events = List(readCount(buffer)) { readEvent(buffer) }.filterNotNull()
+
+            return TickEvent(turnNumber, roundNumber, botStates.toSet(), bulletStates.toSet(), events.toSet())
+        } catch (exception: BufferUnderflowException) {
+            throw IllegalArgumentException("Truncated binary-v1 tick event", exception)
+        }
+    }
+
+    // The arguments are read in the order of the layout, which is also the order they are evaluated in
+    private fun readBotState(buffer: ByteBuffer): BotState {
+        val id = buffer.getInt()
+        val sessionId = requireNotNull(readString(buffer)) { "Bot state without session id" }
+        val name = readString(buffer)
+        val version = readString(buffer)
+        val stdOut = readString(buffer)
+        val stdErr = readString(buffer)
+        val debugGraphics = readString(buffer)
+        val flags = buffer.get().toInt()
+
+        return BotState(
+            isDroid = flags and FLAG_IS_DROID != 0,
+            isDebuggingEnabled = flags and FLAG_IS_DEBUGGING_ENABLED != 0,
+            id = id,
+            sessionId = sessionId,
+            name = name,
+            version = version,
+            stdOut = stdOut,
+            stdErr = stdErr,
+            debugGraphics = debugGraphics,
+            energy = buffer.getDouble(),
+            x = buffer.getDouble(),
+            y = buffer.getDouble(),
+            direction = buffer.getDouble(),
+            gunDirection = buffer.getDouble(),
+            radarDirection = buffer.getDouble(),
+            radarSweep = buffer.getDouble(),
+            speed = buffer.getDouble(),
+            turnRate = buffer.getDouble(),
+            gunTurnRate = buffer.getDouble(),
+            radarTurnRate = buffer.getDouble(),
+            gunHeat = buffer.getDouble(),
+            enemyCount = buffer.getInt(),
+            bodyColor = readString(buffer),
+            turretColor = readString(buffer),
+            radarColor = readString(buffer),
+            bulletColor = readString(buffer),
+            scanColor = readString(buffer),
+            tracksColor = readString(buffer),
+            gunColor = readString(buffer),
+        )
+    }
+
+    private fun readBulletState(buffer: ByteBuffer) = BulletState(
+        bulletId = buffer.getInt(),
+        ownerId = buffer.getInt(),
+        power = buffer.getDouble(),
+        x = buffer.getDouble(),
+        y = buffer.getDouble(),
+        direction = buffer.getDouble(),
+        color = readString(buffer),
+    )
+
+    private fun readEvent(buffer: ByteBuffer): Event? {
+        val code = buffer.get()
+        val turnNumber = buffer.getInt()
+
+        return when (code) {
+            BOT_DEATH -> BotDeathEvent(turnNumber, victimId = buffer.getInt())
+            BOT_HIT_BOT -> BotHitBotEvent(
+                turnNumber,
+                victimId = buffer.getInt(),
+                botId = buffer.getInt(),
+                energy = buffer.getDouble(),
+                x = buffer.getDouble(),
+                y = buffer.getDouble(),
+                rammed = buffer.get() != 0.toByte(),
+            )
+            BOT_HIT_WALL -> BotHitWallEvent(turnNumber, victimId = buffer.getInt())
+            BULLET_FIRED -> BulletFiredEvent(turnNumber, bullet = readBulletState(buffer))
+            BULLET_HIT_BOT -> BulletHitBotEvent(
+                turnNumber,
+                victimId = buffer.getInt(),
+                bullet = readBulletState(buffer),
+                damage = buffer.getDouble(),
+                energy = buffer.getDouble(),
+            )
+            BULLET_HIT_BULLET -> BulletHitBulletEvent(
+                turnNumber, bullet = readBulletState(buffer), hitBullet = readBulletState(buffer)
+            )
+            BULLET_HIT_WALL -> BulletHitWallEvent(turnNumber, bullet = readBulletState(buffer))
+            SCANNED_BOT -> ScannedBotEvent(
+                turnNumber,
+                scannedByBotId = buffer.getInt(),
+                scannedBotId = buffer.getInt(),
+                energy = buffer.getDouble(),
+                x = buffer.getDouble(),
+                y = buffer.getDouble(),
+                direction = buffer.getDouble(),
+                speed = buffer.getDouble(),
+            )
+            HIT_BY_BULLET -> {
+                readBulletState(buffer)
+                buffer.position(buffer.position() + 2 * Double.SIZE_BYTES) // damage, energy
+                null
+            }
+            TEAM_MESSAGE -> {
+                readString(buffer) // message
+                readString(buffer) // messageType
+                buffer.getInt() // senderId
+                null
+            }
+            SKIPPED_TURN, WON_ROUND -> null
+            else -> throw IllegalArgumentException("Unknown event code: $code")
+        }
+    }
+
+    /** Reads a count of items, each taking at least one of the bytes left */
+    private fun readCount(buffer: ByteBuffer): Int {
+        val count = buffer.getInt()
+        require(count in 0..buffer.remaining()) { "Invalid count in binary-v1 tick event: $count" }
+        return count
+    }
+
+    private fun readString(buffer: ByteBuffer): String? {
+        val length = buffer.getInt()
+        if (length < 0) return null
+        require(length <= buffer.remaining()) { "String length exceeds binary-v1 tick event: $length" }
+        val bytes = ByteArray(length)
+        buffer.get(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+}
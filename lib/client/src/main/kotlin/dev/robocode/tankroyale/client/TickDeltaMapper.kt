@@ -0,0 +1,141 @@
+package dev.robocode.tankroyale.client
+
+import dev.robocode.tankroyale.client.model.*
+
+/**
+ * Rebuilds the full tick events for observers from the delta ticks, which an observer receives when selecting
+ * [ObserverHandshake.deltaTicks] and the server supports [Features.deltaTicks].
+ *
+ * The observer keeps the last full tick, which is either the last [TickEvent] received (keyframe) or the last tick
+ * returned by [reconstruct], and applies the next [TickDeltaEvent] to it. This is the counterpart of the
+ * `TickDeltaMapper` of the server.
+ */
+object TickDeltaMapper {
+
+    /**
+     * Applies a delta tick to the tick before it.
+     * @param previous is the previous tick, which is either a keyframe or the result of applying the previous delta.
+     * @param delta is the delta tick.
+     * @return the full tick for the turn of the delta tick.
+     */
+    fun reconstruct(previous: TickEvent, delta: TickDeltaEvent): TickEvent {
+        val botDeltas = delta.botStates.associateBy { it.id }
+        val removedBotIds = delta.removedBotIds.toHashSet()
+
+        val bulletDeltas = delta.bulletStates.associateBy { it.bulletId }
+        val removedBulletIds = delta.removedBulletIds.toHashSet()
+
+        // Bots and bullets kept from the previous tick come first, followed by the added ones
+        val botStates = LinkedHashSet<BotState>()
+        previous.botStates.filter { it.id !in removedBotIds }.mapTo(botStates) { botState ->
+            botDeltas[botState.id]?.let { applyChanges(botState, it) }
+                ?: botState.copy(stdOut = null, stdErr = null, debugGraphics = null) // per-turn fields
+        }
+        val previousBotIds = previous.botStates.mapTo(HashSet()) { it.id }
+        delta.botStates.filter { it.id !in previousBotIds }.mapTo(botStates) { toBotState(it) }
+
+        val bulletStates = LinkedHashSet<BulletState>()
+        previous.bulletStates.filter { it.bulletId !in removedBulletIds }.mapTo(bulletStates) { bulletState ->
+            bulletDeltas[bulletState.bulletId]?.let { applyChanges(bulletState, it) } ?: bulletState
+        }
+        val previousBulletIds = previous.bulletStates.mapTo(HashSet()) { it.bulletId }
+        delta.bulletStates.filter { it.bulletId !in previousBulletIds }.mapTo(bulletStates) { toBulletState(it) }
+
+        return TickEvent(delta.turnNumber, delta.roundNumber, botStates, bulletStates, delta.events)
+    }
+
+    private fun applyChanges(botState: BotState, delta: BotStateDelta): BotState {
+        val clearedFields = delta.clearedFields.toHashSet()
+
+        // Optional fields are only absent from the delta when unchanged, unless listed as cleared
+        fun <T> change(name: String, value: T?, previous: T?): T? =
+            value ?: if (name in clearedFields) null else previous
+
+        return botState.copy(
+            isDroid = delta.isDroid ?: botState.isDroid,
+            sessionId = delta.sessionId ?: botState.sessionId,
+            name = change("name", delta.name, botState.name),
+            version = change("version", delta.version, botState.version),
+            energy = delta.energy ?: botState.energy,
+            x = delta.x ?: botState.x,
+            y = delta.y ?: botState.y,
+            direction = delta.direction ?: botState.direction,
+            gunDirection = delta.gunDirection ?: botState.gunDirection,
+            radarDirection = delta.radarDirection ?: botState.radarDirection,
+            radarSweep = delta.radarSweep ?: botState.radarSweep,
+            speed = delta.speed ?: botState.speed,
+            turnRate = delta.turnRate ?: botState.turnRate,
+            gunTurnRate = delta.gunTurnRate ?: botState.gunTurnRate,
+            radarTurnRate = delta.radarTurnRate ?: botState.radarTurnRate,
+            gunHeat = delta.gunHeat ?: botState.gunHeat,
+            enemyCount = delta.enemyCount ?: botState.enemyCount,
+            bodyColor = change("bodyColor", delta.bodyColor, botState.bodyColor),
+            turretColor = change("turretColor", delta.turretColor, botState.turretColor),
+            radarColor = change("radarColor", delta.radarColor, botState.radarColor),
+            bulletColor = change("bulletColor", delta.bulletColor, botState.bulletColor),
+            scanColor = change("scanColor", delta.scanColor, botState.scanColor),
+            tracksColor = change("tracksColor", delta.tracksColor, botState.tracksColor),
+            gunColor = change("gunColor", delta.gunColor, botState.gunColor),
+            stdOut = delta.stdOut,
+            stdErr = delta.stdErr,
+            isDebuggingEnabled = delta.isDebuggingEnabled ?: botState.isDebuggingEnabled,
+            debugGraphics = delta.debugGraphics,
+        )
+    }
+
+    private fun applyChanges(bulletState: BulletState, delta: BulletStateDelta) = bulletState.copy(
+        ownerId = delta.ownerId ?: bulletState.ownerId,
+        power = delta.power ?: bulletState.power,
+        x = delta.x ?: bulletState.x,
+        y = delta.y ?: bulletState.y,
+        direction = delta.direction ?: bulletState.direction,
+        color = delta.color ?: bulletState.color,
+    )
+
+    // An added bot has all the fields of its state
+    private fun toBotState(delta: BotStateDelta) = BotState(
+        isDroid = delta.isDroid == true,
+        id = delta.id,
+        sessionId = required(delta.sessionId, "sessionId", delta.id),
+        name = delta.name,
+        version = delta.version,
+        energy = required(delta.energy, "energy", delta.id),
+        x = required(delta.x, "x", delta.id),
+        y = required(delta.y, "y", delta.id),
+        direction = required(delta.direction, "direction", delta.id),
+        gunDirection = required(delta.gunDirection, "gunDirection", delta.id),
+        radarDirection = required(delta.radarDirection, "radarDirection", delta.id),
+        radarSweep = required(delta.radarSweep, "radarSweep", delta.id),
+        speed = required(delta.speed, "speed", delta.id),
+        turnRate = required(delta.turnRate, "turnRate", delta.id),
+        gunTurnRate = required(delta.gunTurnRate, "gunTurnRate", delta.id),
+        radarTurnRate = required(delta.radarTurnRate, "radarTurnRate", delta.id),
+        gunHeat = required(delta.gunHeat, "gunHeat", delta.id),
+        enemyCount = required(delta.enemyCount, "enemyCount", delta.id),
+        bodyColor = delta.bodyColor,
+        turretColor = delta.turretColor,
+        radarColor = delta.radarColor,
+        bulletColor = delta.bulletColor,
+        scanColor = delta.scanColor,
+        tracksColor = delta.tracksColor,
+        gunColor = delta.gunColor,
+        stdOut = delta.stdOut,
+        stdErr = delta.stdErr,
+        isDebuggingEnabled = delta.isDebuggingEnabled == true,
+        debugGraphics = delta.debugGraphics,
+    )
+
+    // An added bullet has all the fields of its state
+    private fun toBulletState(delta: BulletStateDelta) = BulletState(
+        bulletId = delta.bulletId,
+        ownerId = required(delta.ownerId, "ownerId", delta.bulletId),
+        power = required(delta.power, "power", delta.bulletId),
+        x = required(delta.x, "x", delta.bulletId),
+        y = required(delta.y, "y", delta.bulletId),
+        direction = required(delta.direction, "direction", delta.bulletId),
+        color = delta.color,
+    )
+
+    private fun <T : Any> required(value: T?, name: String, id: Int): T =
+        requireNotNull(value) { "Added state with id $id has no $name" }
+}
@@ -3,16 +3,26 @@ package dev.robocode.tankroyale.client
 import dev.robocode.tankroyale.client.model.Message
 import dev.robocode.tankroyale.client.model.MessageConstants
 import kotlinx.serialization.PolymorphicSerializer
+import org.java_websocket.drafts.Draft_6455
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension
+import org.java_websocket.handshake.ServerHandshake
 import java.net.URI
-import java.net.http.HttpClient
-import java.net.http.WebSocket
-import java.util.concurrent.CompletionStage
+import java.nio.ByteBuffer
 
-class WebSocketClient(private val uri: URI) {
+/**
+ * WebSocket client for observers and controllers.
+ *
+ * @param uri is the server URI.
+ * @param compression is a flag specifying if the permessage-deflate extension is offered to the server, which
+ * compresses the large tick events sent to observers and controllers when the server policy enables it.
+ */
+class WebSocketClient(private val uri: URI, private val compression: Boolean = true) {
 
     private val json = MessageConstants.json
 
-    private val listener = WebSocketListener()
+    /** Open connection, which is set and cleared on the WebSocket thread and read by the threads sending messages */
+    @Volatile
+    private var websocket: Connection? = null
 
     fun open() {
         connect()
@@ -20,51 +30,58 @@ class WebSocketClient(private val uri: URI) {
 
     private fun connect() {
         try {
-            val httpClient = HttpClient.newBuilder().build()
-            httpClient.newWebSocketBuilder().buildAsync(uri, listener).join()
+            val connection = Connection()
+            if (!connection.connectBlocking()) {
+                throw IllegalStateException("Connection was refused")
+            }
         } catch (ex: Exception) {
             throw RuntimeException("Could not connect to server: $uri", ex)
         }
     }
 
     fun close() {
-        listener.websocket?.abort()
+        websocket?.close()
     }
 
-    fun isOpen() = listener.websocket != null
+    fun isOpen() = websocket != null
 
     fun send(data: Any) {
         val msg = json.encodeToString(PolymorphicSerializer(Message::class), data as Message)
-        listener.websocket?.sendText(msg, true)
+        websocket?.send(msg)
     }
 
-    private inner class WebSocketListener : WebSocket.Listener {
-        var websocket: WebSocket? = null
-        private var payload = StringBuffer()
+    private inner class Connection : org.java_websocket.client.WebSocketClient(
+        uri,
+        if (compression) Draft_6455(PerMessageDeflateExtension()) else Draft_6455()
+    ) {
+        init {
+            isTcpNoDelay = true
+        }
 
-        override fun onOpen(webSocket: WebSocket) {
-            this.websocket = webSocket
+        override fun onOpen(handshake: ServerHandshake) {
+            websocket = this
             WebSocketClientEvents.onOpen(Unit)
-            super.onOpen(webSocket)
         }
 
-        override fun onClose(webSocket: WebSocket?, statusCode: Int, reason: String?): CompletionStage<*>? {
-            this.websocket = null
+        // Failing to connect is reported by open() instead of the events
+        override fun onClose(code: Int, reason: String?, remote: Boolean) {
+            if (websocket !== this) return
+            websocket = null
             WebSocketClientEvents.onClose(Unit)
-            return null
         }
 
-        override fun onError(webSocket: WebSocket?, error: Throwable) {
+        override fun onError(error: Exception) {
+            if (websocket !== this) return
             WebSocketClientEvents.onError(error)
         }
 
-        override fun onText(webSocket: WebSocket, data: CharSequence?, last: Boolean): CompletionStage<*>? {
-            payload.append(data)
-            if (last) {
-                WebSocketClientEvents.onMessage(payload.toString())
-                payload.delete(0, payload.length) // clear payload buffer
-            }
-            return super.onText(webSocket, data, last)
+        override fun onMessage(message: String) {
+            WebSocketClientEvents.onMessage(message)
+        }
+
+        // Only tick events are sent in binary frames, and only when selected with the wire format of the handshake
+        override fun onMessage(bytes: ByteBuffer) {
+            WebSocketClientEvents.onTickEvent(BinaryTickDecoder.decode(bytes))
         }
     }
 }
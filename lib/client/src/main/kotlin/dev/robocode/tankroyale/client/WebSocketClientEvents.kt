@@ -1,10 +1,13 @@
 package dev.robocode.tankroyale.client
 
+import dev.robocode.tankroyale.client.model.TickEvent
 import dev.robocode.tankroyale.common.event.Event
 
 object WebSocketClientEvents {
     val onOpen = Event<Unit>()
     val onClose = Event<Unit>()
     val onMessage = Event<String>()
+    /** Tick events received in the binary wire format, see [BinaryTickDecoder] */
+    val onTickEvent = Event<TickEvent>()
     val onError = Event<Throwable>()
 }
@@ -0,0 +1,38 @@
+package dev.robocode.tankroyale.client.model
+
+import kotlinx.serialization.Serializable
+
+/** Changes to the state of a bot in a [TickDeltaEvent], where only the changed fields have a value */
+@Serializable
+data class BotStateDelta(
+    val isDroid: Boolean? = null,
+    val id: Int,
+    val sessionId: String? = null,
+    val name: String? = null,
+    val version: String? = null,
+    val energy: Double? = null,
+    val x: Double? = null,
+    val y: Double? = null,
+    val direction: Double? = null,
+    val gunDirection: Double? = null,
+    val radarDirection: Double? = null,
+    val radarSweep: Double? = null,
+    val speed: Double? = null,
+    val turnRate: Double? = null,
+    val gunTurnRate: Double? = null,
+    val radarTurnRate: Double? = null,
+    val gunHeat: Double? = null,
+    val enemyCount: Int? = null,
+    val bodyColor: String? = null,
+    val turretColor: String? = null,
+    val radarColor: String? = null,
+    val bulletColor: String? = null,
+    val scanColor: String? = null,
+    val tracksColor: String? = null,
+    val gunColor: String? = null,
+    val stdOut: String? = null,
+    val stdErr: String? = null,
+    val isDebuggingEnabled: Boolean? = null,
+    val debugGraphics: String? = null,
+    val clearedFields: List<String> = emptyList()
+)
@@ -0,0 +1,15 @@
+package dev.robocode.tankroyale.client.model
+
+import kotlinx.serialization.Serializable
+
+/** Changes to the state of a bullet in a [TickDeltaEvent], where only the changed fields have a value */
+@Serializable
+data class BulletStateDelta(
+    val bulletId: Int,
+    val ownerId: Int? = null,
+    val power: Double? = null,
+    val x: Double? = null,
+    val y: Double? = null,
+    val direction: Double? = null,
+    val color: String? = null
+)
@@ -108,12 +108,36 @@ open class TickEvent(
     val events: Set<Event>
 ) : Event()
 
+@Serializable
+@SerialName("TickDeltaEventForObserver")
+data class TickDeltaEvent(
+    val turnNumber: Int,
+    val roundNumber: Int,
+    val botStates: List<BotStateDelta>,
+    val removedBotIds: List<Int> = emptyList(),
+    val bulletStates: List<BulletStateDelta>,
+    val removedBulletIds: List<Int> = emptyList(),
+    val events: Set<Event>
+) : Message()
+
 @Serializable
 @SerialName("BotListUpdate")
 data class BotListUpdate(
     val bots: Set<BotInfo>
 ) : Message()
 
+@Serializable
+@SerialName("BotJoined")
+data class BotJoined(
+    val bot: BotInfo
+) : Message()
+
+@Serializable
+@SerialName("BotLeft")
+data class BotLeft(
+    val bot: BotInfo
+) : Message()
+
 @Serializable
 @SerialName("GameStartedEventForObserver")
 data class GameStartedEvent(
@@ -162,6 +186,14 @@ data class TpsChangedEvent(
     val tps: Int
 ) : Message()
 
+@Serializable
+@SerialName("CheckpointCreatedEvent")
+data class CheckpointCreatedEvent(
+    val roundNumber: Int,
+    val turnNumber: Int,
+    val checkpoint: String
+) : Message()
+
 @Serializable
 @SerialName("ControllerHandshake")
 data class ControllerHandshake(
@@ -169,7 +201,11 @@ data class ControllerHandshake(
     val name: String,
     val version: String,
     val author: String?,
-    val secret: String?
+    val secret: String?,
+    /** Receive BotJoined and BotLeft instead of a BotListUpdate on every change; requires [Features.botListDeltas]. */
+    val botListDeltas: Boolean? = null,
+    /** Game room to join, where null means the default room; requires [Features.gameRooms]. */
+    val roomId: String? = null,
 ) : Message()
 
 @Serializable
@@ -179,7 +215,15 @@ data class ObserverHandshake(
     val name: String,
     val version: String,
     val author: String?,
-    val secret: String?
+    val secret: String?,
+    /** Receive BotJoined and BotLeft instead of a BotListUpdate on every change; requires [Features.botListDeltas]. */
+    val botListDeltas: Boolean? = null,
+    /** Game room to join, where null means the default room; requires [Features.gameRooms]. */
+    val roomId: String? = null,
+    /** Wire format of the tick events, where null means JSON; must be one of [Features.wireFormats]. */
+    val wireFormat: String? = null,
+    /** Receive a TickDeltaEvent instead of a TickEvent between keyframes; requires [Features.deltaTicks]. */
+    val deltaTicks: Boolean? = null,
 ) : Message()
 
 @Serializable
@@ -200,6 +244,11 @@ data class ServerHandshake(
 data class Features(
     val debugMode: Boolean = false,
     val breakpointMode: Boolean = false,
+    val botListDeltas: Boolean = false,
+    val gameRooms: Boolean = false,
+    val checkpoints: Boolean = false,
+    val wireFormats: List<String> = emptyList(),
+    val deltaTicks: Boolean = false,
 )
 
 @Serializable
@@ -207,7 +256,8 @@ data class Features(
 data class StartGame(
     val gameSetup: GameSetup,
     val botAddresses: Set<BotAddress>,
-    val debugMode: Boolean = false
+    val debugMode: Boolean = false,
+    val checkpoint: String? = null
 ) : Message()
 
 @Serializable
@@ -234,6 +284,10 @@ data object EnableDebugMode : Message()
 @SerialName("DisableDebugMode")
 data object DisableDebugMode : Message()
 
+@Serializable
+@SerialName("CreateCheckpoint")
+data object CreateCheckpoint : Message()
+
 @Serializable
 @SerialName("ChangeTps")
 data class ChangeTps(
@@ -255,11 +309,14 @@ val messageModule = SerializersModule {
         subclass(BotHitWallEvent::class)
         subclass(BotHitBotEvent::class)
         subclass(BotListUpdate::class)
+        subclass(BotJoined::class)
+        subclass(BotLeft::class)
         subclass(BulletFiredEvent::class)
         subclass(BulletHitBotEvent::class)
         subclass(BulletHitBulletEvent::class)
         subclass(BulletHitWallEvent::class)
         subclass(ChangeTps::class)
+        subclass(CheckpointCreatedEvent::class)
         subclass(BotPolicyUpdate::class)
         subclass(ControllerHandshake::class)
         subclass(ObserverHandshake::class)
@@ -273,6 +330,7 @@ val messageModule = SerializersModule {
         subclass(NextTurn::class)
         subclass(EnableDebugMode::class)
         subclass(DisableDebugMode::class)
+        subclass(CreateCheckpoint::class)
         subclass(RoundEndedEvent::class)
         subclass(RoundStartedEvent::class)
         subclass(GamePausedEvent::class)
@@ -281,6 +339,7 @@ val messageModule = SerializersModule {
         subclass(StartGame::class)
         subclass(StopGame::class)
         subclass(TickEvent::class)
+        subclass(TickDeltaEvent::class)
         subclass(TpsChangedEvent::class)
     }
 }
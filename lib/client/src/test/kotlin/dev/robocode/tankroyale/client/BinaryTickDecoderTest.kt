@@ -0,0 +1,58 @@
+package dev.robocode.tankroyale.client
+
+import dev.robocode.tankroyale.client.model.*
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import java.nio.ByteBuffer
+
+class BinaryTickDecoderTest : FunSpec({
+
+    /** Reads the golden fixture encoded by the server, which is hex text where whitespace is ignored */
+    fun readFixture(name: String): ByteArray =
+        BinaryTickDecoderTest::class.java.getResource("/binary-v1/$name")!!.readText()
+            .filterNot { it.isWhitespace() }
+            .chunked(2) { it.toString().toInt(16).toByte() }
+            .toByteArray()
+
+    test("Positive: Tick event for observers encoded by the server is decoded") {
+        val tick = BinaryTickDecoder.decode(ByteBuffer.wrap(readFixture("tick-event-for-observer.hex")))
+
+        tick.roundNumber shouldBe 2
+        tick.turnNumber shouldBe 42
+
+        val (bot1, bot2) = tick.botStates.toList()
+        bot1.id shouldBe 1
+        bot1.name shouldBe "Bot é中"
+        bot1.stdOut shouldBe "out"
+        bot1.isDroid shouldBe true
+        bot1.isDebuggingEnabled shouldBe false
+        bot1.energy shouldBe 87.5
+        bot1.gunHeat shouldBe 0.6
+        bot1.enemyCount shouldBe 3
+        bot1.bodyColor shouldBe "#FF0000"
+        bot2.sessionId shouldBe "session-2"
+        bot2.isDroid shouldBe false
+        bot2.bodyColor.shouldBeNull()
+
+        tick.bulletStates.toList() shouldContainExactly listOf(BulletState(7, 1, 2.5, 120.25, 340.5, 90.0))
+
+        // The hit by bullet event has no model class in this library
+        tick.events.toList() shouldContainExactly listOf(
+            BotHitBotEvent(42, victimId = 2, botId = 1, energy = 60.0, x = 10.0, y = 20.0, rammed = true),
+            BulletHitBotEvent(
+                42, victimId = 2, bullet = BulletState(8, 1, 2.5, 120.25, 340.5, 90.0), damage = 4.0, energy = 56.0
+            ),
+        )
+    }
+
+    test("Negative: String lengths beyond the end of the tick event are rejected") {
+        val bytes = readFixture("tick-event-for-observer.hex")
+        // The session id of the first bot state follows the header, the bot state count and the bot id
+        ByteBuffer.wrap(bytes).putInt(3 + 4 * Int.SIZE_BYTES, Int.MAX_VALUE)
+
+        shouldThrow<IllegalArgumentException> { BinaryTickDecoder.decode(ByteBuffer.wrap(bytes)) }
+    }
+})
@@ -0,0 +1,79 @@
+package dev.robocode.tankroyale.client
+
+import dev.robocode.tankroyale.client.model.*
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+
+class TickDeltaMapperTest : FunSpec({
+
+    fun botState(id: Int, energy: Double, bodyColor: String? = null, stdOut: String? = null) = BotState(
+        isDroid = false, id = id, sessionId = "session-$id", name = "Bot $id", version = "1.0",
+        energy = energy, x = 100.0, y = 200.0, direction = 0.0, gunDirection = 90.0, radarDirection = 180.0,
+        radarSweep = 0.0, speed = 8.0, turnRate = 0.0, gunTurnRate = 0.0, radarTurnRate = 0.0, gunHeat = 0.0,
+        enemyCount = 2, bodyColor = bodyColor, stdOut = stdOut,
+    )
+
+    val keyframe = TickEvent(
+        turnNumber = 1,
+        roundNumber = 1,
+        botStates = setOf(botState(1, 100.0, "#FF0000", "Hello"), botState(2, 90.0), botState(3, 80.0)),
+        bulletStates = setOf(BulletState(1, 1, 3.0, 10.0, 20.0, 45.0), BulletState(2, 2, 1.0, 30.0, 40.0, 90.0)),
+        events = emptySet(),
+    )
+
+    test("Positive: Delta tick decoded from JSON is applied to the previous tick") {
+        val delta = MessageConstants.json.decodeFromString<Message>(
+            """
+            {
+              "type": "TickDeltaEventForObserver",
+              "turnNumber": 2,
+              "roundNumber": 1,
+              "botStates": [
+                { "id": 1, "energy": 99.0, "clearedFields": ["bodyColor"] },
+                { "id": 2, "stdOut": "Moving" }
+              ],
+              "removedBotIds": [3],
+              "bulletStates": [
+                { "bulletId": 1, "x": 15.0, "y": 25.0 },
+                { "bulletId": 3, "ownerId": 2, "power": 2.0, "x": 50.0, "y": 60.0, "direction": 180.0 }
+              ],
+              "removedBulletIds": [2],
+              "events": [{ "type": "BotDeathEvent", "turnNumber": 2, "victimId": 3 }]
+            }
+            """.trimIndent(),
+        ) as TickDeltaEvent
+
+        val tick = TickDeltaMapper.reconstruct(keyframe, delta)
+
+        tick.turnNumber shouldBe 2
+        tick.botStates.map { it.id } shouldContainExactly listOf(1, 2)
+        tick.botStates.first().energy shouldBe 99.0
+        tick.botStates.first().bodyColor.shouldBeNull()
+        tick.botStates.first().stdOut.shouldBeNull()
+        tick.botStates.last().stdOut shouldBe "Moving"
+        tick.bulletStates.toList() shouldContainExactly listOf(
+            BulletState(1, 1, 3.0, 15.0, 25.0, 45.0),
+            BulletState(3, 2, 2.0, 50.0, 60.0, 180.0),
+        )
+        tick.events.single().shouldBeInstanceOf<BotDeathEvent>()
+    }
+
+    test("Positive: Bots added by a delta tick come after the kept bots") {
+        val addedBot = BotStateDelta(
+            isDroid = true, id = 4, sessionId = "session-4", energy = 120.0, x = 1.0, y = 2.0, direction = 3.0,
+            gunDirection = 4.0, radarDirection = 5.0, radarSweep = 6.0, speed = 7.0, turnRate = 8.0, gunTurnRate = 9.0,
+            radarTurnRate = 10.0, gunHeat = 11.0, enemyCount = 3,
+        )
+        val delta = TickDeltaEvent(2, 1, listOf(addedBot), emptyList(), emptyList(), emptyList(), emptySet())
+
+        val tick = TickDeltaMapper.reconstruct(keyframe, delta)
+
+        tick.botStates.map { it.id } shouldContainExactly listOf(1, 2, 3, 4)
+        tick.botStates.last().isDroid shouldBe true
+        tick.botStates.last().energy shouldBe 120.0
+        tick.bulletStates shouldBe keyframe.bulletStates
+    }
+})
@@ -2,6 +2,7 @@ package dev.robocode.tankroyale.client.model
 
 import io.kotest.core.Tag
 import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
 import io.kotest.matchers.nulls.shouldBeNull
 
 class MessagesTest : FunSpec({
@@ -23,4 +24,21 @@ class MessagesTest : FunSpec({
 
         handshake.behaviorVersion.shouldBeNull()
     }
+
+    test("PRO-005: Positive: compatibility client reads the wire formats of the handshake features") {
+        val handshake = MessageConstants.json.decodeFromString<ServerHandshake>(
+            """
+            {
+              "sessionId": "session",
+              "name": "server",
+              "version": "1.0.0",
+              "variant": "Tank Royale",
+              "gameTypes": ["classic"],
+              "features": { "wireFormats": ["binary-v1"] }
+            }
+            """.trimIndent(),
+        )
+
+        handshake.features?.wireFormats.orEmpty() shouldContainExactly listOf("binary-v1")
+    }
 })
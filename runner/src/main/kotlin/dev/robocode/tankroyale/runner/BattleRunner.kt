@@ -227,7 +227,10 @@ class BattleRunner private constructor(val config: Config) : AutoCloseable {
     private fun ensureConnected() {
         connection?.let { if (it.isConnected) return }
         connection?.close()
-        val conn = ServerConnection(serverManager.serverUrl, serverManager.controllerSecret)
+        // Recordings are made of the JSON messages, so the tick events are only received in binary when not recording
+        val conn = ServerConnection(
+            serverManager.serverUrl, serverManager.controllerSecret, binaryTicks = config.recordingPath == null
+        )
         conn.connect()
 
         // Subscribe to raw observer messages for recording (9.3)
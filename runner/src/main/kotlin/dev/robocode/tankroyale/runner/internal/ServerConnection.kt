@@ -1,5 +1,6 @@
 package dev.robocode.tankroyale.runner.internal
 
+import dev.robocode.tankroyale.client.BinaryTickDecoder
 import dev.robocode.tankroyale.client.model.*
 import dev.robocode.tankroyale.common.event.Event
 import dev.robocode.tankroyale.common.util.Version
@@ -7,9 +8,11 @@ import dev.robocode.tankroyale.runner.BattleException
 import dev.robocode.tankroyale.runner.BattleResults
 import dev.robocode.tankroyale.runner.BotResult
 import kotlinx.serialization.PolymorphicSerializer
+import java.io.ByteArrayOutputStream
 import java.net.URI
 import java.net.http.HttpClient
 import java.net.http.WebSocket
+import java.nio.ByteBuffer
 import java.util.concurrent.CompletionStage
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
@@ -26,10 +29,14 @@ import java.util.logging.Logger
  * this class provides per-instance events to support concurrent connections.
  *
  * This class is internal to the runner module and is not part of the public API.
+ *
+ * @param binaryTicks is a flag specifying if the Observer connection receives the tick events in the binary wire
+ * format when the server supports it. These tick events are not fired with [onRawObserverMessage].
  */
 internal class ServerConnection(
     private val serverUrl: String,
     private val controllerSecret: String,
+    private val binaryTicks: Boolean = false,
 ) : AutoCloseable {
 
     private val logger = Logger.getLogger(ServerConnection::class.java.name)
@@ -57,7 +64,10 @@ internal class ServerConnection(
     /** Fires the raw JSON string for every message received on the Observer connection. */
     val onRawObserverMessage = Event<String>()
 
-    /** The most recently received set of bots from BotListUpdate. */
+    /**
+     * The current set of bots, which is replaced by a BotListUpdate, and updated with BotJoined and BotLeft when the
+     * server supports bot list deltas.
+     */
     val latestBotList = AtomicReference<Set<BotInfo>>(emptySet())
 
     /** Server features advertised in the ServerHandshake (available after connect). */
@@ -104,6 +114,7 @@ internal class ServerConnection(
     private fun openWebSocket(url: String, role: Role, readyLatch: CountDownLatch): WebSocket {
         val httpClient = HttpClient.newBuilder().build()
         val payload = AtomicReference(StringBuffer())
+        val binaryPayload = ByteArrayOutputStream()
 
         val listener = object : WebSocket.Listener {
             override fun onText(webSocket: WebSocket, data: CharSequence?, last: Boolean): CompletionStage<*>? {
@@ -118,6 +129,17 @@ internal class ServerConnection(
                 return null
             }
 
+            override fun onBinary(webSocket: WebSocket, data: ByteBuffer, last: Boolean): CompletionStage<*>? {
+                binaryPayload.write(ByteArray(data.remaining()).also { data.get(it) })
+                if (last) {
+                    val bytes = ByteBuffer.wrap(binaryPayload.toByteArray())
+                    binaryPayload.reset()
+                    handleBinaryMessage(bytes, role)
+                }
+                webSocket.request(1)
+                return null
+            }
+
             override fun onClose(webSocket: WebSocket?, statusCode: Int, reason: String?): CompletionStage<*>? {
                 connected.set(false)
                 return null
@@ -156,6 +178,13 @@ internal class ServerConnection(
                     latestBotList.set(msg.bots)
                     onBotListUpdate(msg)
                 }
+                // Applied to the bot list given when connecting, so listeners still get the complete bot list
+                is BotJoined -> if (role == Role.OBSERVER) {
+                    onBotListUpdate(BotListUpdate(latestBotList.updateAndGet { it - msg.bot + msg.bot }))
+                }
+                is BotLeft -> if (role == Role.OBSERVER) {
+                    onBotListUpdate(BotListUpdate(latestBotList.updateAndGet { it - msg.bot }))
+                }
                 is GameStartedEvent -> if (role == Role.OBSERVER) onGameStarted(msg)
                 is GameEndedEvent -> if (role == Role.OBSERVER) onGameEnded(msg)
                 is GameAbortedEvent -> if (role == Role.OBSERVER) onGameAborted(msg)
@@ -172,7 +201,17 @@ internal class ServerConnection(
         }
     }
 
+    // Only tick events are sent in binary frames, and only when selected with the wire format of the handshake
+    private fun handleBinaryMessage(bytes: ByteBuffer, role: Role) {
+        try {
+            if (role == Role.OBSERVER) onTickEvent(BinaryTickDecoder.decode(bytes))
+        } catch (e: Exception) {
+            logger.log(Level.WARNING, "Failed to handle binary message: ${e.message}", e)
+        }
+    }
+
     private fun sendHandshakeResponse(serverHandshake: ServerHandshake, role: Role, ws: WebSocket) {
+        val botListDeltas = serverHandshake.features?.botListDeltas?.takeIf { it }
         val handshake: Message = when (role) {
             Role.OBSERVER -> ObserverHandshake(
                 sessionId = serverHandshake.sessionId,
@@ -180,6 +219,10 @@ internal class ServerConnection(
                 version = Version.version,
                 author = null,
                 secret = controllerSecret,
+                botListDeltas = botListDeltas,
+                wireFormat = BinaryTickDecoder.WIRE_FORMAT.takeIf {
+                    binaryTicks && serverHandshake.features?.wireFormats?.contains(it) == true
+                },
             )
             Role.CONTROLLER -> ControllerHandshake(
                 sessionId = serverHandshake.sessionId,
@@ -187,6 +230,8 @@ internal class ServerConnection(
                 version = Version.version,
                 author = null,
                 secret = controllerSecret,
+                // Bot list messages are only handled from the Observer connection, so deltas keep these small here
+                botListDeltas = botListDeltas,
             )
         }
         val msg = json.encodeToString(PolymorphicSerializer(Message::class), handshake)
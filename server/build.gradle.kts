@@ -1,3 +1,4 @@
+import build.tasks.GenerateSchemaCodecs
 import java.io.OutputStream
 import org.jsonschema2pojo.AnnotationStyle
 import org.jsonschema2pojo.SourceType
@@ -61,13 +62,29 @@ jsonSchema2Pojo {
     targetDirectory = layout.buildDirectory.dir("generated-sources/schema").get().asFile
 }
 
+// Streaming type adapters of the schema classes used for the messages sent every turn and the messages received
+val generateSchemaCodecs by tasks.registering(GenerateSchemaCodecs::class) {
+    schemaDir = layout.projectDirectory.dir("../schema/schemas")
+    packageName = schemaPackage
+    rootSchemas = listOf(
+        "tick-event-for-bot", "tick-event-for-observer", "bot-intent", "bot-handshake", "observer-handshake",
+        "controller-handshake", "bot-ready", "start-game", "change-tps", "bot-policy-update",
+    )
+    outputDir = layout.buildDirectory.dir("generated-sources/schema-codecs")
+}
+
 sourceSets {
     main {
         // Add generated sources to Kotlin source set to avoid Java/Kotlin compile cycles
         kotlin {
             srcDir(layout.buildDirectory.dir("generated-sources/schema"))
+            srcDir(layout.buildDirectory.dir("generated-sources/schema-codecs"))
         }
     }
+    test {
+        // Golden fixtures of the binary wire format shared by the server, Bot API and client library
+        resources.srcDir(layout.projectDirectory.dir("../schema/fixtures"))
+    }
 }
 
 tasks {
@@ -80,6 +97,7 @@ tasks {
     // Generate sources before compiling Kotlin (which includes generated Java as sources)
     compileKotlin {
         dependsOn(generateJsonSchema2Pojo)
+        dependsOn(generateSchemaCodecs)
     }
 
     test {
@@ -173,6 +191,7 @@ tasks {
     val sourcesJar = named("sourcesJar") {
         dependsOn(compileJava)
         dependsOn(generateJsonSchema2Pojo)
+        dependsOn(generateSchemaCodecs)
     }
 
     javadoc {
@@ -5,9 +5,13 @@ import com.github.ajalt.clikt.core.Context
 import com.github.ajalt.clikt.parameters.options.flag
 import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.options.versionOption
+import com.github.ajalt.clikt.parameters.types.choice
 import com.github.ajalt.clikt.parameters.types.int
+import com.github.ajalt.clikt.parameters.types.restrictTo
 import dev.robocode.tankroyale.common.util.Version
+import dev.robocode.tankroyale.server.core.LockstepClock
 import dev.robocode.tankroyale.server.core.Server
+import dev.robocode.tankroyale.server.core.TurnScheduler
 import dev.robocode.tankroyale.common.rules.DEFAULT_GAME_TYPES
 import dev.robocode.tankroyale.common.rules.DEFAULT_TURNS_PER_SECOND
 
@@ -41,7 +45,9 @@ internal class ServerCli : CliktCommand() {
     private val tps by option(
         "-t",
         "--tps",
-        help = "Initial Turns Per Second (TPS) (default: $DEFAULT_TURNS_PER_SECOND) in the range [-1..999], where -1 means maximum TPS, and 0 means paused."
+        help = "Initial Turns Per Second (TPS) (default: $DEFAULT_TURNS_PER_SECOND) in the range " +
+                "[-1..${TurnScheduler.MAX_STANDARD_TPS}], or without upper limit with the high-resolution turn " +
+                "scheduler, where -1 means maximum TPS, and 0 means paused."
     ).int()
     private val enableDebugMode by option(
         "--debug-mode",
@@ -51,6 +57,35 @@ internal class ServerCli : CliktCommand() {
         "--breakpoint-mode",
         help = "Enable/disable breakpoint mode support (default: enabled)"
     ).flag("--no-breakpoint-mode", default = true)
+    private val enableParallelBotPhases by option(
+        "--parallel-bot-phases",
+        help = "Execute the per-bot phases of a turn in parallel, which pays off for battles with many bots (default: false)"
+    ).flag(default = false)
+    private val compression by option(
+        "--compression",
+        help = "Comma-separated list of client roles receiving messages compressed with permessage-deflate: " +
+                "bot, observer, controller, or none (default: ${Server.DEFAULT_COMPRESSION})"
+    )
+    private val coalesceTicks by option(
+        "--coalesce-ticks",
+        help = "Comma-separated list of client roles where a tick not sent yet to a slow client is replaced by the " +
+                "newest tick: bot, observer, controller, or none (default: ${Server.DEFAULT_COALESCE_TICKS})"
+    )
+    private val enableLockstep by option(
+        "--lockstep",
+        help = "Take each turn as soon as the intents of all alive bots have arrived, ignoring the turn timeout " +
+                "and TPS, for running offline battles with trusted local bots as fast as possible (default: false)"
+    ).flag(default = false)
+    private val lockstepTimeout by option(
+        "--lockstep-timeout",
+        help = "Time in milliseconds a turn waits for hung bots in lockstep mode " +
+                "(default: ${LockstepClock.DEFAULT_SAFETY_TIMEOUT_MILLIS})"
+    ).int().restrictTo(min = 1)
+    private val turnScheduler by option(
+        "--turn-scheduler",
+        help = "Scheduler pacing the turns by the TPS: standard, or high-resolution for accurate TPS above " +
+                "${TurnScheduler.MAX_STANDARD_TPS} at the cost of a busy CPU core (default: standard)"
+    ).choice("standard" to TurnScheduler.STANDARD, "high-resolution" to TurnScheduler.HIGH_RESOLUTION)
 
     init {
         versionOption("Robocode Tank Royale Server ${Version.version}", names = setOf("-v", "--version"))
@@ -65,6 +100,12 @@ internal class ServerCli : CliktCommand() {
         tps?.let { Server.tps = it }
         Server.debugModeSupported = enableDebugMode
         Server.breakpointModeSupported = enableBreakpointMode
+        Server.parallelBotPhasesEnabled = enableParallelBotPhases
+        Server.compression = compression ?: Server.DEFAULT_COMPRESSION
+        Server.coalesceTicks = coalesceTicks ?: Server.DEFAULT_COALESCE_TICKS
+        Server.lockstepEnabled = enableLockstep
+        lockstepTimeout?.let { Server.lockstepTimeoutMillis = it }
+        turnScheduler?.let { Server.turnScheduler = it }
 
         Server().run()
     }
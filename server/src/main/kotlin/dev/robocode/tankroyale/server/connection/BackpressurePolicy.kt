@@ -0,0 +1,38 @@
+package dev.robocode.tankroyale.server.connection
+
+/**
+ * Policy for sending tick events to clients reading slower than the ticks are produced.
+ *
+ * For a client with a role in [coalescedRoles], a tick event waits in the outbound mailbox of the connection until the
+ * frames sent before it have been written to the network. A newer tick event replaces a tick event still waiting, so
+ * at most one tick event per connection is held in memory, and a slow client gets the newest tick when it catches up
+ * instead of stale ones. Other messages, like the game and round lifecycle events, are never dropped, and a tick event
+ * never overtakes a message sent before it.
+ *
+ * Tick events for clients with other roles are queued without limit. By default, tick events are coalesced for bots
+ * and observers, where a bot acting on a stale tick would be behind anyway, while a controller gets every tick.
+ *
+ * @param coalescedRoles are the client roles where a tick event not sent yet is replaced by a newer one.
+ */
+data class BackpressurePolicy(val coalescedRoles: Set<ClientRole>) {
+
+    companion object {
+        /** Default policy coalescing the tick events for bots and observers */
+        val DEFAULT = BackpressurePolicy(setOf(ClientRole.BOT, ClientRole.OBSERVER))
+
+        /**
+         * Parses a backpressure policy.
+         * @param roles is a comma-separated list of client roles, or `none` for queueing all tick events.
+         * @return the backpressure policy.
+         * @throws IllegalArgumentException if a role is unknown.
+         */
+        fun parse(roles: String): BackpressurePolicy = BackpressurePolicy(ClientRole.parseRoles(roles))
+    }
+
+    /**
+     * Checks if tick events not sent yet to a client are replaced by newer ones.
+     * @param role is the role of the client.
+     * @return `true` if tick events are coalesced; `false` if they are queued.
+     */
+    fun isCoalesced(role: ClientRole): Boolean = role in coalescedRoles
+}
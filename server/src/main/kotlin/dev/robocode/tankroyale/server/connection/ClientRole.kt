@@ -0,0 +1,32 @@
+package dev.robocode.tankroyale.server.connection
+
+/** Role of a client connected to the server, known after the client handshake. */
+enum class ClientRole(val value: String) {
+    BOT("bot"),
+    OBSERVER("observer"),
+    CONTROLLER("controller");
+
+    companion object {
+        /** Value for selecting no client roles */
+        const val NONE = "none"
+
+        /**
+         * Parses a set of client roles.
+         * @param roles is a comma-separated list of client roles, or `none` for no roles.
+         * @return the client roles.
+         * @throws IllegalArgumentException if a role is unknown.
+         */
+        fun parseRoles(roles: String): Set<ClientRole> {
+            val names = roles.split(",").map { it.trim().lowercase() }.filter { it.isNotEmpty() }
+            if (names == listOf(NONE)) return emptySet()
+
+            return names.mapTo(HashSet()) { name ->
+                entries.firstOrNull { it.value == name }
+                    ?: throw IllegalArgumentException(
+                        "Unknown client role '$name'. Valid values are: " +
+                                (entries.map { it.value } + NONE).joinToString(", ")
+                    )
+            }
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package dev.robocode.tankroyale.server.connection
 
 import com.google.gson.Gson
-import com.google.gson.JsonObject
-import com.google.gson.JsonSyntaxException
+import com.google.gson.JsonParseException
 import dev.robocode.tankroyale.common.rules.CURRENT_BEHAVIOR_VERSION
 import dev.robocode.tankroyale.common.util.Version
 import dev.robocode.tankroyale.schema.*
+import dev.robocode.tankroyale.server.core.GameCheckpoint
+import dev.robocode.tankroyale.server.core.GameRooms
 import dev.robocode.tankroyale.server.core.ServerSetup
 import dev.robocode.tankroyale.server.core.StatusCode
 import org.java_websocket.WebSocket
@@ -19,7 +20,26 @@ import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
-
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Queue depth of a client connection.
+ * @property inbound is the number of received messages not handled yet.
+ * @property outbound is the number of messages waiting to be sent.
+ */
+data class QueueDepth(val inbound: Int, val outbound: Int)
+
+/**
+ * Handler for the client connections of the server.
+ *
+ * Each connection has an inbound and an outbound mailbox, which handle the received messages and send messages one
+ * at a time in the order they were received or sent. This way, messages from the same client are never handled out of
+ * order, and a client being slow at receiving messages only holds up its own outbound mailbox. The mailboxes run on
+ * virtual threads when the runtime supports these, and otherwise on a bounded thread pool.
+ *
+ * Tick events for clients with a role coalesced by the [BackpressurePolicy] of the server setup are sent with
+ * [sendTick], which holds at most one tick event per connection while the client is behind.
+ */
 class ClientWebSocketsHandler(
     private val setup: ServerSetup,
     private val listener: IConnectionListener,
@@ -33,6 +53,7 @@ class ClientWebSocketsHandler(
     companion object {
         private const val MISSING_SESSION_ID = "Missing session id"
         private const val INVALID_SECRET = "Invalid secret"
+        private const val INVALID_ROOM_ID = "Invalid room id"
     }
 
     private val log = LoggerFactory.getLogger(this::class.java)
@@ -49,10 +70,44 @@ class ClientWebSocketsHandler(
     private val observerHandshakes = ConcurrentHashMap<WebSocket, ObserverHandshake>()
     private val controllerHandshakes = ConcurrentHashMap<WebSocket, ControllerHandshake>()
 
-    private val executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())
+    private val clientWireFormats = ConcurrentHashMap<WebSocket, WireFormat>()
+
+    private val deltaTickObservers = ConcurrentHashMap.newKeySet<WebSocket>()
+
+    private val tickSubscriptions = ConcurrentHashMap<WebSocket, TickSubscription>()
+
+    private val botListDeltaClients = ConcurrentHashMap.newKeySet<WebSocket>()
+
+    private val clientRoomIds = ConcurrentHashMap<WebSocket, String /* roomId */>()
+
+    private val executorService = createExecutorService()
+
+    /** Tick event waiting in an outbound mailbox, which is replaced by newer tick events until it is sent */
+    private class PendingTick(var send: () -> Unit)
+
+    /** Inbound and outbound mailboxes of a client connection */
+    private inner class Mailboxes {
+        val inbound = SerialMailbox(executorService)
+        val outbound = SerialMailbox(executorService)
+
+        /** Tick event not sent yet, which is `null` when a message has been sent after it. Guarded by this. */
+        var pendingTick: PendingTick? = null
+
+        /** Number of tick events replaced by a newer tick event before being sent */
+        val coalescedTicks = AtomicLong()
+
+        /** Signal raised when the frames sent to the client have been written to the network */
+        val writeSignal = WriteSignal()
+    }
+
+    private val totalCoalescedTicks = AtomicLong()
+
+    private val mailboxes = ConcurrentHashMap<WebSocket, Mailboxes>()
 
     private val gson = Gson()
 
+    private val decoder = MessageDecoder(gson)
+
     private var currentGameSetup: GameSetup? = null
 
     override fun close() {
@@ -60,11 +115,24 @@ class ClientWebSocketsHandler(
     }
 
     override fun onOpen(clientSocket: WebSocket, handshake: ClientHandshake) {
+        mailboxes[clientSocket] = Mailboxes()
         addSocketAndSendServerHandshake(clientSocket)
     }
 
     override fun onClose(clientSocket: WebSocket, code: Int, reason: String, remote: Boolean) {
-        removeSocket(clientSocket)
+        // Wakes up a tick event waiting for the frames to be written, which are never written now
+        mailboxes[clientSocket]?.writeSignal?.signal()
+
+        // Removed after the messages received before closing have been handled
+        val inbound = mailboxes[clientSocket]?.inbound
+        if (inbound == null) {
+            removeSocket(clientSocket)
+        } else {
+            inbound.submit {
+                removeSocket(clientSocket)
+                mailboxes -= clientSocket
+            }
+        }
     }
 
     override fun onMessage(clientSocket: WebSocket, message: String) {
@@ -75,6 +143,10 @@ class ClientWebSocketsHandler(
         handleException(clientSocket, exception)
     }
 
+    override fun onFrameWritten(clientSocket: WebSocket) {
+        mailboxes[clientSocket]?.writeSignal?.frameWritten()
+    }
+
     private fun addSocketAndSendServerHandshake(clientSocket: WebSocket) {
         allSockets += clientSocket
 
@@ -90,6 +162,12 @@ class ClientWebSocketsHandler(
             features = Features().apply {
                  debugMode = debugModeSupported
                  breakpointMode = breakpointModeSupported
+                 wireFormats = WireFormat.entries.map { it.value }
+                 deltaTicks = true
+                 observerSubscriptions = true
+                 botListDeltas = true
+                 gameRooms = true
+                 checkpoints = true
              }
         }.also {
             send(clientSocket, Gson().toJson(it))
@@ -101,50 +179,37 @@ class ClientWebSocketsHandler(
     }
 
     private fun processMessage(clientSocket: WebSocket, message: String) {
-        executorService.submit {
+        val inbound = mailboxes[clientSocket]?.inbound ?: return
+        inbound.submit {
             try {
-                gson.fromJson(message, JsonObject::class.java)["type"]?.let { jsonType ->
-                    try {
-                        val type = Message.Type.fromValue(jsonType.asString)
-
-                        log.debug("Handling message: {}", type)
-                        when (type) {
-                            Message.Type.BOT_INTENT -> handleIntent(clientSocket, message)
-                            Message.Type.BOT_HANDSHAKE -> handleBotHandshake(clientSocket, message)
-                            Message.Type.OBSERVER_HANDSHAKE -> handleObserverHandshake(clientSocket, message)
-                            Message.Type.CONTROLLER_HANDSHAKE -> handleControllerHandshake(clientSocket, message)
-                            Message.Type.BOT_READY -> handleBotReady(clientSocket)
-                            Message.Type.START_GAME -> handleStartGame(clientSocket, message)
-                            Message.Type.STOP_GAME -> handleStopGame()
-                            Message.Type.PAUSE_GAME -> handlePauseGame()
-                            Message.Type.RESUME_GAME -> handleResumeGame()
-                            Message.Type.NEXT_TURN -> handleNextTurn()
-                            Message.Type.CHANGE_TPS -> handleChangeTps(message)
-                            Message.Type.BOT_POLICY_UPDATE -> handleBotPolicyUpdated(message)
-                            Message.Type.ENABLE_DEBUG_MODE -> handleEnableDebugMode()
-                            Message.Type.DISABLE_DEBUG_MODE -> handleDisableDebugMode()
-                            else -> handleException(
-                                clientSocket,
-                                IllegalStateException("Unhandled message type: $type")
-                            )
-                        }
-                    } catch (ex: IllegalArgumentException) {
-                        log.error("Failed to parse message type '{}'. Raw message: {}. {} message types are defined.",
-                            jsonType.asString,
-                            message.take(200),
-                            Message.Type.entries.size)
-                        log.debug("Available message types: {}",
-                            Message.Type.entries.joinToString(", ") { it.value() })
-                        handleException(
-                            clientSocket,
-                            IllegalStateException(
-                                "Unhandled message type: ${jsonType.asString}. This may indicate a schema generation issue or bot sending unexpected message format.",
-                                ex
-                            )
-                        )
-                    }
+                val decoded = decoder.decode(message)
+                val type = decoded.type
+
+                log.debug("Handling message: {}", type)
+                when (type) {
+                    Message.Type.BOT_INTENT -> handleIntent(clientSocket, decoded as BotIntent)
+                    Message.Type.BOT_HANDSHAKE -> handleBotHandshake(clientSocket, decoded as BotHandshake)
+                    Message.Type.OBSERVER_HANDSHAKE ->
+                        handleObserverHandshake(clientSocket, decoded as ObserverHandshake)
+                    Message.Type.CONTROLLER_HANDSHAKE ->
+                        handleControllerHandshake(clientSocket, decoded as ControllerHandshake)
+                    Message.Type.BOT_READY -> handleBotReady(clientSocket)
+                    Message.Type.START_GAME -> handleStartGame(clientSocket, decoded as StartGame)
+                    Message.Type.STOP_GAME -> handleStopGame(clientSocket)
+                    Message.Type.PAUSE_GAME -> handlePauseGame(clientSocket)
+                    Message.Type.RESUME_GAME -> handleResumeGame(clientSocket)
+                    Message.Type.NEXT_TURN -> handleNextTurn(clientSocket)
+                    Message.Type.CHANGE_TPS -> handleChangeTps(clientSocket, decoded as ChangeTps)
+                    Message.Type.BOT_POLICY_UPDATE -> handleBotPolicyUpdated(clientSocket, decoded as BotPolicyUpdate)
+                    Message.Type.ENABLE_DEBUG_MODE -> handleEnableDebugMode(clientSocket)
+                    Message.Type.DISABLE_DEBUG_MODE -> handleDisableDebugMode(clientSocket)
+                    Message.Type.CREATE_CHECKPOINT -> handleCreateCheckpoint(clientSocket)
+                    else -> handleException(
+                        clientSocket,
+                        IllegalStateException("Unhandled message type: $type")
+                    )
                 }
-            } catch (exception: JsonSyntaxException) {
+            } catch (exception: JsonParseException) {
                 log.error("Invalid message: $message", exception)
                 handleException(clientSocket, exception)
             } catch (exception: RuntimeException) {
@@ -158,8 +223,110 @@ class ClientWebSocketsHandler(
 
     fun getObserverAndControllerSockets(): Set<WebSocket> = observerSockets.union(controllerSockets)
 
+    /**
+     * Returns the observers and controllers of a game room.
+     * @param roomId is the id of the game room.
+     * @return the connections of the observers and controllers that joined the game room.
+     */
+    fun getObserverAndControllerSockets(roomId: String): Set<WebSocket> =
+        (observerSockets.asSequence() + controllerSockets.asSequence()).filterTo(HashSet()) { getRoomId(it) == roomId }
+
+    /**
+     * Returns the game room an observer or controller has joined in its handshake.
+     * @param clientSocket is the client connection.
+     * @return the id of the game room, which is the default room for clients not giving a room.
+     */
+    fun getRoomId(clientSocket: WebSocket): String = clientRoomIds[clientSocket] ?: GameRooms.DEFAULT_ROOM_ID
+
     fun getBotHandshakes(): Map<WebSocket, BotHandshake> = botHandshakes
 
+    /**
+     * Returns the wire format selected by a client for receiving tick events.
+     * @param clientSocket is the client connection.
+     * @return the wire format, which is JSON for clients not selecting a wire format.
+     */
+    fun getWireFormat(clientSocket: WebSocket): WireFormat = clientWireFormats[clientSocket] ?: WireFormat.JSON
+
+    /**
+     * Checks if an observer has selected delta ticks in its handshake.
+     * @param clientSocket is the client connection.
+     * @return `true` if the observer receives delta ticks; `false` otherwise.
+     */
+    fun isDeltaTicks(clientSocket: WebSocket): Boolean = clientSocket in deltaTickObservers
+
+    /**
+     * Checks if an observer of a game room has selected delta ticks in its handshake.
+     * @param roomId is the id of the game room.
+     * @return `true` if delta ticks must be built for the game room; `false` otherwise.
+     */
+    fun hasDeltaTickObservers(roomId: String): Boolean = deltaTickObservers.any { getRoomId(it) == roomId }
+
+    /**
+     * Checks if an observer or controller has selected bot list deltas in its handshake.
+     * @param clientSocket is the client connection.
+     * @return `true` if the client receives bot-joined and bot-left messages; `false` if it receives the complete
+     * bot list on every change.
+     */
+    fun isBotListDeltas(clientSocket: WebSocket): Boolean = clientSocket in botListDeltaClients
+
+    /**
+     * Returns the tick events and fields an observer has subscribed to in its handshake.
+     * @param clientSocket is the client connection.
+     * @return the tick subscription, which is all tick events and fields for controllers and observers not selecting
+     * a subscription.
+     */
+    fun getTickSubscription(clientSocket: WebSocket): TickSubscription =
+        tickSubscriptions[clientSocket] ?: TickSubscription.ALL
+
+    /**
+     * Returns the queue depth of a client connection for diagnostics.
+     * @param clientSocket is the client connection.
+     * @return the queue depth, or `null` if the connection is not open.
+     */
+    fun getQueueDepth(clientSocket: WebSocket): QueueDepth? =
+        mailboxes[clientSocket]?.let { QueueDepth(it.inbound.queueDepth, it.outbound.queueDepth) }
+
+    /** Returns the queue depths of all open client connections for diagnostics */
+    fun getQueueDepths(): Map<WebSocket, QueueDepth> =
+        mailboxes.mapValues { (_, it) -> QueueDepth(it.inbound.queueDepth, it.outbound.queueDepth) }
+
+    /**
+     * Returns the number of tick events replaced by a newer tick event before being sent to a client.
+     * @param clientSocket is the client connection.
+     * @return the number of coalesced tick events, or `null` if the connection is not open.
+     */
+    fun getCoalescedTicks(clientSocket: WebSocket): Long? = mailboxes[clientSocket]?.coalescedTicks?.get()
+
+    /** Returns the number of tick events replaced by a newer tick event for all connections since the server started */
+    fun getTotalCoalescedTicks(): Long = totalCoalescedTicks.get()
+
+    /**
+     * Checks if tick events not sent yet to a client are replaced by newer ones.
+     * @param clientSocket is the client connection.
+     * @return `true` if the tick events are coalesced; `false` if they are queued or the client role is not known yet.
+     */
+    fun isTickCoalesced(clientSocket: WebSocket): Boolean {
+        val role = when (clientSocket) {
+            in botSockets -> ClientRole.BOT
+            in observerSockets -> ClientRole.OBSERVER
+            in controllerSockets -> ClientRole.CONTROLLER
+            else -> return false
+        }
+        return setup.backpressurePolicy.isCoalesced(role)
+    }
+
+    /**
+     * Creates an executor running each task on a virtual thread if supported, and otherwise on a pool with a fixed
+     * number of threads. A bounded pool is enough, as a mailbox waiting for a slow client does not occupy a thread.
+     */
+    private fun createExecutorService(): ExecutorService =
+        try {
+            // Virtual threads require Java 21, while Java 17 is still supported
+            Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+        } catch (_: ReflectiveOperationException) {
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2)
+        }
+
     private fun shutdownAndAwaitTermination(pool: ExecutorService) {
         pool.apply {
             shutdown() // Disable new tasks from being submitted
@@ -180,15 +347,77 @@ class ClientWebSocketsHandler(
     override fun send(clientSocket: WebSocket, message: String) {
         log.debug("Send to: client: {}, message: {}", clientSocket.remoteSocketAddress, message)
 
-        executorService.submit {
-            try {
-                clientSocket.send(message)
-            } catch (_: WebsocketNotConnectedException) {
-                closeSocket(clientSocket)
+        val boxes = mailboxes[clientSocket] ?: return
+        synchronized(boxes) {
+            boxes.pendingTick = null // a later tick must not overtake this message
+            boxes.outbound.submit { sendOrClose(clientSocket) { clientSocket.send(message) } }
+        }
+    }
+
+    /**
+     * Sends a tick event to a client after the messages sent to it before. If tick events are coalesced for the client,
+     * and the previous tick event has not been sent yet, it is replaced by this tick event.
+     * @param clientSocket is the client connection.
+     * @param message is the tick event as JSON text.
+     * @param coalescedMessage is sent instead of [message] when replacing a previous tick event. This is the full tick
+     * event when [message] is a delta tick, which cannot be applied when the previous tick is not received.
+     */
+    fun sendTick(clientSocket: WebSocket, message: String, coalescedMessage: String = message) {
+        log.debug("Send tick to: client: {}, message: {}", clientSocket.remoteSocketAddress, message)
+
+        offerTick(clientSocket, { clientSocket.send(message) }, { clientSocket.send(coalescedMessage) })
+    }
+
+    /**
+     * Sends a tick event in the binary wire format to a client after the messages sent to it before. If tick events are
+     * coalesced for the client, and the previous tick event has not been sent yet, it is replaced by this tick event.
+     * @param clientSocket is the client connection.
+     * @param message is the binary tick event.
+     */
+    fun sendTick(clientSocket: WebSocket, message: ByteArray) {
+        log.debug("Send tick to: client: {}, binary message of {} bytes", clientSocket.remoteSocketAddress, message.size)
+
+        val send = { clientSocket.send(message) }
+        offerTick(clientSocket, send, send)
+    }
+
+    private fun offerTick(clientSocket: WebSocket, send: () -> Unit, coalescedSend: () -> Unit) {
+        val boxes = mailboxes[clientSocket] ?: return
+        if (!isTickCoalesced(clientSocket)) {
+            boxes.outbound.submit { sendOrClose(clientSocket, send) }
+            return
+        }
+        synchronized(boxes) {
+            boxes.pendingTick?.let { pendingTick ->
+                pendingTick.send = coalescedSend
+                boxes.coalescedTicks.incrementAndGet()
+                totalCoalescedTicks.incrementAndGet()
+                return
+            }
+            val pendingTick = PendingTick(send)
+            boxes.pendingTick = pendingTick
+            val framesWritten = SerialMailbox.Gate { onWritten ->
+                boxes.writeSignal.isWrittenOrElse({ clientSocket.isOpen && clientSocket.hasBufferedData() }, onWritten)
+            }
+            boxes.outbound.submit(framesWritten) {
+                val tickSend = synchronized(boxes) {
+                    if (boxes.pendingTick === pendingTick) boxes.pendingTick = null
+                    pendingTick.send
+                }
+                sendOrClose(clientSocket, tickSend)
             }
         }
     }
 
+    private fun sendOrClose(clientSocket: WebSocket, send: () -> Unit) {
+        try {
+            mailboxes[clientSocket]?.writeSignal?.frameQueued()
+            send()
+        } catch (_: WebsocketNotConnectedException) {
+            closeSocket(clientSocket)
+        }
+    }
+
     override fun broadcast(clientSockets: Collection<WebSocket>, message: String) {
         log.debug("Broadcast to clients: message: {}", message)
 
@@ -205,6 +434,11 @@ class ClientWebSocketsHandler(
             controllerSockets.remove(clientSocket) -> handleControllerLeft(clientSocket)
         }
         sessionIds.remove(clientSocket)
+        clientWireFormats.remove(clientSocket)
+        deltaTickObservers.remove(clientSocket)
+        tickSubscriptions.remove(clientSocket)
+        botListDeltaClients.remove(clientSocket)
+        clientRoomIds.remove(clientSocket)
     }
 
     private fun handleBotLeft(clientSocket: WebSocket) {
@@ -245,15 +479,14 @@ class ClientWebSocketsHandler(
         return Base64.getEncoder().withoutPadding().encodeToString(byteBuffer.array())
     }
 
-    private fun handleIntent(clientSocket: WebSocket, message: String) {
+    private fun handleIntent(clientSocket: WebSocket, intent: BotIntent) {
         botHandshakes[clientSocket]?.let { botHandshake ->
-            val intent = gson.fromJson(message, BotIntent::class.java)
             listener.onBotIntent(clientSocket, botHandshake, intent)
         }
     }
 
-    private fun handleBotHandshake(clientSocket: WebSocket, message: String) {
-        gson.fromJson(message, BotHandshake::class.java).apply {
+    private fun handleBotHandshake(clientSocket: WebSocket, handshake: BotHandshake) {
+        handshake.apply {
             if (sessionId.isNullOrBlank() || !sessionIds.values.contains(sessionId)) {
                 log.info("Ignoring bot missing session id: $name, version: $version")
                 clientSocket.close(StatusCode.POLICY_VIOLATION.value, MISSING_SESSION_ID)
@@ -265,13 +498,15 @@ class ClientWebSocketsHandler(
             } else {
                 botSockets += clientSocket
                 botHandshakes[clientSocket] = this
+                setup.compressionPolicy.applyTo(clientSocket, ClientRole.BOT)
+                clientWireFormats[clientSocket] = WireFormat.fromValue(wireFormat)
                 listener.onBotJoined(clientSocket, this)
             }
         }
     }
 
-    private fun handleObserverHandshake(clientSocket: WebSocket, message: String) {
-        gson.fromJson(message, ObserverHandshake::class.java).apply {
+    private fun handleObserverHandshake(clientSocket: WebSocket, handshake: ObserverHandshake) {
+        handshake.apply {
             if (sessionId.isNullOrBlank() || !sessionIds.values.contains(sessionId)) {
                 log.info("Ignoring observer missing session id: $name, version: $version")
                 clientSocket.close(StatusCode.POLICY_VIOLATION.value, MISSING_SESSION_ID)
@@ -280,16 +515,29 @@ class ClientWebSocketsHandler(
                 log.info("Ignoring observer using invalid secret: name: $name, version: $version")
                 clientSocket.close(StatusCode.POLICY_VIOLATION.value, INVALID_SECRET)
 
+            } else if (!roomId.isNullOrBlank() && !GameRooms.isValidRoomId(roomId)) {
+                log.info("Ignoring observer using invalid room id: name: $name, version: $version")
+                clientSocket.close(StatusCode.POLICY_VIOLATION.value, INVALID_ROOM_ID)
+
             } else {
+                val tickSubscription = TickSubscription.from(subscription)
+                if (tickSubscription != TickSubscription.ALL) tickSubscriptions[clientSocket] = tickSubscription
+                // Delta ticks need every tick with all fields for applying the next delta tick
+                if (deltaTicks == true && tickSubscription == TickSubscription.ALL) deltaTickObservers += clientSocket
+                if (botListDeltas == true) botListDeltaClients += clientSocket
+                setRoomId(clientSocket, roomId)
+
                 observerSockets += clientSocket
                 observerHandshakes[clientSocket] = this
+                setup.compressionPolicy.applyTo(clientSocket, ClientRole.OBSERVER)
+                clientWireFormats[clientSocket] = WireFormat.fromValue(wireFormat)
                 listener.onObserverJoined(clientSocket, this)
             }
         }
     }
 
-    private fun handleControllerHandshake(clientSocket: WebSocket, message: String) {
-        gson.fromJson(message, ControllerHandshake::class.java).apply {
+    private fun handleControllerHandshake(clientSocket: WebSocket, handshake: ControllerHandshake) {
+        handshake.apply {
             if (sessionId.isNullOrBlank() || !sessionIds.values.contains(sessionId)) {
                 log.info("Ignoring controller missing session id: $name, version: $version")
                 clientSocket.close(StatusCode.POLICY_VIOLATION.value, MISSING_SESSION_ID)
@@ -298,14 +546,26 @@ class ClientWebSocketsHandler(
                 log.info("Ignoring controller using invalid secret: name: $name, version: $version")
                 clientSocket.close(StatusCode.POLICY_VIOLATION.value, INVALID_SECRET)
 
+            } else if (!roomId.isNullOrBlank() && !GameRooms.isValidRoomId(roomId)) {
+                log.info("Ignoring controller using invalid room id: name: $name, version: $version")
+                clientSocket.close(StatusCode.POLICY_VIOLATION.value, INVALID_ROOM_ID)
+
             } else {
+                if (botListDeltas == true) botListDeltaClients += clientSocket
+                setRoomId(clientSocket, roomId)
+
                 controllerSockets += clientSocket
                 controllerHandshakes[clientSocket] = this
+                setup.compressionPolicy.applyTo(clientSocket, ClientRole.CONTROLLER)
                 listener.onControllerJoined(clientSocket, this)
             }
         }
     }
 
+    private fun setRoomId(clientSocket: WebSocket, roomId: String?) {
+        if (!roomId.isNullOrBlank() && roomId != GameRooms.DEFAULT_ROOM_ID) clientRoomIds[clientSocket] = roomId
+    }
+
     private fun handleBotReady(clientSocket: WebSocket) {
         log.debug("Processing BotReady from {}", clientSocket.remoteSocketAddress)
         botHandshakes[clientSocket]?.let { botHandshake ->
@@ -313,16 +573,25 @@ class ClientWebSocketsHandler(
         }
     }
 
-    private fun handleStartGame(clientSocket: WebSocket, message: String) {
-        gson.fromJson(message, StartGame::class.java).apply {
+    private fun handleStartGame(clientSocket: WebSocket, startGame: StartGame) {
+        startGame.apply {
             val validationError = validateStartGame(gameSetup, botAddresses)
             if (validationError != null) {
                 log.warn("Rejecting start-game request: {}", validationError)
                 handleException(clientSocket, IllegalArgumentException(validationError))
                 return@apply
             }
+            val gameCheckpoint = try {
+                checkpoint?.let { GameCheckpoint.decode(it) }
+            } catch (e: IllegalArgumentException) {
+                log.warn("Rejecting start-game request: {}", e.message)
+                handleException(clientSocket, e)
+                return@apply
+            }
             currentGameSetup = gameSetup
-            listener.onStartGame(gameSetup, botAddresses.toSet(), debugMode == true)
+            listener.onStartGame(
+                getRoomId(clientSocket), gameSetup, botAddresses.toSet(), debugMode == true, gameCheckpoint
+            )
         }
     }
 
@@ -339,44 +608,47 @@ class ClientWebSocketsHandler(
         return null
     }
 
-    private fun handleStopGame() {
-        executorService.submit(listener::onAbortGame)
+    // Controller commands are handled in the inbound mailbox of the controller, so they are applied in the order sent,
+    // and apply to the game room of the controller
+
+    private fun handleStopGame(clientSocket: WebSocket) {
+        listener.onAbortGame(getRoomId(clientSocket))
     }
 
-    private fun handlePauseGame() {
-        executorService.submit(listener::onPauseGame)
+    private fun handlePauseGame(clientSocket: WebSocket) {
+        listener.onPauseGame(getRoomId(clientSocket))
     }
 
-    private fun handleResumeGame() {
-        executorService.submit(listener::onResumeGame)
+    private fun handleResumeGame(clientSocket: WebSocket) {
+        listener.onResumeGame(getRoomId(clientSocket))
     }
 
-    private fun handleNextTurn() {
-        executorService.submit(listener::onNextTurn)
+    private fun handleNextTurn(clientSocket: WebSocket) {
+        listener.onNextTurn(getRoomId(clientSocket))
     }
 
-    private fun handleChangeTps(message: String) {
-        executorService.submit {
-            gson.fromJson(message, ChangeTps::class.java).apply {
-                listener.onChangeTps(tps)
-            }
+    private fun handleChangeTps(clientSocket: WebSocket, changeTps: ChangeTps) {
+        changeTps.apply {
+            listener.onChangeTps(getRoomId(clientSocket), tps)
         }
     }
 
-    private fun handleBotPolicyUpdated(message: String) {
-        executorService.submit {
-            gson.fromJson(message, BotPolicyUpdate::class.java).apply {
-                listener.onBotPolicyUpdated(this)
-            }
+    private fun handleBotPolicyUpdated(clientSocket: WebSocket, botPolicyUpdate: BotPolicyUpdate) {
+        botPolicyUpdate.apply {
+            listener.onBotPolicyUpdated(getRoomId(clientSocket), this)
         }
     }
 
-    private fun handleEnableDebugMode() {
-        executorService.submit(listener::onEnableDebugMode)
+    private fun handleEnableDebugMode(clientSocket: WebSocket) {
+        listener.onEnableDebugMode(getRoomId(clientSocket))
+    }
+
+    private fun handleDisableDebugMode(clientSocket: WebSocket) {
+        listener.onDisableDebugMode(getRoomId(clientSocket))
     }
 
-    private fun handleDisableDebugMode() {
-        executorService.submit(listener::onDisableDebugMode)
+    private fun handleCreateCheckpoint(clientSocket: WebSocket) {
+        listener.onCreateCheckpoint(getRoomId(clientSocket), clientSocket)
     }
 
     private fun handleException(clientSocket: WebSocket?, exception: Exception) {
@@ -0,0 +1,91 @@
+package dev.robocode.tankroyale.server.connection
+
+import org.java_websocket.WebSocket
+import org.java_websocket.drafts.Draft
+import org.java_websocket.drafts.Draft_6455
+import org.java_websocket.extensions.IExtension
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension
+import org.java_websocket.framing.DataFrame
+import org.java_websocket.framing.Framedata
+
+/**
+ * Policy for compressing the messages sent to the clients with the permessage-deflate WebSocket extension.
+ *
+ * The extension is negotiated with every client offering it when connecting, as the role of a client is first known
+ * from its handshake message. Afterward, the messages sent to clients with a role not in [compressedRoles] are left
+ * uncompressed, so latency-sensitive bots do not pay for compressing their ticks, while the large and repetitive
+ * tick events sent to observers and controllers are compressed.
+ *
+ * @param compressedRoles are the client roles receiving compressed messages.
+ */
+data class CompressionPolicy(val compressedRoles: Set<ClientRole>) {
+
+    companion object {
+        /** Minimum payload size in bytes for compressing a message, as smaller messages do not pay off */
+        const val COMPRESSION_THRESHOLD = 256
+
+        /** Default policy compressing the messages for observers and controllers */
+        val DEFAULT = CompressionPolicy(setOf(ClientRole.OBSERVER, ClientRole.CONTROLLER))
+
+        /**
+         * Parses a compression policy.
+         * @param roles is a comma-separated list of client roles, or `none` for disabling compression.
+         * @return the compression policy.
+         * @throws IllegalArgumentException if a role is unknown.
+         */
+        fun parse(roles: String): CompressionPolicy = CompressionPolicy(ClientRole.parseRoles(roles))
+    }
+
+    /** Checks if the permessage-deflate extension is offered to the clients */
+    val isEnabled: Boolean get() = compressedRoles.isNotEmpty()
+
+    /**
+     * Returns the WebSocket drafts accepted by the server.
+     * @return the drafts, which includes the permessage-deflate extension if this policy is enabled.
+     */
+    fun drafts(): List<Draft> =
+        listOf(if (isEnabled) Draft_6455(RoleDeflateExtension()) else Draft_6455())
+
+    /**
+     * Applies this policy to a client connection when the role of the client is known.
+     * @param clientSocket is the client connection.
+     * @param role is the role of the client.
+     * @return `true` if messages sent to the client are compressed; `false` otherwise.
+     */
+    fun applyTo(clientSocket: WebSocket, role: ClientRole): Boolean {
+        val extension = (clientSocket.draft as? Draft_6455)?.extension as? RoleDeflateExtension ?: return false
+
+        val isCompressed = role in compressedRoles
+        extension.threshold = if (isCompressed) COMPRESSION_THRESHOLD else Int.MAX_VALUE
+        return isCompressed
+    }
+}
+
+/**
+ * permessage-deflate extension where the threshold is set when the role of the client is known, which is after the
+ * connection has been opened. The threshold is set by the thread handling the handshake message of the client, and
+ * read by the threads sending messages to it, so it is kept in a volatile field instead of the field of the base
+ * class, which is left at zero.
+ */
+internal class RoleDeflateExtension : PerMessageDeflateExtension() {
+
+    @Volatile
+    private var roleThreshold = CompressionPolicy.COMPRESSION_THRESHOLD
+
+    init {
+        super.setThreshold(0)
+    }
+
+    override fun getThreshold(): Int = roleThreshold
+
+    override fun setThreshold(threshold: Int) {
+        roleThreshold = threshold
+    }
+
+    override fun encodeFrame(inputFrame: Framedata) {
+        if (inputFrame is DataFrame && inputFrame.payloadData.remaining() < roleThreshold) return
+        super.encodeFrame(inputFrame)
+    }
+
+    override fun copyInstance(): IExtension = RoleDeflateExtension()
+}
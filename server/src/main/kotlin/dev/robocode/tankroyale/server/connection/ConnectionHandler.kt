@@ -2,7 +2,9 @@ package dev.robocode.tankroyale.server.connection
 
 import dev.robocode.tankroyale.schema.*
 import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
+import dev.robocode.tankroyale.server.core.GameRooms
 import dev.robocode.tankroyale.server.core.ServerSetup
+import dev.robocode.tankroyale.server.mapper.TickField
 import org.java_websocket.WebSocket
 import org.slf4j.LoggerFactory
 import java.net.InetAddress
@@ -20,7 +22,7 @@ class ConnectionHandler(
 
     private val clientHandler = ClientWebSocketsHandler(setup, listener, controllerSecrets, botSecrets, debugModeSupported, breakpointModeSupported, ::broadcast)
 
-    private val webSocketObserver = WebSocketObserver(clientHandler)
+    private val webSocketObserver = WebSocketObserver(clientHandler, setup.compressionPolicy)
 
     fun start() {
         webSocketObserver.start()
@@ -30,14 +32,99 @@ class ConnectionHandler(
         clientHandler.close()
     }
 
-    fun broadcastToObserverAndControllers(message: String) {
-        broadcast(clientHandler.getObserverAndControllerSockets(), message)
+    /**
+     * Broadcasts a message to the observers and controllers of a game room.
+     * @param message is the message as JSON text.
+     * @param roomId is the id of the game room.
+     */
+    fun broadcastToObserverAndControllers(message: String, roomId: String = GameRooms.DEFAULT_ROOM_ID) {
+        broadcast(clientHandler.getObserverAndControllerSockets(roomId), message)
+    }
+
+    /**
+     * Broadcasts a change of the bot list to the observers and controllers, where the clients selecting bot list
+     * deltas get the delta messages, and the other clients get the complete bot list.
+     * @param message provides the complete bot list as JSON text, which is only called if a client receives it.
+     * @param deltaMessages are the delta messages as JSON text in the order the changes occurred.
+     */
+    fun broadcastBotListToObserverAndControllers(message: () -> String, deltaMessages: List<String>) {
+        val (deltaSockets, fullSockets) =
+            clientHandler.getObserverAndControllerSockets().partition(clientHandler::isBotListDeltas)
+
+        if (fullSockets.isNotEmpty()) broadcast(fullSockets, message())
+        if (deltaSockets.isNotEmpty()) deltaMessages.forEach { broadcast(deltaSockets, it) }
+    }
+
+    /**
+     * Broadcasts a tick event to the observers and controllers of a game room in the wire format and with the fields
+     * selected by each of them. Each variant of the tick event is serialized once, and only if a client receives it.
+     * @param roomId is the id of the game room.
+     * @param turnNumber is the turn number of the tick event, which is used for skipping the clients not subscribing to
+     * the tick event of this turn.
+     * @param message provides the tick event as JSON text, leaving out the given bot state fields.
+     * @param binaryMessage provides the tick event in the binary wire format, leaving out the given bot state fields.
+     * @param deltaMessage provides the delta tick as JSON text for an observer selecting delta ticks, or `null` if the
+     * observer must get the full tick event.
+     */
+    fun broadcastTickToObserverAndControllers(
+        roomId: String,
+        turnNumber: Int,
+        message: (excludedFields: Set<TickField>) -> String,
+        binaryMessage: (excludedFields: Set<TickField>) -> ByteArray,
+        deltaMessage: (WebSocket) -> String?,
+    ) {
+        val messages = HashMap<Set<TickField>, String>()
+        val binaryMessages = HashMap<Set<TickField>, ByteArray>()
+        val textSockets = HashMap<Set<TickField>, MutableList<WebSocket>>()
+
+        clientHandler.getObserverAndControllerSockets(roomId).forEach { clientSocket ->
+            val subscription = clientHandler.getTickSubscription(clientSocket)
+            if (!subscription.isTickIncluded(turnNumber)) return@forEach
+
+            val excludedFields = subscription.excludedFields
+            val text = { messages.getOrPut(excludedFields) { message(excludedFields) } }
+            when {
+                clientHandler.isDeltaTicks(clientSocket) ->
+                    clientHandler.sendTick(clientSocket, deltaMessage(clientSocket) ?: text(), text())
+                isBinaryWireFormat(clientSocket) ->
+                    clientHandler.sendTick(
+                        clientSocket, binaryMessages.getOrPut(excludedFields) { binaryMessage(excludedFields) }
+                    )
+                clientHandler.isTickCoalesced(clientSocket) -> clientHandler.sendTick(clientSocket, text())
+                else -> textSockets.getOrPut(excludedFields) { mutableListOf() } += clientSocket
+            }
+        }
+
+        textSockets.forEach { (excludedFields, sockets) ->
+            broadcast(sockets, messages.getOrPut(excludedFields) { message(excludedFields) })
+        }
     }
 
+    /**
+     * Checks if a client has selected the binary wire format for receiving tick events.
+     * @param clientSocket is the client connection.
+     * @return `true` if the client receives binary tick events; `false` if it receives JSON text.
+     */
+    fun isBinaryWireFormat(clientSocket: WebSocket): Boolean =
+        clientHandler.getWireFormat(clientSocket) == WireFormat.BINARY_V1
+
+    /** Checks if an observer of a game room has selected delta ticks */
+    fun hasDeltaTickObservers(roomId: String): Boolean = clientHandler.hasDeltaTickObservers(roomId)
+
     fun mapToBotSockets(): Set<WebSocket> = clientHandler.getBotSockets()
 
     fun getBotHandshakes(): Map<WebSocket, BotHandshake> = clientHandler.getBotHandshakes()
 
+    /** Returns the observers and controllers of a game room */
+    fun getObserverAndControllerSockets(roomId: String): Set<WebSocket> =
+        clientHandler.getObserverAndControllerSockets(roomId)
+
+    /** Returns the inbound and outbound queue depths of all open client connections for diagnostics */
+    fun getQueueDepths(): Map<WebSocket, QueueDepth> = clientHandler.getQueueDepths()
+
+    /** Returns the number of tick events replaced by a newer tick event before being sent, for diagnostics */
+    fun getTotalCoalescedTicks(): Long = clientHandler.getTotalCoalescedTicks()
+
     fun mapToBotSockets(botAddresses: Collection<BotAddress>): Set<WebSocket> {
         val botSockets = mutableSetOf<WebSocket>()
         for (clientSocket in getBotHandshakes().keys) {
@@ -75,9 +162,26 @@ class ConnectionHandler(
         clientHandler.send(clientSocket, message)
     }
 
+    /**
+     * Sends a tick event to a client, where a tick event not sent yet is replaced by it if the backpressure policy
+     * coalesces the tick events for the client.
+     */
+    fun sendTick(clientSocket: WebSocket, message: String) {
+        clientHandler.sendTick(clientSocket, message)
+    }
+
+    /** Sends a tick event in the binary wire format to a client like [sendTick] */
+    fun sendTick(clientSocket: WebSocket, message: ByteArray) {
+        clientHandler.sendTick(clientSocket, message)
+    }
+
     fun broadcast(clientSockets: Collection<WebSocket>, message: String) {
         log.debug("Broadcast message: $message")
-        webSocketObserver.broadcast(clientSockets, message)
+
+        // Clients with coalesced tick events get all messages through their outbound mailbox to keep the order
+        val (mailboxSockets, directSockets) = clientSockets.partition(clientHandler::isTickCoalesced)
+        mailboxSockets.forEach { clientHandler.send(it, message) }
+        if (directSockets.isNotEmpty()) webSocketObserver.broadcast(directSockets, message)
     }
 
     /**
@@ -1,14 +1,15 @@
 package dev.robocode.tankroyale.server.connection
 
 import dev.robocode.tankroyale.schema.*
-import dev.robocode.tankroyale.server.core.GameServer
+import dev.robocode.tankroyale.server.core.GameCheckpoint
+import dev.robocode.tankroyale.server.core.GameRooms
 import org.java_websocket.WebSocket
 import org.slf4j.LoggerFactory
 
 
-class GameServerConnectionListener(private val gameServerProvider: () -> GameServer) : IConnectionListener {
+class GameServerConnectionListener(private val gameRoomsProvider: () -> GameRooms) : IConnectionListener {
 
-    private val gameServer get() = gameServerProvider()
+    private val gameRooms get() = gameRoomsProvider()
 
     private val log = LoggerFactory.getLogger(this::class.java)
 
@@ -22,86 +23,99 @@ class GameServerConnectionListener(private val gameServerProvider: () -> GameSer
 
     override fun onBotJoined(clientSocket: WebSocket, handshake: BotHandshake) {
         log.info("Bot joined: {}", getDisplayName(handshake.name, handshake.version))
-        gameServer.handleBotJoined()
+        gameRooms.defaultRoom.handleBotJoined()
     }
 
     override fun onBotLeft(clientSocket: WebSocket, handshake: BotHandshake) {
         log.info("Bot left: {}", getDisplayName(handshake.name, handshake.version))
-        gameServer.handleBotLeft(clientSocket)
+        gameRooms.handleBotLeft(clientSocket)
     }
 
     override fun onBotReady(clientSocket: WebSocket, handshake: BotHandshake) {
         log.info("Bot ready: {}", getDisplayName(handshake.name, handshake.version))
-        gameServer.handleBotReady(clientSocket)
+        gameRooms.getRoomOfBot(clientSocket).handleBotReady(clientSocket)
     }
 
     override fun onBotIntent(clientSocket: WebSocket, handshake: BotHandshake, intent: BotIntent) {
         log.debug("Bot intent: {}: {}", getDisplayName(handshake.name, handshake.version), intent)
-        gameServer.handleBotIntent(clientSocket, intent)
+        gameRooms.getRoomOfBot(clientSocket).handleBotIntent(clientSocket, intent)
     }
 
     override fun onObserverJoined(clientSocket: WebSocket, handshake: ObserverHandshake) {
         log.info("Observer joined: {}", getDisplayName(handshake.name, handshake.version))
-        gameServer.sendBotListUpdate(clientSocket)
+        gameRooms.defaultRoom.sendBotListUpdate(clientSocket)
     }
 
     override fun onObserverLeft(clientSocket: WebSocket, handshake: ObserverHandshake) {
         log.info("Observer left: {}", getDisplayName(handshake.name, handshake.version))
+        gameRooms.handleObserverLeft(clientSocket, handshake.roomId)
     }
 
     override fun onControllerJoined(clientSocket: WebSocket, handshake: ControllerHandshake) {
         log.info("Controller joined: {}", getDisplayName(handshake.name, handshake.version))
-        gameServer.sendBotListUpdate(clientSocket)
+        gameRooms.defaultRoom.sendBotListUpdate(clientSocket)
     }
 
     override fun onControllerLeft(clientSocket: WebSocket, handshake: ControllerHandshake) {
         log.info("Controller left: {}", getDisplayName(handshake.name, handshake.version))
+        gameRooms.handleObserverLeft(clientSocket, handshake.roomId)
     }
 
-    override fun onStartGame(gameSetup: GameSetup, botAddresses: Set<BotAddress>, debugMode: Boolean) {
-        log.debug("Game is requested to start")
-        gameServer.handleStartGame(gameSetup, botAddresses, debugMode)
+    override fun onStartGame(
+        roomId: String,
+        gameSetup: GameSetup,
+        botAddresses: Set<BotAddress>,
+        debugMode: Boolean,
+        checkpoint: GameCheckpoint?
+    ) {
+        log.debug("Game is requested to start in room: {}", roomId)
+        gameRooms.handleStartGame(roomId, gameSetup, botAddresses, debugMode, checkpoint)
     }
 
-    override fun onAbortGame() {
+    override fun onAbortGame(roomId: String) {
         log.debug("Game is requested to abort")
-        gameServer.handleAbortGame()
+        gameRooms.getRoom(roomId).handleAbortGame()
     }
 
-    override fun onPauseGame() {
+    override fun onPauseGame(roomId: String) {
         log.debug("Game is requested to pause")
-        gameServer.handlePauseGame()
+        gameRooms.getRoom(roomId).handlePauseGame()
     }
 
-    override fun onResumeGame() {
+    override fun onResumeGame(roomId: String) {
         log.debug("Game is requested to resume")
-        gameServer.handleResumeGame()
+        gameRooms.getRoom(roomId).handleResumeGame()
     }
 
-    override fun onNextTurn() {
+    override fun onNextTurn(roomId: String) {
         log.debug("Game is requested to do next turn")
-        gameServer.handleNextTurn()
+        gameRooms.getRoom(roomId).handleNextTurn()
     }
 
-    override fun onChangeTps(tps: Int) {
+    override fun onChangeTps(roomId: String, tps: Int) {
         log.info("TPS is requested to change to {}", tps)
-        gameServer.handleChangeTps(tps)
+        gameRooms.getRoom(roomId).handleChangeTps(tps)
     }
 
-    override fun onBotPolicyUpdated(botPolicyUpdate: BotPolicyUpdate) {
+    override fun onBotPolicyUpdated(roomId: String, botPolicyUpdate: BotPolicyUpdate) {
         log.debug("Bot policy updated for botId {}: debugGraphics is {}", botPolicyUpdate.botId,
             if (botPolicyUpdate.debuggingEnabled == true) "enabled" else if (botPolicyUpdate.debuggingEnabled == false) "disabled" else "unchanged")
-        gameServer.handleBotPolicyUpdate(botPolicyUpdate)
+        gameRooms.getRoom(roomId).handleBotPolicyUpdate(botPolicyUpdate)
     }
 
-    override fun onEnableDebugMode() {
+    override fun onEnableDebugMode(roomId: String) {
         log.info("Debug mode is requested to be enabled")
-        gameServer.handleEnableDebugMode()
+        gameRooms.getRoom(roomId).handleEnableDebugMode()
     }
 
-    override fun onDisableDebugMode() {
+    override fun onDisableDebugMode(roomId: String) {
         log.info("Debug mode is requested to be disabled")
-        gameServer.handleDisableDebugMode()
+        gameRooms.getRoom(roomId).handleDisableDebugMode()
+    }
+
+    override fun onCreateCheckpoint(roomId: String, clientSocket: WebSocket) {
+        log.debug("Checkpoint of the game is requested")
+        gameRooms.getRoom(roomId).handleCreateCheckpoint(clientSocket)
     }
 
     private fun getDisplayName(name: String, version: String): String =
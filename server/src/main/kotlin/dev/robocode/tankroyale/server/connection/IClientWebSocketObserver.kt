@@ -12,6 +12,9 @@ interface IClientWebSocketObserver {
 
     fun onError(clientSocket: WebSocket?, exception: Exception)
 
+    /** Called on the network thread when a frame queued for a client has been written to the network */
+    fun onFrameWritten(clientSocket: WebSocket)
+
     fun send(clientSocket: WebSocket, message: String)
 
     fun broadcast(clientSockets: Collection<WebSocket>, message: String)
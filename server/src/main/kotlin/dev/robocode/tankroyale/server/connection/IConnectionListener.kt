@@ -1,6 +1,7 @@
 package dev.robocode.tankroyale.server.connection
 
 import dev.robocode.tankroyale.schema.*
+import dev.robocode.tankroyale.server.core.GameCheckpoint
 import org.java_websocket.WebSocket
 
 /** Connection listener interface. */
@@ -14,13 +15,22 @@ interface IConnectionListener {
     fun onObserverLeft(clientSocket: WebSocket, handshake: ObserverHandshake)
     fun onControllerJoined(clientSocket: WebSocket, handshake: ControllerHandshake)
     fun onControllerLeft(clientSocket: WebSocket, handshake: ControllerHandshake)
-    fun onStartGame(gameSetup: GameSetup, botAddresses: Set<BotAddress>, debugMode: Boolean)
-    fun onAbortGame()
-    fun onPauseGame()
-    fun onResumeGame()
-    fun onNextTurn()
-    fun onChangeTps(tps: Int)
-    fun onBotPolicyUpdated(botPolicyUpdate: BotPolicyUpdate)
-    fun onEnableDebugMode()
-    fun onDisableDebugMode()
+
+    // Controller commands apply to the game room of the controller
+    fun onStartGame(
+        roomId: String,
+        gameSetup: GameSetup,
+        botAddresses: Set<BotAddress>,
+        debugMode: Boolean,
+        checkpoint: GameCheckpoint?
+    )
+    fun onAbortGame(roomId: String)
+    fun onPauseGame(roomId: String)
+    fun onResumeGame(roomId: String)
+    fun onNextTurn(roomId: String)
+    fun onChangeTps(roomId: String, tps: Int)
+    fun onBotPolicyUpdated(roomId: String, botPolicyUpdate: BotPolicyUpdate)
+    fun onEnableDebugMode(roomId: String)
+    fun onDisableDebugMode(roomId: String)
+    fun onCreateCheckpoint(roomId: String, clientSocket: WebSocket)
 }
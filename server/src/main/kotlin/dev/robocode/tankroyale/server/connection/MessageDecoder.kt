@@ -0,0 +1,30 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonParseException
+import com.google.gson.JsonSyntaxException
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.server.mapper.SchemaJsonCodec
+
+/**
+ * Decoder for the messages received from clients.
+ *
+ * A message is decoded in one pass with a streaming reader, which dispatches on the `type` field while reading, and
+ * reads the other fields with the same reader into the schema class of the type. The type can be any field, even the
+ * last one as sent by the bot APIs, so the message is never read twice and never parsed into a JSON tree first.
+ *
+ * @param gson is the Gson instance providing the reader settings.
+ */
+internal class MessageDecoder(gson: Gson = Gson()) {
+
+    private val codec = SchemaJsonCodec(gson)
+
+    /**
+     * Decodes a message into the schema class of its type.
+     * @param message is the message as JSON text.
+     * @return the decoded message, which is the same as when decoded with Gson into the schema class of its type.
+     * @throws JsonSyntaxException if the message is not a JSON object.
+     * @throws JsonParseException if the message has no type, or a type that is not received by the server.
+     */
+    fun decode(message: String): Message = codec.readMessage(message)
+}
@@ -0,0 +1,105 @@
+package dev.robocode.tankroyale.server.connection
+
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Mailbox running its tasks one at a time in submission order on a shared executor.
+ *
+ * At most one task of a mailbox runs at any time, while tasks of different mailboxes run concurrently. The mailbox
+ * only occupies an executor thread while it has tasks to run, which are not waiting for a [Gate].
+ *
+ * @param executor is the executor running the tasks.
+ */
+internal class SerialMailbox(private val executor: Executor) {
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    private val tasks = ConcurrentLinkedQueue<Runnable>()
+
+    private val depth = AtomicInteger()
+
+    private val isScheduled = AtomicBoolean()
+
+    /** Number of tasks submitted that have not completed yet */
+    val queueDepth: Int get() = depth.get()
+
+    /** Gate a task waits for before it runs */
+    fun interface Gate {
+        /**
+         * Checks if the gate is open. If it is closed, [onOpen] must be run once when the gate opens.
+         * @param onOpen is run when the gate opens, which must not be run if the gate is open already.
+         * @return `true` if the gate is open; `false` otherwise.
+         */
+        fun isOpenOrElse(onOpen: Runnable): Boolean
+    }
+
+    /** Task waiting for a gate before it runs */
+    private class GatedTask(val gate: Gate, task: Runnable) : Runnable by task
+
+    /**
+     * Submits a task to run after all tasks submitted before it.
+     * @param task is the task to run.
+     */
+    fun submit(task: Runnable) {
+        depth.incrementAndGet()
+        tasks += task
+        schedule()
+    }
+
+    /**
+     * Submits a task to run after all tasks submitted before it, when a gate is open. While the gate is closed, the
+     * task and the tasks submitted after it are held without occupying an executor thread.
+     * @param gate is the gate to wait for.
+     * @param task is the task to run.
+     */
+    fun submit(gate: Gate, task: Runnable) {
+        submit(GatedTask(gate, task))
+    }
+
+    private fun schedule() {
+        if (!isScheduled.compareAndSet(false, true)) return
+        execute()
+    }
+
+    private fun execute() {
+        try {
+            executor.execute(::drain)
+        } catch (_: RejectedExecutionException) {
+            // The executor has been shut down, so no task will ever run
+            isScheduled.set(false)
+            tasks.clear()
+            depth.set(0)
+        }
+    }
+
+    private fun drain() {
+        var isWaiting = false
+        try {
+            while (true) {
+                val task = tasks.peek() ?: break
+                // The mailbox stays scheduled while waiting, so it is only drained again when the gate opens
+                if (task is GatedTask && !task.gate.isOpenOrElse(::execute)) {
+                    isWaiting = true
+                    return
+                }
+                tasks.poll()
+                try {
+                    task.run()
+                } catch (exception: RuntimeException) {
+                    log.error("Unexpected error running mailbox task", exception)
+                } finally {
+                    depth.decrementAndGet()
+                }
+            }
+        } finally {
+            if (!isWaiting) isScheduled.set(false)
+        }
+        // A task might have been submitted after the queue was found empty, but before the flag was cleared
+        if (tasks.isNotEmpty()) schedule()
+    }
+}
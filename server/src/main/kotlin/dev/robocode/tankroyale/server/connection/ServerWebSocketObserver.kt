@@ -14,11 +14,13 @@ class ServerWebSocketObserver : WebSocketServer {
 
     constructor(
         address: InetSocketAddress,
-        observer: IClientWebSocketObserver
-    ) : super(address) {
+        observer: IClientWebSocketObserver,
+        compressionPolicy: CompressionPolicy
+    ) : super(address, compressionPolicy.drafts()) {
         this.observer = observer
         this.useInheritedChannel = false
         isTcpNoDelay = true
+        setWebSocketFactory(WriteSignalingFactory(observer::onFrameWritten))
     }
 
     constructor(
@@ -30,6 +32,7 @@ class ServerWebSocketObserver : WebSocketServer {
         this.observer = observer
         this.useInheritedChannel = true
         isTcpNoDelay = true
+        setWebSocketFactory(WriteSignalingFactory(observer::onFrameWritten))
     }
 
     override fun onStart() {
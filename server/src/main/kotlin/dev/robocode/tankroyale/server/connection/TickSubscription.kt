@@ -0,0 +1,51 @@
+package dev.robocode.tankroyale.server.connection
+
+import dev.robocode.tankroyale.schema.ObserverSubscription
+import dev.robocode.tankroyale.server.mapper.TickField
+
+/**
+ * Tick events and fields received by an observer or controller.
+ *
+ * Observers with the same [excludedFields] share the same serialized tick event, so each variant is serialized once
+ * per turn no matter how many observers receive it.
+ *
+ * @param tickInterval is the interval in turns between the tick events received.
+ * @param resultsOnly is a flag specifying if no tick events are received.
+ * @param excludedFields are the bot state fields left out of the tick events.
+ */
+data class TickSubscription(
+    val tickInterval: Int = 1,
+    val resultsOnly: Boolean = false,
+    val excludedFields: Set<TickField> = emptySet(),
+) {
+    init {
+        require(tickInterval >= 1) { "tickInterval must be at least 1" }
+    }
+
+    companion object {
+        /** Subscription to all tick events and fields */
+        val ALL = TickSubscription()
+
+        /**
+         * Maps the subscription of an observer handshake.
+         * @param subscription is the subscription from the handshake, or `null` if none was given.
+         * @return the tick subscription, where absent or invalid values select all tick events and fields.
+         */
+        fun from(subscription: ObserverSubscription?): TickSubscription {
+            if (subscription == null) return ALL
+            return TickSubscription(
+                tickInterval = (subscription.tickInterval ?: 1).coerceAtLeast(1),
+                resultsOnly = subscription.resultsOnly == true,
+                excludedFields = subscription.excludedFields.orEmpty().mapNotNullTo(HashSet(), TickField::fromValue),
+            )
+        }
+    }
+
+    /**
+     * Checks if the tick event of a turn is received.
+     * @param turnNumber is the turn number.
+     * @return `true` if the tick event is received; `false` otherwise.
+     */
+    fun isTickIncluded(turnNumber: Int): Boolean =
+        !resultsOnly && (turnNumber == 1 || turnNumber % tickInterval == 0)
+}
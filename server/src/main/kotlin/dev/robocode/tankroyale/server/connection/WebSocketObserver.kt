@@ -7,7 +7,7 @@ import java.net.InetSocketAddress
 import java.nio.channels.ServerSocketChannel
 import kotlin.system.exitProcess
 
-class WebSocketObserver(observer: IClientWebSocketObserver) {
+class WebSocketObserver(observer: IClientWebSocketObserver, compressionPolicy: CompressionPolicy) {
 
     private val log = LoggerFactory.getLogger(this::class.java)
 
@@ -16,7 +16,7 @@ class WebSocketObserver(observer: IClientWebSocketObserver) {
             validateInheritedChannel()
             ServerWebSocketObserver(observer)
         } else {
-            ServerWebSocketObserver(InetSocketAddress(Server.portNumber), observer)
+            ServerWebSocketObserver(InetSocketAddress(Server.portNumber), observer, compressionPolicy)
         }
 
     fun start() {
@@ -0,0 +1,25 @@
+package dev.robocode.tankroyale.server.connection
+
+/**
+ * Wire format used for sending tick events to a client, which is selected by the client in its handshake among the
+ * wire formats advertised in the server handshake features.
+ *
+ * @param value is the name of the wire format used in the handshakes.
+ */
+enum class WireFormat(val value: String) {
+
+    /** JSON text frames, which is the default */
+    JSON("json"),
+
+    /** Binary frames with the fixed layout of `BinaryTickCodec`. All other messages are still sent as JSON text. */
+    BINARY_V1("binary-v1");
+
+    companion object {
+        /**
+         * Returns the wire format selected by a client.
+         * @param value is the wire format name from the client handshake.
+         * @return the wire format, where JSON is returned if the name is absent or unknown.
+         */
+        fun fromValue(value: String?): WireFormat = entries.firstOrNull { it.value == value } ?: JSON
+    }
+}
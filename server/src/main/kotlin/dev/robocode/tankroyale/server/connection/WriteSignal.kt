@@ -0,0 +1,66 @@
+package dev.robocode.tankroyale.server.connection
+
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Signal for waiting until the frames sent to a client connection have been written to the network.
+ *
+ * The signal counts the frames itself: [frameQueued] is called before sending a frame, and the network thread calls
+ * [frameWritten] each time it has written a frame for the client. The signal is raised when no counted frame is left.
+ * Frames queued by the WebSocket library itself, like pings and pongs, are written too, so the count never goes below
+ * zero, and the signal might be raised early, which at most lets a tick event be sent before the client has caught up.
+ *
+ * Nothing blocks on the signal: a mailbox waiting for it is given a callback with [isWrittenOrElse], which is run when
+ * the signal is raised, so it does not occupy a thread while the client is behind.
+ */
+internal class WriteSignal {
+
+    private val lock = ReentrantLock()
+
+    /** Number of frames sent that have not been written yet. Guarded by lock. */
+    private var pendingFrames = 0
+
+    /** Callback run when the signal is raised. Guarded by lock. */
+    private var onWritten: Runnable? = null
+
+    /** Counts a frame about to be sent, which lowers the signal until the frame has been written */
+    fun frameQueued() {
+        lock.withLock { pendingFrames++ }
+    }
+
+    /** Counts a frame written to the network, which raises the signal if it was the last frame pending */
+    fun frameWritten() {
+        val waiting = lock.withLock {
+            if (pendingFrames > 0) pendingFrames--
+            if (pendingFrames == 0) takeOnWritten() else null
+        }
+        waiting?.run()
+    }
+
+    /** Raises the signal when the pending frames are never written, e.g. when the connection is closed */
+    fun signal() {
+        val waiting = lock.withLock {
+            pendingFrames = 0
+            takeOnWritten()
+        }
+        waiting?.run()
+    }
+
+    /**
+     * Checks if the frames sent have been written, or are not pending anymore. Otherwise, [onWritten] is run once when
+     * the signal is raised.
+     * @param isPending checks if frames are still pending, e.g. buffered for a client that is open.
+     * @param onWritten is run when the signal is raised, if the frames are still pending now.
+     * @return `true` if the frames have been written; `false` if [onWritten] will be run when they are.
+     */
+    fun isWrittenOrElse(isPending: () -> Boolean, onWritten: Runnable): Boolean =
+        lock.withLock {
+            if (pendingFrames == 0 || !isPending()) return true
+            this.onWritten = onWritten
+            false
+        }
+
+    /** Guarded by lock */
+    private fun takeOnWritten(): Runnable? = onWritten.also { onWritten = null }
+}
@@ -0,0 +1,43 @@
+package dev.robocode.tankroyale.server.connection
+
+import org.java_websocket.WebSocket
+import org.java_websocket.WebSocketServerFactory
+import org.java_websocket.server.DefaultWebSocketServerFactory
+import java.nio.ByteBuffer
+import java.nio.channels.ByteChannel
+import java.nio.channels.SelectionKey
+import java.nio.channels.SocketChannel
+
+/**
+ * Factory for the client connections of the server, which calls [onFrameWritten] on the network thread each time a
+ * frame queued for a client has been written to the network.
+ *
+ * The WebSocket library only tells if a connection has buffered data, so without this signal the server would have to
+ * poll [WebSocket.hasBufferedData] to find out when a slow client has caught up. The library queues each frame as one
+ * buffer, so a buffer written in full is a frame written.
+ *
+ * @param onFrameWritten is called with the client connection when one of its queued frames has been written.
+ */
+internal class WriteSignalingFactory(
+    private val onFrameWritten: (WebSocket) -> Unit
+) : WebSocketServerFactory by DefaultWebSocketServerFactory() {
+
+    override fun wrapChannel(channel: SocketChannel, key: SelectionKey): ByteChannel =
+        WriteSignalingChannel(channel, key.attachment() as WebSocket, onFrameWritten)
+
+    /** Channel of a client connection signaling when a frame queued for the client has been written */
+    private class WriteSignalingChannel(
+        private val channel: SocketChannel,
+        private val clientSocket: WebSocket,
+        private val onFrameWritten: (WebSocket) -> Unit
+    ) : ByteChannel by channel {
+
+        override fun write(src: ByteBuffer): Int {
+            val count = channel.write(src)
+            if (!src.hasRemaining()) {
+                onFrameWritten(clientSocket)
+            }
+            return count
+        }
+    }
+}
@@ -4,35 +4,48 @@ import dev.robocode.tankroyale.server.model.*
 import dev.robocode.tankroyale.server.rules.*
 import java.util.*
 
-/** Initializer for bot states. */
+/** Preferred size of the grid cells used for placing bots, each cell containing at most one bot */
+private const val PREFERRED_PLACEMENT_CELL_SIZE = 50
+
+/**
+ * Initializer for bot states.
+ *
+ * Bots are placed at random positions by dividing the arena into a grid and putting each bot in its own cell, so bots
+ * never overlap. The cells are drawn without replacement by a lazy Fisher-Yates shuffle, which only keeps track of the
+ * swapped cells, so placing the bots takes time linear in the number of bots regardless of the arena size. The cells
+ * are 50 x 50 pixels when the arena has room for it, and shrink down to the bot bounding circle diameter for denser
+ * battles.
+ */
 class BotInitializer(
     private val setup: GameSetup,
     private val participantIds: Set<ParticipantId>,
     private val initialPositions: Map<BotId, InitialPosition>,
     private val droidFlags: Map<BotId, Boolean>,
     private val initialPositionEnabled: Boolean,
+    private val random: Random = Random(),
 ) {
 
-    private val random = Random()
-
     fun initializeBotStates(botsMap: MutableMap<BotId, MutableBot>, turn: MutableTurn) {
-        val occupiedCells = mutableSetOf<Int>()
+        val placementGrid = createPlacementGrid()
+        val teamMemberIds = participantIds.filter { it.teamId != null }
+            .groupBy({ it.teamId }, { it.botId })
+            .mapValues { (_, botIds) -> botIds.toSet() }
+
         for (teamOrBotId in participantIds) {
             val botId = teamOrBotId.botId
 
             val isDroid = droidFlags[botId] ?: false
             val energy = if (isDroid) INITIAL_DROID_ENERGY else INITIAL_BOT_ENERGY
 
-            val randomPosition = randomBotPosition(occupiedCells)
+            val randomPosition = placementGrid.randomBotPoint()
             val position = adjustForInitialPosition(botId, randomPosition)
-            val randomDirection = randomDirection()
+            // Drawn from the random number generator of the game, so a game forked from a checkpoint starts new rounds
+            // exactly like the game
+            val randomDirection = random.nextDouble() * 360
             val direction = adjustForInitialAngle(botId, randomDirection)
 
             val teammateIds: Set<BotId> =
-                teamOrBotId.teamId?.let {
-                    participantIds.filter { it.teamId == teamOrBotId.teamId }.map { it.botId }.toSet()
-                        .minus(botId)
-                } ?: emptySet()
+                teamOrBotId.teamId?.let { teamMemberIds.getValue(it).minus(botId) } ?: emptySet()
 
             botsMap[botId] = MutableBot(
                 id = botId,
@@ -78,37 +91,59 @@ class BotInitializer(
         }
     }
 
-    private fun randomBotPosition(occupiedCells: MutableSet<Int>): Point {
-        val gridWidth = setup.arenaWidth / 50
-        val gridHeight = setup.arenaHeight / 50
-        val cellCount = gridWidth * gridHeight
+    /**
+     * Creates the grid for placing the bots of a round, using the largest cell size not exceeding the preferred cell
+     * size where every bot gets a cell of its own.
+     */
+    private fun createPlacementGrid(): PlacementGrid {
         val numBots = participantIds.size
-        require(cellCount >= numBots) {
+        val cellSize = (PREFERRED_PLACEMENT_CELL_SIZE downTo BOT_BOUNDING_CIRCLE_DIAMETER).firstOrNull {
+            (setup.arenaWidth / it).toLong() * (setup.arenaHeight / it) >= numBots
+        }
+        requireNotNull(cellSize) {
             "Area size (${setup.arenaWidth},${setup.arenaHeight}) is too small to contain $numBots bots"
         }
-        val cellWidth = setup.arenaWidth / gridWidth
-        val cellHeight = setup.arenaHeight / gridHeight
-
-        return randomBotPoint(occupiedCells, cellCount, gridWidth, cellWidth, cellHeight)
+        return PlacementGrid(setup.arenaWidth / cellSize, setup.arenaHeight / cellSize)
     }
 
-    private fun randomBotPoint(
-        occupiedCells: MutableSet<Int>,
-        cellCount: Int,
-        gridWidth: Int,
-        cellWidth: Int,
-        cellHeight: Int
-    ): Point {
-        val availableCells = (0 until cellCount).filter { it !in occupiedCells }
-        val cell = availableCells[random.nextInt(availableCells.size)]
-        occupiedCells += cell
-
-        val cellRow = cell / gridWidth
-        val cellCol = cell - cellRow * gridWidth
-        val cellX = cellCol * cellWidth.toDouble() +
-                BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (cellWidth - BOT_BOUNDING_CIRCLE_DIAMETER)
-        val cellY = cellRow * cellHeight.toDouble() +
-                BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (cellHeight - BOT_BOUNDING_CIRCLE_DIAMETER)
-        return Point(cellX, cellY)
+    /**
+     * Grid for placing bots, where each random bot point is in a cell not used before.
+     * @param gridWidth is the number of cells along the x-axis.
+     * @param gridHeight is the number of cells along the y-axis.
+     */
+    private inner class PlacementGrid(private val gridWidth: Int, gridHeight: Int) {
+        private val cellCount = gridWidth * gridHeight
+        private val cellWidth = setup.arenaWidth / gridWidth
+        private val cellHeight = setup.arenaHeight / gridHeight
+
+        /** Cells moved by the shuffle, where cells not contained are still at their own index */
+        private val swappedCells = HashMap<Int, Int>()
+
+        /** Number of cells drawn so far */
+        private var drawnCount = 0
+
+        /** Returns a random bot point inside a random cell not drawn before */
+        fun randomBotPoint(): Point {
+            val cell = drawCell()
+
+            val cellRow = cell / gridWidth
+            val cellCol = cell - cellRow * gridWidth
+            val cellX = cellCol * cellWidth.toDouble() +
+                    BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (cellWidth - BOT_BOUNDING_CIRCLE_DIAMETER)
+            val cellY = cellRow * cellHeight.toDouble() +
+                    BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (cellHeight - BOT_BOUNDING_CIRCLE_DIAMETER)
+            return Point(cellX, cellY)
+        }
+
+        private fun drawCell(): Int {
+            check(drawnCount < cellCount) { "No free cells left for placing bots" }
+
+            val index = drawnCount + random.nextInt(cellCount - drawnCount)
+            val cell = swappedCells[index] ?: index
+            swappedCells[index] = swappedCells[drawnCount] ?: drawnCount
+            swappedCells.remove(drawnCount)
+            drawnCount++
+            return cell
+        }
     }
 }
@@ -0,0 +1,50 @@
+package dev.robocode.tankroyale.server.core
+
+import java.util.stream.IntStream
+
+/**
+ * Minimum number of bots before a per-bot phase is executed in parallel. Below this, the overhead of handing the work
+ * to the fork-join pool is larger than the work itself.
+ */
+internal const val MIN_BOTS_FOR_PARALLEL_PHASES = 64
+
+/**
+ * Executor for the per-bot phases of a turn, e.g. firing guns, executing bot intents, and scanning.
+ *
+ * A phase is split into a compute step, which only reads shared state and only writes to the bot it is computing for,
+ * and a merge step that applies the results to shared state like the turn events. The compute step can run in
+ * parallel on the common fork-join pool, while the results are always returned in the same order as the input. This
+ * way, the merge step applies the results in the same order as the sequential pipeline, so events and bullet ids come
+ * out bit-identical regardless of the number of cores.
+ *
+ * @param isParallelEnabled is a flag specifying if the compute step may run in parallel.
+ * @param minParallelCount is the minimum number of items before the compute step runs in parallel.
+ */
+internal class BotPhaseExecutor(
+    private val isParallelEnabled: Boolean,
+    private val minParallelCount: Int = MIN_BOTS_FOR_PARALLEL_PHASES,
+) {
+    /**
+     * Computes a result for each item.
+     * @param items is the items to compute results for.
+     * @param compute is the function computing the result for a single item.
+     * @return the results in the same order as [items].
+     */
+    fun <T, R> map(items: List<T>, compute: (T) -> R): List<R> {
+        if (!isParallel(items.size)) {
+            return items.map(compute)
+        }
+        val results = arrayOfNulls<Any?>(items.size)
+        IntStream.range(0, items.size).parallel().forEach { results[it] = compute(items[it]) }
+
+        @Suppress("UNCHECKED_CAST")
+        return results.asList() as List<R>
+    }
+
+    /**
+     * Checks if a phase with a number of items is executed in parallel.
+     * @param count is the number of items.
+     * @return `true` if the phase is executed in parallel; `false` otherwise.
+     */
+    fun isParallel(count: Int): Boolean = isParallelEnabled && count >= minParallelCount
+}
@@ -19,6 +19,12 @@ private val bulletMaxBoundingCircleDiameterSquared: Double =
 private const val BOT_BOUNDING_CIRCLE_DIAMETER_SQUARED: Double =
     BOT_BOUNDING_CIRCLE_DIAMETER.toDouble() * BOT_BOUNDING_CIRCLE_DIAMETER
 
+/**
+ * Margin added around a bullet line when searching for bots, which absorbs floating-point rounding in the exact
+ * line/circle test so the broad phase never culls a bot the exhaustive path would report as hit.
+ */
+private const val BULLET_BOT_QUERY_MARGIN = 1.0
+
 // ── Outcome data classes ────────────────────────────────────────────────────────
 
 data class BulletHitBulletOutcome(
@@ -89,21 +95,44 @@ data class BotCollisionPhaseResult(
 
 // ── Collision Detector ──────────────────────────────────────────────────────────
 
-/** Collision detector for bots and bullets. */
+/**
+ * Collision detector for bots and bullets.
+ *
+ * Bullet hits are found with a uniform-grid broad phase: bullet line ends and bot centers are bucketed into grids
+ * covering the arena, so only nearby bullets and bots reach the exact tests. The reported hits and their order are
+ * identical to testing every bullet pair and every bullet/bot pair, which is still available by setting
+ * [isBroadPhaseEnabled] to `false`.
+ */
 class CollisionDetector(
     private val setup: GameSetup,
     private val participantIds: Set<ParticipantId>,
-    private val random: java.util.Random = java.util.Random()
+    private val random: java.util.Random = java.util.Random(),
+    /** Flag specifying if the grid broad phase is used for bullet hits; `false` tests all pairs exhaustively */
+    private val isBroadPhaseEnabled: Boolean = true,
 ) {
 
+    /** Grid over bullet line ends, where neighbour cells cover the max. bounding circle diameter of a bullet */
+    private val bulletGrid by lazy {
+        SpatialGrid(setup.arenaWidth.toDouble(), setup.arenaHeight.toDouble(), bulletMaxBoundingCircleDiameter)
+    }
+
+    /** Grid over bot centers, where a bullet line query covers at most 2 x 2 cells */
+    private val botGrid by lazy {
+        SpatialGrid(
+            setup.arenaWidth.toDouble(), setup.arenaHeight.toDouble(),
+            BOT_BOUNDING_CIRCLE_DIAMETER + MAX_BULLET_SPEED
+        )
+    }
+
     // ── Public methods (detect → apply → return outcome) ────────────────────
 
-    fun checkAndHandleBulletHits(
-        bullets: MutableSet<Bullet>,
+    fun <B : IBullet> checkAndHandleBulletHits(
+        bullets: MutableSet<B>,
         botsMap: Map<BotId, MutableBot>,
         turn: MutableTurn,
+        precomputed: PrecomputedBulletPhase? = null,
     ): BulletPhaseResult {
-        val results = detectBulletHits(bullets, botsMap)
+        val results = detectBulletHits(bullets, botsMap, precomputed)
         val scoringRecords = applyBulletHitResults(results, bullets, botsMap, turn)
         return BulletPhaseResult(results, scoringRecords)
     }
@@ -120,7 +149,7 @@ class CollisionDetector(
 
     fun checkAndHandleBotWallCollisions(
         botsMap: Map<BotId, MutableBot>,
-        botsCopies: Map<BotId, MutableBot>,
+        botsCopies: Map<BotId, IBot>,
         lastRound: MutableRound?,
         turn: MutableTurn,
     ): List<BotWallHitOutcome> {
@@ -129,18 +158,50 @@ class CollisionDetector(
         return outcomes
     }
 
-    fun checkAndHandleBulletWallCollisions(
-        bullets: MutableSet<Bullet>,
+    fun <B : IBullet> checkAndHandleBulletWallCollisions(
+        bullets: MutableSet<B>,
         turn: MutableTurn,
+        precomputed: PrecomputedBulletPhase? = null,
     ): List<BulletWallHitOutcome> {
-        val outcomes = detectBulletWallCollisions(bullets)
+        val outcomes = detectBulletWallCollisions(bullets, precomputed)
         applyBulletWallCollisions(outcomes, bullets, turn)
         return outcomes
     }
 
-    fun constrainBotPositions(botsMap: Map<BotId, MutableBot>, botsCopies: Map<BotId, MutableBot>) {
+    /**
+     * Precomputes the bullet phase of the next turn for the bullets in flight, i.e. the bullet wall hits and the hits
+     * between the bullets at the positions the bullets get when being advanced in the next turn.
+     * @param bullets is the bullets in flight, which must not be advanced before the next turn.
+     * @return the precomputed bullet phase.
+     */
+    fun precomputeBulletPhase(bullets: Collection<IBullet>): PrecomputedBulletPhase {
+        val inFlight = bullets.toList()
+        val advanced = inFlight.map { it.toBullet().copy(tick = it.tick + 1) }
+        val wallHits = BooleanArray(advanced.size) { isPointOutsideArena(advanced[it].position()) }
+
+        val remainingLines = advanced.filterIndexed { i, _ -> !wallHits[i] }.map { BulletLine(it) }
+        val outcomes = mutableListOf<BulletHitBulletOutcome>()
+        if (isBroadPhaseEnabled) {
+            detectBulletHitBulletsInGrid(remainingLines, outcomes)
+        } else {
+            detectBulletHitBulletsExhaustively(remainingLines, outcomes)
+        }
+        val remainingIndices = remainingLines.withIndex().associate { (index, line) -> line.bullet.id to index }
+
+        return PrecomputedBulletPhase(
+            bullets = inFlight,
+            ticks = IntArray(inFlight.size) { inFlight[it].tick },
+            wallHits = wallHits,
+            bulletHitBullets = outcomes,
+            bulletHitFirstIndices = IntArray(outcomes.size) { remainingIndices.getValue(outcomes[it].bullet1.id) },
+        )
+    }
+
+    fun constrainBotPositions(botsMap: Map<BotId, MutableBot>, botsCopies: Map<BotId, IBot>) {
         botsMap.values.forEach { bot ->
-            val (previousX, previousY) = botsCopies[bot.id]!!.position
+            val previousState = botsCopies[bot.id]!!
+            val previousX = previousState.x
+            val previousY = previousState.y
             val (x, y) = constrainBotPosition(previousX, previousY, bot.x, bot.y)
             bot.x = x
             bot.y = y
@@ -150,40 +211,163 @@ class CollisionDetector(
     // ── Detection (pure — no mutations to bots, bullets, turn, or scores) ───
 
     private fun detectBulletHits(
-        bullets: Set<Bullet>,
+        bullets: Set<IBullet>,
         botsMap: Map<BotId, MutableBot>,
+        precomputed: PrecomputedBulletPhase?,
     ): BulletHitResults {
         val bulletBulletOutcomes = mutableListOf<BulletHitBulletOutcome>()
         val bulletBotOutcomes = mutableListOf<BulletHitBotOutcome>()
 
-        val bulletList = bullets.toList()
-        if (bulletList.isNotEmpty()) {
+        if (bullets.isNotEmpty()) {
+            val bulletList = bullets.toList()
             val bulletLines = bulletList.map { BulletLine(it) }
+            val bots = botsMap.values.toList()
+
+            if (precomputed != null && precomputed.matchesRemaining(bulletList)) {
+                detectBulletHitBulletsWithPrecomputed(bulletLines, precomputed, bulletBulletOutcomes)
+                if (isBroadPhaseEnabled) {
+                    detectBulletHitBotsInGrid(bulletLines, bots, bulletBotOutcomes)
+                } else {
+                    detectBulletHitBotsExhaustively(bulletLines, bots, bulletBotOutcomes)
+                }
+            } else if (isBroadPhaseEnabled) {
+                detectBulletHitBulletsInGrid(bulletLines, bulletBulletOutcomes)
+                detectBulletHitBotsInGrid(bulletLines, bots, bulletBotOutcomes)
+            } else {
+                detectBulletHitBulletsExhaustively(bulletLines, bulletBulletOutcomes)
+                detectBulletHitBotsExhaustively(bulletLines, bots, bulletBotOutcomes)
+            }
+        }
+
+        return BulletHitResults(bulletBulletOutcomes, bulletBotOutcomes)
+    }
+
+    private fun detectBulletHitBulletsExhaustively(
+        bulletLines: List<BulletLine>,
+        outcomes: MutableList<BulletHitBulletOutcome>,
+    ) {
+        forEachUniquePair(bulletLines) { bl1, bl2 ->
+            if (isColliding(bl1, bl2)) {
+                outcomes.add(BulletHitBulletOutcome(bl1.bullet.toBullet(), bl2.bullet.toBullet()))
+            }
+        }
+    }
 
-            forEachUniquePair(bulletLines) { bl1, bl2 ->
-                if (isColliding(bl1, bl2)) {
-                    bulletBulletOutcomes.add(BulletHitBulletOutcome(bl1.bullet, bl2.bullet))
+    private fun detectBulletHitBotsExhaustively(
+        bulletLines: List<BulletLine>,
+        bots: List<MutableBot>,
+        outcomes: MutableList<BulletHitBotOutcome>,
+    ) {
+        for (bulletLine in bulletLines) {
+            for (bot in bots) {
+                if (bulletLine.bullet.botId == bot.id) continue
+                if (isBulletHittingBot(bulletLine, bot)) {
+                    outcomes.add(computeBulletHitBotOutcome(bulletLine.bullet, bot))
                 }
             }
+        }
+    }
 
-            for (bulletLine in bulletLines) {
-                for (bot in botsMap.values) {
-                    if (bulletLine.bullet.botId == bot.id) continue
-                    if (isBulletHittingBot(bulletLine, bot)) {
-                        bulletBotOutcomes.add(computeBulletHitBotOutcome(bulletLine.bullet, bot))
-                    }
+    /**
+     * Variant of [detectBulletHitBulletsExhaustively] reusing the precomputed hits between the bullets in flight, which
+     * come first in the bullet lines. Only pairs with a bullet fired in this turn are checked, and the outcomes come
+     * out in the same order as with the exhaustive pair loop.
+     */
+    private fun detectBulletHitBulletsWithPrecomputed(
+        bulletLines: List<BulletLine>,
+        precomputed: PrecomputedBulletPhase,
+        outcomes: MutableList<BulletHitBulletOutcome>,
+    ) {
+        val inFlightCount = precomputed.remainingCount
+        var next = 0
+        for (i in bulletLines.indices) {
+            while (next < precomputed.bulletHitBullets.size && precomputed.bulletHitFirstIndices[next] == i) {
+                outcomes.add(precomputed.bulletHitBullets[next++])
+            }
+            for (j in maxOf(i + 1, inFlightCount) until bulletLines.size) {
+                if (isColliding(bulletLines[i], bulletLines[j])) {
+                    outcomes.add(
+                        BulletHitBulletOutcome(bulletLines[i].bullet.toBullet(), bulletLines[j].bullet.toBullet())
+                    )
                 }
             }
         }
+    }
 
-        return BulletHitResults(bulletBulletOutcomes, bulletBotOutcomes)
+    /**
+     * Broad-phase variant of [detectBulletHitBulletsExhaustively]. Candidates are visited in ascending index order,
+     * so the outcomes come out in the same order as with the exhaustive pair loop.
+     */
+    private fun detectBulletHitBulletsInGrid(
+        bulletLines: List<BulletLine>,
+        outcomes: MutableList<BulletHitBulletOutcome>,
+    ) {
+        val count = bulletLines.size
+        val xs = DoubleArray(count) { bulletLines[it].end.x }
+        val ys = DoubleArray(count) { bulletLines[it].end.y }
+        bulletGrid.rebuild(xs, ys, count)
+
+        val candidates = IntArray(count)
+        val d = bulletMaxBoundingCircleDiameter
+        for (i in 0 until count) {
+            val candidateCount = bulletGrid.collect(xs[i] - d, ys[i] - d, xs[i] + d, ys[i] + d, candidates)
+            candidates.sort(0, candidateCount)
+
+            for (k in 0 until candidateCount) {
+                val j = candidates[k]
+                if (j <= i) continue
+                if (isColliding(bulletLines[i], bulletLines[j])) {
+                    outcomes.add(
+                        BulletHitBulletOutcome(bulletLines[i].bullet.toBullet(), bulletLines[j].bullet.toBullet())
+                    )
+                }
+            }
+        }
+    }
+
+    /**
+     * Broad-phase variant of [detectBulletHitBotsExhaustively]. Only bots whose center lies within the bounding box
+     * of the bullet line grown by the bot radius are tested, in the same order as the exhaustive loop.
+     */
+    private fun detectBulletHitBotsInGrid(
+        bulletLines: List<BulletLine>,
+        bots: List<MutableBot>,
+        outcomes: MutableList<BulletHitBotOutcome>,
+    ) {
+        if (bots.isEmpty()) return
+
+        val count = bots.size
+        val xs = DoubleArray(count) { bots[it].x }
+        val ys = DoubleArray(count) { bots[it].y }
+        botGrid.rebuild(xs, ys, count)
+
+        val candidates = IntArray(count)
+        val reach = BOT_BOUNDING_CIRCLE_RADIUS + BULLET_BOT_QUERY_MARGIN
+        for (bulletLine in bulletLines) {
+            val line = bulletLine.line
+            val (start, end) = line
+            val candidateCount = botGrid.collect(
+                minOf(start.x, end.x) - reach, minOf(start.y, end.y) - reach,
+                maxOf(start.x, end.x) + reach, maxOf(start.y, end.y) + reach,
+                candidates
+            )
+            candidates.sort(0, candidateCount)
+
+            for (k in 0 until candidateCount) {
+                val bot = bots[candidates[k]]
+                if (bulletLine.bullet.botId == bot.id) continue
+                if (isBulletHittingBot(bulletLine, bot)) {
+                    outcomes.add(computeBulletHitBotOutcome(bulletLine.bullet, bot))
+                }
+            }
+        }
     }
 
-    private fun computeBulletHitBotOutcome(bullet: Bullet, bot: MutableBot): BulletHitBotOutcome {
+    private fun computeBulletHitBotOutcome(bullet: IBullet, bot: MutableBot): BulletHitBotOutcome {
         val shooterId = bullet.botId
         val victimId = bot.id
         return BulletHitBotOutcome(
-            bullet = bullet,
+            bullet = bullet.toBullet(),
             damage = calcBulletDamage(bullet.power),
             energyBonus = BULLET_HIT_ENERGY_GAIN_FACTOR * bullet.power,
             shooterParticipantId = participantIds.first { it.botId == shooterId },
@@ -220,9 +404,9 @@ class CollisionDetector(
         val (bot1NewPos, bot2NewPos) = if (turnNumber == 1 || lastTurn == null) {
             Pair(bot1.position, randomSafePosition())
         } else {
-            val oldPos1 = lastTurn.getBot(bot1.id)!!.position
-            val oldPos2 = lastTurn.getBot(bot2.id)!!.position
-            Pair(Point(oldPos1.x, oldPos1.y), Point(oldPos2.x, oldPos2.y))
+            val oldBot1 = lastTurn.getBot(bot1.id)!!
+            val oldBot2 = lastTurn.getBot(bot2.id)!!
+            Pair(Point(oldBot1.x, oldBot1.y), Point(oldBot2.x, oldBot2.y))
         }
 
         return BotCollisionOutcome(
@@ -239,14 +423,16 @@ class CollisionDetector(
 
     private fun detectBotWallCollisions(
         botsMap: Map<BotId, MutableBot>,
-        botsCopies: Map<BotId, MutableBot>,
+        botsCopies: Map<BotId, IBot>,
         lastRound: MutableRound?,
     ): List<BotWallHitOutcome> {
         if (lastRound?.lastTurn == null) return emptyList()
 
         val outcomes = mutableListOf<BotWallHitOutcome>()
         for (bot in botsMap.values) {
-            val (previousX, previousY) = botsCopies[bot.id]!!.position
+            val previousState = botsCopies[bot.id]!!
+            val previousX = previousState.x
+            val previousY = previousState.y
             val (newX, newY) = constrainBotPosition(previousX, previousY, bot.x, bot.y)
             val hitWall = bot.x != newX || bot.y != newY
             if (hitWall) {
@@ -266,19 +452,31 @@ class CollisionDetector(
         return outcomes
     }
 
-    private fun detectBulletWallCollisions(bullets: Set<Bullet>): List<BulletWallHitOutcome> =
-        bullets.filter { isPointOutsideArena(it.position()) }
-            .map { BulletWallHitOutcome(it.copy()) }
+    private fun detectBulletWallCollisions(
+        bullets: Set<IBullet>,
+        precomputed: PrecomputedBulletPhase?,
+    ): List<BulletWallHitOutcome> {
+        val bulletList = bullets.toList()
+        if (precomputed == null || !precomputed.matches(bulletList)) {
+            return bulletList.filter { isPointOutsideArena(it.position()) }
+                .map { BulletWallHitOutcome(it.toBullet()) }
+        }
+        // Only the bullets fired in this turn, which come after the bullets in flight, need to be checked
+        return bulletList.filterIndexed { i, bullet ->
+            if (i < precomputed.size) precomputed.isWallHit(i) else isPointOutsideArena(bullet.position())
+        }.map { BulletWallHitOutcome(it.toBullet()) }
+    }
 
     // ── Apply (mutation — writes to bots, bullets, turn, and scores) ────────
 
-    private fun applyBulletHitResults(
+    private fun <B : IBullet> applyBulletHitResults(
         results: BulletHitResults,
-        bullets: MutableSet<Bullet>,
+        bullets: MutableSet<B>,
         botsMap: Map<BotId, MutableBot>,
         turn: MutableTurn,
     ): List<BulletHitScoringRecord> {
         val scoringRecords = mutableListOf<BulletHitScoringRecord>()
+        val removedBulletIds = HashSet<BulletId>()
 
         for (outcome in results.bulletHitBullets) {
             val event1 = BulletHitBulletEvent(turn.turnNumber, outcome.bullet1, outcome.bullet2)
@@ -286,8 +484,8 @@ class CollisionDetector(
             turn.addPrivateBotEvent(outcome.bullet1.botId, event1)
             turn.addPrivateBotEvent(outcome.bullet2.botId, event2)
             turn.addObserverEvent(event1)
-            bullets -= outcome.bullet1
-            bullets -= outcome.bullet2
+            removedBulletIds += outcome.bullet1.id
+            removedBulletIds += outcome.bullet2.id
         }
 
         for (outcome in results.bulletHitBots) {
@@ -314,9 +512,12 @@ class CollisionDetector(
             turn.addPrivateBotEvent(outcome.victimId, event)
             turn.addObserverEvent(event)
 
-            bullets.removeIf { it.id == outcome.bullet.id }
+            removedBulletIds += outcome.bullet.id
         }
 
+        if (removedBulletIds.isNotEmpty()) {
+            bullets.removeIf { it.id in removedBulletIds }
+        }
         return scoringRecords
     }
 
@@ -390,9 +591,9 @@ class CollisionDetector(
         }
     }
 
-    private fun applyBulletWallCollisions(
+    private fun <B : IBullet> applyBulletWallCollisions(
         outcomes: List<BulletWallHitOutcome>,
-        bullets: MutableSet<Bullet>,
+        bullets: MutableSet<B>,
         turn: MutableTurn,
     ) {
         val removedBulletIds = outcomes.map { it.bullet.id }.toSet()
@@ -0,0 +1,145 @@
+package dev.robocode.tankroyale.server.core
+
+import com.google.gson.Gson
+import com.google.gson.JsonParseException
+import dev.robocode.tankroyale.server.event.ScannedBotEvent
+import dev.robocode.tankroyale.server.model.BotIntent
+import dev.robocode.tankroyale.server.model.Bullet
+import dev.robocode.tankroyale.server.model.MutableBot
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.Score
+import dev.robocode.tankroyale.server.score.ScoreTracker
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.util.Base64
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Checkpoint of the complete state of a game after a turn has been taken, which a new game can be started from to
+ * fork the game, e.g. for what-if simulations, instead of simulating the game again from the first turn.
+ *
+ * The checkpoint holds the [randomState] of the random number generator of the game, which is read without drawing
+ * numbers, so taking a checkpoint leaves the game untouched. The game and every fork of it draw the same random numbers
+ * from the checkpoint on. Hence, a fork continues exactly like the game when given the same bot intents.
+ *
+ * The bot ids are given to the bots in the order of their session ids, which differ between the game and a fork of it.
+ * Hence, the checkpoint holds the name and version of the bot of each participant in [participants], so a fork gives
+ * each bot the bot id it had in the game.
+ *
+ * A checkpoint is sent to controllers as a string with [encode], which is the gzipped JSON of the checkpoint encoded
+ * with Base64. The JSON is written from the data transfer objects in GameCheckpointDto.kt, and never from the model
+ * classes, so it only changes with the [VERSION].
+ */
+data class GameCheckpoint(
+    /** Version of the checkpoint format */
+    val version: Int,
+
+    /** Arena width */
+    val arenaWidth: Int,
+
+    /** Arena height */
+    val arenaHeight: Int,
+
+    /** Round number */
+    val roundNumber: Int,
+
+    /** Turn number of the last turn taken */
+    val turnNumber: Int,
+
+    /** Flag specifying if the round ended with the last turn */
+    val isRoundEnded: Boolean,
+
+    /** Number of rounds played so far */
+    val numberOfRounds: Int,
+
+    /** Inactivity counter */
+    val inactivityCounter: Int,
+
+    /** Id of the last bullet fired in the round */
+    val nextBulletId: Int,
+
+    /** State of the random number generator when the checkpoint was taken */
+    val randomState: Long,
+
+    /** Participant ids in the order of the game */
+    val participantIds: List<ParticipantId>,
+
+    /** Bots of the participants, which are given the same bot ids in a fork */
+    val participants: List<ParticipantRecord>,
+
+    /** Bots that are alive */
+    val bots: List<MutableBot>,
+
+    /** Bullets in flight */
+    val bullets: List<Bullet>,
+
+    /** Current bot intents */
+    val botIntents: List<BotIntentRecord>,
+
+    /** Ids of the bots that hit a wall in the last turn, which take no damage hitting the wall again */
+    val botIdsThatHitWall: List<Int>,
+
+    /** Scanned bot events of the last turn, which are used for fire assistance */
+    val scannedBotEvents: List<ScannedBotEvent>,
+
+    /** Scores of the current round */
+    val scoreTracker: ScoreTracker.Checkpoint,
+
+    /** Accumulated scores of the rounds played before the current round */
+    val accumulatedScores: List<Score>,
+) {
+    /**
+     * Bot intent of a bot.
+     * @param botId is the id of the bot.
+     * @param intent is the current intent of the bot.
+     */
+    data class BotIntentRecord(val botId: Int, val intent: BotIntent)
+
+    /**
+     * Bot of a participant.
+     * @param botId is the id of the bot.
+     * @param name is the name of the bot.
+     * @param version is the version of the bot.
+     */
+    data class ParticipantRecord(val botId: Int, val name: String, val version: String)
+
+    companion object {
+        /** Current version of the checkpoint format */
+        const val VERSION = 3
+
+        private val gson = Gson()
+
+        /**
+         * Decodes a checkpoint encoded with [encode].
+         * @param encoded is the encoded checkpoint.
+         * @return the decoded checkpoint.
+         * @throws IllegalArgumentException if the checkpoint is malformed or has another version.
+         */
+        fun decode(encoded: String): GameCheckpoint {
+            val dto: GameCheckpointDto? = try {
+                GZIPInputStream(Base64.getDecoder().decode(encoded).inputStream()).reader().use {
+                    gson.fromJson(it, GameCheckpointDto::class.java)
+                }
+            } catch (e: IOException) {
+                throw IllegalArgumentException("Malformed checkpoint", e)
+            } catch (e: JsonParseException) {
+                throw IllegalArgumentException("Malformed checkpoint", e)
+            }
+            requireNotNull(dto) { "Malformed checkpoint" }
+            require(dto.version == VERSION) { "Unsupported checkpoint version: ${dto.version}" }
+            return try {
+                dto.toCheckpoint()
+            } catch (e: NullPointerException) { // Gson leaves the fields missing in the JSON null
+                throw IllegalArgumentException("Malformed checkpoint", e)
+            }
+        }
+    }
+
+    /** Encodes this checkpoint as the gzipped JSON of the checkpoint encoded with Base64 */
+    fun encode(): String {
+        val bytes = ByteArrayOutputStream()
+        GZIPOutputStream(bytes).writer().use { gson.toJson(GameCheckpointDto.from(this), it) }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray())
+    }
+}
@@ -0,0 +1,426 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.server.event.ScannedBotEvent
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.BotIntent
+import dev.robocode.tankroyale.server.model.Bullet
+import dev.robocode.tankroyale.server.model.BulletId
+import dev.robocode.tankroyale.server.model.Color
+import dev.robocode.tankroyale.server.model.MutableBot
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.Point
+import dev.robocode.tankroyale.server.model.Score
+import dev.robocode.tankroyale.server.model.TeamId
+import dev.robocode.tankroyale.server.model.TeamMessage
+import dev.robocode.tankroyale.server.score.ScoreAndDamage
+import dev.robocode.tankroyale.server.score.ScoreTracker
+
+/*
+ * Data transfer objects of the JSON of a [GameCheckpoint], which hold only numbers, strings, and other data transfer
+ * objects. Each one is mapped explicitly from and to its model class, so the JSON does not change with the internals of
+ * the model classes. A change of the JSON needs a new [GameCheckpoint.VERSION].
+ */
+
+/** JSON of a [GameCheckpoint] */
+internal data class GameCheckpointDto(
+    val version: Int,
+    val arenaWidth: Int,
+    val arenaHeight: Int,
+    val roundNumber: Int,
+    val turnNumber: Int,
+    val isRoundEnded: Boolean,
+    val numberOfRounds: Int,
+    val inactivityCounter: Int,
+    val nextBulletId: Int,
+    val randomState: Long,
+    val participantIds: List<ParticipantIdDto>,
+    val participants: List<ParticipantDto>,
+    val bots: List<BotDto>,
+    val bullets: List<BulletDto>,
+    val botIntents: List<BotIntentDto>,
+    val botIdsThatHitWall: List<Int>,
+    val scannedBotEvents: List<ScannedBotEventDto>,
+    val scoreTracker: ScoreTrackerDto,
+    val accumulatedScores: List<ScoreDto>,
+) {
+    companion object {
+        fun from(checkpoint: GameCheckpoint) = with(checkpoint) {
+            GameCheckpointDto(
+                version = version,
+                arenaWidth = arenaWidth,
+                arenaHeight = arenaHeight,
+                roundNumber = roundNumber,
+                turnNumber = turnNumber,
+                isRoundEnded = isRoundEnded,
+                numberOfRounds = numberOfRounds,
+                inactivityCounter = inactivityCounter,
+                nextBulletId = nextBulletId,
+                randomState = randomState,
+                participantIds = participantIds.map { ParticipantIdDto.from(it) },
+                participants = participants.map { ParticipantDto(it.botId, it.name, it.version) },
+                bots = bots.map { BotDto.from(it) },
+                bullets = bullets.map { BulletDto.from(it) },
+                botIntents = botIntents.map { BotIntentDto.from(it.botId, it.intent) },
+                botIdsThatHitWall = botIdsThatHitWall,
+                scannedBotEvents = scannedBotEvents.map { ScannedBotEventDto.from(it) },
+                scoreTracker = ScoreTrackerDto.from(scoreTracker),
+                accumulatedScores = accumulatedScores.map { ScoreDto.from(it) },
+            )
+        }
+    }
+
+    fun toCheckpoint() = GameCheckpoint(
+        version = version,
+        arenaWidth = arenaWidth,
+        arenaHeight = arenaHeight,
+        roundNumber = roundNumber,
+        turnNumber = turnNumber,
+        isRoundEnded = isRoundEnded,
+        numberOfRounds = numberOfRounds,
+        inactivityCounter = inactivityCounter,
+        nextBulletId = nextBulletId,
+        randomState = randomState,
+        participantIds = participantIds.map { it.toParticipantId() },
+        participants = participants.map { GameCheckpoint.ParticipantRecord(it.botId, it.name, it.version) },
+        bots = bots.map { it.toBot() },
+        bullets = bullets.map { it.toBullet() },
+        botIntents = botIntents.map { GameCheckpoint.BotIntentRecord(it.botId, it.toBotIntent()) },
+        botIdsThatHitWall = botIdsThatHitWall.toList(),
+        scannedBotEvents = scannedBotEvents.map { it.toScannedBotEvent() },
+        scoreTracker = scoreTracker.toCheckpoint(),
+        accumulatedScores = accumulatedScores.map { it.toScore() },
+    )
+}
+
+/** JSON of a [ParticipantId] */
+internal data class ParticipantIdDto(val botId: Int, val teamId: Int?) {
+    companion object {
+        fun from(participantId: ParticipantId) = ParticipantIdDto(participantId.botId.value, participantId.teamId?.id)
+    }
+
+    fun toParticipantId() = ParticipantId(BotId(botId), teamId?.let { TeamId(it) })
+}
+
+/** JSON of a [GameCheckpoint.ParticipantRecord] */
+internal data class ParticipantDto(val botId: Int, val name: String, val version: String)
+
+/** JSON of a [MutableBot], where the output and debug graphics of the bot are left out */
+internal data class BotDto(
+    val id: Int,
+    val teammateIds: List<Int>,
+    val isDroid: Boolean,
+    val sessionId: String?,
+    val energy: Double,
+    val x: Double,
+    val y: Double,
+    val direction: Double,
+    val gunDirection: Double,
+    val radarDirection: Double,
+    val radarSpreadAngle: Double,
+    val speed: Double,
+    val turnRate: Double,
+    val gunTurnRate: Double,
+    val radarTurnRate: Double,
+    val gunHeat: Double,
+    val bodyColor: String?,
+    val turretColor: String?,
+    val radarColor: String?,
+    val bulletColor: String?,
+    val scanColor: String?,
+    val tracksColor: String?,
+    val gunColor: String?,
+    val isDebuggingEnabled: Boolean,
+) {
+    companion object {
+        fun from(bot: MutableBot) = with(bot) {
+            BotDto(
+                id = id.value,
+                teammateIds = teammateIds.map { it.value },
+                isDroid = isDroid,
+                sessionId = sessionId,
+                energy = energy,
+                x = x,
+                y = y,
+                direction = direction,
+                gunDirection = gunDirection,
+                radarDirection = radarDirection,
+                radarSpreadAngle = radarSpreadAngle,
+                speed = speed,
+                turnRate = turnRate,
+                gunTurnRate = gunTurnRate,
+                radarTurnRate = radarTurnRate,
+                gunHeat = gunHeat,
+                bodyColor = bodyColor?.value,
+                turretColor = turretColor?.value,
+                radarColor = radarColor?.value,
+                bulletColor = bulletColor?.value,
+                scanColor = scanColor?.value,
+                tracksColor = tracksColor?.value,
+                gunColor = gunColor?.value,
+                isDebuggingEnabled = isDebuggingEnabled,
+            )
+        }
+    }
+
+    fun toBot() = MutableBot(
+        id = BotId(id),
+        teammateIds = teammateIds.mapTo(HashSet()) { BotId(it) },
+        isDroid = isDroid,
+        sessionId = sessionId,
+        energy = energy,
+        position = Point(x, y),
+        direction = direction,
+        gunDirection = gunDirection,
+        radarDirection = radarDirection,
+        radarSpreadAngle = radarSpreadAngle,
+        speed = speed,
+        turnRate = turnRate,
+        gunTurnRate = gunTurnRate,
+        radarTurnRate = radarTurnRate,
+        gunHeat = gunHeat,
+        bodyColor = bodyColor?.let { Color.from(it) },
+        turretColor = turretColor?.let { Color.from(it) },
+        radarColor = radarColor?.let { Color.from(it) },
+        bulletColor = bulletColor?.let { Color.from(it) },
+        scanColor = scanColor?.let { Color.from(it) },
+        tracksColor = tracksColor?.let { Color.from(it) },
+        gunColor = gunColor?.let { Color.from(it) },
+        isDebuggingEnabled = isDebuggingEnabled,
+    )
+}
+
+/** JSON of a [Bullet] */
+internal data class BulletDto(
+    val id: Int,
+    val botId: Int,
+    val power: Double,
+    val direction: Double,
+    val color: String?,
+    val startX: Double,
+    val startY: Double,
+    val tick: Int,
+) {
+    companion object {
+        fun from(bullet: Bullet) = BulletDto(
+            id = bullet.id.value,
+            botId = bullet.botId.value,
+            power = bullet.power,
+            direction = bullet.direction,
+            color = bullet.color?.value,
+            startX = bullet.startPosition.x,
+            startY = bullet.startPosition.y,
+            tick = bullet.tick,
+        )
+    }
+
+    fun toBullet() = Bullet(
+        id = BulletId(id),
+        botId = BotId(botId),
+        power = power,
+        direction = direction,
+        color = color?.let { Color.from(it) },
+        startPosition = Point(startX, startY),
+        tick = tick,
+    )
+}
+
+/** JSON of the [BotIntent] of a bot */
+internal data class BotIntentDto(
+    val botId: Int,
+    val targetSpeed: Double?,
+    val turnRate: Double?,
+    val gunTurnRate: Double?,
+    val radarTurnRate: Double?,
+    val firepower: Double?,
+    val adjustGunForBodyTurn: Boolean?,
+    val adjustRadarForBodyTurn: Boolean?,
+    val adjustRadarForGunTurn: Boolean?,
+    val rescan: Boolean?,
+    val fireAssist: Boolean?,
+    val bodyColor: String?,
+    val turretColor: String?,
+    val radarColor: String?,
+    val bulletColor: String?,
+    val scanColor: String?,
+    val tracksColor: String?,
+    val gunColor: String?,
+    val stdOut: String?,
+    val stdErr: String?,
+    val teamMessages: List<TeamMessageDto>?,
+    val debugGraphics: String?,
+) {
+    companion object {
+        fun from(botId: Int, intent: BotIntent) = with(intent) {
+            BotIntentDto(
+                botId = botId,
+                targetSpeed = targetSpeed,
+                turnRate = turnRate,
+                gunTurnRate = gunTurnRate,
+                radarTurnRate = radarTurnRate,
+                firepower = firepower,
+                adjustGunForBodyTurn = adjustGunForBodyTurn,
+                adjustRadarForBodyTurn = adjustRadarForBodyTurn,
+                adjustRadarForGunTurn = adjustRadarForGunTurn,
+                rescan = rescan,
+                fireAssist = fireAssist,
+                bodyColor = bodyColor,
+                turretColor = turretColor,
+                radarColor = radarColor,
+                bulletColor = bulletColor,
+                scanColor = scanColor,
+                tracksColor = tracksColor,
+                gunColor = gunColor,
+                stdOut = stdOut,
+                stdErr = stdErr,
+                teamMessages = teamMessages?.map { TeamMessageDto(it.message, it.messageType, it.receiverId?.value) },
+                debugGraphics = debugGraphics,
+            )
+        }
+    }
+
+    fun toBotIntent() = BotIntent(
+        targetSpeed = targetSpeed,
+        turnRate = turnRate,
+        gunTurnRate = gunTurnRate,
+        radarTurnRate = radarTurnRate,
+        firepower = firepower,
+        adjustGunForBodyTurn = adjustGunForBodyTurn,
+        adjustRadarForBodyTurn = adjustRadarForBodyTurn,
+        adjustRadarForGunTurn = adjustRadarForGunTurn,
+        rescan = rescan,
+        fireAssist = fireAssist,
+        bodyColor = bodyColor,
+        turretColor = turretColor,
+        radarColor = radarColor,
+        bulletColor = bulletColor,
+        scanColor = scanColor,
+        tracksColor = tracksColor,
+        gunColor = gunColor,
+        stdOut = stdOut,
+        stdErr = stdErr,
+        teamMessages = teamMessages?.map { TeamMessage(it.message, it.messageType, it.receiverId?.let { id -> BotId(id) }) },
+        debugGraphics = debugGraphics,
+    )
+}
+
+/** JSON of a [TeamMessage] */
+internal data class TeamMessageDto(val message: String, val messageType: String, val receiverId: Int?)
+
+/** JSON of a [ScannedBotEvent] */
+internal data class ScannedBotEventDto(
+    val turnNumber: Int,
+    val scannedByBotId: Int,
+    val scannedBotId: Int,
+    val energy: Double,
+    val x: Double,
+    val y: Double,
+    val direction: Double,
+    val speed: Double,
+) {
+    companion object {
+        fun from(event: ScannedBotEvent) = with(event) {
+            ScannedBotEventDto(
+                turnNumber, scannedByBotId.value, scannedBotId.value, energy, x, y, direction, speed
+            )
+        }
+    }
+
+    fun toScannedBotEvent() = ScannedBotEvent(
+        turnNumber, BotId(scannedByBotId), BotId(scannedBotId), energy, x, y, direction, speed
+    )
+}
+
+/** JSON of a [ScoreTracker.Checkpoint] */
+internal data class ScoreTrackerDto(
+    val scoreAndDamages: List<ScoreAndDamageDto>,
+    val aliveParticipants: List<ParticipantIdDto>,
+    val lastSurvivors: List<ParticipantIdDto>?,
+) {
+    companion object {
+        fun from(checkpoint: ScoreTracker.Checkpoint) = ScoreTrackerDto(
+            scoreAndDamages = checkpoint.scoreAndDamages.map { ScoreAndDamageDto.from(it) },
+            aliveParticipants = checkpoint.aliveParticipants.map { ParticipantIdDto.from(it) },
+            lastSurvivors = checkpoint.lastSurvivors?.map { ParticipantIdDto.from(it) },
+        )
+    }
+
+    fun toCheckpoint() = ScoreTracker.Checkpoint(
+        scoreAndDamages = scoreAndDamages.map { it.toRecord() },
+        aliveParticipants = aliveParticipants.map { it.toParticipantId() },
+        lastSurvivors = lastSurvivors?.map { it.toParticipantId() },
+    )
+}
+
+/** JSON of a [ScoreTracker.Checkpoint.ScoreAndDamageRecord] */
+internal data class ScoreAndDamageDto(
+    val participantId: ParticipantIdDto,
+    val bulletDamage: List<EnemyDamageDto>,
+    val ramHits: List<EnemyRamHitsDto>,
+    val bulletKillEnemyIds: List<ParticipantIdDto>,
+    val ramKillEnemyIds: List<ParticipantIdDto>,
+    val survivalCount: Int,
+    val lastSurvivorCount: Int,
+) {
+    companion object {
+        fun from(record: ScoreTracker.Checkpoint.ScoreAndDamageRecord) = with(record.scoreAndDamage) {
+            ScoreAndDamageDto(
+                participantId = ParticipantIdDto.from(record.participantId),
+                bulletDamage = bulletDamage.map { EnemyDamageDto(ParticipantIdDto.from(it.enemyId), it.damage) },
+                ramHits = ramHits.map { EnemyRamHitsDto(ParticipantIdDto.from(it.enemyId), it.hits) },
+                bulletKillEnemyIds = bulletKillEnemyIds.map { ParticipantIdDto.from(it) },
+                ramKillEnemyIds = ramKillEnemyIds.map { ParticipantIdDto.from(it) },
+                survivalCount = survivalCount,
+                lastSurvivorCount = lastSurvivorCount,
+            )
+        }
+    }
+
+    fun toRecord() = ScoreTracker.Checkpoint.ScoreAndDamageRecord(
+        participantId = participantId.toParticipantId(),
+        scoreAndDamage = ScoreAndDamage.Checkpoint(
+            bulletDamage = bulletDamage.map {
+                ScoreAndDamage.Checkpoint.EnemyDamage(it.enemyId.toParticipantId(), it.damage)
+            },
+            ramHits = ramHits.map { ScoreAndDamage.Checkpoint.EnemyRamHits(it.enemyId.toParticipantId(), it.hits) },
+            bulletKillEnemyIds = bulletKillEnemyIds.map { it.toParticipantId() },
+            ramKillEnemyIds = ramKillEnemyIds.map { it.toParticipantId() },
+            survivalCount = survivalCount,
+            lastSurvivorCount = lastSurvivorCount,
+        ),
+    )
+}
+
+/** JSON of a [ScoreAndDamage.Checkpoint.EnemyDamage] */
+internal data class EnemyDamageDto(val enemyId: ParticipantIdDto, val damage: Double)
+
+/** JSON of a [ScoreAndDamage.Checkpoint.EnemyRamHits] */
+internal data class EnemyRamHitsDto(val enemyId: ParticipantIdDto, val hits: Int)
+
+/** JSON of a [Score] */
+internal data class ScoreDto(
+    val participantId: ParticipantIdDto,
+    val bulletDamageScore: Double,
+    val bulletKillBonus: Double,
+    val ramDamageScore: Double,
+    val ramKillBonus: Double,
+    val survivalScore: Double,
+    val lastSurvivorBonus: Double,
+    val firstPlaces: Int,
+    val secondPlaces: Int,
+    val thirdPlaces: Int,
+    val rank: Int,
+) {
+    companion object {
+        fun from(score: Score) = with(score) {
+            ScoreDto(
+                ParticipantIdDto.from(participantId), bulletDamageScore, bulletKillBonus, ramDamageScore, ramKillBonus,
+                survivalScore, lastSurvivorBonus, firstPlaces, secondPlaces, thirdPlaces, rank
+            )
+        }
+    }
+
+    fun toScore() = Score(
+        participantId.toParticipantId(), bulletDamageScore, bulletKillBonus, ramDamageScore, ramKillBonus,
+        survivalScore, lastSurvivorBonus, firstPlaces, secondPlaces, thirdPlaces, rank
+    )
+}
@@ -3,9 +3,14 @@ package dev.robocode.tankroyale.server.core
 import dev.robocode.tankroyale.server.model.BotId
 import org.slf4j.LoggerFactory
 import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.ScheduledExecutorService
 
-/** Manager for controlling the game lifecycle. */
-class GameLifecycleManager {
+/**
+ * Manager for controlling the game lifecycle.
+ * @param executor is the executor shared by the timers of several game rooms, or `null` for timers owning their own
+ * thread.
+ */
+class GameLifecycleManager(private val executor: ScheduledExecutorService? = null) {
 
     private val log = LoggerFactory.getLogger(this::class.java)
 
@@ -38,17 +43,23 @@ class GameLifecycleManager {
     @Volatile
     var turnTimeoutTimer: ResettableTimer? = null
 
+    /** Clock taking the turns in lockstep mode, which replaces the turn timeout timer */
+    @Volatile
+    var lockstepClock: LockstepClock? = null
+
     fun stopTimers() {
         readyTimeoutTimer?.shutdown()
         readyTimeoutTimer = null
         turnTimeoutTimer?.shutdown()
         turnTimeoutTimer = null
+        lockstepClock?.shutdown()
+        lockstepClock = null
     }
 
     fun startReadyTimer(readyTimeoutNanos: Long, onTimeout: () -> Unit) {
         synchronized(startGameLock) {
             if (readyTimeoutTimer == null) {
-                readyTimeoutTimer = ResettableTimer(onTimeout)
+                readyTimeoutTimer = ResettableTimer(onTimeout, executor)
             }
             readyTimeoutTimer?.schedule(
                 minDelayNanos = 0L,
@@ -57,9 +68,19 @@ class GameLifecycleManager {
         }
     }
 
-    fun createTurnTimeoutTimer(onNextTurn: () -> Unit) {
+    /**
+     * Creates the turn timeout timer.
+     * @param isOwnThread is `true` for a timer running on a thread of its own instead of the shared executor, for a job
+     * keeping the thread busy before taking the next turn.
+     * @param onNextTurn is the job taking the next turn.
+     */
+    fun createTurnTimeoutTimer(isOwnThread: Boolean = false, onNextTurn: () -> Unit) {
         // Create timer ONCE per game start, not per turn (fixes memory leak)
-        turnTimeoutTimer = ResettableTimer(onNextTurn)
+        turnTimeoutTimer = ResettableTimer(onNextTurn, if (isOwnThread) null else executor)
+    }
+
+    fun createLockstepClock(safetyTimeoutNanos: Long, isReady: () -> Boolean, onNextTurn: () -> Unit) {
+        lockstepClock = LockstepClock(safetyTimeoutNanos, isReady, executor, onNextTurn)
     }
 
     fun pauseGame() {
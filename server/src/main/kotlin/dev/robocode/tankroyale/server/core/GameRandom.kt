@@ -0,0 +1,42 @@
+package dev.robocode.tankroyale.server.core
+
+import java.util.Random
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Random number generator of a game, which draws the same numbers as [Random] given the same seed, but whose [state]
+ * can be read and set without drawing numbers, e.g. when taking and restoring checkpoints of the game.
+ *
+ * All numbers are drawn with [next], so [setSeed] and the state of [nextGaussian] kept by [Random] are not used.
+ *
+ * @param seed is the initial seed.
+ */
+internal class GameRandom(seed: Long = ThreadLocalRandom.current().nextLong()) : Random() {
+
+    private val currentState = AtomicLong(initialScramble(seed))
+
+    /** State of the generator, where setting a state read before makes the generator draw the same numbers again */
+    var state: Long
+        get() = currentState.get()
+        set(value) = currentState.set(value and MASK)
+
+    override fun next(bits: Int): Int {
+        while (true) {
+            val current = currentState.get()
+            val next = (current * MULTIPLIER + ADDEND) and MASK
+            if (currentState.compareAndSet(current, next)) {
+                return (next ushr (48 - bits)).toInt()
+            }
+        }
+    }
+
+    private companion object {
+        // The linear congruential generator of java.util.Random
+        const val MULTIPLIER = 0x5DEECE66DL
+        const val ADDEND = 0xBL
+        const val MASK = (1L shl 48) - 1
+
+        fun initialScramble(seed: Long) = (seed xor MULTIPLIER) and MASK
+    }
+}
@@ -0,0 +1,186 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.schema.BotAddress
+import dev.robocode.tankroyale.schema.GameSetup
+import dev.robocode.tankroyale.server.connection.ConnectionHandler
+import org.java_websocket.WebSocket
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Game rooms hosting concurrent games in one server process.
+ *
+ * Each game room has its own [GameServer] with its own participants, game state, and timers, where the timers of all
+ * rooms are scheduled on one shared executor. Observers and controllers join a room with their handshake and only see
+ * the game of their room, and the commands of a controller apply to its room. Clients not giving a room share the
+ * default room, so these work as with a server hosting a single game.
+ *
+ * Bots are shared by all rooms, where a bot takes part in one game at a time. The bot list is kept by the default room
+ * and broadcast to all observers and controllers. Other rooms are created when first used, and are removed when their
+ * last observer or controller has left while no game is in progress. The number of rooms is limited by [maxRooms], as
+ * each room holds a game server, and the room ids are limited to short names checked by [isValidRoomId].
+ *
+ * @param connectionHandler is the connection handler shared by all rooms.
+ * @param maxRooms is the maximum number of rooms including the default room.
+ * @param createGameServer creates the game server of a room using the shared executor for its timers.
+ */
+class GameRooms(
+    private val connectionHandler: ConnectionHandler,
+    private val maxRooms: Int = DEFAULT_MAX_ROOMS,
+    private val createGameServer: (roomId: String, executor: ScheduledExecutorService) -> GameServer,
+) {
+    companion object {
+        /** Id of the default room used by all clients not giving a room */
+        const val DEFAULT_ROOM_ID = "default"
+
+        /** Default maximum number of rooms including the default room */
+        const val DEFAULT_MAX_ROOMS = 64
+
+        /** Maximum length of a room id */
+        const val MAX_ROOM_ID_LENGTH = 64
+
+        private val ROOM_ID_PATTERN = Regex("[A-Za-z0-9._-]+")
+
+        /**
+         * Checks if a room id is valid, which is up to [MAX_ROOM_ID_LENGTH] letters, digits, dots, underscores, and
+         * hyphens.
+         * @param roomId is the room id.
+         * @return `true` if the room id is valid; `false` otherwise.
+         */
+        fun isValidRoomId(roomId: String): Boolean =
+            roomId.length <= MAX_ROOM_ID_LENGTH && ROOM_ID_PATTERN.matches(roomId)
+    }
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    private val threadNumber = AtomicInteger()
+
+    /** Executor shared by the timers of all rooms */
+    private val executor: ScheduledExecutorService =
+        Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors()) { runnable ->
+            Thread(runnable, "GameRoomTimer-${threadNumber.incrementAndGet()}").apply { isDaemon = true }
+        }
+
+    /** Game server of the default room */
+    val defaultRoom: GameServer = createGameServer(DEFAULT_ROOM_ID, executor)
+
+    private val rooms = ConcurrentHashMap<String /* roomId */, GameServer>().apply { put(DEFAULT_ROOM_ID, defaultRoom) }
+
+    /** Lock for creating rooms, so no more than [maxRooms] are created */
+    private val createRoomLock = Any()
+
+    /** Room of the last game each bot was picked for */
+    private val roomsByBot = ConcurrentHashMap<WebSocket, GameServer>()
+
+    /** Lock for picking the bots of a new game, so a bot is not picked by two rooms at the same time */
+    private val startGameLock = Any()
+
+    /** Starts the server hosting the rooms */
+    fun start() {
+        defaultRoom.start()
+    }
+
+    /** Stops the server, aborting the games in progress in all other rooms than the default room */
+    fun stop() {
+        rooms.values.filter { it !== defaultRoom && it.isGameInProgress }.forEach { it.handleAbortGame() }
+        defaultRoom.stop()
+        executor.shutdownNow()
+    }
+
+    /**
+     * Returns the game server of a room, which is created if it does not exist.
+     * @param roomId is the id of the room.
+     * @return the game server of the room.
+     * @throws IllegalArgumentException if the room id is not valid.
+     * @throws IllegalStateException if the room does not exist, and the maximum number of rooms has been reached.
+     */
+    fun getRoom(roomId: String): GameServer {
+        rooms[roomId]?.let { return it }
+        require(isValidRoomId(roomId)) { "Invalid room id: ${roomId.take(MAX_ROOM_ID_LENGTH)}" }
+
+        synchronized(createRoomLock) {
+            rooms[roomId]?.let { return it }
+            check(rooms.size < maxRooms) { "Maximum number of game rooms reached: $maxRooms" }
+
+            log.info("Creating game room: {}", roomId)
+            return createGameServer(roomId, executor).also { rooms[roomId] = it }
+        }
+    }
+
+    /**
+     * Returns the game server of the room a bot was last picked for.
+     * @param conn is the bot connection.
+     * @return the game server of the room, which is the default room if the bot was never picked.
+     */
+    fun getRoomOfBot(conn: WebSocket): GameServer = roomsByBot[conn] ?: defaultRoom
+
+    /**
+     * Starts a game in a room with the bots that are not taking part in a game in another room.
+     * @param roomId is the id of the room.
+     * @param gameSetup is the game setup.
+     * @param botAddresses is the addresses of the bots that should participate.
+     * @param debugMode is a flag specifying if the game starts in debug mode.
+     * @param checkpoint is the checkpoint the game is started from when forking a game, or `null` for a new game.
+     */
+    internal fun handleStartGame(
+        roomId: String,
+        gameSetup: GameSetup,
+        botAddresses: Collection<BotAddress>,
+        debugMode: Boolean,
+        checkpoint: GameCheckpoint? = null,
+    ) {
+        val room = getRoom(roomId)
+        synchronized(startGameLock) {
+            room.handleStartGame(gameSetup, botAddresses, debugMode, checkpoint) { conn ->
+                val otherRoom = roomsByBot[conn]
+                val isAvailable = otherRoom == null || otherRoom === room || !otherRoom.isGameInProgress
+                // Picked bots are routed to the room before being asked to get ready, as they may answer right away
+                if (isAvailable) roomsByBot[conn] = room
+                isAvailable
+            }
+        }
+    }
+
+    /**
+     * Handles a bot leaving the server, which updates the bot list and removes the bot from the game it takes part in.
+     * @param conn is the bot connection.
+     */
+    internal fun handleBotLeft(conn: WebSocket) {
+        val room = roomsByBot.remove(conn)
+
+        defaultRoom.handleBotLeft(conn)
+        if (room != null && room !== defaultRoom) {
+            room.handleParticipantLeft(conn)
+        }
+    }
+
+    /**
+     * Handles an observer or controller leaving its room, which is removed if it is idle.
+     * @param conn is the observer or controller connection.
+     * @param roomId is the id of the room, where `null` or blank means the default room.
+     */
+    internal fun handleObserverLeft(conn: WebSocket, roomId: String?) {
+        val room = if (roomId.isNullOrBlank()) defaultRoom else rooms[roomId]
+        room?.handleObserverLeft(conn)
+        removeRoomIfIdle(roomId)
+    }
+
+    /**
+     * Removes a room when no game is in progress and no observers and controllers are left in it.
+     * @param roomId is the id of the room, where `null` or blank means the default room, which is never removed.
+     */
+    internal fun removeRoomIfIdle(roomId: String?) {
+        if (roomId.isNullOrBlank() || roomId == DEFAULT_ROOM_ID) return
+
+        val room = rooms[roomId] ?: return
+        if (room.isGameInProgress || connectionHandler.getObserverAndControllerSockets(roomId).isNotEmpty()) return
+
+        if (rooms.remove(roomId, room)) {
+            log.info("Removing game room: {}", roomId)
+            roomsByBot.values.removeIf { it === room }
+        }
+    }
+}
@@ -10,7 +10,7 @@ import dev.robocode.tankroyale.server.model.*
 import dev.robocode.tankroyale.server.model.InitialPosition
 import org.java_websocket.WebSocket
 import org.slf4j.LoggerFactory
-import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
 
 
 /**
@@ -19,10 +19,16 @@ import java.util.concurrent.ConcurrentHashMap
  * ## Threading contract
  * - The WebSocket I/O thread calls all `handle*` methods via [GameServerConnectionListener].
  * - [onNextTurn] runs on the turn-timeout timer thread and is the only place the game model is
- *   advanced; it acquires [tickLock] before touching [botIntents], [botsThatSentIntent], or
- *   [modelUpdater].
- * - [handleBotIntent] is called concurrently from WebSocket threads and also acquires [tickLock]
- *   to merge intent updates safely.
+ *   advanced; it acquires [tickLock] before touching [participantSlots] or [modelUpdater]. In
+ *   lockstep mode, it runs on the thread delivering the last intent of a turn instead, where the
+ *   [LockstepClock] makes sure a turn is only taken once.
+ * - [handleBotIntent] is called concurrently from WebSocket threads without acquiring [tickLock]. The
+ *   intents are collected lock-free in the double-buffered [participantSlots], so receiving intents
+ *   never waits for a turn being taken.
+ * - The messages of a tick are built and serialized while holding [tickLock], but are only written
+ *   to the network after releasing it, so bot intents are not held up by slow network writes. The
+ *   intent-independent physics of the next turn are precomputed under [tickLock] after the writes, so
+ *   they never delay a tick.
  * - All other `handle*` methods are called from the WebSocket thread and do not hold [tickLock].
  * - [modelUpdater] is marked `@Volatile` so its nullability is visible across threads without
  *   requiring [tickLock].
@@ -45,9 +51,6 @@ class GameServer(
     /** Current game setup */
     private lateinit var gameSetup: dev.robocode.tankroyale.server.model.GameSetup
 
-    /** Map over bot intents: bot connection -> bot intent */
-    private val botIntents = ConcurrentHashMap<WebSocket, dev.robocode.tankroyale.server.model.BotIntent>()
-
     /** Model updater that keeps track of the game state/model */
     @Volatile
     internal var modelUpdater: ModelUpdater? = null
@@ -56,9 +59,9 @@ class GameServer(
     @Volatile
     private var tps = config.tps
 
-    /** Timestamp when the current turn started (for calculating bot processing duration) */
+    /** Timestamp when the next turn is due by the TPS, which the turn timeout timer fires at */
     @Volatile
-    private var turnStartTimeNanos = 0L
+    private var turnDeadlineNanos = 0L
 
     /** Logger */
     private val log = LoggerFactory.getLogger(this::class.java)
@@ -66,13 +69,36 @@ class GameServer(
     /** Tick lock for onNextTurn() */
     private val tickLock = Any()
 
-    /** Map over bots that sent their intent this turn */
-    private val botsThatSentIntent = ConcurrentHashMap.newKeySet<WebSocket>()
+    /** Dense participant slots with per-turn alive counters, the collected intents, and the outstanding intents */
+    @Volatile
+    private var participantSlots = ParticipantSlots.EMPTY
+
+    /** Fan-out stage serializing the tick events for the bots */
+    private val tickFanOut = TickFanOut(gson)
+
+    /** Stream of tick events for observers, building the delta ticks for observers selecting them */
+    private val observerTickStream = ObserverTickStream()
+
+    /** Number of turns taken in the current game, used for reporting the turns per second achieved */
+    @Volatile
+    private var turnsInGame = 0L
+
+    /** Timestamp when the current game started */
+    @Volatile
+    private var gameStartTimeNanos = 0L
 
     /** Turn number of the last processed tick — used to construct SkippedTurnEvent during breakpoint disable */
     @Volatile
     private var lastTickTurnNumber: Int = 0
 
+    /** Checkpoint the current game is started from when forking a game, or `null` for a new game */
+    @Volatile
+    private var checkpoint: GameCheckpoint? = null
+
+    /** Flag set when the round of a forked game must be announced with the first tick, which is not turn 1 */
+    @Volatile
+    private var isRoundStartPending = false
+
     /** Starts this server */
     fun start() {
         log.info("Starting server on port ${config.port} with supporting game type(s): ${config.gameTypes.joinToString()}")
@@ -93,15 +119,14 @@ class GameServer(
         lifecycleManager.serverState = ServerState.WAIT_FOR_READY_PARTICIPANTS
 
         participantRegistry.clear()
-        botIntents.clear()
-        botsThatSentIntent.clear()
 
         modelUpdater = null
 
         lifecycleManager.stopTimers()
 
-        participantRegistry.prepareParticipantIds()
-        prepareModelUpdater()
+        participantRegistry.prepareParticipantIds(checkpoint)
+        participantSlots = createParticipantSlots()
+        if (!prepareModelUpdater()) return
         sendGameStartedToParticipants()
         startReadyTimer()
     }
@@ -127,39 +152,46 @@ class GameServer(
     /** Send game-started event to all participant bots to get them started */
     private fun sendGameStartedToParticipants() {
         val gameSetup = GameSetupMapper.map(gameSetup)
-        val botHandshakes = connectionHandler.getBotHandshakes()
-
-        participantRegistry.participantIds.forEach { (conn, botId) ->
-            val teamId = botHandshakes[conn]?.teamId
-            val gameStartedForBot = createGameStartedEventForBot(botId, teamId, gameSetup)
-            broadcaster.send(conn, gameStartedForBot)
+        val updater = requireNotNull(modelUpdater) { "modelUpdater is null" }
+        val initialPositions = updater.getBotInitialPositions()
+        val slots = participantSlots
+
+        for (slot in 0 until slots.size) {
+            val botId = slots.botId(slot)
+            val gameStartedForBot = createGameStartedEventForBot(botId, slots.teammateIds(slot), gameSetup).apply {
+                initialPositions[botId]?.let { pos ->
+                    startX = pos.x
+                    startY = pos.y
+                }
+                updater.getBot(botId)?.let { bot -> startDirection = bot.direction }
+            }
+            broadcaster.send(slots.conn(slot), gameStartedForBot)
         }
     }
 
-    private fun getTeammateIds(botId: BotId, teamId: Int?): Set<BotId> =
-        teamId?.let { getParticipantTeamIds().filterValues { it == teamId }.keys.toSet().minus(botId) }
-            ?: emptySet()
-
-    private fun getParticipantTeamIds(): Map<BotId, Int?> = participantRegistry.participantIds
-        .mapNotNull { (conn, botId) -> connectionHandler.getBotHandshakes()[conn]?.teamId?.let { botId to it } }
-        .associateBy({ it.first }, { it.second })
+    /**
+     * Creates the participant slots from the current participants, ordered by bot id.
+     * Team ids are read from the bot handshakes.
+     */
+    private fun createParticipantSlots(): ParticipantSlots {
+        val botHandshakes = connectionHandler.getBotHandshakes()
+        val entries = participantRegistry.participantIds.entries
+            .filter { it.key in participantRegistry.participants }
+            .sortedBy { it.value.value }
+        return ParticipantSlots(
+            conns = entries.map { it.key },
+            botIds = entries.map { it.value },
+            teamIds = entries.map { botHandshakes[it.key]?.teamId },
+        )
+    }
 
     /** Creates a GameStartedEventForBot with current game setup */
-    private fun createGameStartedEventForBot(botId: BotId, teamId: Int?, gameSetup: GameSetup) =
+    private fun createGameStartedEventForBot(botId: BotId, teammateIds: Set<BotId>, gameSetup: GameSetup) =
         GameStartedEventForBot().also { event ->
             event.type = Message.Type.GAME_STARTED_EVENT_FOR_BOT
             event.myId = botId.value
-            event.teammateIds = getTeammateIds(botId, teamId).map { it.value }
+            event.teammateIds = teammateIds.map { it.value }
             event.gameSetup = gameSetup
-
-            val initialPositions = requireNotNull(modelUpdater) { "modelUpdater is null" }.getBotInitialPositions()
-            initialPositions[botId]?.let { pos ->
-                event.startX = pos.x
-                event.startY = pos.y
-            }
-            requireNotNull(modelUpdater) { "modelUpdater is null" }.getBot(botId)?.let { bot ->
-                event.startDirection = bot.direction
-            }
         }
 
     /** Starts the 'ready' timer */
@@ -173,17 +205,37 @@ class GameServer(
         participantRegistry.clearReadyParticipants()
         participantRegistry.populateParticipantMap()
         participantRegistry.restorePersistedPolicies()
+        participantSlots = createParticipantSlots()
+        observerTickStream.reset()
 
         autoEnableBreakpointModeForDebugBots()
 
         lifecycleManager.serverState = ServerState.GAME_RUNNING
 
         sendGameStartedToObservers()
-        prepareModelUpdater()
+        if (!prepareModelUpdater()) return
         transferDebugGraphicsFlagToModel()
-
-        lifecycleManager.createTurnTimeoutTimer { onNextTurn() }
-        resetTurnTimeout()
+        isRoundStartPending = checkpoint != null
+
+        turnsInGame = 0L
+        gameStartTimeNanos = System.nanoTime()
+
+        if (config.lockstepEnabled) {
+            lifecycleManager.createLockstepClock(
+                safetyTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.lockstepTimeoutMillis.toLong()),
+                isReady = { participantSlots.isAllIntentsReceived },
+                onNextTurn = ::onNextTurn,
+            )
+            lifecycleManager.lockstepClock?.start()
+        } else {
+            // A scheduler spinning until the deadline gets a timer thread of its own, so it never occupies one of the
+            // timer threads shared by the game rooms
+            lifecycleManager.createTurnTimeoutTimer(isOwnThread = config.turnScheduler.isSpinning) {
+                config.turnScheduler.sleepUntil(turnDeadlineNanos)
+                onNextTurn()
+            }
+            resetTurnTimeout()
+        }
     }
 
     /**
@@ -209,7 +261,11 @@ class GameServer(
         })
     }
 
-    private fun prepareModelUpdater() {
+    /**
+     * Prepares the model updater for the participants, which is restored from the [checkpoint] when forking a game.
+     * @return `true` if prepared; `false` if the checkpoint does not fit the game, where the game has been aborted.
+     */
+    private fun prepareModelUpdater(): Boolean {
         val botHandshakes = connectionHandler.getBotHandshakes()
         val participantIds = mutableSetOf<ParticipantId>()
         val initialPositions = mutableMapOf<BotId, InitialPosition>()
@@ -225,43 +281,94 @@ class GameServer(
             droidFlags[botId] = handshake.isDroid
         }
 
-        modelUpdater = ModelUpdater(
+        val checkpoint = checkpoint
+        val updater = ModelUpdater(
             gameSetup,
-            participantIds,
+            // A forked game must process the participants in the same order as the game the checkpoint was taken from
+            checkpoint?.participantIds?.toSet()?.takeIf { it == participantIds } ?: participantIds,
             initialPositions,
             droidFlags,
-            config.initialPositionEnabled
+            config.initialPositionEnabled,
+            config.parallelBotPhasesEnabled
         )
+        if (checkpoint != null) {
+            try {
+                requireBotsOfCheckpoint(checkpoint, botHandshakes)
+                updater.restore(checkpoint)
+            } catch (e: IllegalArgumentException) {
+                log.warn("Aborting the game as it cannot be started from the checkpoint: {}", e.message)
+                handleAbortGame()
+                return false
+            }
+        }
+        modelUpdater = updater
+        return true
+    }
+
+    /**
+     * Checks that each participant has been given the bot id of the bot with the same name and version in a checkpoint.
+     * @param checkpoint is the checkpoint the game is forked from.
+     * @param botHandshakes are the handshakes of the bots.
+     * @throws IllegalArgumentException if a participant is not the bot with its bot id in the checkpoint.
+     */
+    private fun requireBotsOfCheckpoint(checkpoint: GameCheckpoint, botHandshakes: Map<WebSocket, BotHandshake>) {
+        val checkpointBots = checkpoint.participants.associateBy { it.botId }
+        participantRegistry.participants.forEach { conn ->
+            val botId = participantRegistry.participantIds.getValue(conn).value
+            val handshake = botHandshakes.getValue(conn)
+            val bot = checkpointBots[botId]
+            require(bot != null && bot.name == handshake.name && bot.version == handshake.version) {
+                "Bot ${handshake.name} ${handshake.version} is not the bot with id $botId of the checkpoint"
+            }
+        }
     }
 
     private fun resetTurnTimeout() {
+        // In lockstep mode, the next turn is taken when the intents have arrived instead of being scheduled
+        lifecycleManager.lockstepClock?.let { clock ->
+            clock.arm()
+            return
+        }
+        // The deadline is set before scheduling, as the timer may take the next turn before schedule() returns
+        val turnPeriodNanos = turnPeriodNanos()
+        turnDeadlineNanos = System.nanoTime() + turnPeriodNanos
+
+        // The timer takes the next turn no earlier than the turn period instead of the turn thread sleeping for the
+        // rest of the period, as the timer threads are shared by the game rooms. A scheduler that waits precisely
+        // is fired shortly before the deadline for the final wait on its own timer thread.
+        val minDelayNanos = (turnPeriodNanos - config.turnScheduler.leadNanos).coerceAtLeast(0L)
         lifecycleManager.turnTimeoutTimer?.schedule(
-            minDelayNanos = 0L,
-            maxDelayNanos = gameSetup.turnTimeout.inWholeNanoseconds
+            minDelayNanos = minDelayNanos,
+            maxDelayNanos = maxOf(gameSetup.turnTimeout.inWholeNanoseconds, minDelayNanos)
         )
-        turnStartTimeNanos = System.nanoTime()
     }
 
-    private fun applyVisualDelay(botProcessingDurationNanos: Long) {
-        val currentTps = tps
-        if (currentTps <= 0) return
+    /**
+     * Takes the next turn right away without waiting for the remaining intents, which is done by the turn timeout
+     * timer after the minimum delay, or by the lockstep clock.
+     */
+    private fun notifyTurnReady() {
+        lifecycleManager.lockstepClock?.advance() ?: lifecycleManager.turnTimeoutTimer?.notifyReady()
+    }
 
-        val turnDurationNanos = 1_000_000_000L / currentTps
-        val sleepNanos = turnDurationNanos - botProcessingDurationNanos
-        if (sleepNanos > 0) {
-            Thread.sleep(sleepNanos / 1_000_000, (sleepNanos % 1_000_000).toInt())
-        }
+    /** Minimum time in nanoseconds between the turns by the TPS, where 0 means no minimum */
+    private fun turnPeriodNanos(): Long {
+        val currentTps = tps
+        return if (currentTps > 0) 1_000_000_000L / currentTps else 0L
     }
 
     // Must be called while holding tickLock.
     private fun updateGameState(): GameStateSnapshot {
-        val botIntentsSnapshot = botIntents.mapNotNull { (key, value) ->
-            participantRegistry.participantIds[key]?.let { botId ->
-                botId to dev.robocode.tankroyale.server.model.BotIntent().apply {
-                    update(value)
-                }
+        val slots = participantSlots
+        slots.swapIntents()
+
+        val botIntentsSnapshot = HashMap<BotId, dev.robocode.tankroyale.server.model.BotIntent>(slots.size * 2)
+        for (slot in 0 until slots.size) {
+            val intent = slots.collectedIntent(slot) ?: continue
+            botIntentsSnapshot[slots.botId(slot)] = dev.robocode.tankroyale.server.model.BotIntent().apply {
+                update(intent)
             }
-        }.toMap()
+        }
 
         return modelUpdater?.update(botIntentsSnapshot)
             ?: throw IllegalStateException("Model updater is null when trying to update game state")
@@ -292,16 +399,16 @@ class GameServer(
     private fun onNextTurn() {
         if (lifecycleManager.serverState !== ServerState.GAME_RUNNING) return
 
-        val botProcessingDurationNanos = System.nanoTime() - turnStartTimeNanos
-
         // Check for alive bots that have breakpoint mode enabled and have NOT sent an intent yet.
-        // This must be done inside tickLock to get a consistent snapshot of botsThatSentIntent.
         // If any such bots exist, pause and wait for them BEFORE processing the turn.
         val breakpointBotIds = synchronized(tickLock) {
+            val slots = participantSlots
             participantRegistry.participants.mapNotNull { conn ->
-                val botId = participantRegistry.participantIds[conn] ?: return@mapNotNull null
+                val slot = slots.slotOf(conn)
+                if (slot < 0) return@mapNotNull null
+                val botId = slots.botId(slot)
                 if (modelUpdater?.isAlive(botId) == true &&
-                    !botsThatSentIntent.contains(conn) &&
+                    !slots.hasCollectingIntent(slot) &&
                     participantRegistry.breakpointEnabledMap[botId] == true) botId else null
             }
         }
@@ -316,18 +423,24 @@ class GameServer(
             return
         }
 
-        synchronized(tickLock) {
+        val (tickMessages, isGameEnded) = synchronized(tickLock) {
             val snapshot = updateGameState()
-            onNextTick(snapshot.lastRound)
+            turnsInGame++
+            prepareTickMessages(snapshot.lastRound) to snapshot.isGameEnded
+        }
 
-            if (snapshot.isGameEnded) {
-                onGameEnded()
+        // Network writes happen after releasing the tick lock
+        tickMessages.forEach { it() }
+        if (isGameEnded) {
+            onGameEnded()
+        } else {
+            // The tick has been sent, so the intent-independent physics of the next turn can be done while waiting
+            // for the bot intents
+            synchronized(tickLock) {
+                modelUpdater?.precomputeNextTurn()
             }
-            botsThatSentIntent.clear()
         }
 
-        applyVisualDelay(botProcessingDurationNanos)
-
         // In debug mode, pause after each turn instead of auto-advancing (ADR-0033).
         if (lifecycleManager.debugMode && lifecycleManager.serverState === ServerState.GAME_RUNNING) {
             lifecycleManager.pauseGame()
@@ -336,7 +449,7 @@ class GameServer(
         }
 
         // Only reschedule the timer if the game is still running (not paused or stopped).
-        // If pauseGame() was called while we were sleeping in applyVisualDelay(), it paused the timer,
+        // If pauseGame() was called while this turn was being taken, it paused the timer,
         // but resetTurnTimeout() → schedule() would reset pauseStartTimeNanos=0, making isPaused()
         // return false and leaving the timer active — so resume() would then be a no-op and the game
         // would be stuck. Skipping resetTurnTimeout() here lets the paused state remain intact.
@@ -346,7 +459,14 @@ class GameServer(
     }
 
     private fun onGameEnded() {
-        log.info("Game ended")
+        val durationNanos = (System.nanoTime() - gameStartTimeNanos).coerceAtLeast(1L)
+        log.info(
+            "Game ended after {} turns in {} ms ({} turns/second{})",
+            turnsInGame,
+            TimeUnit.NANOSECONDS.toMillis(durationNanos),
+            turnsInGame * 1_000_000_000L / durationNanos,
+            if (config.lockstepEnabled) ", lockstep" else ""
+        )
 
         broadcastGameEndedToParticipants()
         broadcastGameEndedToObservers()
@@ -357,30 +477,38 @@ class GameServer(
         }
     }
 
-    private fun onNextTick(lastRound: MutableRound?) {
+    /**
+     * Prepares the messages of a new tick. Must be called while holding tickLock.
+     * @param lastRound is the last round of the game state.
+     * @return the sends of the messages in the order the messages must be sent, which must be run after releasing
+     * tickLock.
+     */
+    private fun prepareTickMessages(lastRound: MutableRound?): List<() -> Unit> {
+        val sends = mutableListOf<() -> Unit>()
         lastRound?.apply {
             lastTurn?.apply {
                 lastTickTurnNumber = turnNumber
-                if (turnNumber == 1) {
+                if (turnNumber == 1 || isRoundStartPending) {
+                    isRoundStartPending = false
                     log.debug("Round started: $roundNumber")
-                    botIntents.clear()
                     transferDebugGraphicsFlagToModel()
-                    broadcastRoundStartedToAll(roundNumber)
+                    sends += { broadcastRoundStartedToAll(roundNumber) }
                 } else {
                     checkForSkippedTurns(turnNumber)
-                    botIntents.clear()
                 }
-                val aliveBotTeamIds = aliveBotToTeamIdMap()
-                sendTickToParticipants(roundNumber, this, aliveBotTeamIds)
-                broadcastGameTickToObservers(roundNumber, this, aliveBotTeamIds)
+                val updater = modelUpdater
+                participantSlots.updateAliveStates { botId -> updater?.isAlive(botId) == true }
+                sends += prepareTicksForParticipants(roundNumber, this)
+                sends += prepareGameTickForObservers(roundNumber, this)
 
                 if (roundEnded) {
                     log.debug("Round ended: $roundNumber")
-                    broadcastRoundEndedToParticipants(roundNumber, turnNumber)
-                    broadcastRoundEndedToObservers(roundNumber, turnNumber)
+                    sends += prepareRoundEndedForParticipants(roundNumber, turnNumber)
+                    sends += prepareRoundEndedForObservers(roundNumber, turnNumber)
                 }
             }
         }
+        return sends
     }
 
     private fun broadcastGameEndedToParticipants() {
@@ -412,64 +540,79 @@ class GameServer(
         }, participantRegistry.participants)
     }
 
-    private fun broadcastRoundEndedToParticipants(roundNumber: Int, turnNumber: Int) {
-        participantRegistry.participants.forEach { conn ->
+    // Must be called while holding tickLock. The results are built right away, as they change with the next round.
+    private fun prepareRoundEndedForParticipants(roundNumber: Int, turnNumber: Int): () -> Unit {
+        val events = participantRegistry.participants.mapNotNull { conn ->
             participantRegistry.participantIds[conn]?.let { botId ->
-                RoundEndedEventForBot().also { event ->
+                conn to RoundEndedEventForBot().also { event ->
                     event.type = Message.Type.ROUND_ENDED_EVENT_FOR_BOT
                     event.roundNumber = roundNumber
                     event.turnNumber = turnNumber
                     event.results = getResultsForBot(botId)
-
-                    broadcaster.send(conn, event)
                 }
             }
         }
+        return { events.forEach { (conn, event) -> broadcaster.send(conn, event) } }
     }
 
-    private fun broadcastRoundEndedToObservers(roundNumber: Int, turnNumber: Int) {
-        broadcaster.broadcastToObserverAndControllers(RoundEndedEventForObserver().also {
+    // Must be called while holding tickLock. The results are built right away, as they change with the next round.
+    private fun prepareRoundEndedForObservers(roundNumber: Int, turnNumber: Int): () -> Unit {
+        val event = RoundEndedEventForObserver().also {
             it.type = Message.Type.ROUND_ENDED_EVENT_FOR_OBSERVER
             it.roundNumber = roundNumber
             it.turnNumber = turnNumber
             it.results = getResultsForObservers()
-        })
+        }
+        return { broadcaster.broadcastToObserverAndControllers(event) }
     }
 
-    private fun sendTickToParticipants(roundNumber: Int, turn: ITurn, aliveBotTeamIds: Map<BotId, Int>) {
-        val updater = modelUpdater ?: return
+    // Must be called while holding tickLock, after the alive states of the participant slots have been updated for
+    // the turn. The ticks are serialized right away, as the turn record is recycled for later turns.
+    private fun prepareTicksForParticipants(roundNumber: Int, turn: ITurn): () -> Unit {
+        if (modelUpdater == null) return {}
+        val slots = participantSlots
 
-        for (conn in participantRegistry.participants) {
-            val participantId = participantRegistry.participantIds[conn] ?: continue
-            if (updater.isAlive(participantId) == false && turn.getEvents(participantId).isEmpty()) continue
+        val recipients = mutableListOf<TickRecipient>()
+        for (slot in 0 until slots.size) {
+            val conn = slots.conn(slot)
+            if (conn !in participantRegistry.participants) continue
 
-            val teamId = aliveBotTeamIds[participantId]
-            val enemyCount = aliveBotTeamIds.filterValues { it != teamId }.count()
+            val participantId = slots.botId(slot)
+            if (!slots.isAlive(slot) && turn.getEvents(participantId).isEmpty()) continue
 
-            val event = TurnToTickEventForBotMapper.map(roundNumber, turn, participantId, enemyCount) ?: continue
-            broadcaster.send(conn, event)
+            recipients += TickRecipient(conn, participantId, slots.enemyCount(slot))
         }
-    }
+        val (binaryRecipients, jsonRecipients) = recipients.partition { connectionHandler.isBinaryWireFormat(it.conn) }
 
-    private fun aliveBotToTeamIdMap(updater: ModelUpdater? = modelUpdater): Map<BotId, Int> {
-        val currentUpdater = updater ?: return emptyMap()
-        return participantRegistry.participantMap.filterKeys { botId -> currentUpdater.isAlive(botId) == true }.mapValues { (botId, participant) ->
-            participant.teamId ?: -botId.value
+        val ticks = tickFanOut.serializeTicks(roundNumber, turn, jsonRecipients)
+        val binaryTicks = if (binaryRecipients.isEmpty()) emptyList() else {
+            tickFanOut.encodeBinaryTicks(roundNumber, turn, binaryRecipients)
+        }
+
+        return {
+            jsonRecipients.forEachIndexed { index, recipient ->
+                ticks[index]?.let { broadcaster.sendTick(recipient.conn, it) }
+            }
+            binaryRecipients.forEachIndexed { index, recipient ->
+                binaryTicks[index]?.let { broadcaster.sendTick(recipient.conn, it) }
+            }
         }
     }
 
-    private fun broadcastGameTickToObservers(roundNumber: Int, turn: ITurn, aliveBotTeamIds: Map<BotId, Int>) {
-        val enemyCountMap = HashMap<BotId, Int /* enemyCount */>()
+    // Must be called while holding tickLock, after the alive states of the participant slots have been updated for
+    // the turn. The tick is mapped right away, as the turn record is recycled for later turns.
+    private fun prepareGameTickForObservers(roundNumber: Int, turn: ITurn): () -> Unit {
+        val slots = participantSlots
+        val enemyCountMap = HashMap<BotId, Int /* enemyCount */>(slots.size * 2)
 
-        participantRegistry.participantMap.keys.forEach { botId ->
-            val teamId = aliveBotTeamIds[botId]
-            enemyCountMap[botId] = aliveBotTeamIds.filterValues { it != teamId }.count()
+        for (slot in 0 until slots.size) {
+            enemyCountMap[slots.botId(slot)] = slots.enemyCount(slot)
         }
 
-        broadcaster.broadcastToObserverAndControllers(
-            TurnToTickEventForObserverMapper
-                .map(roundNumber, turn, participantRegistry.participantMap, enemyCountMap, participantRegistry.debugGraphicsEnableMap)
-        )
+        val tickEvent = TurnToTickEventForObserverMapper
+            .map(roundNumber, turn, participantRegistry.participantMap, enemyCountMap, participantRegistry.debugGraphicsEnableMap)
+        val frame = observerTickStream.next(tickEvent, broadcaster.hasDeltaTickObservers())
+        return { broadcaster.broadcastTickToObserverAndControllers(frame) }
     }
 
     private fun checkForSkippedTurns(currentTurnNumber: Int) {
@@ -486,11 +629,14 @@ class GameServer(
         }
     }
 
-    private fun getParticipantsThatSkippedTurn(): Collection<WebSocket> =
-        participantRegistry.participants.filter { conn ->
-            val botId = participantRegistry.participantIds[conn] ?: return@filter false
-            modelUpdater?.isAlive(botId) == true && botIntents[conn] == null
+    // Must be called while holding tickLock, after the intents of the turn have been swapped in.
+    private fun getParticipantsThatSkippedTurn(): Collection<WebSocket> {
+        val slots = participantSlots
+        return participantRegistry.participants.filter { conn ->
+            val slot = slots.slotOf(conn)
+            slot >= 0 && modelUpdater?.isAlive(slots.botId(slot)) == true && slots.collectedIntent(slot) == null
         }
+    }
 
     internal fun sendBotListUpdate(conn: WebSocket) {
         broadcaster.sendBotListUpdate(conn)
@@ -511,8 +657,46 @@ class GameServer(
      * @param conn the WebSocket connection of the bot that left.
      */
     internal fun handleBotLeft(conn: WebSocket) {
+        if (!removeLeftParticipant(conn)) {
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+
+            continueWithoutLeftParticipant()
+        }
+    }
+
+    /**
+     * Called by [GameRooms] on the WebSocket thread when an observer or controller of this room disconnects.
+     * The connection is no longer synced with the tick stream, so it gets a full tick first if it is ever reused.
+     * @param conn the WebSocket connection of the observer or controller that left.
+     */
+    internal fun handleObserverLeft(conn: WebSocket) {
+        observerTickStream.remove(conn)
+    }
+
+    /**
+     * Called by [GameRooms] when a bot taking part in the game of this room disconnects, where the bot list is updated
+     * by the default room. Aborts the game if the last participant leaves while a game is running or paused.
+     * @param conn the WebSocket connection of the bot that left.
+     */
+    internal fun handleParticipantLeft(conn: WebSocket) {
+        if (!removeLeftParticipant(conn)) {
+            continueWithoutLeftParticipant()
+        }
+    }
+
+    /**
+     * Removes a participant that left, and aborts the game if it was the last participant.
+     * @return `true` if the game was aborted; `false` otherwise.
+     */
+    private fun removeLeftParticipant(conn: WebSocket): Boolean {
         val sessionId = connectionHandler.getBotHandshakes()[conn]?.sessionId
 
+        // No intent is expected from the bot anymore
+        synchronized(tickLock) {
+            participantSlots.removeConnection(conn)
+        }
+
         val shouldAbortGame = synchronized(participantRegistry.participantsLock) {
             val wasRemoved = participantRegistry.removeParticipant(conn)
             wasRemoved && participantRegistry.participants.isEmpty() && lifecycleManager.isGameRunningOrPaused()
@@ -522,13 +706,16 @@ class GameServer(
 
         if (shouldAbortGame) {
             handleAbortGame()
-        } else {
-            broadcaster.updateBotListUpdateMessage()
-            broadcaster.broadcastBotListUpdate()
+        }
+        return shouldAbortGame
+    }
 
-            if (lifecycleManager.serverState === ServerState.WAIT_FOR_READY_PARTICIPANTS) {
-                startGameIfParticipantsReady()
-            }
+    private fun continueWithoutLeftParticipant() {
+        // The turn may only have been waiting for the intent of the bot that left
+        lifecycleManager.lockstepClock?.advanceIfReady()
+
+        if (lifecycleManager.serverState === ServerState.WAIT_FOR_READY_PARTICIPANTS) {
+            startGameIfParticipantsReady()
         }
     }
 
@@ -546,7 +733,8 @@ class GameServer(
 
     /**
      * Called by [GameServerConnectionListener] on the WebSocket thread when a bot sends a turn intent.
-     * Acquires [tickLock] to safely merge the intent and track which bots have responded this turn.
+     * Merges the intent into the intents collected for the next turn without acquiring [tickLock], so it never waits
+     * for a turn being taken, and takes the turn when this was the last outstanding intent.
      * Ignored if the game is not running or paused.
      * @param conn the WebSocket connection of the bot.
      * @param intent the bot intent received from the bot.
@@ -554,43 +742,36 @@ class GameServer(
     internal fun handleBotIntent(conn: WebSocket, intent: dev.robocode.tankroyale.schema.BotIntent) {
         if (lifecycleManager.serverState !== ServerState.GAME_RUNNING && lifecycleManager.serverState !== ServerState.GAME_PAUSED) return
 
+        if (!participantSlots.addIntent(conn, intent)) return
+
         var shouldProcessBreakpointTurn = false
-        synchronized(tickLock) {
-            val existingIntent = botIntents[conn]
-            if (existingIntent == null) {
-                botIntents[conn] = BotIntentMapper.map(intent)
-            } else {
-                existingIntent.update(BotIntentMapper.mapForMerge(intent))
+        val botId = participantRegistry.participantIds[conn]
+        if (botId != null && lifecycleManager.breakpointPausedForBots.remove(botId)) {
+            if (lifecycleManager.breakpointPausedForBots.isEmpty()) {
+                shouldProcessBreakpointTurn = true
             }
-            botsThatSentIntent += conn
+        } else {
+            checkAllBotsResponded()
+        }
 
-            val botId = participantRegistry.participantIds[conn]
-            if (botId != null && lifecycleManager.breakpointPausedForBots.remove(botId)) {
-                if (lifecycleManager.breakpointPausedForBots.isEmpty()) {
-                    shouldProcessBreakpointTurn = true
-                }
-            } else {
-                checkAllBotsResponded()
-            }
+        // In lockstep mode, the last intent of a turn takes the turn on this thread
+        if (!shouldProcessBreakpointTurn) {
+            lifecycleManager.lockstepClock?.advanceIfReady()
         }
 
         // All breakpoint bots responded: resume game and schedule an immediate turn.
-        // Called outside tickLock to avoid holding the lock during state transitions.
         if (shouldProcessBreakpointTurn) {
             // Re-enable connection-lost detection now that the bot's JVM is running again.
             connectionHandler.setConnectionLostTimeout(DEFAULT_CONNECTION_LOST_TIMEOUT_SECS)
             lifecycleManager.resumeGame()
             broadcastGameResumedToObservers()
             resetTurnTimeout()
-            lifecycleManager.turnTimeoutTimer?.notifyReady()
+            notifyTurnReady()
         }
     }
 
     private fun checkAllBotsResponded() {
-        val aliveParticipants = participantRegistry.participants.filter { conn ->
-            participantRegistry.participantIds[conn]?.let { botId -> modelUpdater?.isAlive(botId) == true } ?: false
-        }
-        if (botsThatSentIntent.containsAll(aliveParticipants)) {
+        if (participantSlots.isAllIntentsReceived) {
             lifecycleManager.turnTimeoutTimer?.notifyReady()
         }
     }
@@ -600,12 +781,23 @@ class GameServer(
      * Maps the requested bot addresses to active WebSocket connections and initiates game preparation.
      * @param gameSetup the game setup configuration sent by the controller.
      * @param botAddresses the set of bot addresses that should participate.
+     * @param debugMode flag specifying if the game starts in debug mode.
+     * @param checkpoint the checkpoint the game is started from when forking a game, or `null` for a new game.
+     * @param isBotAvailable checks if a bot can take part, which is not the case for a bot taking part in the game of
+     * another game room.
      */
-    internal fun handleStartGame(gameSetup: GameSetup, botAddresses: Collection<BotAddress>, debugMode: Boolean = false) {
+    internal fun handleStartGame(
+        gameSetup: GameSetup,
+        botAddresses: Collection<BotAddress>,
+        debugMode: Boolean = false,
+        checkpoint: GameCheckpoint? = null,
+        isBotAvailable: (WebSocket) -> Boolean = { true },
+    ) {
         this.gameSetup = GameSetupMapper.map(gameSetup)
+        this.checkpoint = checkpoint
         lifecycleManager.debugMode = debugMode
 
-        val sockets = connectionHandler.mapToBotSockets(botAddresses)
+        val sockets = connectionHandler.mapToBotSockets(botAddresses).filter(isBotAvailable)
         participantRegistry.setParticipants(sockets)
         if (participantRegistry.participants.isNotEmpty()) {
             prepareGame()
@@ -648,6 +840,7 @@ class GameServer(
         lifecycleManager.serverState = ServerState.GAME_RUNNING
         broadcastGameResumedToObservers()
         resetTurnTimeout()
+        lifecycleManager.lockstepClock?.advanceIfReady()
     }
 
     /**
@@ -670,6 +863,30 @@ class GameServer(
         }
     }
 
+    /**
+     * Called by [GameServerConnectionListener] when a controller requests a checkpoint of the running or paused game.
+     * The checkpoint is taken between two turns while holding [tickLock], and is sent to the controller only.
+     * @param conn is the connection of the controller.
+     */
+    internal fun handleCreateCheckpoint(conn: WebSocket) {
+        if (!lifecycleManager.isGameRunningOrPaused()) {
+            log.warn("Ignoring checkpoint request as no game is running")
+            return
+        }
+        val participants = participantRegistry.participantMap.map { (botId, participant) ->
+            GameCheckpoint.ParticipantRecord(botId.value, participant.name, participant.version)
+        }
+        val checkpoint = synchronized(tickLock) { modelUpdater?.checkpoint(participants) } ?: return
+        log.info("Checkpoint taken at round {}, turn {}", checkpoint.roundNumber, checkpoint.turnNumber)
+
+        broadcaster.send(conn, CheckpointCreatedEvent().also {
+            it.type = Message.Type.CHECKPOINT_CREATED_EVENT
+            it.roundNumber = checkpoint.roundNumber
+            it.turnNumber = checkpoint.turnNumber
+            it.checkpoint = checkpoint.encode()
+        })
+    }
+
     /**
      * Called by [GameServerConnectionListener] on the WebSocket thread when a controller changes the TPS setting.
      * Broadcasts the new TPS to observers and controllers. A value of 0 pauses the game;
@@ -697,10 +914,11 @@ class GameServer(
             lifecycleManager.serverState = ServerState.GAME_RUNNING
             broadcastGameResumedToObservers()
             resetTurnTimeout()
+            lifecycleManager.lockstepClock?.advanceIfReady()
         }
         // If changing between two nonzero TPS values while already running, do nothing:
         // onNextTurn() calls resetTurnTimeout() at the end of each turn, which picks up the new TPS
-        // via applyVisualDelay(). Calling resetTurnTimeout() here would schedule an extra immediate
+        // for the turn period. Calling resetTurnTimeout() here would schedule an extra immediate
         // turn on the timer thread, racing with any in-progress turn and causing a double-turn.
     }
 
@@ -741,7 +959,7 @@ class GameServer(
                     lifecycleManager.resumeGame()
                     broadcastGameResumedToObservers()
                     resetTurnTimeout()
-                    lifecycleManager.turnTimeoutTimer?.notifyReady()
+                    notifyTurnReady()
                 }
             }
         }
@@ -750,9 +968,9 @@ class GameServer(
     private fun cleanupAfterGameStopped() {
         lifecycleManager.stopTimers()
         participantRegistry.clear()
-        botIntents.clear()
-        botsThatSentIntent.clear()
+        participantSlots = ParticipantSlots.EMPTY
         modelUpdater = null
+        checkpoint = null
         // Restore connection-lost detection in case the game ended while paused at a breakpoint.
         connectionHandler.setConnectionLostTimeout(DEFAULT_CONNECTION_LOST_TIMEOUT_SECS)
         lifecycleManager.breakpointPausedForBots.clear()
@@ -804,4 +1022,12 @@ class GameServer(
     private fun getResultsForBot(botId: BotId): ResultsForBot = resultsBuilder.buildResultsForBot(botId)
 
     internal fun getResultsForObservers(): List<ResultsForObserver> = resultsBuilder.buildResultsForObservers()
+
+    /** Bots taking part in the game of this server */
+    internal val participants: Set<WebSocket> get() = participantRegistry.participants
+
+    /** Checks if a game is being prepared, running, or paused */
+    internal val isGameInProgress: Boolean
+        get() = lifecycleManager.serverState === ServerState.WAIT_FOR_READY_PARTICIPANTS ||
+                lifecycleManager.isGameRunningOrPaused()
 }
@@ -14,27 +14,51 @@ data class FireOutcome(
     val gunHeat: Double,
 )
 
+/** Decision to fire a bullet, which gets its bullet id when the decisions are merged */
+private data class FireDecision(
+    val power: Double,
+    val firepower: Double,
+    val direction: Double,
+)
+
 // ── Gun Engine ──────────────────────────────────────────────────────────────────
 
-/** Engine for handling gun cooling and firing. */
-class GunEngine(private val setup: GameSetup) {
+/**
+ * Engine for handling gun cooling and firing.
+ *
+ * The fire decisions are computed per bot, optionally in parallel, and merged in bot order afterward. Bullet ids are
+ * only assigned while merging, so they are the same as when firing the guns one bot at a time.
+ *
+ * @param setup is the game setup.
+ * @param isParallelEnabled is a flag specifying if the fire decisions may be computed in parallel.
+ */
+class GunEngine(private val setup: GameSetup, isParallelEnabled: Boolean = false) {
 
     // Only accessed while holding GameServer.tickLock — enforced by ModelUpdater's threading contract.
     // GunEngine performs no synchronisation of its own; callers are responsible.
-    private var nextBulletId = 0
+    // Read and written by ModelUpdater when taking and restoring checkpoints of a game.
+    internal var nextBulletId = 0
+
+    private val executor = BotPhaseExecutor(isParallelEnabled)
 
     fun coolDownAndFireGuns(
         botsMap: Map<BotId, MutableBot>,
         botIntentsMap: Map<BotId, BotIntent>,
-        botsCopies: Map<BotId, MutableBot>,
+        botsCopies: Map<BotId, IBot>,
         lastRound: MutableRound?,
-        bullets: MutableSet<Bullet>,
+        bullets: MutableSet<MutableBullet>,
         turn: MutableTurn
     ): List<FireOutcome> {
+        val bots = botsMap.values.toList()
+        val decisions = executor.map(bots) { bot ->
+            if (isReadyToFire(bot)) computeFireDecision(bot, botIntentsMap, botsCopies, lastRound) else null
+        }
+
         val outcomes = mutableListOf<FireOutcome>()
-        botsMap.values.forEach { bot ->
-            if (bot.gunHeat == 0.0 && bot.isEnabled) {
-                computeFireOutcome(bot, botIntentsMap, botsCopies, lastRound)?.let { outcome ->
+        bots.forEachIndexed { index, bot ->
+            if (isReadyToFire(bot)) {
+                decisions[index]?.let { decision ->
+                    val outcome = createFireOutcome(bot, decision)
                     applyFireOutcome(outcome, bot, bullets, turn)
                     outcomes.add(outcome)
                 }
@@ -45,12 +69,14 @@ class GunEngine(private val setup: GameSetup) {
         return outcomes
     }
 
-    private fun computeFireOutcome(
+    private fun isReadyToFire(bot: MutableBot) = bot.gunHeat == 0.0 && bot.isEnabled
+
+    private fun computeFireDecision(
         bot: MutableBot,
         botIntentsMap: Map<BotId, BotIntent>,
-        botsCopies: Map<BotId, MutableBot>,
+        botsCopies: Map<BotId, IBot>,
         lastRound: MutableRound?,
-    ): FireOutcome? {
+    ): FireDecision? {
         val intent = botIntentsMap[bot.id] ?: return null
         val firepower = intent.firepower ?: 0.0
         if (firepower < MIN_FIREPOWER || bot.energy <= firepower) return null
@@ -70,32 +96,35 @@ class GunEngine(private val setup: GameSetup) {
                 }
             }
         }
+        return FireDecision(power, firepower, fireDirection)
+    }
 
+    private fun createFireOutcome(bot: MutableBot, decision: FireDecision): FireOutcome {
         val bullet = Bullet(
             id = BulletId(++nextBulletId),
             botId = bot.id,
             startPosition = bot.position,
-            direction = fireDirection,
-            power = power,
+            direction = decision.direction,
+            power = decision.power,
             color = bot.bulletColor,
         )
 
         return FireOutcome(
             botId = bot.id,
             bullet = bullet,
-            firepower = firepower,
-            gunHeat = calcGunHeat(power),
+            firepower = decision.firepower,
+            gunHeat = calcGunHeat(decision.power),
         )
     }
 
     private fun applyFireOutcome(
         outcome: FireOutcome,
         bot: MutableBot,
-        bullets: MutableSet<Bullet>,
+        bullets: MutableSet<MutableBullet>,
         turn: MutableTurn,
     ) {
         bot.gunHeat = outcome.gunHeat
-        bullets += outcome.bullet
+        bullets += MutableBullet(outcome.bullet)
 
         val bulletFiredEvent = BulletFiredEvent(turn.turnNumber, outcome.bullet.copy())
         turn.addPrivateBotEvent(bot.id, bulletFiredEvent)
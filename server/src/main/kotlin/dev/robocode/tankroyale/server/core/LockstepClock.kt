@@ -0,0 +1,118 @@
+package dev.robocode.tankroyale.server.core
+
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Virtual turn clock for the lockstep mode, where the game advances by one turn as soon as the intents of all alive
+ * bots have arrived, instead of waiting on the turn timeout and the turns per second.
+ *
+ * The next turn is armed with [arm] when its tick has been sent, and is taken with [advanceIfReady] by the thread
+ * delivering the last intent, so no timer is scheduled, and no thread is woken up per turn. An armed turn is taken only
+ * once, even when the last intent, a duplicate intent, and the safety timeout race for it. Turns taken in a row by the
+ * same thread are taken in a loop, so the call stack does not grow with the number of turns.
+ *
+ * The safety timeout is only meant for hung bots: a watchdog forces the armed turn when it has waited for the intents
+ * for [safetyTimeoutNanos].
+ *
+ * @param safetyTimeoutNanos is the time in nanoseconds an armed turn waits for the intents before being forced.
+ * @param isReady checks if the intents of all alive bots have arrived for the armed turn.
+ * @param sharedExecutor is an executor shared with other clocks and timers for the first turn and the watchdog, or
+ * `null` for an executor owned by this clock.
+ * @param turn takes the turn, which arms the next turn with [arm] if the game goes on.
+ */
+class LockstepClock(
+    private val safetyTimeoutNanos: Long,
+    private val isReady: () -> Boolean,
+    sharedExecutor: ScheduledExecutorService? = null,
+    private val turn: () -> Unit,
+) {
+    companion object {
+        /** Default safety timeout in milliseconds for hung bots */
+        const val DEFAULT_SAFETY_TIMEOUT_MILLIS = 10_000
+
+        /** Number of times per safety timeout the watchdog checks for a stalled turn */
+        private const val WATCHDOG_CHECKS_PER_TIMEOUT = 4
+    }
+
+    init {
+        require(safetyTimeoutNanos > 0L) { "safetyTimeoutNanos must be positive, got: $safetyTimeoutNanos" }
+    }
+
+    private val isExecutorOwned = sharedExecutor == null
+
+    // Only used for the first turn and the watchdog, never for the turns taken on intents
+    private val executor: ScheduledExecutorService = sharedExecutor ?: Executors.newSingleThreadScheduledExecutor { runnable ->
+        Thread(runnable, "LockstepWatchdog").apply { isDaemon = true }
+    }
+
+    @Volatile
+    private var isShutdown = false
+
+    @Volatile
+    private var watchdog: Future<*>? = null
+
+    /** Flag specifying if the next turn waits to be taken */
+    private val armed = AtomicBoolean(false)
+
+    @Volatile
+    private var armedAtNanos = 0L
+
+    /**
+     * Starts the clock by taking the first turn on the clock thread, which does not wait for intents, and starts the
+     * watchdog.
+     */
+    fun start() {
+        arm()
+        executor.execute { advance() }
+
+        val checkIntervalNanos = (safetyTimeoutNanos / WATCHDOG_CHECKS_PER_TIMEOUT).coerceAtLeast(1L)
+        watchdog = executor.scheduleAtFixedRate(
+            ::checkStalled, checkIntervalNanos, checkIntervalNanos, TimeUnit.NANOSECONDS
+        )
+    }
+
+    /** Arms the next turn, which is taken when the intents of all alive bots have arrived */
+    fun arm() {
+        if (isShutdown) return
+        armedAtNanos = System.nanoTime()
+        armed.set(true)
+    }
+
+    /** Takes the armed turn and the turns following it as long as the intents of all alive bots have arrived */
+    fun advanceIfReady() {
+        while (isReady() && armed.compareAndSet(true, false)) {
+            turn()
+        }
+    }
+
+    /** Takes the armed turn without waiting for the remaining intents, and then continues like [advanceIfReady] */
+    fun advance() {
+        if (armed.compareAndSet(true, false)) {
+            turn()
+            advanceIfReady()
+        }
+    }
+
+    /** Stops the clock. A turn being taken is completed, but no further turns are taken. */
+    fun shutdown() {
+        isShutdown = true
+        armed.set(false)
+        watchdog?.cancel(false)
+        // Not awaiting termination, as the clock may be shut down by the turn running on the clock thread
+        if (isExecutorOwned) executor.shutdown()
+    }
+
+    private fun checkStalled() {
+        if (isShutdown) {
+            watchdog?.cancel(false) // in case the clock was shut down while starting
+            return
+        }
+        if (armed.get() && System.nanoTime() - armedAtNanos >= safetyTimeoutNanos) {
+            advance()
+        }
+    }
+}
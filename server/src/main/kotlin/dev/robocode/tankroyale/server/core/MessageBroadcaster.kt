@@ -2,71 +2,145 @@ package dev.robocode.tankroyale.server.core
 
 import com.google.gson.Gson
 import dev.robocode.tankroyale.schema.BotInfo
+import dev.robocode.tankroyale.schema.BotJoined
+import dev.robocode.tankroyale.schema.BotLeft
 import dev.robocode.tankroyale.schema.BotListUpdate
 import dev.robocode.tankroyale.schema.Message
 import dev.robocode.tankroyale.server.connection.ConnectionHandler
+import dev.robocode.tankroyale.server.mapper.BinaryTickCodec
 import dev.robocode.tankroyale.server.mapper.BotHandshakeToBotInfoMapper
+import dev.robocode.tankroyale.server.mapper.SchemaJsonCodec
 import org.java_websocket.WebSocket
-import org.java_websocket.exceptions.WebsocketNotConnectedException
 
-/** Broadcaster for sending messages to bots and observers. */
+/**
+ * Broadcaster for sending messages to bots and observers.
+ *
+ * Game events are broadcast to the observers and controllers of the game room given by [roomId], whereas the bot list
+ * is shared by all game rooms, and is broadcast to all observers and controllers.
+ */
 class MessageBroadcaster(
     private val connectionHandler: ConnectionHandler,
-    private val gson: Gson
+    gson: Gson,
+    private val roomId: String = GameRooms.DEFAULT_ROOM_ID
 ) {
-    @Volatile
-    private var botListUpdateMessage = BotListUpdate().apply {
-        type = Message.Type.BOT_LIST_UPDATE
-        bots = emptyList()
-    }
+    private val codec = SchemaJsonCodec(gson)
+
+    private val botListLock = Any()
+
+    /** Bots in the bot list by their connection in the order they joined. Guarded by [botListLock]. */
+    private val botList = LinkedHashMap<WebSocket, BotInfo>()
+
+    /** Bot list changes not broadcast yet. Guarded by [botListLock]. */
+    private val botListChanges = mutableListOf<Message>()
+
+    /** Bot list update as JSON text, which is `null` when it must be serialized again. Guarded by [botListLock]. */
+    private var botListUpdateJson: String? = null
 
     fun send(conn: WebSocket, msg: Message) {
         requireNotNull(msg.type) { "'type' is required on the message" }
-        gson.toJson(msg).also {
-            try {
-                conn.send(it)
-            } catch (_: WebsocketNotConnectedException) {
-                // Bot cannot receive events and send new intents.
-            }
-        }
+        connectionHandler.send(conn, codec.toJson(msg))
+    }
+
+    /** Sends a tick event that has already been serialized, which may be coalesced for a slow client */
+    fun sendTick(conn: WebSocket, json: String) {
+        connectionHandler.sendTick(conn, json)
+    }
+
+    /** Sends a tick event that has already been encoded in the binary wire format, like [sendTick] */
+    fun sendTick(conn: WebSocket, bytes: ByteArray) {
+        connectionHandler.sendTick(conn, bytes)
+    }
+
+    /** Checks if an observer of the game room has selected delta ticks, so the delta ticks must be built */
+    fun hasDeltaTickObservers(): Boolean = connectionHandler.hasDeltaTickObservers(roomId)
+
+    /**
+     * Broadcasts a tick event to the observers and controllers in the wire format and with the subscription selected by
+     * each of them, where observers selecting delta ticks get the delta tick of the frame when they have received the
+     * previous tick.
+     */
+    internal fun broadcastTickToObserverAndControllers(frame: ObserverTickStream.Frame) {
+        val tick = frame.tick
+        val deltaJson by lazy { frame.delta?.let { codec.toJson(it) } }
+
+        connectionHandler.broadcastTickToObserverAndControllers(
+            roomId,
+            tick.turnNumber,
+            message = { excludedFields -> codec.toJson(tick, excludedFields) },
+            binaryMessage = { excludedFields -> BinaryTickCodec.encode(tick, excludedFields) },
+            deltaMessage = { observer -> if (frame.isDeltaFor(observer)) deltaJson else null },
+        )
     }
 
     fun broadcastToObserverAndControllers(msg: Message) {
         requireNotNull(msg.type) { "'type' is required on the message" }
-        connectionHandler.broadcastToObserverAndControllers(gson.toJson(msg))
+        connectionHandler.broadcastToObserverAndControllers(codec.toJson(msg), roomId)
     }
 
     fun broadcastToAll(msg: Message, participants: Collection<WebSocket>) {
         requireNotNull(msg.type) { "'type' is required on the message" }
-        val json = gson.toJson(msg)
-        connectionHandler.broadcastToObserverAndControllers(json)
+        val json = codec.toJson(msg)
+        connectionHandler.broadcastToObserverAndControllers(json, roomId)
         connectionHandler.broadcast(participants, json)
     }
 
+    /**
+     * Updates the bot list with the bots that have joined or left since the last update, which are broadcast with
+     * [broadcastBotListUpdate]. Only the bots that joined are mapped to bot info.
+     */
     fun updateBotListUpdateMessage() {
-        val newBotsList = mutableListOf<BotInfo>()
+        val botSockets = connectionHandler.mapToBotSockets()
+        val botHandshakes = connectionHandler.getBotHandshakes()
 
-        connectionHandler.apply {
-            mapToBotSockets().forEach { conn ->
-                getBotHandshakes()[conn]?.let { botHandshake ->
-                    conn.remoteSocketAddress.apply {
-                        newBotsList.add(BotHandshakeToBotInfoMapper.map(botHandshake, hostString, port))
+        synchronized(botListLock) {
+            botList.entries.removeIf { (conn, bot) ->
+                (conn !in botSockets).also { hasLeft ->
+                    if (hasLeft) botListChanges += BotLeft().apply {
+                        type = Message.Type.BOT_LEFT
+                        this.bot = bot
                     }
                 }
             }
-        }
-
-        botListUpdateMessage = BotListUpdate().apply {
-            type = Message.Type.BOT_LIST_UPDATE
-            bots = newBotsList
+            botSockets.filter { it !in botList }.forEach { conn ->
+                botHandshakes[conn]?.let { botHandshake ->
+                    val bot = conn.remoteSocketAddress.run {
+                        BotHandshakeToBotInfoMapper.map(botHandshake, hostString, port)
+                    }
+                    botList[conn] = bot
+                    botListChanges += BotJoined().apply {
+                        type = Message.Type.BOT_JOINED
+                        this.bot = bot
+                    }
+                }
+            }
+            if (botListChanges.isNotEmpty()) botListUpdateJson = null
         }
     }
 
+    /**
+     * Broadcasts the bot list changes to the observers and controllers, where the clients selecting bot list deltas get
+     * a bot-joined or bot-left message per change, and the other clients get the complete bot list.
+     */
     fun broadcastBotListUpdate() {
-        broadcastToObserverAndControllers(botListUpdateMessage)
+        synchronized(botListLock) {
+            connectionHandler.broadcastBotListToObserverAndControllers(
+                message = ::getBotListUpdateJson,
+                deltaMessages = botListChanges.map { codec.toJson(it) },
+            )
+            botListChanges.clear()
+        }
     }
 
+    /** Sends the complete bot list to a client, which is the starting point for the bot list deltas it receives */
     fun sendBotListUpdate(conn: WebSocket) {
-        send(conn, botListUpdateMessage)
+        synchronized(botListLock) {
+            connectionHandler.send(conn, getBotListUpdateJson())
+        }
     }
+
+    private fun getBotListUpdateJson(): String =
+        botListUpdateJson ?: codec.toJson(BotListUpdate().apply {
+            type = Message.Type.BOT_LIST_UPDATE
+            bots = botList.values.toList()
+        }).also { botListUpdateJson = it }
 }
@@ -30,6 +30,8 @@ class ModelUpdater(
     droidFlags: Map<BotId, Boolean /* isDroid */>,
     /** Whether initial position overrides from bots are enabled */
     initialPositionEnabled: Boolean,
+    /** Whether the per-bot phases of a turn may be executed in parallel */
+    parallelBotPhasesEnabled: Boolean = false,
 ) {
     /** Score tracking */
     private val scoreTracker = ScoreTracker(participantIds)
@@ -39,14 +41,14 @@ class ModelUpdater(
     /** Map over all bots */
     private val botsMap = mutableMapOf<BotId, MutableBot>()
 
-    /** Map over copied bots from previous turn */
-    private val botsCopies = mutableMapOf<BotId, MutableBot>()
+    /** Bot states from the start of the current turn */
+    private val previousBotStates = BotStateArrays()
 
     /** Map over all bot intents */
     private val botIntentsMap = mutableMapOf<BotId, BotIntent>()
 
     /** Bullets */
-    private var bullets = mutableSetOf<Bullet>()
+    private var bullets = mutableSetOf<MutableBullet>()
 
     /** Game state */
     private var gameState = GameState(Arena(setup.arenaWidth, setup.arenaHeight))
@@ -54,8 +56,19 @@ class ModelUpdater(
     /** Round record */
     private var round = MutableRound(0)
 
-    /** Turn record — fresh instance created each turn to avoid temporal coupling */
-    private var turn = MutableTurn(0)
+    /**
+     * Turn records, which are recycled every other turn instead of being reallocated.
+     * The turn record not being processed holds the last published turn, which must stay intact while the next turn
+     * is processed, as it is read as the last turn of the round. A published turn is reset by the second next
+     * [update], so no reference to it may outlive the next update; see [update].
+     */
+    private val turnRecords = arrayOf(MutableTurn(0), MutableTurn(0))
+
+    /** Index of the current turn record */
+    private var turnRecordIndex = 0
+
+    /** Current turn record */
+    private var turn = turnRecords[turnRecordIndex]
 
     /** Counter to track the number of rounds played (memory leak fix) */
     private var roundCounter = 0
@@ -63,10 +76,17 @@ class ModelUpdater(
     /** Inactivity counter */
     private var inactivityCounter = 0
 
+    /** Bullet phase of the next turn, precomputed while waiting for the bot intents */
+    private var precomputedBulletPhase: PrecomputedBulletPhase? = null
+
+    /** Random number generator of the game, whose state is kept in checkpoints */
+    private val random = GameRandom()
+
     /** Components */
-    private val collisionDetector = CollisionDetector(setup, participantIds)
-    private val botInitializer = BotInitializer(setup, participantIds, initialPositions, droidFlags, initialPositionEnabled)
-    private val gunEngine = GunEngine(setup)
+    private val collisionDetector = CollisionDetector(setup, participantIds, random)
+    private val botInitializer =
+        BotInitializer(setup, participantIds, initialPositions, droidFlags, initialPositionEnabled, random)
+    private val gunEngine = GunEngine(setup, parallelBotPhasesEnabled)
 
     private val turnProcessor = TurnProcessor(
         setup,
@@ -74,7 +94,8 @@ class ModelUpdater(
         collisionDetector,
         scoreTracker,
         scoreCalculator,
-        participantIds
+        participantIds,
+        parallelBotPhasesEnabled
     )
 
     /** The accumulated results ordered with higher total scores first */
@@ -110,6 +131,11 @@ class ModelUpdater(
 
     /**
      * Updates game state.
+     *
+     * The turns of the returned round are recycled instead of copied: the last turn is reset and reused by the second
+     * next update. Hence, the turns must be read before the next update, e.g. while holding the lock of the update,
+     * and a turn kept for longer must be copied with [MutableTurn.toTurn].
+     *
      * @param botIntents is the bot intents, which gives instructions to the game from the individual bots.
      * @return new game state when the game state has been updated.
      */
@@ -127,7 +153,7 @@ class ModelUpdater(
      * @return new game state.
      */
     private fun updateGameState(): GameStateSnapshot {
-        round.turns += turn.toTurn()
+        round.turns += turn
 
         // Memory leak fix: Keep only the last 2 turns (current + previous for collision detection)
         if (round.turns.size > 2) {
@@ -159,15 +185,16 @@ class ModelUpdater(
     /** Proceed with the next round. */
     private fun nextRound() {
         round = MutableRound(round.roundNumber + 1)
-        // Initialize to 0; nextTurn() will create a fresh MutableTurn(1) before the first TickEvent
-        turn = MutableTurn(0)
+        // Initialize to 0; nextTurn() will recycle a turn record for turn 1 before the first TickEvent
+        turn = recycleTurn(0)
 
         // Increment round counter for tracking (memory leak fix)
         roundCounter++
 
         gunEngine.reset()
+        precomputedBulletPhase = null
         botIntentsMap.clear()
-        botsCopies.clear()
+        previousBotStates.clear()
         bullets.clear()
         botsMap.clear()
         scoreTracker.clear()
@@ -182,17 +209,19 @@ class ModelUpdater(
 
     /** Proceed with the next turn. */
     private fun nextTurn() {
-        turn = MutableTurn(turn.turnNumber + 1)
+        turn = recycleTurn(turn.turnNumber + 1)
 
         val result = turnProcessor.processTurn(
             turn,
             botsMap,
             botIntentsMap,
-            botsCopies,
+            previousBotStates,
             round,
             bullets,
-            inactivityCounter
+            inactivityCounter,
+            precomputedBulletPhase,
         )
+        precomputedBulletPhase = null
 
         inactivityCounter = result.inactivityCounter
 
@@ -205,4 +234,114 @@ class ModelUpdater(
             accumulatedScoreCalculator.addScores(result.roundOutcome.scores)
         }
     }
+
+    /**
+     * Precomputes the parts of the next turn that do not depend on the bot intents, i.e. the wall hits and the hits
+     * between the bullets already in flight. This is meant to be called right after a turn has been published, so the
+     * work is done while waiting for the bot intents instead of after they have been received.
+     */
+    fun precomputeNextTurn() {
+        precomputedBulletPhase = if (round.roundEnded || bullets.isEmpty()) {
+            null
+        } else {
+            collisionDetector.precomputeBulletPhase(bullets)
+        }
+    }
+
+    /**
+     * Takes a checkpoint of the game after the last turn, which a new game can be started from with [restore].
+     * Taking a checkpoint does not change the state of the game.
+     * @param participants are the bots of the participants, which are kept in the checkpoint.
+     * @return the checkpoint of the game.
+     */
+    internal fun checkpoint(participants: List<GameCheckpoint.ParticipantRecord> = emptyList()): GameCheckpoint {
+        val lastTurn = round.lastTurn
+        return GameCheckpoint(
+            version = GameCheckpoint.VERSION,
+            arenaWidth = setup.arenaWidth,
+            arenaHeight = setup.arenaHeight,
+            roundNumber = round.roundNumber,
+            turnNumber = turn.turnNumber,
+            isRoundEnded = round.roundEnded,
+            numberOfRounds = roundCounter,
+            inactivityCounter = inactivityCounter,
+            nextBulletId = gunEngine.nextBulletId,
+            randomState = random.state,
+            participantIds = participantIds.toList(),
+            participants = participants,
+            // The output and debug graphics of the bots are taken from the bot intents with every turn
+            bots = botsMap.values.map { it.copy(stdOut = null, stdErr = null, debugGraphics = null) },
+            bullets = bullets.map { it.toBullet() },
+            botIntents = botIntentsMap.map { (botId, intent) ->
+                GameCheckpoint.BotIntentRecord(botId.value, intent.copy())
+            },
+            botIdsThatHitWall = botsMap.keys.filter { botId ->
+                lastTurn?.getEvents(botId)?.any { it is BotHitWallEvent } == true
+            }.map { it.value },
+            scannedBotEvents = botsMap.keys.mapNotNull { botId ->
+                lastTurn?.getEvents(botId)?.find { it is ScannedBotEvent } as ScannedBotEvent?
+            },
+            scoreTracker = scoreTracker.checkpoint(),
+            accumulatedScores = accumulatedScoreCalculator.getScores().toList(),
+        )
+    }
+
+    /**
+     * Restores the game from a checkpoint taken with [checkpoint], so the next update continues the game with the
+     * turn after the checkpoint. The events of the last turn that the next turn depends on are restored as well.
+     * @param checkpoint is the checkpoint to restore.
+     * @throws IllegalArgumentException if the checkpoint is for other participants or another arena size.
+     */
+    internal fun restore(checkpoint: GameCheckpoint) {
+        require(checkpoint.participantIds.toSet() == participantIds) {
+            "The participants of the checkpoint do not match the participants of the game"
+        }
+        require(checkpoint.arenaWidth == setup.arenaWidth && checkpoint.arenaHeight == setup.arenaHeight) {
+            "The arena size of the checkpoint does not match the arena size of the game"
+        }
+
+        round = MutableRound(checkpoint.roundNumber, roundEnded = checkpoint.isRoundEnded)
+        turn = recycleTurn(checkpoint.turnNumber)
+        roundCounter = checkpoint.numberOfRounds
+        inactivityCounter = checkpoint.inactivityCounter
+        gunEngine.nextBulletId = checkpoint.nextBulletId
+        random.state = checkpoint.randomState
+        precomputedBulletPhase = null
+        previousBotStates.clear()
+
+        botsMap.clear()
+        checkpoint.bots.forEach { botsMap[it.id] = it.copy() }
+        bullets.clear()
+        checkpoint.bullets.forEach { bullets += MutableBullet(it) }
+        botIntentsMap.clear()
+        checkpoint.botIntents.forEach { botIntentsMap[BotId(it.botId)] = it.intent.copy() }
+        scoreTracker.restore(checkpoint.scoreTracker)
+        accumulatedScoreCalculator.restoreScores(checkpoint.accumulatedScores)
+
+        // Last turn, which the next turn reads the previous bot positions and events from
+        turn.copyBots(botsMap.values)
+        turn.copyBullets(bullets)
+        checkpoint.botIdsThatHitWall.forEach { botId ->
+            turn.addPrivateBotEvent(BotId(botId), BotHitWallEvent(turn.turnNumber, BotId(botId)))
+        }
+        checkpoint.scannedBotEvents.forEach { turn.addPrivateBotEvent(it.scannedByBotId, it) }
+        round.turns += turn
+
+        gameState = GameState(Arena(setup.arenaWidth, setup.arenaHeight))
+        gameState.rounds += round
+    }
+
+    /**
+     * Switches to the other turn record and resets it for a new turn.
+     * The record is removed from the round first, as it holds the turn before the last published turn.
+     * @param turnNumber is the new turn number.
+     * @return the recycled turn record.
+     */
+    private fun recycleTurn(turnNumber: Int): MutableTurn {
+        turnRecordIndex = 1 - turnRecordIndex
+        val record = turnRecords[turnRecordIndex]
+        round.turns.removeIf { it === record }
+        record.reset(turnNumber)
+        return record
+    }
 }
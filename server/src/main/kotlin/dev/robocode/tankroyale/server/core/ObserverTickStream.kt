@@ -0,0 +1,100 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.schema.TickDeltaEventForObserver
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.mapper.TickDeltaMapper
+import org.java_websocket.WebSocket
+import java.util.concurrent.ConcurrentHashMap
+
+/** Default number of turns between keyframes sent to observers receiving delta ticks */
+const val DEFAULT_OBSERVER_KEYFRAME_INTERVAL = 50
+
+/**
+ * Stream of tick events for observers, which keeps track of the previous tick for building delta ticks for observers
+ * selecting them.
+ *
+ * A keyframe, which is the full tick event, is sent to all observers at the first turn of each round and every
+ * [keyframeInterval] turns. Between keyframes, an observer receiving delta ticks gets the delta from the previous
+ * tick, unless it has not received the previous tick, e.g. when it has just joined. Then it gets the full tick event
+ * instead.
+ *
+ * ## Threading contract
+ * [next] and [reset] must be called in turn order while holding `GameServer.tickLock`. The frames returned are
+ * sent in the same order afterward. [remove] may be called from any thread.
+ *
+ * @param keyframeInterval is the number of turns between keyframes.
+ */
+internal class ObserverTickStream(private val keyframeInterval: Int = DEFAULT_OBSERVER_KEYFRAME_INTERVAL) {
+
+    init {
+        require(keyframeInterval >= 1) { "keyframeInterval must be at least 1" }
+    }
+
+    private var previous: TickEventForObserver? = null
+
+    private var turnsSinceKeyframe = 0
+
+    /** Observers that have received the previous tick, so they can apply a delta tick to it */
+    private val syncedObservers = ConcurrentHashMap.newKeySet<WebSocket>()
+
+    /**
+     * Tick for observers of a turn.
+     * @param tick is the full tick event.
+     * @param delta is the delta tick from the previous tick, which is `null` if this tick is a keyframe, or if no
+     * observer receives delta ticks.
+     * @param isKeyframe is `true` if this tick is a keyframe sent in full to all observers.
+     */
+    inner class Frame(
+        val tick: TickEventForObserver,
+        val delta: TickDeltaEventForObserver?,
+        val isKeyframe: Boolean,
+    ) {
+
+        /**
+         * Checks if an observer receiving delta ticks gets the delta tick for this frame. An observer not getting the
+         * delta tick gets the full tick event, and gets delta ticks from the next frame.
+         * @param observer is the observer connection.
+         * @return `true` if the observer gets [delta]; `false` if it gets [tick].
+         */
+        fun isDeltaFor(observer: WebSocket): Boolean {
+            if (delta != null && observer in syncedObservers) return true
+            syncedObservers += observer
+            return false
+        }
+    }
+
+    /**
+     * Adds the tick of the next turn to the stream.
+     * @param tick is the full tick event of the turn.
+     * @param isDeltaNeeded is `true` if an observer receives delta ticks. Otherwise, the delta tick is not built, and
+     * the frame holds the full tick event only.
+     * @return the frame to send to the observers.
+     */
+    fun next(tick: TickEventForObserver, isDeltaNeeded: Boolean = true): Frame {
+        val previousTick = previous
+        previous = tick
+
+        if (previousTick == null || previousTick.roundNumber != tick.roundNumber ||
+            ++turnsSinceKeyframe >= keyframeInterval
+        ) {
+            turnsSinceKeyframe = 0
+            return Frame(tick, null, true)
+        }
+        return Frame(tick, if (isDeltaNeeded) TickDeltaMapper.map(previousTick, tick) else null, false)
+    }
+
+    /**
+     * Removes an observer that has left, so it gets the full tick event first if it comes back on the same connection.
+     * @param observer is the observer connection.
+     */
+    fun remove(observer: WebSocket) {
+        syncedObservers -= observer
+    }
+
+    /** Resets the stream for a new game, where the first tick becomes a keyframe */
+    fun reset() {
+        previous = null
+        turnsSinceKeyframe = 0
+        syncedObservers.clear()
+    }
+}
@@ -131,13 +131,28 @@ class ParticipantRegistry(private val connectionHandler: ConnectionHandler) {
         // cleared here — they survive game restarts so policies can be restored for the new game.
     }
 
-    fun prepareParticipantIds() {
+    /**
+     * Gives the participants their bot ids in the order of their session ids. When a game is forked from a checkpoint,
+     * each participant is given the bot id of the bot with the same name and version in the checkpoint instead, as
+     * the session ids differ from the game the checkpoint was taken from. Bots with the same name and version keep the
+     * order of their session ids.
+     * @param checkpoint is the checkpoint the game is forked from, or `null` for a new game.
+     */
+    fun prepareParticipantIds(checkpoint: GameCheckpoint? = null) {
         val handshakes = connectionHandler.getBotHandshakes()
-        _participants
-            .sortedBy { conn -> handshakes[conn]?.sessionId ?: "" }
-            .forEachIndexed { index, conn ->
-                _participantIds[conn] = BotId(index + 1)
-            }
+        val participants = _participants.sortedBy { conn -> handshakes[conn]?.sessionId ?: "" }
+
+        val checkpointBotIds = checkpoint?.participants?.sortedBy { it.botId }
+            ?.groupByTo(HashMap(), { it.name to it.version }, { BotId(it.botId) })
+        val botIds = participants.map { conn ->
+            handshakes[conn]?.let { checkpointBotIds?.get(it.name to it.version)?.removeFirstOrNull() }
+        }
+        // Participants not in the checkpoint get the ids of a new game, which the game server rejects the checkpoint for
+        if (botIds.all { it != null }) {
+            participants.forEachIndexed { index, conn -> _participantIds[conn] = botIds[index]!! }
+        } else {
+            participants.forEachIndexed { index, conn -> _participantIds[conn] = BotId(index + 1) }
+        }
     }
 
     private fun createParticipantMap(): Map<BotId, Participant> {
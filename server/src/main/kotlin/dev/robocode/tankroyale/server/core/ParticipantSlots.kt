@@ -0,0 +1,261 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.server.mapper.BotIntentMapper
+import dev.robocode.tankroyale.server.model.BotId
+import org.java_websocket.WebSocket
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Per-turn bookkeeping of the participants of a game, where each participant is given a dense slot index.
+ *
+ * Alive flags and alive counters per team are updated once per turn, so the enemy count of each participant is found
+ * in constant time. The number of intents still outstanding for the turn is kept in an atomic counter, so checking if
+ * all alive participants have sent their intent takes constant time per intent.
+ *
+ * The intents are collected without locking into one of two buffers holding an intent per slot, while the turn is
+ * taken with the intents of the other buffer. The buffers are swapped at the start of each turn with [swapIntents], so
+ * intents arriving while a turn is taken are collected for the next turn without waiting for the turn.
+ *
+ * ## Threading contract
+ * [updateAliveStates], [swapIntents], [collectedIntent], and [removeConnection] must be called while holding
+ * `GameServer.tickLock`. [addIntent] and [markIntentReceived] can be called from any thread without locking, where
+ * the intents of a participant must be added by one thread at a time, which is the inbound mailbox of the participant.
+ * [isAllIntentsReceived] and [hasCollectingIntent] can be read from any thread.
+ *
+ * @param conns is the participant connections, where the index is the slot.
+ * @param botIds is the participant bot ids, where the index is the slot.
+ * @param teamIds is the participant team ids, where the index is the slot. A `null` means no team.
+ */
+internal class ParticipantSlots(
+    private val conns: List<WebSocket>,
+    private val botIds: List<BotId>,
+    teamIds: List<Int?>,
+) {
+    companion object {
+        /** Slots for no participants, used while no game is prepared */
+        val EMPTY = ParticipantSlots(emptyList(), emptyList(), emptyList())
+
+        private const val NOT_EXPECTED = 0
+        private const val EXPECTED = 1
+        private const val RECEIVED = 2
+    }
+
+    /** Number of slots */
+    val size: Int get() = conns.size
+
+    private val slotsByConn = HashMap<WebSocket, Int>(conns.size * 2).apply {
+        conns.forEachIndexed { slot, conn -> put(conn, slot) }
+    }
+
+    private val slotsByBotId = HashMap<BotId, Int>(botIds.size * 2).apply {
+        botIds.forEachIndexed { slot, botId -> put(botId, slot) }
+    }
+
+    /** Dense team index of each slot, where bots without a team get a team of their own */
+    private val teamIndices = IntArray(conns.size)
+
+    /** Slots of the members of each team by team index */
+    private val teamMembers: List<List<Int>>
+
+    init {
+        val teamIndicesByKey = HashMap<Int, Int>()
+        val members = mutableListOf<MutableList<Int>>()
+        for (slot in conns.indices) {
+            val teamKey = teamIds[slot] ?: -botIds[slot].value
+            val teamIndex = teamIndicesByKey.getOrPut(teamKey) {
+                members += mutableListOf<Int>()
+                members.lastIndex
+            }
+            teamIndices[slot] = teamIndex
+            members[teamIndex] += slot
+        }
+        teamMembers = members
+    }
+
+    private val alive = BooleanArray(conns.size)
+    private val connected = BooleanArray(conns.size) { true }
+    private val aliveCountsByTeam = IntArray(teamMembers.size)
+    private var aliveCount = 0
+
+    /** Intent state of each slot for the current turn: [NOT_EXPECTED], [EXPECTED], or [RECEIVED] */
+    private val intentStates = AtomicIntegerArray(conns.size)
+
+    /** Number of alive and connected participants that have not sent their intent for the current turn yet */
+    private val outstandingIntents = AtomicInteger(0)
+
+    /** Buffer collecting the intents for the next turn */
+    @Volatile
+    private var collecting = IntentBuffer(conns.size)
+
+    /** Buffer holding the intents collected for the turn being taken */
+    private var collected = IntentBuffer(conns.size)
+
+    /**
+     * Returns the slot of a participant.
+     * @param conn is the participant connection.
+     * @return the slot, or -1 if the connection is not a participant.
+     */
+    fun slotOf(conn: WebSocket): Int = slotsByConn[conn] ?: -1
+
+    /**
+     * Returns the slot of a participant.
+     * @param botId is the participant bot id.
+     * @return the slot, or -1 if the bot id is not a participant.
+     */
+    fun slotOf(botId: BotId): Int = slotsByBotId[botId] ?: -1
+
+    fun conn(slot: Int): WebSocket = conns[slot]
+
+    fun botId(slot: Int): BotId = botIds[slot]
+
+    fun isAlive(slot: Int): Boolean = alive[slot]
+
+    /**
+     * Returns the teammate ids of a participant.
+     * @param slot is the participant slot.
+     * @return the bot ids of the other members of the participant's team.
+     */
+    fun teammateIds(slot: Int): Set<BotId> =
+        teamMembers[teamIndices[slot]].filter { it != slot }.mapTo(HashSet()) { botIds[it] }
+
+    /**
+     * Returns the number of alive enemies of a participant, which is all alive bots for a dead participant.
+     * @param slot is the participant slot.
+     * @return the number of alive enemies.
+     */
+    fun enemyCount(slot: Int): Int =
+        if (alive[slot]) aliveCount - aliveCountsByTeam[teamIndices[slot]] else aliveCount
+
+    /**
+     * Updates the alive flags and counters for a new turn, and expects an intent from every alive and connected
+     * participant from now on.
+     * @param isAlive is the function checking if a bot is alive.
+     */
+    fun updateAliveStates(isAlive: (BotId) -> Boolean) {
+        aliveCountsByTeam.fill(0)
+        aliveCount = 0
+
+        // An extra count is held while counting, so intents arriving meanwhile cannot make the count reach 0 early.
+        // The count of a slot is added before the slot is expected, so it is always added before it is taken.
+        outstandingIntents.set(1)
+        for (slot in conns.indices) {
+            val isBotAlive = isAlive(botIds[slot])
+            alive[slot] = isBotAlive
+            if (isBotAlive) {
+                aliveCount++
+                aliveCountsByTeam[teamIndices[slot]]++
+            }
+            if (isBotAlive && connected[slot]) {
+                outstandingIntents.incrementAndGet()
+                intentStates.set(slot, EXPECTED)
+            } else {
+                intentStates.set(slot, NOT_EXPECTED)
+            }
+        }
+        outstandingIntents.decrementAndGet()
+    }
+
+    /**
+     * Adds an intent of a participant for the next turn, which is merged into the intent already sent for the turn,
+     * and marks the intent as received.
+     * @param conn is the participant connection.
+     * @param intent is the intent.
+     * @return `true` if the connection is a participant; `false` otherwise.
+     */
+    fun addIntent(conn: WebSocket, intent: BotIntent): Boolean {
+        val slot = slotOf(conn)
+        if (slot < 0) return false
+
+        while (true) {
+            val buffer = collecting
+            buffer.writers.incrementAndGet()
+            try {
+                // The buffers were swapped meanwhile, so the intent belongs to the buffer now collecting
+                if (buffer !== collecting) continue
+
+                val existingIntent = buffer.intents[slot]
+                if (existingIntent == null) {
+                    buffer.intents[slot] = BotIntentMapper.map(intent)
+                } else {
+                    existingIntent.update(BotIntentMapper.mapForMerge(intent))
+                }
+            } finally {
+                buffer.writers.decrementAndGet()
+            }
+            break
+        }
+        markDone(slot)
+        return true
+    }
+
+    /**
+     * Marks the intent of a participant as received for the current turn.
+     * @param conn is the participant connection.
+     */
+    fun markIntentReceived(conn: WebSocket) {
+        val slot = slotOf(conn)
+        if (slot >= 0) markDone(slot)
+    }
+
+    /**
+     * Checks if a participant has sent an intent since the start of the current turn.
+     * @param slot is the participant slot.
+     * @return `true` if an intent has been collected for the next turn; `false` otherwise.
+     */
+    fun hasCollectingIntent(slot: Int): Boolean = collecting.intents[slot] != null
+
+    /**
+     * Swaps the intent buffers at the start of a turn, so the intents collected until now can be read with
+     * [collectedIntent], while new intents are collected for the next turn. Waits for intents being added to the
+     * collected buffer, which takes no longer than merging an intent.
+     */
+    fun swapIntents() {
+        val buffer = collecting
+        collected.clear()
+        collecting = collected
+        while (buffer.writers.get() != 0) {
+            Thread.onSpinWait()
+        }
+        collected = buffer
+    }
+
+    /**
+     * Returns the intent of a participant collected for the turn being taken.
+     * @param slot is the participant slot.
+     * @return the intent, or `null` if the participant did not send an intent.
+     */
+    fun collectedIntent(slot: Int): dev.robocode.tankroyale.server.model.BotIntent? = collected.intents[slot]
+
+    /**
+     * Removes a participant connection, so no intent is expected from it anymore.
+     * @param conn is the participant connection.
+     */
+    fun removeConnection(conn: WebSocket) {
+        val slot = slotOf(conn)
+        if (slot < 0) return
+        markDone(slot)
+        connected[slot] = false
+    }
+
+    /** Checks if all alive and connected participants have sent their intent for the current turn */
+    val isAllIntentsReceived: Boolean get() = outstandingIntents.get() <= 0
+
+    private fun markDone(slot: Int) {
+        if (intentStates.compareAndSet(slot, EXPECTED, RECEIVED)) {
+            outstandingIntents.decrementAndGet()
+        }
+    }
+
+    /** Buffer holding an intent per slot, and the number of threads adding an intent to it */
+    private class IntentBuffer(size: Int) {
+        val intents = AtomicReferenceArray<dev.robocode.tankroyale.server.model.BotIntent?>(size)
+        val writers = AtomicInteger(0)
+
+        fun clear() {
+            for (slot in 0 until intents.length()) intents[slot] = null
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.server.model.IBullet
+
+/**
+ * Bullet phase of the next turn, precomputed for the bullets in flight while waiting for the bot intents.
+ *
+ * Bullets in flight do not depend on the bot intents, so their wall hits and their hits with each other are found at
+ * the positions they get when being advanced in the next turn. When the next turn is processed, these results are
+ * reused, and only the bullets fired in that turn need to be checked.
+ *
+ * The results only apply when the bullets in flight still come first in the bullet set as the same instances, and
+ * each bullet has been advanced exactly once. Otherwise, the bullet phase is computed from scratch.
+ */
+class PrecomputedBulletPhase internal constructor(
+    /** Bullets in flight in bullet set order */
+    private val bullets: List<IBullet>,
+
+    /** Tick of each bullet in flight when precomputing */
+    private val ticks: IntArray,
+
+    /** Flag for each bullet in flight specifying if the bullet hits a wall */
+    private val wallHits: BooleanArray,
+
+    /** Hits between bullets in flight not hitting a wall, ordered by the first and then the second bullet */
+    internal val bulletHitBullets: List<BulletHitBulletOutcome>,
+
+    /** Index of the first bullet of each bullet hit among the bullets in flight not hitting a wall */
+    internal val bulletHitFirstIndices: IntArray,
+) {
+    /** Number of bullets in flight */
+    internal val size: Int get() = bullets.size
+
+    /** Number of bullets in flight not hitting a wall */
+    internal val remainingCount: Int = wallHits.count { !it }
+
+    /**
+     * Checks if a bullet in flight hits a wall.
+     * @param index is the index of the bullet in flight.
+     * @return `true` if the bullet hits a wall; `false` otherwise.
+     */
+    internal fun isWallHit(index: Int): Boolean = wallHits[index]
+
+    /**
+     * Checks if the precomputed results apply to the bullets of the turn, after the bullets have been advanced.
+     * @param advancedBullets is the bullets of the turn in bullet set order.
+     * @return `true` if the results apply; `false` otherwise.
+     */
+    internal fun matches(advancedBullets: List<IBullet>): Boolean {
+        if (advancedBullets.size < bullets.size) return false
+        for (i in bullets.indices) {
+            if (!isAdvanced(i, advancedBullets[i])) return false
+        }
+        return true
+    }
+
+    /**
+     * Checks if the precomputed results apply to the bullets of the turn, after the bullets hitting a wall have been
+     * removed.
+     * @param remainingBullets is the remaining bullets of the turn in bullet set order.
+     * @return `true` if the results apply; `false` otherwise.
+     */
+    internal fun matchesRemaining(remainingBullets: List<IBullet>): Boolean {
+        if (remainingBullets.size < remainingCount) return false
+        var k = 0
+        for (i in bullets.indices) {
+            if (wallHits[i]) continue
+            if (!isAdvanced(i, remainingBullets[k++])) return false
+        }
+        return true
+    }
+
+    private fun isAdvanced(index: Int, bullet: IBullet): Boolean =
+        bullet === bullets[index] && bullet.tick == ticks[index] + 1
+}
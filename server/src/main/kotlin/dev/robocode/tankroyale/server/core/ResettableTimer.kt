@@ -18,6 +18,8 @@ import java.util.concurrent.TimeUnit
  *
  * ResettableTimer uses a [ScheduledExecutorService] with a single daemon thread that persists for the
  * lifetime of the timer. Multiple calls to [schedule] reschedule the same thread, not create new ones.
+ * When a shared executor is given, e.g. for the timers of several game rooms, the timer schedules its job
+ * on that executor instead, and [shutdown] leaves the shared executor running.
  *
  * **Timing Guarantees**
  *
@@ -37,12 +39,16 @@ import java.util.concurrent.TimeUnit
  */
 class ResettableTimer(
     /** Job to execute when the timer triggers. */
-    private val job: Runnable
+    private val job: Runnable,
+    /** Executor shared with other timers, or `null` for an executor owned by this timer. */
+    sharedExecutor: ScheduledExecutorService? = null
 ) {
+    private val isExecutorOwned = sharedExecutor == null
+
     // Single-thread executor: REUSES the same thread for all scheduled tasks.
     // This is the key to avoiding the memory leak. The thread name includes "Timer" for debugging visibility.
     // Daemon thread flag ensures the JVM can shut down even if the timer is still active.
-    private val executor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor { runnable ->
+    private val executor: ScheduledExecutorService = sharedExecutor ?: Executors.newSingleThreadScheduledExecutor { runnable ->
         Thread(runnable, "TurnTimeoutTimer").apply { isDaemon = true }
     }
 
@@ -153,6 +159,7 @@ class ResettableTimer(
             generation += 1
             cancelScheduled()
         }
+        if (!isExecutorOwned) return
 
         executor.shutdown()
         try {
@@ -1,6 +1,8 @@
 package dev.robocode.tankroyale.server.core
 
 import dev.robocode.tankroyale.common.util.Version
+import dev.robocode.tankroyale.server.connection.BackpressurePolicy
+import dev.robocode.tankroyale.server.connection.CompressionPolicy
 import dev.robocode.tankroyale.server.connection.ConnectionHandler
 import dev.robocode.tankroyale.server.connection.GameServerConnectionListener
 import com.google.gson.Gson
@@ -22,6 +24,8 @@ class Server : Runnable {
         private const val MIN_PORT = 1000
         private const val MAX_PORT = 65535
         const val INHERIT = "inherit"
+        const val DEFAULT_COMPRESSION = "observer,controller"
+        const val DEFAULT_COALESCE_TICKS = "bot,observer"
 
         // These vars are written ONCE by the CLI (picocli) before any game thread starts.
         // After startup, they are effectively read-only — no synchronisation needed for reads.
@@ -57,13 +61,31 @@ class Server : Runnable {
         /** Flag specifying if breakpoint mode is supported. */
         var breakpointModeSupported: Boolean = true
 
+        /** Flag specifying if the per-bot phases of a turn may be executed in parallel. */
+        var parallelBotPhasesEnabled: Boolean = false
+
+        /** Comma-separated list of client roles receiving compressed messages, or "none". */
+        var compression: String = DEFAULT_COMPRESSION
+
+        /** Comma-separated list of client roles where unsent tick events are replaced by newer ones, or "none". */
+        var coalesceTicks: String = DEFAULT_COALESCE_TICKS
+
+        /** Flag specifying if turns are taken as soon as all intents have arrived, for offline battles. */
+        var lockstepEnabled: Boolean = false
+
+        /** Time in milliseconds a turn waits for hung bots in lockstep mode. */
+        var lockstepTimeoutMillis: Int = LockstepClock.DEFAULT_SAFETY_TIMEOUT_MILLIS
+
+        /** Scheduler waiting for the next turn when pacing the game by the TPS. */
+        var turnScheduler: TurnScheduler = TurnScheduler.STANDARD
+
         private fun getInheritedPort(): Int {
             val channel = System.inheritedChannel() as? ServerSocketChannel
             return channel?.socket()?.localPort ?: -1
         }
     }
 
-    private lateinit var gameServer: GameServer
+    private lateinit var gameRooms: GameRooms
 
     private val log = LoggerFactory.getLogger(this::class.java)
 
@@ -74,6 +96,7 @@ class Server : Runnable {
     override fun run() {
         printBannerAndVersion()
         validatePort()
+        validateClientRoles()
         startExitInputMonitorThread()
         startGameServer()
     }
@@ -99,6 +122,16 @@ class Server : Runnable {
         )
     }
 
+    private fun validateClientRoles() {
+        try {
+            CompressionPolicy.parse(compression)
+            BackpressurePolicy.parse(coalesceTicks)
+        } catch (e: IllegalArgumentException) {
+            System.err.println(e.message)
+            exitProcess(1) // general error
+        }
+    }
+
     private fun startExitInputMonitorThread() {
         // When inheriting a channel, it is passed as FD3, i.e. stdin. In this case, it does not
         // make sense to monitor for an exit command.
@@ -117,7 +150,7 @@ class Server : Runnable {
             while (scanner.hasNextLine()) {
                 val input = scanner.nextLine().trim()
                 if (input.equals(EXIT_COMMAND, ignoreCase = true)) {
-                    gameServer.stop()
+                    gameRooms.stop()
                     exitProcess(1)
                 }
             }
@@ -151,36 +184,55 @@ class Server : Runnable {
             initialPositionEnabled = initialPositionEnabled,
             tps = tps,
             debugModeSupported = debugModeSupported,
-            breakpointModeSupported = breakpointModeSupported
+            breakpointModeSupported = breakpointModeSupported,
+            parallelBotPhasesEnabled = parallelBotPhasesEnabled,
+            compressionPolicy = CompressionPolicy.parse(compression),
+            backpressurePolicy = BackpressurePolicy.parse(coalesceTicks),
+            lockstepEnabled = lockstepEnabled,
+            lockstepTimeoutMillis = lockstepTimeoutMillis,
+            turnScheduler = turnScheduler
         )
 
+        if (config.turnScheduler == TurnScheduler.STANDARD && config.tps > TurnScheduler.MAX_STANDARD_TPS) {
+            log.warn("TPS {} is above {}, which the standard turn scheduler cannot keep accurate. " +
+                    "Use the high-resolution turn scheduler for higher TPS.", config.tps, TurnScheduler.MAX_STANDARD_TPS)
+        }
+
+        if (config.lockstepEnabled) {
+            log.info("Lockstep mode: turns are taken as soon as all intents have arrived (timeout: {} ms)",
+                config.lockstepTimeoutMillis)
+        }
+
         val gson = Gson()
-        var gameServerPtr: GameServer? = null
+        var gameRoomsPtr: GameRooms? = null
         val connectionHandler = ConnectionHandler(
-            ServerSetup(config.gameTypes),
-            GameServerConnectionListener { gameServerPtr!! },
+            ServerSetup(config.gameTypes, config.compressionPolicy, config.backpressurePolicy),
+            GameServerConnectionListener { gameRoomsPtr!! },
             config.controllerSecrets,
             config.botSecrets,
             config.debugModeSupported,
             config.breakpointModeSupported
         )
-        val participantRegistry = ParticipantRegistry(connectionHandler)
-        val broadcaster = MessageBroadcaster(connectionHandler, gson)
-        val lifecycleManager = GameLifecycleManager()
-        val resultsBuilder = ResultsBuilder({ gameServerPtr?.modelUpdater }, participantRegistry)
-
-        gameServer = GameServer(
-            config,
-            connectionHandler,
-            participantRegistry,
-            lifecycleManager,
-            broadcaster,
-            resultsBuilder,
-            gson
-        )
-        gameServerPtr = gameServer
 
-        gameServer.start()
+        // Each game room gets its own participants, game state, and timers, where the timers share one executor
+        gameRooms = GameRooms(connectionHandler) { roomId, executor ->
+            var gameServerPtr: GameServer? = null
+            val participantRegistry = ParticipantRegistry(connectionHandler)
+            val resultsBuilder = ResultsBuilder({ gameServerPtr?.modelUpdater }, participantRegistry)
+
+            GameServer(
+                config,
+                connectionHandler,
+                participantRegistry,
+                GameLifecycleManager(executor),
+                MessageBroadcaster(connectionHandler, gson, roomId),
+                resultsBuilder,
+                gson
+            ).also { gameServerPtr = it }
+        }
+        gameRoomsPtr = gameRooms
+
+        gameRooms.start()
     }
 
     private fun String?.toSetOfTrimmedStrings(): Set<String> =
@@ -1,5 +1,8 @@
 package dev.robocode.tankroyale.server.core
 
+import dev.robocode.tankroyale.server.connection.BackpressurePolicy
+import dev.robocode.tankroyale.server.connection.CompressionPolicy
+
 /** Server configuration. */
 data class ServerConfig(
     /** Server port number */
@@ -17,5 +20,17 @@ data class ServerConfig(
     /** Flag specifying if debug mode is supported */
     val debugModeSupported: Boolean = true,
     /** Flag specifying if breakpoint mode is supported */
-    val breakpointModeSupported: Boolean = true
+    val breakpointModeSupported: Boolean = true,
+    /** Flag specifying if the per-bot phases of a turn may be executed in parallel */
+    val parallelBotPhasesEnabled: Boolean = false,
+    /** Policy for compressing the messages sent to each client role */
+    val compressionPolicy: CompressionPolicy = CompressionPolicy.DEFAULT,
+    /** Policy for coalescing the tick events sent to slow clients of each client role */
+    val backpressurePolicy: BackpressurePolicy = BackpressurePolicy.DEFAULT,
+    /** Flag specifying if turns are taken as soon as all intents have arrived, ignoring the turn timeout and TPS */
+    val lockstepEnabled: Boolean = false,
+    /** Time in milliseconds a turn waits for hung bots in lockstep mode */
+    val lockstepTimeoutMillis: Int = LockstepClock.DEFAULT_SAFETY_TIMEOUT_MILLIS,
+    /** Scheduler waiting for the next turn when pacing the game by the TPS */
+    val turnScheduler: TurnScheduler = TurnScheduler.STANDARD
 )
@@ -1,6 +1,12 @@
 package dev.robocode.tankroyale.server.core
 
 import dev.robocode.tankroyale.common.rules.DEFAULT_GAME_TYPES
+import dev.robocode.tankroyale.server.connection.BackpressurePolicy
+import dev.robocode.tankroyale.server.connection.CompressionPolicy
 
 /** Server setup. */
-data class ServerSetup(val gameTypes: Set<String> = DEFAULT_GAME_TYPES.split(",").map { it.trim() }.toSet())
\ No newline at end of file
+data class ServerSetup(
+    val gameTypes: Set<String> = DEFAULT_GAME_TYPES.split(",").map { it.trim() }.toSet(),
+    val compressionPolicy: CompressionPolicy = CompressionPolicy.DEFAULT,
+    val backpressurePolicy: BackpressurePolicy = BackpressurePolicy.DEFAULT,
+)
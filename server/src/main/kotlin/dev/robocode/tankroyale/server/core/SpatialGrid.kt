@@ -0,0 +1,97 @@
+package dev.robocode.tankroyale.server.core
+
+import kotlin.math.ceil
+import kotlin.math.floor
+
+/**
+ * Uniform grid over the arena used as a broad phase for spatial queries.
+ *
+ * The grid stores point items identified by a dense index (0 until count). Each item lives in exactly one cell,
+ * so a query never reports the same index twice. The cell contents are kept in a compact, counting-sorted layout
+ * that is reused between rebuilds, meaning a rebuild only allocates when the number of items grows.
+ *
+ * Points outside the arena are clamped to the border cells. As clamping is monotonic, a query still reports every
+ * item that is inside the query rectangle.
+ *
+ * @param width is the arena width.
+ * @param height is the arena height.
+ * @param cellSize is the width and height of a grid cell.
+ */
+internal class SpatialGrid(width: Double, height: Double, private val cellSize: Double) {
+
+    private val columns = ceil(width / cellSize).toInt().coerceAtLeast(1)
+    private val rows = ceil(height / cellSize).toInt().coerceAtLeast(1)
+
+    /** Start offset into [cellItems] for each cell; the last entry holds the total item count */
+    private val cellStart = IntArray(columns * rows + 1)
+
+    /** Next free slot in [cellItems] for each cell while rebuilding */
+    private val cellCursor = IntArray(columns * rows)
+
+    /** Item indices ordered by cell, and by ascending index within a cell */
+    private var cellItems = IntArray(0)
+
+    /** Cell of each item */
+    private var itemCells = IntArray(0)
+
+    /** Number of items in the grid */
+    var size = 0
+        private set
+
+    /**
+     * Rebuilds the grid with the points (xs[i], ys[i]) for i in 0 until [count].
+     * @param xs is the x coordinates of the points.
+     * @param ys is the y coordinates of the points.
+     * @param count is the number of points to insert.
+     */
+    fun rebuild(xs: DoubleArray, ys: DoubleArray, count: Int) {
+        if (itemCells.size < count) {
+            itemCells = IntArray(count)
+            cellItems = IntArray(count)
+        }
+        size = count
+        cellStart.fill(0)
+
+        for (i in 0 until count) {
+            val cell = row(ys[i]) * columns + column(xs[i])
+            itemCells[i] = cell
+            cellStart[cell + 1]++
+        }
+        for (cell in 1 until cellStart.size) {
+            cellStart[cell] += cellStart[cell - 1]
+        }
+        cellStart.copyInto(cellCursor, endIndex = cellCursor.size)
+        for (i in 0 until count) {
+            cellItems[cellCursor[itemCells[i]]++] = i
+        }
+    }
+
+    /**
+     * Collects the indices of all items in cells overlapping the rectangle (minX, minY) - (maxX, maxY).
+     * The result is a superset of the items inside the rectangle. The indices are not sorted across cells.
+     * @param result is the array to write the indices into, which must be able to hold [size] indices.
+     * @return the number of indices written to [result].
+     */
+    fun collect(minX: Double, minY: Double, maxX: Double, maxY: Double, result: IntArray): Int {
+        val col0 = column(minX)
+        val col1 = column(maxX)
+        val row0 = row(minY)
+        val row1 = row(maxY)
+
+        var count = 0
+        for (row in row0..row1) {
+            val rowOffset = row * columns
+            for (col in col0..col1) {
+                val cell = rowOffset + col
+                for (k in cellStart[cell] until cellStart[cell + 1]) {
+                    result[count++] = cellItems[k]
+                }
+            }
+        }
+        return count
+    }
+
+    private fun column(x: Double): Int = floor(x / cellSize).toInt().coerceIn(0, columns - 1)
+
+    private fun row(y: Double): Int = floor(y / cellSize).toInt().coerceIn(0, rows - 1)
+}
@@ -0,0 +1,114 @@
+package dev.robocode.tankroyale.server.core
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.TickEventForBot
+import dev.robocode.tankroyale.server.event.Event
+import dev.robocode.tankroyale.server.mapper.BinaryTickCodec
+import dev.robocode.tankroyale.server.mapper.BotToBotStateMapper
+import dev.robocode.tankroyale.server.mapper.BulletToBulletStateMapper
+import dev.robocode.tankroyale.server.mapper.EventsMapper
+import dev.robocode.tankroyale.server.mapper.SchemaJsonCodec
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.ITurn
+import org.java_websocket.WebSocket
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Recipient of a tick event for a bot.
+ * @param conn is the connection of the bot.
+ * @param botId is the id of the bot.
+ * @param enemyCount is the number of alive enemies of the bot.
+ */
+internal data class TickRecipient(val conn: WebSocket, val botId: BotId, val enemyCount: Int)
+
+/**
+ * Fan-out stage building and serializing the tick events for the bots of a turn.
+ *
+ * The tick events are serialized in parallel for larger battles, and written as JSON directly with the streaming
+ * [SchemaJsonCodec], where the parts shared between bots are only serialized once per turn. The bullet states are
+ * serialized once per bot owning bullets, and each event is serialized once, even when it is sent to many bots, like a
+ * bot death event.
+ *
+ * The result is the same JSON as when serializing the mapped `TickEventForBot` with Gson. Bots selecting the binary
+ * wire format get their tick events encoded with [BinaryTickCodec] instead.
+ *
+ * @param gson provides the JSON writer settings.
+ * @param minParallelCount is the minimum number of recipients before the tick events are serialized in parallel.
+ */
+internal class TickFanOut(
+    gson: Gson,
+    minParallelCount: Int = MIN_BOTS_FOR_PARALLEL_PHASES,
+) {
+    private val executor = BotPhaseExecutor(isParallelEnabled = true, minParallelCount)
+
+    private val codec = SchemaJsonCodec(gson)
+
+    /**
+     * Serializes the tick events for the bots of a turn. The turn must not change while serializing.
+     * @param roundNumber is the round number.
+     * @param turn is the turn.
+     * @param recipients is the recipients of the tick events.
+     * @return the serialized tick event for each recipient in the same order as [recipients], where the tick event is
+     * `null` if the turn has no state for the bot.
+     */
+    fun serializeTicks(roundNumber: Int, turn: ITurn, recipients: List<TickRecipient>): List<String?> {
+        val bulletStatesJsonByOwner = turn.bullets.groupBy { it.botId }.mapValues { (_, bullets) ->
+            codec.write { codec.writeBulletStates(it, bullets.map(BulletToBulletStateMapper::map)) }
+        }
+        val eventJsons = ConcurrentHashMap<Event, String>()
+
+        return executor.map(recipients) { recipient ->
+            val bot = turn.getBot(recipient.botId) ?: return@map null
+
+            // Fields in the same order as Gson writes the TickEventForBot schema class
+            codec.write { writer ->
+                writer.apply {
+                    beginObject()
+                    name("roundNumber").value(roundNumber.toLong())
+                    codec.writeBotState(name("botState"), BotToBotStateMapper.map(bot, recipient.enemyCount))
+                    name("bulletStates").jsonValue(bulletStatesJsonByOwner[bot.id] ?: "[]")
+                    name("events").beginArray()
+                    turn.getEvents(recipient.botId).forEach { event ->
+                        jsonValue(eventJsons.computeIfAbsent(event) { codec.toJson(EventsMapper.map(it)) })
+                    }
+                    endArray()
+                    name("turnNumber").value(turn.turnNumber.toLong())
+                    name("type").value(Message.Type.TICK_EVENT_FOR_BOT.value())
+                    endObject()
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the tick events for the bots of a turn in the binary wire format. The turn must not change while
+     * encoding.
+     * @param roundNumber is the round number.
+     * @param turn is the turn.
+     * @param recipients is the recipients of the tick events.
+     * @return the encoded tick event for each recipient in the same order as [recipients], where the tick event is
+     * `null` if the turn has no state for the bot.
+     */
+    fun encodeBinaryTicks(roundNumber: Int, turn: ITurn, recipients: List<TickRecipient>): List<ByteArray?> {
+        val bulletStatesByOwner = turn.bullets.groupBy { it.botId }.mapValues { (_, bullets) ->
+            bullets.map(BulletToBulletStateMapper::map)
+        }
+        val mappedEvents = ConcurrentHashMap<Event, dev.robocode.tankroyale.schema.Event>()
+
+        return executor.map(recipients) { recipient ->
+            val bot = turn.getBot(recipient.botId) ?: return@map null
+
+            BinaryTickCodec.encode(TickEventForBot().apply {
+                type = Message.Type.TICK_EVENT_FOR_BOT
+                this.roundNumber = roundNumber
+                turnNumber = turn.turnNumber
+                botState = BotToBotStateMapper.map(bot, recipient.enemyCount)
+                bulletStates = bulletStatesByOwner[bot.id] ?: emptyList()
+                events = turn.getEvents(recipient.botId).map { event ->
+                    mappedEvents.computeIfAbsent(event) { EventsMapper.map(it) }
+                }
+            })
+        }
+    }
+}
@@ -9,9 +9,21 @@ import kotlin.math.abs
 import kotlin.math.cos
 import kotlin.math.sin
 
+/** Cell size of the grid used for culling scan targets */
+private const val SCAN_GRID_CELL_SIZE = 100.0
+
+/**
+ * Margin added around the bounding box of a scan arc, which absorbs floating-point rounding in the exact sector test
+ * so the grid never culls a bot the exact test would report as scanned.
+ */
+private const val SCAN_QUERY_MARGIN = 1.0
+
 /**
  * Pure turn-step pipeline logic.
  * Encapsulates the sequential physics and scoring logic for a single turn.
+ *
+ * The per-bot work of executing bot intents and scanning can be executed in parallel for large battles. The results
+ * are merged in bot order, so the turn comes out the same as when processing one bot at a time.
  */
 class TurnProcessor(
     private val setup: GameSetup,
@@ -19,8 +31,33 @@ class TurnProcessor(
     private val collisionDetector: CollisionDetector,
     private val scoreTracker: ScoreTracker,
     private val scoreCalculator: ScoreCalculator,
-    private val participantIds: Set<ParticipantId>
+    private val participantIds: Set<ParticipantId>,
+    /** Flag specifying if the per-bot phases may be executed in parallel */
+    isParallelEnabled: Boolean = false,
 ) {
+    private val executor = BotPhaseExecutor(isParallelEnabled)
+
+    /** Scratch arrays used by the scan phase, one set per thread when scanning in parallel */
+    private val scanScratch = ThreadLocal.withInitial { ScanScratch() }
+
+    /** Grid over bot positions, rebuilt once per turn, used for culling targets outside the scan arc */
+    private val scanGrid by lazy {
+        SpatialGrid(setup.arenaWidth.toDouble(), setup.arenaHeight.toDouble(), SCAN_GRID_CELL_SIZE)
+    }
+
+    /** Axis-aligned bounding box */
+    private data class Bounds(val minX: Double, val minY: Double, val maxX: Double, val maxY: Double)
+
+    /** Scratch array for the scan candidates of a scanning bot */
+    private class ScanScratch {
+        var candidates = IntArray(0)
+
+        fun ensureCapacity(capacity: Int) {
+            if (candidates.size >= capacity) return
+            candidates = IntArray(capacity)
+        }
+    }
+
     /**
      * Data class representing the outcome of a turn.
      */
@@ -43,9 +80,10 @@ class TurnProcessor(
      * @param turn current mutable turn to update.
      * @param botsMap current map of bots.
      * @param botIntentsMap current map of bot intents.
-     * @param botsCopies copies of bots from the previous turn.
+     * @param previousStates store for the bot states from the start of the turn, where the bot states at the end of
+     * this turn are written as the states from the start of the next turn.
      * @param round current mutable round.
-     * @param bullets current set of bullets.
+     * @param bullets current set of bullets, which are advanced in place.
      * @param inactivityCounter current inactivity counter.
      * @return the result of the turn processing.
      */
@@ -53,14 +91,17 @@ class TurnProcessor(
         turn: MutableTurn,
         botsMap: MutableMap<BotId, MutableBot>,
         botIntentsMap: MutableMap<BotId, BotIntent>,
-        botsCopies: MutableMap<BotId, MutableBot>,
+        previousStates: BotStateArrays,
         round: MutableRound,
-        bullets: MutableSet<Bullet>,
-        inactivityCounter: Int
+        bullets: MutableSet<MutableBullet>,
+        inactivityCounter: Int,
+        precomputedBulletPhase: PrecomputedBulletPhase? = null,
     ): TurnResult {
         var currentInactivityCounter = inactivityCounter
 
-        deepCopyBots(botsMap, botsCopies)
+        // The states written at the end of the previous turn are the states from the start of this turn
+        if (!previousStates.swap()) previousStates.capture(botsMap.values)
+        val botsCopies = previousStates.bots
 
         // ── Physics pipeline (sequential — each step mutates state for the next) ───
         gunEngine.coolDownAndFireGuns(botsMap, botIntentsMap, botsCopies, round, bullets, turn)
@@ -74,12 +115,11 @@ class TurnProcessor(
 
         collisionDetector.constrainBotPositions(botsMap, botsCopies)
         checkAndHandleScans(turn, botsMap, botIntentsMap, botsCopies)
-        val newBullets = updateBulletPositions(bullets)
-        bullets.clear()
-        bullets.addAll(newBullets)
-        collisionDetector.checkAndHandleBulletWallCollisions(bullets, turn)
+        updateBulletPositions(bullets)
+        collisionDetector.checkAndHandleBulletWallCollisions(bullets, turn, precomputedBulletPhase)
 
-        val bulletPhaseResult = collisionDetector.checkAndHandleBulletHits(bullets, botsMap, turn)
+        val bulletPhaseResult =
+            collisionDetector.checkAndHandleBulletHits(bullets, botsMap, turn, precomputedBulletPhase)
         bulletPhaseResult.scoringRecords.forEach {
             scoreTracker.registerBulletHit(it.shooterParticipantId, it.victimParticipantId, it.damage, it.isKilled)
         }
@@ -99,6 +139,7 @@ class TurnProcessor(
         val roundOutcome = computeRoundOutcome(round, botsMap, bullets)
 
         // ── Snapshot + terminal state ──────────────────────────────────────────────
+        previousStates.write(botsMap.values)
         turn.copyBots(botsMap.values)
         turn.copyBullets(bullets)
         botsMap.values.removeIf(IBot::isDead)
@@ -106,38 +147,36 @@ class TurnProcessor(
         return TurnResult(currentInactivityCounter, roundOutcome)
     }
 
-    private fun deepCopyBots(botsMap: Map<BotId, MutableBot>, botsCopies: MutableMap<BotId, MutableBot>) {
-        botsMap.forEach {
-            botsCopies[it.key] = deepCopy(it.value)
-        }
-    }
-
-    private fun deepCopy(bot: MutableBot) = MutableBot(
-        id = bot.id,
-        isDroid = bot.isDroid,
-        position = Point(bot.x, bot.y),
-        direction = bot.direction,
-        gunDirection = bot.gunDirection,
-        radarDirection = bot.radarDirection,
-    )
-
-    /** Execute bot intents for all bots that are not disabled */
+    /**
+     * Execute bot intents for all bots that are not disabled.
+     * Each bot only changes its own state, and the team messages are added to the turn afterward in bot order.
+     */
     private fun executeBotIntents(
         botsMap: Map<BotId, MutableBot>,
         botIntentsMap: Map<BotId, BotIntent>,
         turn: MutableTurn
     ) {
-        botsMap.values.forEach { bot ->
-            if (bot.isEnabled) executeBotIntent(bot, botIntentsMap, turn)
+        val teamMessages = executor.map(botsMap.values.toList()) { bot ->
+            if (bot.isEnabled) executeBotIntent(bot, botIntentsMap, turn.turnNumber) else emptyList()
+        }
+        teamMessages.forEach { messages ->
+            messages.forEach { (receiverId, event) -> turn.addPrivateBotEvent(receiverId, event) }
         }
     }
 
     /**
      * Executes the bot states intent.
      * @param bot is the bot top execute the bot intent for.
+     * @param turnNumber is the current turn number.
+     * @return the team message events sent by the bot paired with the receiver ids.
      */
-    private fun executeBotIntent(bot: MutableBot, botIntentsMap: Map<BotId, BotIntent>, turn: MutableTurn) {
-        botIntentsMap[bot.id]?.apply {
+    private fun executeBotIntent(
+        bot: MutableBot,
+        botIntentsMap: Map<BotId, BotIntent>,
+        turnNumber: Int
+    ): List<Pair<BotId, TeamMessageEvent>> {
+        val intent = botIntentsMap[bot.id] ?: return emptyList()
+        intent.apply {
             bot.speed = calcNewBotSpeed(bot.speed, targetSpeed ?: 0.0)
             bot.moveToNewPosition()
 
@@ -150,14 +189,13 @@ class TurnProcessor(
             bot.stdErr = stdErr
             stdOut = null
             stdErr = null
-
-            processTeamMessages(bot, this, turn)
         }
+        return processTeamMessages(bot, intent, turnNumber)
     }
 
-    /** Updates bullet positions */
-    private fun updateBulletPositions(bullets: Set<Bullet>): Set<Bullet> {
-        return bullets.map { it.copy(tick = it.tick + 1) }.toSet()
+    /** Updates bullet positions by advancing each bullet in place */
+    private fun updateBulletPositions(bullets: Set<MutableBullet>) {
+        bullets.forEach(MutableBullet::advance)
     }
 
     /** Pure: checks whether bots have been collectively inactive long enough to take damage. */
@@ -197,30 +235,70 @@ class TurnProcessor(
         scoreTracker.registerDeaths(deadParticipantIds)
     }
 
-    /** Checks the scan field for scanned bots. */
+    /**
+     * Checks the scan field for scanned bots.
+     *
+     * The bot positions are put into a grid once per turn, and each scanning bot only runs the exact scan test on
+     * bots inside the bounding box of its scan arc. Candidates are visited in the same order as the bots in [botsMap],
+     * so the scanned bot events are added in the same order as when testing every bot pair. The scanning bots can be
+     * checked in parallel, as the scanned bot events are only added to the turn afterward.
+     */
     private fun checkAndHandleScans(
         turn: MutableTurn,
         botsMap: Map<BotId, MutableBot>,
         botIntentsMap: Map<BotId, BotIntent>,
-        botsCopies: Map<BotId, MutableBot>
+        botsCopies: Map<BotId, IBot>
     ) {
         val bots = botsMap.values.toList()
-        for (i in bots.indices) {
-            val scanningBot = bots[i]
+        if (bots.size < 2) return
 
-            if (scanningBot.isDroid) continue // droids cannot use scanning
+        val xs = DoubleArray(bots.size) { bots[it].x }
+        val ys = DoubleArray(bots.size) { bots[it].y }
+        scanGrid.rebuild(xs, ys, bots.size)
 
-            val (startAngle, endAngle) = getScanAngles(scanningBot)
+        val scannedBots = executor.map(bots.indices.toList()) { i ->
+            val scanningBot = bots[i]
+            when {
+                scanningBot.isDroid -> emptyList() // droids cannot use scanning
+                !isScanningOrMoving(scanningBot.id, botsMap, botIntentsMap, botsCopies) -> emptyList()
+                else -> findScannedBots(i, bots)
+            }
+        }
 
-            for (j in bots.indices) {
-                if (i != j) {
-                    val botBeingScanned = bots[j]
-                    if (isBotScanned(scanningBot, botBeingScanned, startAngle, endAngle, botsMap, botIntentsMap, botsCopies)) {
-                        handleScannedBot(turn, scanningBot, botBeingScanned)
-                    }
+        scannedBots.forEachIndexed { i, scanned ->
+            scanned.forEach { botBeingScanned -> handleScannedBot(turn, bots[i], botBeingScanned) }
+        }
+    }
+
+    /**
+     * Finds the bots scanned by a bot.
+     * @param i is the index of the scanning bot.
+     * @param bots is all bots.
+     * @return the scanned bots in the same order as in [bots].
+     */
+    private fun findScannedBots(i: Int, bots: List<MutableBot>): List<IBot> {
+        val scanningBot = bots[i]
+        val scratch = scanScratch.get().apply { ensureCapacity(bots.size) }
+        val candidates = scratch.candidates
+
+        val (startAngle, endAngle) = getScanAngles(scanningBot)
+        val scanLine = if (startAngle == endAngle) getScanLine(scanningBot, startAngle) else null
+
+        val bounds = getScanBounds(scanningBot, startAngle, endAngle)
+        val candidateCount = scanGrid.collect(bounds.minX, bounds.minY, bounds.maxX, bounds.maxY, candidates)
+        candidates.sort(0, candidateCount)
+
+        val scannedBots = mutableListOf<IBot>()
+        for (k in 0 until candidateCount) {
+            val j = candidates[k]
+            if (i != j) {
+                val botBeingScanned = bots[j]
+                if (isBotScanned(scanningBot, botBeingScanned, startAngle, endAngle, scanLine)) {
+                    scannedBots += botBeingScanned
                 }
             }
         }
+        return scannedBots
     }
 
     /**
@@ -238,6 +316,7 @@ class TurnProcessor(
      * @param scannedBot is the bot exposed for scanning.
      * @param scanStartAngle is the start angle of the scan arc.
      * @param scanEndAngle is the end angle of the scan arc.
+     * @param scanLine is the scan line when the start and end angle are the same; `null` otherwise.
      * @return `true` if the scannedBot was scanned; `false` otherwise.
      */
     private fun isBotScanned(
@@ -245,26 +324,66 @@ class TurnProcessor(
         scannedBot: IBot,
         scanStartAngle: Double,
         scanEndAngle: Double,
-        botsMap: Map<BotId, MutableBot>,
-        botIntentsMap: Map<BotId, BotIntent>,
-        botsCopies: Map<BotId, MutableBot>
-    ) = isScanningOrMoving(scanningBot.id, botsMap, botIntentsMap, botsCopies) &&
-            if (scanStartAngle == scanEndAngle) {
-                // For a single angle, the scan is a line segment from the scanner out to the radar radius.
-                val endX = scanningBot.x + cos(Math.toRadians(scanStartAngle)) * RADAR_RADIUS
-                val endY = scanningBot.y + sin(Math.toRadians(scanStartAngle)) * RADAR_RADIUS
-                isLineIntersectingCircle(
-                    Line(scanningBot.x, scanningBot.y, endX, endY),
-                    scannedBot.position,
-                    BOT_BOUNDING_CIRCLE_RADIUS
-                )
-            } else {
-                isCircleIntersectingCircleSector(
-                    scannedBot.position, BOT_BOUNDING_CIRCLE_RADIUS,
-                    scanningBot.position, RADAR_RADIUS,
-                    scanStartAngle, scanEndAngle
-                )
-            }
+        scanLine: Line?,
+    ) = if (scanLine != null) {
+        isLineIntersectingCircle(scanLine, scannedBot.position, BOT_BOUNDING_CIRCLE_RADIUS)
+    } else {
+        isCircleIntersectingCircleSector(
+            scannedBot.position, BOT_BOUNDING_CIRCLE_RADIUS,
+            scanningBot.position, RADAR_RADIUS,
+            scanStartAngle, scanEndAngle
+        )
+    }
+
+    /**
+     * Returns the scan line used for a single scan angle, which goes from the scanning bot out to the radar radius.
+     * @param bot is the scanning bot.
+     * @param angle is the scan angle.
+     * @return the scan line.
+     */
+    private fun getScanLine(bot: IBot, angle: Double): Line {
+        val endX = bot.x + cos(Math.toRadians(angle)) * RADAR_RADIUS
+        val endY = bot.y + sin(Math.toRadians(angle)) * RADAR_RADIUS
+        return Line(bot.x, bot.y, endX, endY)
+    }
+
+    /**
+     * Returns the bounding box containing the center of every bot that can be hit by a scan arc.
+     * The scan arc goes counterclockwise from the start angle to the end angle.
+     * @param bot is the scanning bot.
+     * @param startAngle is the start angle of the scan arc.
+     * @param endAngle is the end angle of the scan arc.
+     * @return the bounding box of the scan arc grown by the bot radius.
+     */
+    private fun getScanBounds(bot: IBot, startAngle: Double, endAngle: Double): Bounds {
+        val reach = RADAR_RADIUS + BOT_BOUNDING_CIRCLE_RADIUS
+        val margin = BOT_BOUNDING_CIRCLE_RADIUS + SCAN_QUERY_MARGIN
+        val sweep = normalizeAbsoluteDegrees(endAngle - startAngle)
+
+        if (sweep >= 180) {
+            return Bounds(bot.x - reach - margin, bot.y - reach - margin, bot.x + reach + margin, bot.y + reach + margin)
+        }
+
+        // The arc always contains the scanning bot, both arm ends, and the extreme points on the axes it passes
+        var minX = 0.0
+        var minY = 0.0
+        var maxX = 0.0
+        var maxY = 0.0
+        fun include(angle: Double) {
+            val dx = cos(Math.toRadians(angle)) * reach
+            val dy = sin(Math.toRadians(angle)) * reach
+            minX = minOf(minX, dx)
+            minY = minOf(minY, dy)
+            maxX = maxOf(maxX, dx)
+            maxY = maxOf(maxY, dy)
+        }
+        include(startAngle)
+        include(endAngle)
+        for (axisAngle in doubleArrayOf(0.0, 90.0, 180.0, 270.0)) {
+            if (normalizeAbsoluteDegrees(axisAngle - startAngle) <= sweep) include(axisAngle)
+        }
+        return Bounds(bot.x + minX - margin, bot.y + minY - margin, bot.x + maxX + margin, bot.y + maxY + margin)
+    }
 
     /**
      * Checks if a bot is scanning, meaning that it must be either rescanning or moving.
@@ -275,7 +394,7 @@ class TurnProcessor(
         botId: BotId,
         botsMap: Map<BotId, MutableBot>,
         botIntentsMap: Map<BotId, BotIntent>,
-        botsCopies: Map<BotId, MutableBot>
+        botsCopies: Map<BotId, IBot>
     ): Boolean {
         return isRescanning(botId, botIntentsMap) || isMoving(botId, botsMap, botsCopies)
     }
@@ -294,7 +413,7 @@ class TurnProcessor(
      * @param botId is the id of the bot.
      * @return `true` if the bot is moving; `false` otherwise.
      */
-    private fun isMoving(botId: BotId, botsMap: Map<BotId, MutableBot>, botsCopies: Map<BotId, MutableBot>): Boolean {
+    private fun isMoving(botId: BotId, botsMap: Map<BotId, MutableBot>, botsCopies: Map<BotId, IBot>): Boolean {
         val currentState = botsMap[botId]!!
         val previousState = botsCopies[botId]!!
 
@@ -357,7 +476,7 @@ class TurnProcessor(
      * Returns the outcome of the round if the round is over; `null` if still in progress.
      * Pure: reads state only — no mutations to [round], [gameState], or [accumulatedScoreCalculator].
      */
-    private fun computeRoundOutcome(round: MutableRound, botsMap: Map<BotId, MutableBot>, bullets: Set<Bullet>): RoundOutcome? {
+    private fun computeRoundOutcome(round: MutableRound, botsMap: Map<BotId, MutableBot>, bullets: Set<IBullet>): RoundOutcome? {
         if (!isRoundOver(botsMap, bullets)) return null
         val scores = scoreCalculator.getScores()
         val winnerBotIds = scores.filter { it.rank == 1 }.map { it.participantId.botId }
@@ -368,7 +487,7 @@ class TurnProcessor(
         )
     }
 
-    private fun isRoundOver(botsMap: Map<BotId, MutableBot>, bullets: Set<Bullet>) = run {
+    private fun isRoundOver(botsMap: Map<BotId, MutableBot>, bullets: Set<IBullet>) = run {
         // distinctBy(id) is necessary to take account for both bots and teams
         val aliveBotsOrTeams = getBotsOrTeams(botsMap, MutableBot::isAlive).distinctBy { it.id }
         val aliveCount = aliveBotsOrTeams.count()
@@ -391,24 +510,26 @@ class TurnProcessor(
         return participantIds.filter { botIds.contains(it.botId) }.distinct()
     }
 
-    private fun processTeamMessages(bot: MutableBot, intent: BotIntent, turn: MutableTurn) {
-        val teamMessages = intent.teamMessages ?: return
+    private fun processTeamMessages(
+        bot: MutableBot,
+        intent: BotIntent,
+        turnNumber: Int
+    ): List<Pair<BotId, TeamMessageEvent>> {
+        val teamMessages = intent.teamMessages ?: return emptyList()
+        val events = mutableListOf<Pair<BotId, TeamMessageEvent>>()
         for (index in 0 until teamMessages.size.coerceAtMost(MAX_NUMBER_OF_TEAM_MESSAGES_PER_TURN)) {
             val msg = teamMessages[index]
             if (msg.message.length > MAX_TEAM_MESSAGE_SIZE) continue
             if (msg.receiverId != null) {
-                turn.addPrivateBotEvent(
-                    msg.receiverId, TeamMessageEvent(turn.turnNumber, msg.message, msg.messageType, bot.id)
-                )
+                events += msg.receiverId to TeamMessageEvent(turnNumber, msg.message, msg.messageType, bot.id)
             } else {
                 bot.teammateIds.forEach { teammateId ->
-                    turn.addPrivateBotEvent(
-                        teammateId, TeamMessageEvent(turn.turnNumber, msg.message, msg.messageType, bot.id)
-                    )
+                    events += teammateId to TeamMessageEvent(turnNumber, msg.message, msg.messageType, bot.id)
                 }
             }
         }
         intent.teamMessages = null
+        return events
     }
 
     private fun updateBotTurnRatesAndDirections(bot: MutableBot, intent: BotIntent) {
@@ -0,0 +1,71 @@
+package dev.robocode.tankroyale.server.core
+
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Scheduler waiting for the start of the next turn when pacing the game by the turns per second (TPS). The turn timer
+ * fires [leadNanos] before the start of the next turn, and the scheduler waits for the rest of the time.
+ *
+ * [STANDARD] sleeps the thread, which wakes up with a granularity of about a millisecond, so TPS values above a few
+ * hundred become inaccurate and jittery. [HIGH_RESOLUTION] parks the thread until shortly before the start of the next
+ * turn, and then spins for the remaining time, which is accurate to a few microseconds at the cost of keeping a CPU
+ * core busy while spinning.
+ */
+enum class TurnScheduler {
+    /** Sleeps with [Thread.sleep], which is accurate for TPS values up to [MAX_STANDARD_TPS] */
+    STANDARD {
+        override val leadNanos = 0L
+        override val isSpinning = false
+
+        override fun sleepUntil(deadlineNanos: Long) {
+            val sleepNanos = deadlineNanos - System.nanoTime()
+            if (sleepNanos > 0) {
+                Thread.sleep(sleepNanos / 1_000_000, (sleepNanos % 1_000_000).toInt())
+            }
+        }
+    },
+
+    /** Parks with [LockSupport.parkNanos] and spins for the last [SPIN_THRESHOLD_NANOS], for any TPS value */
+    HIGH_RESOLUTION {
+        override val leadNanos get() = SPIN_THRESHOLD_NANOS
+        override val isSpinning = true
+
+        override fun sleepUntil(deadlineNanos: Long) {
+            // Parking may wake up early, e.g. spuriously, or late by up to the timer slack of the OS
+            while (true) {
+                val parkNanos = deadlineNanos - System.nanoTime() - SPIN_THRESHOLD_NANOS
+                if (parkNanos <= 0) break
+                LockSupport.parkNanos(parkNanos)
+            }
+            while (deadlineNanos - System.nanoTime() > 0) {
+                Thread.onSpinWait()
+            }
+        }
+    };
+
+    companion object {
+        /** Highest TPS value the standard scheduler keeps accurate */
+        const val MAX_STANDARD_TPS = 999
+
+        /** Time in nanoseconds before the deadline where the high-resolution scheduler stops parking and spins */
+        const val SPIN_THRESHOLD_NANOS = 100_000L
+    }
+
+    /**
+     * Time in nanoseconds before the start of the next turn where the turn timer fires, which leaves the rest of the
+     * wait to [sleepUntil].
+     */
+    abstract val leadNanos: Long
+
+    /**
+     * Checks if [sleepUntil] keeps the thread busy for the [leadNanos], so the turn timer must not run on a thread
+     * shared with the timers of other game rooms.
+     */
+    abstract val isSpinning: Boolean
+
+    /**
+     * Waits until a deadline, which returns right away if the deadline has passed.
+     * @param deadlineNanos is the deadline as a [System.nanoTime] value.
+     */
+    abstract fun sleepUntil(deadlineNanos: Long)
+}
@@ -0,0 +1,426 @@
+package dev.robocode.tankroyale.server.mapper
+
+import dev.robocode.tankroyale.schema.*
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+
+/**
+ * Codec for the `binary-v1` wire format of tick events, which is sent in binary WebSocket frames to clients selecting
+ * it in their handshake.
+ *
+ * Ticks are mostly numbers, which are written as fixed-size big-endian values instead of being formatted as decimal
+ * text. The layout is derived from the schema classes, with the fields in schema property order:
+ *
+ * - Header: `byte` magic `'T'`, `byte` version `1`, `byte` kind (`1` = tick event for bot, `2` = tick event for
+ *   observer), `int` roundNumber, `int` turnNumber.
+ * - Tick event for bot: bot state, bullet states, events.
+ * - Tick event for observer: `int` count followed by the bot states with id, bullet states, events.
+ * - Bot state with id: `int` id, `string` sessionId, name, version, stdOut, stdErr, debugGraphics, followed by the
+ *   bot state.
+ * - Bot state: `byte` flags (bit 0 = isDroid, bit 1 = isDebuggingEnabled, bit 2 = isDroid is `null`, bit 3 =
+ *   isDebuggingEnabled is `null`), `double` energy, x, y, direction, gunDirection, radarDirection, radarSweep, speed, turnRate, gunTurnRate, radarTurnRate, gunHeat, `int` enemyCount,
+ *   `string` bodyColor, turretColor, radarColor, bulletColor, scanColor, tracksColor, gunColor.
+ * - Bullet states: `int` count followed by each bullet state, which is `int` bulletId, ownerId, `double` power, x, y,
+ *   direction, `string` color.
+ * - Events: `int` count followed by each event, which is `byte` event code, `int` turnNumber, and the fields of the
+ *   event in schema property order. See [EventCode] for the codes.
+ *
+ * A `string` is an `int` byte length followed by the UTF-8 bytes, where a length of -1 means `null`. A `boolean` in
+ * an event is a `byte` of 0 or 1. Counts and string lengths are checked against the bytes left before anything is
+ * allocated for them, so a corrupt frame is rejected instead of allocating up to 2 GB.
+ *
+ * The golden fixtures in `schema/fixtures/binary-v1` are encoded by this codec and decoded by the Bot API and the
+ * client library, so a change of the layout must be made in all of them.
+ */
+internal object BinaryTickCodec {
+
+    private const val MAGIC: Byte = 'T'.code.toByte()
+    private const val VERSION: Byte = 1
+
+    private const val KIND_TICK_FOR_BOT: Byte = 1
+    private const val KIND_TICK_FOR_OBSERVER: Byte = 2
+
+    private const val FLAG_IS_DROID = 1
+    private const val FLAG_IS_DEBUGGING_ENABLED = 2
+    private const val FLAG_IS_DROID_NULL = 4
+    private const val FLAG_IS_DEBUGGING_ENABLED_NULL = 8
+
+    /** Codes identifying the event types in the binary layout */
+    private enum class EventCode(val code: Byte, val type: Message.Type) {
+        BOT_DEATH(1, Message.Type.BOT_DEATH_EVENT),
+        BOT_HIT_BOT(2, Message.Type.BOT_HIT_BOT_EVENT),
+        BOT_HIT_WALL(3, Message.Type.BOT_HIT_WALL_EVENT),
+        BULLET_FIRED(4, Message.Type.BULLET_FIRED_EVENT),
+        BULLET_HIT_BOT(5, Message.Type.BULLET_HIT_BOT_EVENT),
+        BULLET_HIT_BULLET(6, Message.Type.BULLET_HIT_BULLET_EVENT),
+        BULLET_HIT_WALL(7, Message.Type.BULLET_HIT_WALL_EVENT),
+        HIT_BY_BULLET(8, Message.Type.HIT_BY_BULLET_EVENT),
+        SCANNED_BOT(9, Message.Type.SCANNED_BOT_EVENT),
+        SKIPPED_TURN(10, Message.Type.SKIPPED_TURN_EVENT),
+        TEAM_MESSAGE(11, Message.Type.TEAM_MESSAGE_EVENT),
+        WON_ROUND(12, Message.Type.WON_ROUND_EVENT);
+
+        companion object {
+            private val byCode = entries.associateBy { it.code }
+
+            fun fromCode(code: Byte): EventCode =
+                byCode[code] ?: throw IllegalArgumentException("Unknown event code: $code")
+        }
+    }
+
+    /**
+     * Encodes a tick event for a bot.
+     * @param tick is the tick event.
+     * @return the encoded tick event.
+     */
+    fun encode(tick: TickEventForBot): ByteArray =
+        encode(KIND_TICK_FOR_BOT, tick.roundNumber, tick.turnNumber) { out ->
+            writeBotState(out, tick.botState)
+            writeBulletStates(out, tick.bulletStates)
+            writeEvents(out, tick.events)
+        }
+
+    /**
+     * Encodes a tick event for observers.
+     * @param tick is the tick event.
+     * @param excludedFields are the bot state fields left out, which are encoded as absent strings.
+     * @return the encoded tick event.
+     */
+    fun encode(tick: TickEventForObserver, excludedFields: Set<TickField> = emptySet()): ByteArray =
+        encode(KIND_TICK_FOR_OBSERVER, tick.roundNumber, tick.turnNumber) { out ->
+            out.writeInt(tick.botStates.size)
+            tick.botStates.forEach { writeBotStateWithId(out, it, excludedFields) }
+            writeBulletStates(out, tick.bulletStates)
+            writeEvents(out, tick.events)
+        }
+
+    /**
+     * Decodes a tick event, which is the reference for clients implementing the wire format.
+     * @param bytes is the encoded tick event.
+     * @return the decoded [TickEventForBot] or [TickEventForObserver].
+     * @throws IllegalArgumentException if the bytes are not a tick event in this wire format.
+     */
+    fun decode(bytes: ByteBuffer): Event {
+        val buffer = bytes.duplicate()
+        try {
+            require(buffer.get() == MAGIC && buffer.get() == VERSION) { "Not a binary-v1 tick event" }
+            val kind = buffer.get()
+            val roundNumber = buffer.getInt()
+            val turnNumber = buffer.getInt()
+
+            return when (kind) {
+                KIND_TICK_FOR_BOT -> TickEventForBot().apply {
+                    type = Message.Type.TICK_EVENT_FOR_BOT
+                    this.roundNumber = roundNumber
+                    this.turnNumber = turnNumber
+                    botState = readBotState(buffer, BotState())
+                    bulletStates = readBulletStates(buffer)
+                    events = readEvents(buffer)
+                }
+
+                KIND_TICK_FOR_OBSERVER -> TickEventForObserver().apply {
+                    type = Message.Type.TICK_EVENT_FOR_OBSERVER
+                    this.roundNumber = roundNumber
+                    this.turnNumber = turnNumber
+                    botStates = List(readCount(buffer)) { readBotStateWithId(buffer) }
+                    bulletStates = readBulletStates(buffer)
+                    events = readEvents(buffer)
+                }
+
+                else -> throw IllegalArgumentException("Unknown tick event kind: $kind")
+            }
+        } catch (exception: BufferUnderflowException) {
+            throw IllegalArgumentException("Truncated binary-v1 tick event", exception)
+        }
+    }
+
+    private inline fun encode(
+        kind: Byte, roundNumber: Int, turnNumber: Int, writeBody: (DataOutputStream) -> Unit
+    ): ByteArray {
+        val bytes = ByteArrayOutputStream(1024)
+        DataOutputStream(bytes).use { out ->
+            out.writeByte(MAGIC.toInt())
+            out.writeByte(VERSION.toInt())
+            out.writeByte(kind.toInt())
+            out.writeInt(roundNumber)
+            out.writeInt(turnNumber)
+            writeBody(out)
+        }
+        return bytes.toByteArray()
+    }
+
+    private fun writeBotStateWithId(out: DataOutputStream, botState: BotStateWithId, excludedFields: Set<TickField>) {
+        botState.apply {
+            out.writeInt(id)
+            writeString(out, sessionId)
+            writeString(out, name)
+            writeString(out, version)
+            writeString(out, if (TickField.STD_OUT in excludedFields) null else stdOut)
+            writeString(out, if (TickField.STD_ERR in excludedFields) null else stdErr)
+            writeString(out, if (TickField.DEBUG_GRAPHICS in excludedFields) null else debugGraphics)
+        }
+        writeBotState(out, botState)
+    }
+
+    private fun writeBotState(out: DataOutputStream, botState: BotState) {
+        botState.apply {
+            var flags = 0
+            when (isDroid) {
+                true -> flags = flags or FLAG_IS_DROID
+                null -> flags = flags or FLAG_IS_DROID_NULL
+                false -> {}
+            }
+            when (isDebuggingEnabled) {
+                true -> flags = flags or FLAG_IS_DEBUGGING_ENABLED
+                null -> flags = flags or FLAG_IS_DEBUGGING_ENABLED_NULL
+                false -> {}
+            }
+            out.writeByte(flags)
+            out.writeDouble(energy)
+            out.writeDouble(x)
+            out.writeDouble(y)
+            out.writeDouble(direction)
+            out.writeDouble(gunDirection)
+            out.writeDouble(radarDirection)
+            out.writeDouble(radarSweep)
+            out.writeDouble(speed)
+            out.writeDouble(turnRate)
+            out.writeDouble(gunTurnRate)
+            out.writeDouble(radarTurnRate)
+            out.writeDouble(gunHeat)
+            out.writeInt(enemyCount)
+            writeString(out, bodyColor)
+            writeString(out, turretColor)
+            writeString(out, radarColor)
+            writeString(out, bulletColor)
+            writeString(out, scanColor)
+            writeString(out, tracksColor)
+            writeString(out, gunColor)
+        }
+    }
+
+    private fun writeBulletStates(out: DataOutputStream, bulletStates: List<BulletState>) {
+        out.writeInt(bulletStates.size)
+        bulletStates.forEach { writeBulletState(out, it) }
+    }
+
+    private fun writeBulletState(out: DataOutputStream, bulletState: BulletState) {
+        bulletState.apply {
+            out.writeInt(bulletId)
+            out.writeInt(ownerId)
+            out.writeDouble(power)
+            out.writeDouble(x)
+            out.writeDouble(y)
+            out.writeDouble(direction)
+            writeString(out, color)
+        }
+    }
+
+    private fun writeEvents(out: DataOutputStream, events: List<Event>) {
+        out.writeInt(events.size)
+        events.forEach { writeEvent(out, it) }
+    }
+
+    private fun writeEvent(out: DataOutputStream, event: Event) {
+        val code = when (event) {
+            is BotDeathEvent -> EventCode.BOT_DEATH
+            is BotHitBotEvent -> EventCode.BOT_HIT_BOT
+            is BotHitWallEvent -> EventCode.BOT_HIT_WALL
+            is BulletFiredEvent -> EventCode.BULLET_FIRED
+            is BulletHitBotEvent -> EventCode.BULLET_HIT_BOT
+            is BulletHitBulletEvent -> EventCode.BULLET_HIT_BULLET
+            is BulletHitWallEvent -> EventCode.BULLET_HIT_WALL
+            is HitByBulletEvent -> EventCode.HIT_BY_BULLET
+            is ScannedBotEvent -> EventCode.SCANNED_BOT
+            is SkippedTurnEvent -> EventCode.SKIPPED_TURN
+            is TeamMessageEvent -> EventCode.TEAM_MESSAGE
+            is WonRoundEvent -> EventCode.WON_ROUND
+            else -> throw IllegalArgumentException("Event not supported by binary-v1: ${event.javaClass.simpleName}")
+        }
+        out.writeByte(code.code.toInt())
+        out.writeInt(event.turnNumber)
+
+        when (event) {
+            is BotDeathEvent -> out.writeInt(event.victimId)
+            is BotHitBotEvent -> {
+                out.writeInt(event.victimId)
+                out.writeInt(event.botId)
+                out.writeDouble(event.energy)
+                out.writeDouble(event.x)
+                out.writeDouble(event.y)
+                out.writeBoolean(event.rammed)
+            }
+            is BotHitWallEvent -> out.writeInt(event.victimId)
+            is BulletFiredEvent -> writeBulletState(out, event.bullet)
+            is BulletHitBotEvent -> {
+                out.writeInt(event.victimId)
+                writeBulletState(out, event.bullet)
+                out.writeDouble(event.damage)
+                out.writeDouble(event.energy)
+            }
+            is BulletHitBulletEvent -> {
+                writeBulletState(out, event.bullet)
+                writeBulletState(out, event.hitBullet)
+            }
+            is BulletHitWallEvent -> writeBulletState(out, event.bullet)
+            is HitByBulletEvent -> {
+                writeBulletState(out, event.bullet)
+                out.writeDouble(event.damage)
+                out.writeDouble(event.energy)
+            }
+            is ScannedBotEvent -> {
+                out.writeInt(event.scannedByBotId)
+                out.writeInt(event.scannedBotId)
+                out.writeDouble(event.energy)
+                out.writeDouble(event.x)
+                out.writeDouble(event.y)
+                out.writeDouble(event.direction)
+                out.writeDouble(event.speed)
+            }
+            is TeamMessageEvent -> {
+                writeString(out, event.message)
+                writeString(out, event.messageType)
+                out.writeInt(event.senderId)
+            }
+        }
+    }
+
+    private fun writeString(out: DataOutputStream, value: String?) {
+        if (value == null) {
+            out.writeInt(-1)
+        } else {
+            val bytes = value.toByteArray(Charsets.UTF_8)
+            out.writeInt(bytes.size)
+            out.write(bytes)
+        }
+    }
+
+    private fun readBotStateWithId(buffer: ByteBuffer): BotStateWithId {
+        val botState = BotStateWithId().apply {
+            id = buffer.getInt()
+            sessionId = readString(buffer)
+            name = readString(buffer)
+            version = readString(buffer)
+            stdOut = readString(buffer)
+            stdErr = readString(buffer)
+            debugGraphics = readString(buffer)
+        }
+        return readBotState(buffer, botState)
+    }
+
+    private fun <T : BotState> readBotState(buffer: ByteBuffer, botState: T): T = botState.apply {
+        val flags = buffer.get().toInt()
+        isDroid = if (flags and FLAG_IS_DROID_NULL != 0) null else flags and FLAG_IS_DROID != 0
+        isDebuggingEnabled =
+            if (flags and FLAG_IS_DEBUGGING_ENABLED_NULL != 0) null else flags and FLAG_IS_DEBUGGING_ENABLED != 0
+        energy = buffer.getDouble()
+        x = buffer.getDouble()
+        y = buffer.getDouble()
+        direction = buffer.getDouble()
+        gunDirection = buffer.getDouble()
+        radarDirection = buffer.getDouble()
+        radarSweep = buffer.getDouble()
+        speed = buffer.getDouble()
+        turnRate = buffer.getDouble()
+        gunTurnRate = buffer.getDouble()
+        radarTurnRate = buffer.getDouble()
+        gunHeat = buffer.getDouble()
+        enemyCount = buffer.getInt()
+        bodyColor = readString(buffer)
+        turretColor = readString(buffer)
+        radarColor = readString(buffer)
+        bulletColor = readString(buffer)
+        scanColor = readString(buffer)
+        tracksColor = readString(buffer)
+        gunColor = readString(buffer)
+    }
+
+    private fun readBulletStates(buffer: ByteBuffer): List<BulletState> =
+        List(readCount(buffer)) { readBulletState(buffer) }
+
+    private fun readBulletState(buffer: ByteBuffer) = BulletState().apply {
+        bulletId = buffer.getInt()
+        ownerId = buffer.getInt()
+        power = buffer.getDouble()
+        x = buffer.getDouble()
+        y = buffer.getDouble()
+        direction = buffer.getDouble()
+        color = readString(buffer)
+    }
+
+    private fun readEvents(buffer: ByteBuffer): List<Event> =
+        List(readCount(buffer)) { readEvent(buffer) }
+
+    private fun readEvent(buffer: ByteBuffer): Event {
+        val code = EventCode.fromCode(buffer.get())
+        val turnNumber = buffer.getInt()
+
+        val event: Event = when (code) {
+            EventCode.BOT_DEATH -> BotDeathEvent().apply { victimId = buffer.getInt() }
+            EventCode.BOT_HIT_BOT -> BotHitBotEvent().apply {
+                victimId = buffer.getInt()
+                botId = buffer.getInt()
+                energy = buffer.getDouble()
+                x = buffer.getDouble()
+                y = buffer.getDouble()
+                rammed = buffer.get() != 0.toByte()
+            }
+            EventCode.BOT_HIT_WALL -> BotHitWallEvent().apply { victimId = buffer.getInt() }
+            EventCode.BULLET_FIRED -> BulletFiredEvent().apply { bullet = readBulletState(buffer) }
+            EventCode.BULLET_HIT_BOT -> BulletHitBotEvent().apply {
+                victimId = buffer.getInt()
+                bullet = readBulletState(buffer)
+                damage = buffer.getDouble()
+                energy = buffer.getDouble()
+            }
+            EventCode.BULLET_HIT_BULLET -> BulletHitBulletEvent().apply {
+                bullet = readBulletState(buffer)
+                hitBullet = readBulletState(buffer)
+            }
+            EventCode.BULLET_HIT_WALL -> BulletHitWallEvent().apply { bullet = readBulletState(buffer) }
+            EventCode.HIT_BY_BULLET -> HitByBulletEvent().apply {
+                bullet = readBulletState(buffer)
+                damage = buffer.getDouble()
+                energy = buffer.getDouble()
+            }
+            EventCode.SCANNED_BOT -> ScannedBotEvent().apply {
+                scannedByBotId = buffer.getInt()
+                scannedBotId = buffer.getInt()
+                energy = buffer.getDouble()
+                x = buffer.getDouble()
+                y = buffer.getDouble()
+                direction = buffer.getDouble()
+                speed = buffer.getDouble()
+            }
+            EventCode.SKIPPED_TURN -> SkippedTurnEvent()
+            EventCode.TEAM_MESSAGE -> TeamMessageEvent().apply {
+                message = readString(buffer)
+                messageType = readString(buffer)
+                senderId = buffer.getInt()
+            }
+            EventCode.WON_ROUND -> WonRoundEvent()
+        }
+        return event.apply {
+            type = code.type
+            this.turnNumber = turnNumber
+        }
+    }
+
+    /** Reads a count of items, each taking at least one of the bytes left */
+    private fun readCount(buffer: ByteBuffer): Int {
+        val count = buffer.getInt()
+        require(count in 0..buffer.remaining()) { "Invalid count in binary-v1 tick event: $count" }
+        return count
+    }
+
+    private fun readString(buffer: ByteBuffer): String? {
+        val length = buffer.getInt()
+        if (length < 0) return null
+        require(length <= buffer.remaining()) { "String length exceeds binary-v1 tick event: $length" }
+        val bytes = ByteArray(length)
+        buffer.get(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+}
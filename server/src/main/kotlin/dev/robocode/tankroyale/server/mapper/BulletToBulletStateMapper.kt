@@ -11,8 +11,9 @@ object BulletToBulletStateMapper {
             bulletId = bullet.id.value
             direction = normalizeAbsoluteDegrees(bullet.direction)
             power = bullet.power
-            x = bullet.position().x
-            y = bullet.position().y
+            val position = bullet.position()
+            x = position.x
+            y = position.y
             color = bullet.color?.value
         }
     }
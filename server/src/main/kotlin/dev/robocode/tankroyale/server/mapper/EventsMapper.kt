@@ -9,7 +9,7 @@ object EventsMapper {
         return mappedEvents
     }
 
-    private fun map(event: dev.robocode.tankroyale.server.event.Event): Event {
+    fun map(event: dev.robocode.tankroyale.server.event.Event): Event {
         return when (event) {
             is dev.robocode.tankroyale.server.event.BotDeathEvent -> map(event)
             is dev.robocode.tankroyale.server.event.BotHitBotEvent -> map(event)
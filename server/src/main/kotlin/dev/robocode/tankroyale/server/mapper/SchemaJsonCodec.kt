@@ -0,0 +1,211 @@
+package dev.robocode.tankroyale.server.mapper
+
+import com.google.gson.Gson
+import com.google.gson.JsonParseException
+import com.google.gson.JsonSyntaxException
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import com.google.gson.stream.JsonWriter
+import dev.robocode.tankroyale.schema.*
+import java.io.IOException
+import java.io.StringReader
+import java.io.StringWriter
+import java.io.Writer
+
+/**
+ * Streaming JSON codec for the protocol messages sent and received on every turn.
+ *
+ * The messages are written and read field by field with the [SchemaTypeAdapters], which are generated from the schemas
+ * by the build, without reflection and without building JSON trees. The fields are written in the same order as Gson
+ * writes the generated schema classes, which is the fields of a class in schema property order, followed by the fields
+ * of its super class. Strings are escaped, and `null` fields are left out the same way as with [gson], so the JSON is
+ * byte-compatible with `gson.toJson()`.
+ *
+ * Messages without a generated type adapter are serialized with [gson].
+ *
+ * @param gson is the Gson instance providing the writer settings, and used for messages without a generated type
+ * adapter.
+ */
+internal class SchemaJsonCodec(private val gson: Gson = Gson()) {
+
+    /** [gson] using the generated type adapters for the fields of messages serialized with Gson */
+    private val schemaGson = gson.newBuilder().registerTypeAdapterFactory(SchemaTypeAdapters.FACTORY).create()
+
+    /**
+     * Serializes a message to JSON.
+     * @param message is the message.
+     * @return the message as JSON text.
+     */
+    fun toJson(message: Message): String =
+        when (message) {
+            is TickEventForBot -> write { SchemaTypeAdapters.writeTickEventForBot(it, message) }
+            is TickEventForObserver -> write { SchemaTypeAdapters.writeTickEventForObserver(it, message) }
+            is Event -> write { SchemaTypeAdapters.writeEvent(it, message) }
+            else -> schemaGson.toJson(message)
+        }
+
+    /**
+     * Serializes a tick event for observers to JSON, leaving out bot state fields.
+     * @param tick is the tick event.
+     * @param excludedFields are the bot state fields left out.
+     * @return the tick event as JSON text.
+     */
+    fun toJson(tick: TickEventForObserver, excludedFields: Set<TickField>): String {
+        if (excludedFields.isEmpty()) return toJson(tick)
+
+        val out = StringWriter()
+        ExcludingJsonWriter(out, excludedFields.mapTo(HashSet()) { it.value }).apply {
+            copySettings(gson.newJsonWriter(Writer.nullWriter()))
+            SchemaTypeAdapters.writeTickEventForObserver(this, tick)
+            flush()
+        }
+        return out.toString()
+    }
+
+    /**
+     * Writes JSON with a new writer having the same settings as [gson].
+     * @param block is the function writing to the writer.
+     * @return the written JSON text.
+     */
+    fun write(block: (JsonWriter) -> Unit): String {
+        val out = StringWriter()
+        gson.newJsonWriter(out).apply {
+            block(this)
+            flush()
+        }
+        return out.toString()
+    }
+
+    fun writeBotState(writer: JsonWriter, botState: BotState) {
+        SchemaTypeAdapters.writeBotState(writer, botState)
+    }
+
+    fun writeBulletStates(writer: JsonWriter, bulletStates: List<BulletState?>) {
+        writer.beginArray()
+        bulletStates.forEach { SchemaTypeAdapters.writeBulletState(writer, it) }
+        writer.endArray()
+    }
+
+    /**
+     * Reads a bot intent from JSON, the same way as `gson.fromJson()` reads it into the schema class.
+     * @param json is the bot intent as JSON text.
+     * @return the bot intent.
+     * @throws JsonSyntaxException if the JSON is not a valid bot intent.
+     */
+    fun readBotIntent(json: String): BotIntent =
+        read(json) { SchemaTypeAdapters.readBotIntent(it) } ?: throw JsonSyntaxException("Bot intent is null")
+
+    /**
+     * Reads a message received by the server from JSON as the schema class of its type, in one pass.
+     * @param json is the message as JSON text.
+     * @return the message, which is the same as when read with `gson.fromJson()` into the schema class of its type.
+     * @throws JsonSyntaxException if the JSON is not a valid message.
+     * @throws JsonParseException if the message has no type, or a type that is not received by the server.
+     */
+    fun readMessage(json: String): Message =
+        read(json) { SchemaTypeAdapters.readMessage(it) } ?: throw JsonSyntaxException("Message is null")
+
+    private fun <T> read(json: String, block: (JsonReader) -> T): T {
+        try {
+            JsonReader(StringReader(json)).use { reader ->
+                reader.isLenient = true // same as Gson.fromJson()
+                val result = block(reader)
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw JsonSyntaxException("JSON document was not fully consumed.")
+                }
+                return result
+            }
+        } catch (exception: IOException) {
+            throw JsonSyntaxException(exception)
+        } catch (exception: IllegalStateException) {
+            throw JsonSyntaxException(exception)
+        }
+    }
+
+    /**
+     * JSON writer writing the string values of the excluded field names as `null`, which leaves out the fields unless
+     * nulls are serialized. Any other value written ends the excluded field, so a field name is never applied to a later
+     * value.
+     */
+    internal class ExcludingJsonWriter(out: Writer, private val excludedNames: Set<String>) : JsonWriter(out) {
+
+        private var isExcluding = false
+
+        fun copySettings(writer: JsonWriter) {
+            formattingStyle = writer.formattingStyle
+            strictness = writer.strictness
+            isHtmlSafe = writer.isHtmlSafe
+            serializeNulls = writer.serializeNulls
+        }
+
+        override fun name(name: String): JsonWriter {
+            isExcluding = name in excludedNames
+            return super.name(name)
+        }
+
+        override fun value(value: String?): JsonWriter {
+            if (isExcluding) {
+                isExcluding = false
+                return super.nullValue()
+            }
+            return super.value(value)
+        }
+
+        override fun nullValue(): JsonWriter {
+            isExcluding = false
+            return super.nullValue()
+        }
+
+        override fun jsonValue(value: String?): JsonWriter {
+            isExcluding = false
+            return super.jsonValue(value)
+        }
+
+        override fun value(value: Boolean?): JsonWriter {
+            isExcluding = false
+            return super.value(value)
+        }
+
+        override fun value(value: Float): JsonWriter {
+            isExcluding = false
+            return super.value(value)
+        }
+
+        override fun value(value: Double): JsonWriter {
+            isExcluding = false
+            return super.value(value)
+        }
+
+        override fun value(value: Long): JsonWriter {
+            isExcluding = false
+            return super.value(value)
+        }
+
+        override fun value(value: Number?): JsonWriter {
+            isExcluding = false
+            return super.value(value)
+        }
+
+        override fun beginObject(): JsonWriter {
+            isExcluding = false
+            return super.beginObject()
+        }
+
+        override fun beginArray(): JsonWriter {
+            isExcluding = false
+            return super.beginArray()
+        }
+
+        // Ends the excluded field after a primitive boolean too, as Kotlin cannot override value(boolean) besides
+        // value(Boolean)
+        override fun endObject(): JsonWriter {
+            isExcluding = false
+            return super.endObject()
+        }
+
+        override fun endArray(): JsonWriter {
+            isExcluding = false
+            return super.endArray()
+        }
+    }
+}
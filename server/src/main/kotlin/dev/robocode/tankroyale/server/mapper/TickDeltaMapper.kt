@@ -0,0 +1,198 @@
+package dev.robocode.tankroyale.server.mapper
+
+import dev.robocode.tankroyale.schema.*
+
+/**
+ * Maps between full tick events for observers and delta tick events holding the changes since the previous tick.
+ *
+ * [map] is used by the server for building the delta ticks, and [reconstruct] is the reference for clients rebuilding
+ * the full tick events from a keyframe and the delta ticks following it.
+ */
+object TickDeltaMapper {
+
+    /** Field of a schema state class, which is compared and copied between ticks */
+    private class Field<S, T>(val name: String, val get: (S) -> T?, val set: (S, T?) -> Unit)
+
+    /** Fields of a bot state except the id, where the per-turn fields are sent when having a value for the turn */
+    private val botStateFields: List<Field<BotStateWithId, *>> = listOf(
+        Field("sessionId", { it.sessionId }, { s, v -> s.sessionId = v }),
+        Field("name", { it.name }, { s, v -> s.name = v }),
+        Field("version", { it.version }, { s, v -> s.version = v }),
+        Field("isDroid", { it.isDroid }, { s, v -> s.isDroid = v }),
+        Field("energy", { it.energy }, { s, v -> s.energy = v }),
+        Field("x", { it.x }, { s, v -> s.x = v }),
+        Field("y", { it.y }, { s, v -> s.y = v }),
+        Field("direction", { it.direction }, { s, v -> s.direction = v }),
+        Field("gunDirection", { it.gunDirection }, { s, v -> s.gunDirection = v }),
+        Field("radarDirection", { it.radarDirection }, { s, v -> s.radarDirection = v }),
+        Field("radarSweep", { it.radarSweep }, { s, v -> s.radarSweep = v }),
+        Field("speed", { it.speed }, { s, v -> s.speed = v }),
+        Field("turnRate", { it.turnRate }, { s, v -> s.turnRate = v }),
+        Field("gunTurnRate", { it.gunTurnRate }, { s, v -> s.gunTurnRate = v }),
+        Field("radarTurnRate", { it.radarTurnRate }, { s, v -> s.radarTurnRate = v }),
+        Field("gunHeat", { it.gunHeat }, { s, v -> s.gunHeat = v }),
+        Field("enemyCount", { it.enemyCount }, { s, v -> s.enemyCount = v }),
+        Field("bodyColor", { it.bodyColor }, { s, v -> s.bodyColor = v }),
+        Field("turretColor", { it.turretColor }, { s, v -> s.turretColor = v }),
+        Field("radarColor", { it.radarColor }, { s, v -> s.radarColor = v }),
+        Field("bulletColor", { it.bulletColor }, { s, v -> s.bulletColor = v }),
+        Field("scanColor", { it.scanColor }, { s, v -> s.scanColor = v }),
+        Field("tracksColor", { it.tracksColor }, { s, v -> s.tracksColor = v }),
+        Field("gunColor", { it.gunColor }, { s, v -> s.gunColor = v }),
+        Field("isDebuggingEnabled", { it.isDebuggingEnabled }, { s, v -> s.isDebuggingEnabled = v }),
+    )
+
+    private val perTurnBotStateFields: List<Field<BotStateWithId, String>> = listOf(
+        Field("stdOut", { it.stdOut }, { s, v -> s.stdOut = v }),
+        Field("stdErr", { it.stdErr }, { s, v -> s.stdErr = v }),
+        Field("debugGraphics", { it.debugGraphics }, { s, v -> s.debugGraphics = v }),
+    )
+
+    /** Fields of a bullet state except the bullet id */
+    private val bulletStateFields: List<Field<BulletState, *>> = listOf(
+        Field("ownerId", { it.ownerId }, { s, v -> s.ownerId = v }),
+        Field("power", { it.power }, { s, v -> s.power = v }),
+        Field("x", { it.x }, { s, v -> s.x = v }),
+        Field("y", { it.y }, { s, v -> s.y = v }),
+        Field("direction", { it.direction }, { s, v -> s.direction = v }),
+        Field("color", { it.color }, { s, v -> s.color = v }),
+    )
+
+    /**
+     * Maps the changes between two ticks into a delta tick.
+     * @param previous is the previous tick.
+     * @param current is the current tick.
+     * @return the delta tick, which gives [current] when applied to [previous].
+     */
+    fun map(previous: TickEventForObserver, current: TickEventForObserver): TickDeltaEventForObserver {
+        val previousBots = previous.botStates.associateBy { it.id }
+        val currentBotIds = current.botStates.mapTo(HashSet()) { it.id }
+
+        val previousBullets = previous.bulletStates.associateBy { it.bulletId }
+        val currentBulletIds = current.bulletStates.mapTo(HashSet()) { it.bulletId }
+
+        return TickDeltaEventForObserver().apply {
+            type = Message.Type.TICK_DELTA_EVENT_FOR_OBSERVER
+            roundNumber = current.roundNumber
+            turnNumber = current.turnNumber
+            botStates = current.botStates.mapNotNull { mapBotState(previousBots[it.id], it) }
+            removedBotIds = previous.botStates.map { it.id }.filter { it !in currentBotIds }
+            bulletStates = current.bulletStates.mapNotNull { mapBulletState(previousBullets[it.bulletId], it) }
+            removedBulletIds = previous.bulletStates.map { it.bulletId }.filter { it !in currentBulletIds }
+            events = current.events
+        }
+    }
+
+    /**
+     * Applies a delta tick to the tick before it.
+     * @param previous is the previous tick, which is either a keyframe or the result of applying the previous delta.
+     * @param delta is the delta tick.
+     * @return the full tick for the turn of the delta tick.
+     */
+    fun reconstruct(previous: TickEventForObserver, delta: TickDeltaEventForObserver): TickEventForObserver {
+        val botDeltas = delta.botStates.associateBy { it.id }
+        val removedBotIds = delta.removedBotIds.toHashSet()
+
+        val bulletDeltas = delta.bulletStates.associateBy { it.bulletId }
+        val removedBulletIds = delta.removedBulletIds.toHashSet()
+
+        val keptBotStates = previous.botStates.filter { it.id !in removedBotIds }.map { botState ->
+            val botDelta = botDeltas[botState.id]
+            BotStateWithId().also { state ->
+                state.id = botState.id
+                botStateFields.forEach { copy(it, botState, state) }
+                if (botDelta != null) {
+                    botStateFields.forEach { applyChange(it, botDelta, state, botDelta.clearedFields) }
+                    perTurnBotStateFields.forEach { copy(it, botDelta, state) }
+                }
+            }
+        }
+        val previousBotIds = previous.botStates.mapTo(HashSet()) { it.id }
+        val addedBotStates = delta.botStates.filter { it.id !in previousBotIds }.map { botDelta ->
+            BotStateWithId().also { state ->
+                state.id = botDelta.id
+                botStateFields.forEach { copy(it, botDelta, state) }
+                perTurnBotStateFields.forEach { copy(it, botDelta, state) }
+            }
+        }
+
+        val keptBulletStates = previous.bulletStates.filter { it.bulletId !in removedBulletIds }.map { bulletState ->
+            BulletState().also { state ->
+                state.bulletId = bulletState.bulletId
+                bulletStateFields.forEach { copy(it, bulletState, state) }
+                bulletDeltas[bulletState.bulletId]?.let { bulletDelta ->
+                    bulletStateFields.forEach { applyChange(it, bulletDelta, state, null) }
+                }
+            }
+        }
+        val previousBulletIds = previous.bulletStates.mapTo(HashSet()) { it.bulletId }
+        val addedBulletStates = delta.bulletStates.filter { it.bulletId !in previousBulletIds }
+
+        return TickEventForObserver().apply {
+            type = Message.Type.TICK_EVENT_FOR_OBSERVER
+            roundNumber = delta.roundNumber
+            turnNumber = delta.turnNumber
+            botStates = keptBotStates + addedBotStates
+            bulletStates = keptBulletStates + addedBulletStates
+            events = delta.events
+        }
+    }
+
+    private fun mapBotState(previous: BotStateWithId?, current: BotStateWithId): BotStateDelta? {
+        val botDelta = BotStateDelta().apply { id = current.id }
+        if (previous == null) {
+            botStateFields.forEach { copy(it, current, botDelta) }
+            perTurnBotStateFields.forEach { copy(it, current, botDelta) }
+            return botDelta
+        }
+
+        val clearedFields = mutableListOf<String>()
+        var isChanged = false
+        botStateFields.forEach { field ->
+            if (mapChange(field, previous, current, botDelta, clearedFields)) isChanged = true
+        }
+        perTurnBotStateFields.forEach { field ->
+            if (field.get(current) != null) {
+                copy(field, current, botDelta)
+                isChanged = true
+            }
+        }
+        if (clearedFields.isNotEmpty()) botDelta.clearedFields = clearedFields
+
+        return if (isChanged) botDelta else null
+    }
+
+    private fun mapBulletState(previous: BulletState?, current: BulletState): BulletState? {
+        if (previous == null) return current
+
+        val bulletDelta = BulletState().apply { bulletId = current.bulletId }
+        var isChanged = false
+        bulletStateFields.forEach { field ->
+            if (mapChange(field, previous, current, bulletDelta, null)) isChanged = true
+        }
+        return if (isChanged) bulletDelta else null
+    }
+
+    /** Sets a field of a delta if it has changed, and returns `true` if it has changed */
+    private fun <S, T> mapChange(
+        field: Field<S, T>, previous: S, current: S, delta: S, clearedFields: MutableList<String>?
+    ): Boolean {
+        val value = field.get(current)
+        if (value == field.get(previous)) return false
+
+        if (value == null) clearedFields?.add(field.name) else field.set(delta, value)
+        return true
+    }
+
+    private fun <S, T> applyChange(field: Field<S, T>, delta: S, target: S, clearedFields: List<String>?) {
+        val value = field.get(delta)
+        when {
+            value != null -> field.set(target, value)
+            clearedFields?.contains(field.name) == true -> field.set(target, null)
+        }
+    }
+
+    private fun <S, T> copy(field: Field<S, T>, source: S, target: S) {
+        field.set(target, field.get(source))
+    }
+}
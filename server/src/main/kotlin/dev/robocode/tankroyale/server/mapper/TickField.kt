@@ -0,0 +1,21 @@
+package dev.robocode.tankroyale.server.mapper
+
+/**
+ * Bot state field of a tick event for observers, which an observer can leave out with its subscription.
+ *
+ * @param value is the name of the field in the schema.
+ */
+enum class TickField(val value: String) {
+    STD_OUT("stdOut"),
+    STD_ERR("stdErr"),
+    DEBUG_GRAPHICS("debugGraphics");
+
+    companion object {
+        /**
+         * Returns the tick field with a name.
+         * @param value is the name of the field in the schema.
+         * @return the tick field, or `null` if no field can be left out with the name.
+         */
+        fun fromValue(value: String?): TickField? = entries.firstOrNull { it.value == value }
+    }
+}
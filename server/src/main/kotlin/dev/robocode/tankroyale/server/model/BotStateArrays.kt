@@ -0,0 +1,212 @@
+package dev.robocode.tankroyale.server.model
+
+/**
+ * Struct-of-arrays store of bot states.
+ *
+ * Each bot is given a dense slot, and the bot fields are stored in primitive arrays indexed by that slot. The store
+ * is double-buffered: [write] writes the bots into the write buffer while the views keep reading the read buffer, and
+ * [swap] swaps the buffers, so the views read the states last written. The store is not thread-safe; it is written
+ * and read by the thread processing the turn. The arrays only grow when a slot beyond the current capacity is needed,
+ * meaning a turn allocates nothing proportional to the number of bots.
+ *
+ * The store is used for keeping the bot states from the start of the turn, which are read when checking if a bot
+ * has moved, when constraining bots to the arena, and when checking for fire assistance. The physics writes the bot
+ * states at the end of a turn, which are swapped in as the states from the start of the next turn.
+ *
+ * @param initialCapacity is the initial number of bot slots.
+ */
+class BotStateArrays(initialCapacity: Int = 16) {
+
+    /** Slot of each bot id */
+    private val slots = HashMap<BotId, Int>()
+
+    /** Views over the bot slots, where the view for a slot is created once and reused */
+    private val views = ArrayList<BotStateView>()
+
+    /** Map over views over the captured bots */
+    private val viewsById = LinkedHashMap<BotId, IBot>()
+
+    /** Bot id of each slot */
+    private var ids = arrayOfNulls<BotId>(initialCapacity)
+
+    /** Teammate ids of each slot */
+    private var teammateIds = arrayOfNulls<Set<BotId>>(initialCapacity)
+
+    /** Droid flag of each slot */
+    private var isDroid = BooleanArray(initialCapacity)
+
+    /** Read buffer, which is read by the views */
+    internal var read = Buffer(initialCapacity)
+        private set
+
+    /** Write buffer, which is written by [write] */
+    private var write = Buffer(initialCapacity)
+
+    /** Flag set when bots have been written since the last swap */
+    private var isWritten = false
+
+    /** Map over views over the bots from the last capture */
+    val bots: Map<BotId, IBot> get() = viewsById
+
+    /** Number of bot slots in use */
+    val size: Int get() = slots.size
+
+    /**
+     * Writes the current state of the bots into the write buffer, which is read by the views after the next [swap].
+     * @param srcBots is the bots to write. The views of other bots are not valid after the next swap.
+     */
+    fun write(srcBots: Collection<IBot>) {
+        for (bot in srcBots) {
+            write.write(slotOf(bot), bot)
+        }
+        isWritten = true
+    }
+
+    /**
+     * Swaps the buffers, so the views read the states last written.
+     * @return `true` if the buffers were swapped; `false` if no bots have been written since the last swap.
+     */
+    fun swap(): Boolean {
+        if (!isWritten) return false
+        val buffer = read
+        read = write
+        write = buffer
+        isWritten = false
+        return true
+    }
+
+    /**
+     * Captures the current state of the bots, which are written and swapped in at once.
+     * @param srcBots is the bots to capture.
+     */
+    fun capture(srcBots: Collection<IBot>) {
+        write(srcBots)
+        swap()
+    }
+
+    /** Releases all slots, e.g. when a new round starts. The arrays and views are kept for reuse. */
+    fun clear() {
+        isWritten = false
+        slots.clear()
+        viewsById.clear()
+        ids.fill(null)
+        teammateIds.fill(null)
+    }
+
+    internal fun id(slot: Int): BotId = ids[slot]!!
+
+    internal fun teammateIds(slot: Int): Set<BotId> = teammateIds[slot]!!
+
+    internal fun isDroid(slot: Int): Boolean = isDroid[slot]
+
+    private fun slotOf(bot: IBot): Int = slots[bot.id] ?: assignSlot(bot)
+
+    private fun assignSlot(bot: IBot): Int {
+        val slot = slots.size
+        ensureCapacity(slot + 1)
+
+        ids[slot] = bot.id
+        teammateIds[slot] = bot.teammateIds
+        isDroid[slot] = bot.isDroid
+
+        if (slot == views.size) {
+            views += BotStateView(this, slot)
+        }
+        slots[bot.id] = slot
+        viewsById[bot.id] = views[slot]
+        return slot
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (capacity <= ids.size) return
+        val newCapacity = maxOf(capacity, ids.size * 2)
+
+        ids = ids.copyOf(newCapacity)
+        teammateIds = teammateIds.copyOf(newCapacity)
+        isDroid = isDroid.copyOf(newCapacity)
+        read.ensureCapacity(newCapacity)
+        write.ensureCapacity(newCapacity)
+    }
+
+    /** Buffer with the per-turn bot fields stored in arrays indexed by bot slot. */
+    internal class Buffer(capacity: Int) {
+        var sessionId = arrayOfNulls<String>(capacity)
+        var energy = DoubleArray(capacity)
+        var x = DoubleArray(capacity)
+        var y = DoubleArray(capacity)
+        var direction = DoubleArray(capacity)
+        var gunDirection = DoubleArray(capacity)
+        var radarDirection = DoubleArray(capacity)
+        var radarSpreadAngle = DoubleArray(capacity)
+        var speed = DoubleArray(capacity)
+        var turnRate = DoubleArray(capacity)
+        var gunTurnRate = DoubleArray(capacity)
+        var radarTurnRate = DoubleArray(capacity)
+        var gunHeat = DoubleArray(capacity)
+        var bodyColor = arrayOfNulls<Color>(capacity)
+        var turretColor = arrayOfNulls<Color>(capacity)
+        var radarColor = arrayOfNulls<Color>(capacity)
+        var bulletColor = arrayOfNulls<Color>(capacity)
+        var scanColor = arrayOfNulls<Color>(capacity)
+        var tracksColor = arrayOfNulls<Color>(capacity)
+        var gunColor = arrayOfNulls<Color>(capacity)
+        var stdOut = arrayOfNulls<String>(capacity)
+        var stdErr = arrayOfNulls<String>(capacity)
+        var isDebuggingEnabled = BooleanArray(capacity)
+        var debugGraphics = arrayOfNulls<String>(capacity)
+
+        fun write(slot: Int, bot: IBot) {
+            sessionId[slot] = bot.sessionId
+            energy[slot] = bot.energy
+            x[slot] = bot.x
+            y[slot] = bot.y
+            direction[slot] = bot.direction
+            gunDirection[slot] = bot.gunDirection
+            radarDirection[slot] = bot.radarDirection
+            radarSpreadAngle[slot] = bot.radarSpreadAngle
+            speed[slot] = bot.speed
+            turnRate[slot] = bot.turnRate
+            gunTurnRate[slot] = bot.gunTurnRate
+            radarTurnRate[slot] = bot.radarTurnRate
+            gunHeat[slot] = bot.gunHeat
+            bodyColor[slot] = bot.bodyColor
+            turretColor[slot] = bot.turretColor
+            radarColor[slot] = bot.radarColor
+            bulletColor[slot] = bot.bulletColor
+            scanColor[slot] = bot.scanColor
+            tracksColor[slot] = bot.tracksColor
+            gunColor[slot] = bot.gunColor
+            stdOut[slot] = bot.stdOut
+            stdErr[slot] = bot.stdErr
+            isDebuggingEnabled[slot] = bot.isDebuggingEnabled
+            debugGraphics[slot] = bot.debugGraphics
+        }
+
+        fun ensureCapacity(capacity: Int) {
+            sessionId = sessionId.copyOf(capacity)
+            energy = energy.copyOf(capacity)
+            x = x.copyOf(capacity)
+            y = y.copyOf(capacity)
+            direction = direction.copyOf(capacity)
+            gunDirection = gunDirection.copyOf(capacity)
+            radarDirection = radarDirection.copyOf(capacity)
+            radarSpreadAngle = radarSpreadAngle.copyOf(capacity)
+            speed = speed.copyOf(capacity)
+            turnRate = turnRate.copyOf(capacity)
+            gunTurnRate = gunTurnRate.copyOf(capacity)
+            radarTurnRate = radarTurnRate.copyOf(capacity)
+            gunHeat = gunHeat.copyOf(capacity)
+            bodyColor = bodyColor.copyOf(capacity)
+            turretColor = turretColor.copyOf(capacity)
+            radarColor = radarColor.copyOf(capacity)
+            bulletColor = bulletColor.copyOf(capacity)
+            scanColor = scanColor.copyOf(capacity)
+            tracksColor = tracksColor.copyOf(capacity)
+            gunColor = gunColor.copyOf(capacity)
+            stdOut = stdOut.copyOf(capacity)
+            stdErr = stdErr.copyOf(capacity)
+            isDebuggingEnabled = isDebuggingEnabled.copyOf(capacity)
+            debugGraphics = debugGraphics.copyOf(capacity)
+        }
+    }
+}
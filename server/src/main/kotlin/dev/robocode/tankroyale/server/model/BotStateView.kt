@@ -0,0 +1,43 @@
+package dev.robocode.tankroyale.server.model
+
+/**
+ * Read-only [IBot] view over a bot slot in [BotStateArrays].
+ * The view always reads the read buffer of the store, so it can be handed to the mappers like any other [IBot].
+ */
+class BotStateView internal constructor(
+    private val states: BotStateArrays,
+    private val slot: Int,
+) : IBot {
+
+    private val buffer get() = states.read
+
+    override val id: BotId get() = states.id(slot)
+    override val teammateIds: Set<BotId> get() = states.teammateIds(slot)
+    override val isDroid: Boolean get() = states.isDroid(slot)
+    override val sessionId: String? get() = buffer.sessionId[slot]
+    override val energy: Double get() = buffer.energy[slot]
+    /** Position as a new point, where [x] and [y] are read without allocating a point */
+    override val position: Point get() = Point(x, y)
+    override val x: Double get() = buffer.x[slot]
+    override val y: Double get() = buffer.y[slot]
+    override val direction: Double get() = buffer.direction[slot]
+    override val gunDirection: Double get() = buffer.gunDirection[slot]
+    override val radarDirection: Double get() = buffer.radarDirection[slot]
+    override val radarSpreadAngle: Double get() = buffer.radarSpreadAngle[slot]
+    override val speed: Double get() = buffer.speed[slot]
+    override val turnRate: Double get() = buffer.turnRate[slot]
+    override val gunTurnRate: Double get() = buffer.gunTurnRate[slot]
+    override val radarTurnRate: Double get() = buffer.radarTurnRate[slot]
+    override val gunHeat: Double get() = buffer.gunHeat[slot]
+    override val bodyColor: Color? get() = buffer.bodyColor[slot]
+    override val turretColor: Color? get() = buffer.turretColor[slot]
+    override val radarColor: Color? get() = buffer.radarColor[slot]
+    override val bulletColor: Color? get() = buffer.bulletColor[slot]
+    override val scanColor: Color? get() = buffer.scanColor[slot]
+    override val tracksColor: Color? get() = buffer.tracksColor[slot]
+    override val gunColor: Color? get() = buffer.gunColor[slot]
+    override val stdOut: String? get() = buffer.stdOut[slot]
+    override val stdErr: String? get() = buffer.stdErr[slot]
+    override val isDebuggingEnabled: Boolean get() = buffer.isDebuggingEnabled[slot]
+    override val debugGraphics: String? get() = buffer.debugGraphics[slot]
+}
@@ -16,32 +16,38 @@ import kotlin.math.sin
  * @param tick Tick, which is the number of turns since the bullet was fired.
  */
 data class Bullet(
-    val id: BulletId,
-    val botId: BotId,
-    val power: Double,
-    val direction: Double,
-    val color: Color?,
-    val startPosition: Point, // must be immutable as this point is used for calculating future positions
-    val tick: Int = 0,
-) {
+    override val id: BulletId,
+    override val botId: BotId,
+    override val power: Double,
+    override val direction: Double,
+    override val color: Color?,
+    override val startPosition: Point, // must be immutable as this point is used for calculating future positions
+    override val tick: Int = 0,
+) : IBullet {
     /**
      * Returns the speed of this bullet depending on the bullet power.
      * @return the speed of this bullet based on [calcBulletSpeed].
      * @see [calcBulletSpeed]
      */
-    fun speed(): Double = calcBulletSpeed(power)
+    override fun speed(): Double = calcBulletSpeed(power)
 
     /**
      * Returns the current position of this bullet based on [startPosition] and [tick].
      * @return a [Point] with containing the current position.
      */
-    fun position(): Point = calcPosition()
+    override fun position(): Point = calcPosition()
 
     /**
      * Returns the next position of this bullet based on [startPosition] and [tick] + 1.
      * @return a [Point] with containing the next position.
      */
-    fun nextPosition(): Point = calcPosition(true)
+    override fun nextPosition(): Point = calcPosition(true)
+
+    /**
+     * Returns this bullet, as it is already immutable.
+     * @return this bullet.
+     */
+    override fun toBullet(): Bullet = this
 
     /**
      * Calculates the current position of this bullet based on [startPosition] and [tick].
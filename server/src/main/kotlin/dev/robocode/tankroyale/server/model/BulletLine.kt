@@ -3,7 +3,7 @@ package dev.robocode.tankroyale.server.model
 /** Convenient class to wrap a bullet to cache the current and next position of the bullet. */
 data class BulletLine(
     /** The bullet of the bullet line */
-    val bullet: Bullet // bullet needs to be a copy/snapshot!
+    val bullet: IBullet // bullet must not be advanced while the line is in use!
 ) {
     /** Start position of the bullet line */
     private val start: Point by lazy { bullet.position() }
@@ -0,0 +1,49 @@
+package dev.robocode.tankroyale.server.model
+
+/** Bullet interface. */
+interface IBullet {
+    /** Unique id of the bullet */
+    val id: BulletId
+
+    /** Unique id of the bot that fired this bullet */
+    val botId: BotId
+
+    /** Power of the bullet */
+    val power: Double
+
+    /** Direction of the bullet in degrees */
+    val direction: Double
+
+    /** Color of the bullet. If set to `null`, the default bullet color will be used. */
+    val color: Color?
+
+    /** Start position where the bullet was fired from */
+    val startPosition: Point
+
+    /** Tick, which is the number of turns since the bullet was fired */
+    val tick: Int
+
+    /**
+     * Returns the speed of this bullet depending on the bullet power.
+     * @return the speed of this bullet.
+     */
+    fun speed(): Double
+
+    /**
+     * Returns the current position of this bullet based on [startPosition] and [tick].
+     * @return a [Point] with containing the current position.
+     */
+    fun position(): Point
+
+    /**
+     * Returns the next position of this bullet based on [startPosition] and [tick] + 1.
+     * @return a [Point] with containing the next position.
+     */
+    fun nextPosition(): Point
+
+    /**
+     * Returns an immutable snapshot of this bullet, e.g. for events and turn snapshots.
+     * @return an immutable [Bullet] with the current state of this bullet.
+     */
+    fun toBullet(): Bullet
+}
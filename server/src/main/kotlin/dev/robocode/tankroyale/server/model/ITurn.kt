@@ -31,5 +31,5 @@ interface ITurn {
      * @param botId is the id of the bot.
      * @return a set of bot events.
      */
-    fun getEvents(botId: BotId): Set<Event> = botEvents[botId] ?: HashSet()
+    fun getEvents(botId: BotId): Set<Event> = botEvents[botId] ?: emptySet()
 }
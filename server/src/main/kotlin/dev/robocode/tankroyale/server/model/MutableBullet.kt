@@ -0,0 +1,108 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.rules.calcBulletSpeed
+import kotlin.math.cos
+import kotlin.math.sin
+
+/**
+ * Mutable bullet used by the simulation.
+ *
+ * The speed and the unit vector of the direction are calculated once when the bullet is fired, and the current and
+ * next positions are kept up to date when the bullet is advanced in place with [advance]. The positions are
+ * calculated exactly like [Bullet] does, so both give the same positions for the same tick.
+ *
+ * An immutable [Bullet] snapshot is created with [toBullet] when the bullet is handed over to events or turns.
+ *
+ * @param id Unique id of the bullet.
+ * @param botId Unique id of the bot that fired this bullet.
+ * @param power Power of the bullet.
+ * @param direction Direction of the bullet in degrees.
+ * @param color Color of the bullet. If set to `null`, the default bullet color will be used.
+ * @param startPosition Start position where the bullet was fired from.
+ * @param tick Tick, which is the number of turns since the bullet was fired.
+ */
+class MutableBullet(
+    override val id: BulletId,
+    override val botId: BotId,
+    override val power: Double,
+    override val direction: Double,
+    override val color: Color?,
+    override val startPosition: Point,
+    tick: Int = 0,
+) : IBullet {
+
+    /** Creates a mutable bullet with the same state as an immutable bullet. */
+    constructor(bullet: Bullet) : this(
+        bullet.id, bullet.botId, bullet.power, bullet.direction, bullet.color, bullet.startPosition, bullet.tick
+    )
+
+    override var tick: Int = tick
+        private set
+
+    /** Bullet speed, which depends on the bullet power only */
+    private val speed = calcBulletSpeed(power)
+
+    /** X component of the direction unit vector */
+    private val unitX = cos(Math.toRadians(direction))
+
+    /** Y component of the direction unit vector */
+    private val unitY = sin(Math.toRadians(direction))
+
+    /** X coordinate of the current position */
+    var x = 0.0
+        private set
+
+    /** Y coordinate of the current position */
+    var y = 0.0
+        private set
+
+    /** X coordinate of the next position */
+    var nextX = 0.0
+        private set
+
+    /** Y coordinate of the next position */
+    var nextY = 0.0
+        private set
+
+    init {
+        updatePositions()
+    }
+
+    /** Advances this bullet one tick along its trajectory. */
+    fun advance() {
+        tick++
+        updatePositions()
+    }
+
+    override fun speed(): Double = speed
+
+    override fun position(): Point = Point(x, y)
+
+    override fun nextPosition(): Point = Point(nextX, nextY)
+
+    override fun toBullet(): Bullet = Bullet(id, botId, power, direction, color, startPosition, tick)
+
+    private fun updatePositions() {
+        val distance = speed * tick
+        x = startPosition.x + unitX * distance
+        y = startPosition.y + unitY * distance
+
+        val nextDistance = speed * (tick + 1)
+        nextX = startPosition.x + unitX * nextDistance
+        nextY = startPosition.y + unitY * nextDistance
+    }
+
+    /**
+     * Returns a hash code that is the (unique) id of this bullet.
+     * @return the (unique) id of this bullet.
+     */
+    override fun hashCode(): Int = id.value
+
+    /**
+     * Compares this bullet with another object by checking if the input object is a [MutableBullet] instance with the
+     * same bullet id.
+     * @param other is any object.
+     * @return `true` if the two bullets are equal; `false` otherwise.
+     */
+    override fun equals(other: Any?): Boolean = other is MutableBullet && other.id == id
+}
@@ -2,7 +2,13 @@ package dev.robocode.tankroyale.server.model
 
 import dev.robocode.tankroyale.server.event.Event
 
-/** Mutable state of a game turn in a round. */
+/**
+ * Mutable state of a game turn in a round.
+ *
+ * A turn can be recycled with [reset], which clears the turn instead of reallocating it. The per-bot event sets are
+ * kept and cleared between turns, and the bots are captured into a [BotStateArrays] store owned by the turn, so a
+ * recycled turn reuses its bot views and event sets.
+ */
 data class MutableTurn(
     /** Turn number */
     override var turnNumber: Int,
@@ -21,6 +27,9 @@ data class MutableTurn(
 
     ) : ITurn {
 
+    /** Store holding the bot states of this turn, which [bots] contains views over */
+    private val botStates = BotStateArrays()
+
     /** Returns an immutable copy of this turn */
     fun toTurn() = Turn(turnNumber, copyBots(), copyBullets(), observerEvents.toSet(), copyBotEvents())
 
@@ -38,7 +47,7 @@ data class MutableTurn(
      * @param event is the bot event, only given to the specified bot.
      */
     fun addPrivateBotEvent(botId: BotId, event: Event) {
-        botEvents.getOrPut(botId) { HashSet() }.add(event)
+        botEvents.getOrPut(botId) { LinkedHashSet() }.add(event)
     }
 
     /**
@@ -49,12 +58,23 @@ data class MutableTurn(
         bots.forEach { addPrivateBotEvent(it.id, event) }
     }
 
-    /** Reset all events. */
+    /** Reset all events. The event set of each bot is cleared and kept for reuse. */
     fun resetEvents() {
-        botEvents.clear()
+        botEvents.values.forEach { it.clear() }
         observerEvents.clear()
     }
 
+    /**
+     * Resets this turn so it can be reused for a new turn.
+     * The bots are kept until they are replaced with [copyBots].
+     * @param turnNumber is the new turn number.
+     */
+    fun reset(turnNumber: Int) {
+        this.turnNumber = turnNumber
+        bullets.clear()
+        resetEvents()
+    }
+
     /** Returns a deep copy of the bots */
     private fun copyBots(): Set<IBot> {
         return bots.map { copyBot(it) }.toSet()
@@ -71,21 +91,31 @@ data class MutableTurn(
     }
 
     /**
-     * Replaces all bullets with a collection of bullet copies.
+     * Replaces all bullets with immutable snapshots of a collection of bullets.
      * @param srcBullets is the collection of bullets to copy.
      */
-    fun copyBullets(srcBullets: Collection<Bullet>) {
+    fun copyBullets(srcBullets: Collection<IBullet>) {
         bullets.clear()
-        bullets += srcBullets
+        srcBullets.forEach { bullet -> bullets += bullet.toBullet() }
     }
 
     /**
      * Replaces all bots with a collection of bot copies.
+     * The copies are views over the bot states captured into the store of this turn.
      * @param srcBots is the collection of bots to copy.
      */
     fun copyBots(srcBots: Collection<IBot>) {
-        bots.clear()
-        srcBots.forEach { bot -> bots += copyBot(bot) }
+        botStates.capture(srcBots)
+        if (botStates.size != srcBots.size) {
+            // Other bots than the ones captured previously, e.g. with a new round, so the slots must be reassigned
+            botStates.clear()
+            botStates.capture(srcBots)
+        }
+        val views = botStates.bots.values
+        if (bots.size != views.size || !bots.containsAll(views)) {
+            bots.clear()
+            bots += views
+        }
     }
 
     companion object {
@@ -24,4 +24,10 @@ class AccumulatedScoreCalculator {
     }
 
     fun getScores(): List<Score> = accumulatedScores
+
+    /** Replaces the accumulated scores, e.g. when restoring a checkpoint of a game */
+    fun restoreScores(scores: List<Score>) {
+        accumulatedScores.clear()
+        accumulatedScores.addAll(scores)
+    }
 }
\ No newline at end of file
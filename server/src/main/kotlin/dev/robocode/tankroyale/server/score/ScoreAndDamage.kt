@@ -109,4 +109,44 @@ class ScoreAndDamage {
     fun addRamKillEnemyId(enemyId: ParticipantId) {
         ramKillEnemyIds += enemyId
     }
+
+    /** Returns a checkpoint of this record, which can be restored with [restore]. */
+    fun checkpoint() = Checkpoint(
+        bulletDamage = bulletDamage.map { (enemyId, damage) -> Checkpoint.EnemyDamage(enemyId, damage) },
+        ramHits = ramHits.map { (enemyId, hits) -> Checkpoint.EnemyRamHits(enemyId, hits) },
+        bulletKillEnemyIds = bulletKillEnemyIds.toList(),
+        ramKillEnemyIds = ramKillEnemyIds.toList(),
+        survivalCount = survivalCount,
+        lastSurvivorCount = lastSurvivorCount,
+    )
+
+    /**
+     * Restores this record from a checkpoint taken with [checkpoint].
+     * @param checkpoint is the checkpoint to restore.
+     */
+    fun restore(checkpoint: Checkpoint) {
+        clear()
+        checkpoint.bulletDamage.forEach { bulletDamage[it.enemyId] = it.damage }
+        checkpoint.ramHits.forEach { ramHits[it.enemyId] = it.hits }
+        bulletKillEnemyIds += checkpoint.bulletKillEnemyIds
+        ramKillEnemyIds += checkpoint.ramKillEnemyIds
+        survivalCount = checkpoint.survivalCount
+        lastSurvivorCount = checkpoint.lastSurvivorCount
+    }
+
+    /** Checkpoint of a score and damage record, where the damages are kept in the order they were first dealt */
+    data class Checkpoint(
+        val bulletDamage: List<EnemyDamage>,
+        val ramHits: List<EnemyRamHits>,
+        val bulletKillEnemyIds: List<ParticipantId>,
+        val ramKillEnemyIds: List<ParticipantId>,
+        val survivalCount: Int,
+        val lastSurvivorCount: Int,
+    ) {
+        /** Bullet damage dealt to an enemy */
+        data class EnemyDamage(val enemyId: ParticipantId, val damage: Double)
+
+        /** Number of ram hits on an enemy */
+        data class EnemyRamHits(val enemyId: ParticipantId, val hits: Int)
+    }
 }
\ No newline at end of file
@@ -112,5 +112,47 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
         }
     }
 
+    /**
+     * Returns a checkpoint of the scores, which can be restored with [restore].
+     * @return a [Checkpoint] of the scores.
+     */
+    fun checkpoint() = Checkpoint(
+        scoreAndDamages = scoreAndDamages.map { (participantId, scoreAndDamage) ->
+            Checkpoint.ScoreAndDamageRecord(participantId, scoreAndDamage.checkpoint())
+        },
+        aliveParticipants = aliveParticipants.toList(),
+        lastSurvivors = lastSurvivors?.toList(),
+    )
+
+    /**
+     * Restores the scores from a checkpoint taken with [checkpoint].
+     * @param checkpoint is the checkpoint to restore.
+     */
+    fun restore(checkpoint: Checkpoint) {
+        clear()
+        checkpoint.scoreAndDamages.forEach { scoreAndDamages[it.participantId]?.restore(it.scoreAndDamage) }
+        aliveParticipants.apply { clear(); addAll(checkpoint.aliveParticipants) }
+        lastSurvivors = checkpoint.lastSurvivors?.toSet()
+    }
+
     private fun getScoreAndDamage(participantId: ParticipantId): ScoreAndDamage? =
-        scoreAndDamages[participantId]}
\ No newline at end of file
+        scoreAndDamages[participantId]
+
+    /**
+     * Checkpoint of the scores of a round.
+     * @param scoreAndDamages is the score and damage records of the participants.
+     * @param aliveParticipants is the alive participants.
+     * @param lastSurvivors is the last survivors, or `null` if not determined yet.
+     */
+    data class Checkpoint(
+        val scoreAndDamages: List<ScoreAndDamageRecord>,
+        val aliveParticipants: List<ParticipantId>,
+        val lastSurvivors: List<ParticipantId>?,
+    ) {
+        /** Score and damage record of a participant */
+        data class ScoreAndDamageRecord(
+            val participantId: ParticipantId,
+            val scoreAndDamage: ScoreAndDamage.Checkpoint,
+        )
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package connection
+
+import dev.robocode.tankroyale.server.connection.ClientRole
+import dev.robocode.tankroyale.server.connection.CompressionPolicy
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import io.mockk.every
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+import org.java_websocket.drafts.Draft_6455
+import org.java_websocket.enums.HandshakeState
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension
+import org.java_websocket.framing.TextFrame
+import org.java_websocket.handshake.HandshakeImpl1Client
+import java.nio.ByteBuffer
+
+class CompressionPolicyTest : FunSpec({
+
+    context("TR-SRV-CON-004: permessage-deflate compression policy").config(tags = setOf(Tag("TR-SRV-CON-004"))) {
+
+        /** Returns a draft where permessage-deflate has been negotiated with a client offering it */
+        fun negotiatedDraft(policy: CompressionPolicy): Draft_6455 {
+            val draft = policy.drafts().single().copyInstance() as Draft_6455
+            val request = HandshakeImpl1Client().apply {
+                resourceDescriptor = "/"
+                put("Host", "localhost")
+                put("Upgrade", "websocket")
+                put("Connection", "Upgrade")
+                put("Sec-WebSocket-Key", "dGhlIHNhbXBsZSBub25jZQ==")
+                put("Sec-WebSocket-Version", "13")
+                put("Sec-WebSocket-Extensions", "permessage-deflate")
+            }
+            draft.acceptHandshakeAsServer(request) shouldBe HandshakeState.MATCHED
+            return draft
+        }
+
+        fun socketWith(draft: Draft_6455) = mockk<WebSocket>().also { every { it.draft } returns draft }
+
+        test("Positive: The default policy compresses the messages for observers and controllers") {
+            CompressionPolicy.parse(" Observer, controller ") shouldBe CompressionPolicy.DEFAULT
+            CompressionPolicy.DEFAULT.isEnabled shouldBe true
+        }
+
+        test("Positive: 'none' disables compression and the extension is not offered") {
+            val policy = CompressionPolicy.parse("none")
+
+            policy.isEnabled shouldBe false
+            (policy.drafts().single() as Draft_6455).knownExtensions.none { it is PerMessageDeflateExtension } shouldBe true
+        }
+
+        test("Positive: The threshold of the negotiated extension follows the role of the client") {
+            val policy = CompressionPolicy.DEFAULT
+
+            val observerDraft = negotiatedDraft(policy)
+            policy.applyTo(socketWith(observerDraft), ClientRole.OBSERVER) shouldBe true
+            observerDraft.extension.shouldBeInstanceOf<PerMessageDeflateExtension>().threshold shouldBe
+                    CompressionPolicy.COMPRESSION_THRESHOLD
+
+            val botDraft = negotiatedDraft(policy)
+            policy.applyTo(socketWith(botDraft), ClientRole.BOT) shouldBe false
+            botDraft.extension.shouldBeInstanceOf<PerMessageDeflateExtension>().threshold shouldBe Int.MAX_VALUE
+        }
+
+        test("Positive: Only messages reaching the threshold are compressed") {
+            val extension = negotiatedDraft(CompressionPolicy.DEFAULT).extension as PerMessageDeflateExtension
+
+            fun encode(size: Int) = TextFrame().apply {
+                setPayload(ByteBuffer.wrap(ByteArray(size) { 'a'.code.toByte() }))
+                extension.encodeFrame(this)
+            }
+
+            encode(CompressionPolicy.COMPRESSION_THRESHOLD - 1).isRSV1 shouldBe false
+            encode(CompressionPolicy.COMPRESSION_THRESHOLD).isRSV1 shouldBe true
+        }
+
+        test("Negative: Clients not offering the extension are sent uncompressed messages") {
+            val draft = CompressionPolicy.DEFAULT.drafts().single().copyInstance() as Draft_6455
+
+            CompressionPolicy.DEFAULT.applyTo(socketWith(draft), ClientRole.OBSERVER) shouldBe false
+        }
+
+        test("Negative: Unknown roles are rejected") {
+            shouldThrow<IllegalArgumentException> { CompressionPolicy.parse("observer,spectator") }
+        }
+    }
+})
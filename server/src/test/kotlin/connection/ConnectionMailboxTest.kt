@@ -0,0 +1,158 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package connection
+
+import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
+import dev.robocode.tankroyale.server.connection.IConnectionListener
+import dev.robocode.tankroyale.server.connection.QueueDepth
+import dev.robocode.tankroyale.server.connection.SerialMailbox
+import dev.robocode.tankroyale.server.core.ServerSetup
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import org.java_websocket.handshake.ClientHandshake
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+
+class ConnectionMailboxTest : FunSpec({
+
+    context("TR-SRV-CON-002: Per-connection mailboxes").config(tags = setOf(Tag("TR-SRV-CON-002"))) {
+
+        fun createHandler() = ClientWebSocketsHandler(
+            setup = ServerSetup(setOf("classic")),
+            listener = mockk<IConnectionListener>(relaxed = true),
+            controllerSecrets = emptySet(),
+            botSecrets = emptySet(),
+            debugModeSupported = false,
+            breakpointModeSupported = false,
+            broadcastFunction = { _, _ -> },
+        )
+
+        /** Opens a socket recording the messages sent to it, where the server handshake is dropped */
+        fun openSocket(handler: ClientWebSocketsHandler, sent: MutableList<String>): WebSocket {
+            val socket = mockk<WebSocket>(relaxed = true)
+            every { socket.send(any<String>()) } answers { sent += firstArg<String>() }
+            handler.onOpen(socket, mockk<ClientHandshake>(relaxed = true))
+            verify(timeout = 1_000, exactly = 1) { socket.send(any<String>()) }
+            sent.clear()
+            return socket
+        }
+
+        test("Positive: Messages sent to a connection arrive in the order they were sent") {
+            val handler = createHandler()
+            try {
+                val sent = Collections.synchronizedList(mutableListOf<String>())
+                val socket = openSocket(handler, sent)
+
+                val messages = (1..1_000).map { "message $it" }
+                messages.forEach { handler.send(socket, it) }
+
+                verify(timeout = 5_000, exactly = 1) { socket.send("message 1000") }
+                sent shouldBe messages
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Positive: A slow connection does not hold up other connections") {
+            val handler = createHandler()
+            val release = CountDownLatch(1)
+            try {
+                val slowSocket = openSocket(handler, mutableListOf())
+                every { slowSocket.send(any<String>()) } answers { release.await(5, TimeUnit.SECONDS) }
+
+                val sent = Collections.synchronizedList(mutableListOf<String>())
+                val fastSocket = openSocket(handler, sent)
+
+                repeat(3) { handler.send(slowSocket, "slow") }
+                repeat(100) { handler.send(fastSocket, "fast $it") }
+
+                verify(timeout = 5_000, exactly = 1) { fastSocket.send("fast 99") }
+                handler.getQueueDepth(slowSocket) shouldBe QueueDepth(inbound = 0, outbound = 3)
+                handler.getQueueDepth(fastSocket) shouldBe QueueDepth(inbound = 0, outbound = 0)
+            } finally {
+                release.countDown()
+                handler.close()
+            }
+        }
+
+        test("Positive: Tasks of a mailbox never run concurrently") {
+            val executor = Executors.newFixedThreadPool(8)
+            try {
+                val mailbox = SerialMailbox(executor)
+                val running = AtomicInteger()
+                val maxRunning = AtomicInteger()
+                val order = Collections.synchronizedList(mutableListOf<Int>())
+                val done = CountDownLatch(10_000)
+
+                repeat(10_000) { i ->
+                    mailbox.submit {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), ::maxOf)
+                        order += i
+                        running.decrementAndGet()
+                        done.countDown()
+                    }
+                }
+
+                done.await(10, TimeUnit.SECONDS) shouldBe true
+                maxRunning.get() shouldBe 1
+                order shouldBe (0 until 10_000).toList()
+            } finally {
+                executor.shutdownNow()
+            }
+        }
+
+        test("Positive: A mailbox waiting for a gate holds its tasks without occupying a thread") {
+            val executor = Executors.newSingleThreadExecutor()
+            try {
+                val waitingMailbox = SerialMailbox(executor)
+                val otherMailbox = SerialMailbox(executor)
+                val order = Collections.synchronizedList(mutableListOf<String>())
+                val isOpen = AtomicBoolean()
+                val onOpen = AtomicReference<Runnable>()
+                val done = CountDownLatch(1)
+
+                waitingMailbox.submit({ onOpen.set(it); isOpen.get() }) { order += "gated" }
+                waitingMailbox.submit { order += "after gate"; done.countDown() }
+
+                val otherDone = CountDownLatch(1)
+                otherMailbox.submit { otherDone.countDown() }
+                otherDone.await(5, TimeUnit.SECONDS) shouldBe true
+
+                order shouldBe emptyList()
+                waitingMailbox.queueDepth shouldBe 2
+
+                isOpen.set(true)
+                onOpen.get().run()
+
+                done.await(5, TimeUnit.SECONDS) shouldBe true
+                order shouldBe listOf("gated", "after gate")
+            } finally {
+                executor.shutdownNow()
+            }
+        }
+
+        test("Negative: Messages for connections that are not open are dropped") {
+            val handler = createHandler()
+            try {
+                val socket = mockk<WebSocket>(relaxed = true)
+
+                handler.send(socket, "message")
+
+                handler.getQueueDepth(socket) shouldBe null
+                verify(timeout = 200, exactly = 0) { socket.send(any<String>()) }
+            } finally {
+                handler.close()
+            }
+        }
+    }
+})
@@ -0,0 +1,76 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonParseException
+import com.google.gson.JsonSyntaxException
+import dev.robocode.tankroyale.schema.*
+import dev.robocode.tankroyale.server.connection.MessageDecoder
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+
+class MessageDecoderTest : FunSpec({
+
+    context("TR-SRV-CON-003: Single-pass message decoding").config(tags = setOf(Tag("TR-SRV-CON-003"))) {
+
+        val gson = Gson()
+        val decoder = MessageDecoder(gson)
+
+        // Bot APIs serializing with Gson put the type of the message last
+        val intentMessage = """
+            {"turnRate":-4.5,"gunTurnRate":20.0,"radarTurnRate":45.0,"targetSpeed":8.0,"firepower":1.5,
+            "adjustGunForBodyTurn":true,"rescan":false,"bodyColor":"#FF0000",
+            "teamMessages":[{"message":"{\"x\":100,\"y\":\"type\"}","messageType":"Point","receiverId":2}],
+            "debugGraphics":"<svg type=\"x\"></svg>","type":"BotIntent"}
+        """.trimIndent()
+
+        test("Positive: Messages are decoded as the class of their type wherever the type is, ignoring nested types") {
+            decoder.decode(intentMessage).shouldBeInstanceOf<BotIntent>().apply {
+                targetSpeed shouldBe 8.0
+                teamMessages.single().receiverId shouldBe 2
+            }
+            decoder.decode("""{"type":"BotReady","sessionId":"abc"}""").shouldBeInstanceOf<BotReady>()
+            decoder.decode("""{"nested":{"type":"Other"},"list":[{"type":"Other"}],"type":"StopGame"}""")
+                .type shouldBe Message.Type.STOP_GAME
+        }
+
+        test("Positive: Decoding gives the same message as decoding with Gson") {
+            mapOf(
+                intentMessage to BotIntent::class.java,
+                """{"sessionId":"abc","name":"Bot","version":"1.0","authors":["A"],"isDroid":true,""" +
+                    """"initialPosition":{"x":10.5,"y":20,"direction":90},"type":"BotHandshake"}""" to
+                    BotHandshake::class.java,
+                """{"type":"ObserverHandshake","sessionId":"abc","name":"Observer","version":"1.0",""" +
+                    """"deltaTicks":true}""" to ObserverHandshake::class.java,
+                """{"gameSetup":{"gameType":"classic","arenaWidth":800,"arenaHeight":600,"numberOfRounds":10},""" +
+                    """"botAddresses":[{"host":"localhost","port":50000}],"type":"StartGame"}""" to
+                    StartGame::class.java,
+                """{"tps":30,"type":"ChangeTps"}""" to ChangeTps::class.java,
+            ).forEach { (message, messageClass) ->
+                decoder.decode(message) shouldBe gson.fromJson(message, messageClass)
+            }
+        }
+
+        test("Negative: Messages without a type or with a type that is not a value are rejected") {
+            listOf(
+                """{"turnRate":1.0}""",
+                """{}""",
+                """{"type":null}""",
+                """{"type":{"value":"BotIntent"}}""",
+                """{"type":"NotAMessageType"}""",
+            ).forEach { message ->
+                shouldThrow<JsonParseException> { decoder.decode(message) }
+            }
+        }
+
+        test("Negative: Messages that are not JSON objects are rejected") {
+            shouldThrow<JsonSyntaxException> { decoder.decode("""["BotIntent"]""") }
+            shouldThrow<JsonSyntaxException> { decoder.decode("""{"type":"BotIntent""") }
+            shouldThrow<JsonSyntaxException> { decoder.decode("") }
+        }
+    }
+})
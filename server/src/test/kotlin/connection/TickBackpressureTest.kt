@@ -0,0 +1,214 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package connection
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotHandshake
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.ServerHandshake
+import dev.robocode.tankroyale.server.connection.BackpressurePolicy
+import dev.robocode.tankroyale.server.connection.ClientRole
+import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
+import dev.robocode.tankroyale.server.connection.IConnectionListener
+import dev.robocode.tankroyale.server.core.ServerSetup
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import org.java_websocket.handshake.ClientHandshake
+import java.util.Collections
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.time.Duration.Companion.seconds
+
+class TickBackpressureTest : FunSpec({
+
+    context("TR-SRV-CON-005: Slow-consumer backpressure").config(tags = setOf(Tag("TR-SRV-CON-005"))) {
+
+        val gson = Gson()
+
+        fun createHandler(policy: BackpressurePolicy = BackpressurePolicy(setOf(ClientRole.BOT))) = ClientWebSocketsHandler(
+            setup = ServerSetup(setOf("classic"), backpressurePolicy = policy),
+            listener = mockk<IConnectionListener>(relaxed = true),
+            controllerSecrets = emptySet(),
+            botSecrets = emptySet(),
+            debugModeSupported = false,
+            breakpointModeSupported = false,
+            broadcastFunction = { _, _ -> },
+        )
+
+        /** Client connection where frames stay buffered until [catchUp] is called */
+        class SlowClient(private val handler: ClientWebSocketsHandler, joinAsBot: Boolean = true) {
+            val isBehind = AtomicBoolean(true)
+            val sent: MutableList<String> = Collections.synchronizedList(mutableListOf())
+            private val unwrittenFrames = AtomicInteger()
+            val socket = mockk<WebSocket>(relaxed = true).also { socket ->
+                every { socket.isOpen } returns true
+                every { socket.hasBufferedData() } answers { isBehind.get() }
+                every { socket.send(any<String>()) } answers {
+                    sent += firstArg<String>()
+                    unwrittenFrames.incrementAndGet()
+                }
+            }
+
+            init {
+                handler.onOpen(socket, mockk<ClientHandshake>(relaxed = true))
+                verify(timeout = 1_000, exactly = 1) { socket.send(any<String>()) }
+                val serverHandshake = gson.fromJson(sent.single(), ServerHandshake::class.java)
+                sent.clear()
+
+                if (joinAsBot) {
+                    handler.onMessage(socket, gson.toJson(BotHandshake().apply {
+                        type = Message.Type.BOT_HANDSHAKE
+                        sessionId = serverHandshake.sessionId
+                        name = "SlowBot"
+                        version = "1.0"
+                    }))
+                }
+            }
+
+            /** Writes one buffered frame, which the network thread signals to the handler */
+            fun writeFrame() {
+                unwrittenFrames.decrementAndGet()
+                handler.onFrameWritten(socket)
+            }
+
+            /** Writes the buffered frames, which the network thread signals to the handler */
+            fun catchUp() {
+                isBehind.set(false)
+                repeat(unwrittenFrames.getAndSet(0)) { handler.onFrameWritten(socket) }
+            }
+        }
+
+        suspend fun awaitBot(handler: ClientWebSocketsHandler, client: SlowClient) {
+            eventually(1.seconds) { handler.getBotSockets().contains(client.socket) shouldBe true }
+        }
+
+        test("Positive: A slow bot gets the newest tick instead of the ticks it could not keep up with") {
+            val handler = createHandler()
+            try {
+                val client = SlowClient(handler)
+                awaitBot(handler, client)
+
+                (1..100).forEach { handler.sendTick(client.socket, "tick $it") }
+                eventually(1.seconds) { handler.getCoalescedTicks(client.socket) shouldBe 99L }
+                client.sent shouldBe emptyList()
+
+                client.catchUp()
+
+                eventually(1.seconds) { client.sent shouldBe listOf("tick 100") }
+                handler.getTotalCoalescedTicks() shouldBe 99L
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Positive: Lifecycle messages are never dropped and never overtaken by a later tick") {
+            val handler = createHandler()
+            try {
+                val client = SlowClient(handler)
+                awaitBot(handler, client)
+
+                handler.sendTick(client.socket, "tick 1")
+                handler.send(client.socket, "round ended")
+                handler.sendTick(client.socket, "tick 2")
+                handler.sendTick(client.socket, "tick 3")
+                handler.send(client.socket, "game ended")
+
+                client.catchUp()
+
+                eventually(1.seconds) { client.sent shouldBe listOf("tick 1", "round ended", "tick 3", "game ended") }
+                handler.getCoalescedTicks(client.socket) shouldBe 1L
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Positive: A delta tick replacing an unsent tick is sent as the full tick") {
+            val handler = createHandler()
+            try {
+                val client = SlowClient(handler)
+                awaitBot(handler, client)
+
+                handler.sendTick(client.socket, "delta 1", "full 1")
+                handler.sendTick(client.socket, "delta 2", "full 2")
+                handler.sendTick(client.socket, "delta 3", "full 3")
+
+                client.catchUp()
+
+                eventually(1.seconds) { client.sent shouldBe listOf("full 3") }
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: A tick waits until every frame sent before it has been written") {
+            val handler = createHandler()
+            try {
+                val client = SlowClient(handler)
+                awaitBot(handler, client)
+                client.catchUp()
+                client.isBehind.set(true)
+
+                handler.send(client.socket, "round started")
+                handler.send(client.socket, "round ended")
+                handler.sendTick(client.socket, "tick 1")
+                eventually(1.seconds) { client.sent shouldBe listOf("round started", "round ended") }
+
+                client.writeFrame()
+                verify(timeout = 200, exactly = 0) { client.socket.send("tick 1") }
+
+                client.writeFrame()
+                eventually(1.seconds) { client.sent shouldBe listOf("round started", "round ended", "tick 1") }
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: Ticks are queued for roles not coalesced by the policy") {
+            val handler = createHandler(BackpressurePolicy(setOf(ClientRole.OBSERVER)))
+            try {
+                val client = SlowClient(handler)
+                awaitBot(handler, client)
+
+                (1..10).forEach { handler.sendTick(client.socket, "tick $it") }
+
+                eventually(1.seconds) { client.sent shouldBe (1..10).map { "tick $it" } }
+                handler.getCoalescedTicks(client.socket) shouldBe 0L
+                handler.isTickCoalesced(client.socket) shouldBe false
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: Ticks are queued for clients that have not sent their handshake") {
+            val handler = createHandler()
+            try {
+                val client = SlowClient(handler, joinAsBot = false)
+
+                (1..10).forEach { handler.sendTick(client.socket, "tick $it") }
+
+                eventually(1.seconds) { client.sent shouldBe (1..10).map { "tick $it" } }
+                handler.isTickCoalesced(client.socket) shouldBe false
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: Ticks are not coalesced for controllers by default") {
+            BackpressurePolicy.DEFAULT.isCoalesced(ClientRole.OBSERVER) shouldBe true
+            BackpressurePolicy.DEFAULT.isCoalesced(ClientRole.BOT) shouldBe true
+            BackpressurePolicy.DEFAULT.isCoalesced(ClientRole.CONTROLLER) shouldBe false
+        }
+
+        test("Negative: Unknown roles are rejected") {
+            BackpressurePolicy.parse("none") shouldBe BackpressurePolicy(emptySet())
+            shouldThrow<IllegalArgumentException> { BackpressurePolicy.parse("bot,gui") }
+        }
+    }
+})
@@ -0,0 +1,171 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package connection
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotStateWithId
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.ObserverHandshake
+import dev.robocode.tankroyale.schema.ObserverSubscription
+import dev.robocode.tankroyale.schema.ServerHandshake
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
+import dev.robocode.tankroyale.server.connection.IConnectionListener
+import dev.robocode.tankroyale.server.connection.TickSubscription
+import dev.robocode.tankroyale.server.core.ServerSetup
+import dev.robocode.tankroyale.server.mapper.BinaryTickCodec
+import dev.robocode.tankroyale.server.mapper.SchemaJsonCodec
+import dev.robocode.tankroyale.server.mapper.TickField
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import org.java_websocket.handshake.ClientHandshake
+import java.nio.ByteBuffer
+import kotlin.time.Duration.Companion.seconds
+
+class TickSubscriptionTest : FunSpec({
+
+    context("TR-SRV-CON-006: Observer subscriptions").config(tags = setOf(Tag("TR-SRV-CON-006"))) {
+
+        val gson = Gson()
+
+        fun tick() = TickEventForObserver().apply {
+            type = Message.Type.TICK_EVENT_FOR_OBSERVER
+            roundNumber = 1
+            turnNumber = 7
+            botStates = (1..3).map { botId ->
+                BotStateWithId().apply {
+                    id = botId
+                    name = "Bot $botId"
+                    energy = 100.0
+                    x = 100.0 * botId
+                    y = 50.0
+                    direction = 90.0
+                    gunDirection = 45.0
+                    radarDirection = 0.0
+                    radarSweep = 45.0
+                    speed = 8.0
+                    turnRate = 0.0
+                    gunTurnRate = 0.0
+                    radarTurnRate = 45.0
+                    gunHeat = 0.1
+                    enemyCount = 2
+                    stdOut = "out $botId"
+                    stdErr = "err $botId"
+                    debugGraphics = "<svg id=\"$botId\"/>"
+                }
+            }
+        }
+
+        /** Copy of a tick event where the given fields have been cleared the slow way, for comparison */
+        fun masked(tick: TickEventForObserver, excludedFields: Set<TickField>) =
+            gson.fromJson(gson.toJson(tick), TickEventForObserver::class.java).apply {
+                botStates.forEach {
+                    if (TickField.STD_OUT in excludedFields) it.stdOut = null
+                    if (TickField.STD_ERR in excludedFields) it.stdErr = null
+                    if (TickField.DEBUG_GRAPHICS in excludedFields) it.debugGraphics = null
+                }
+            }
+
+        test("Positive: Every Nth tick and the first tick of a round are included") {
+            val subscription = TickSubscription(tickInterval = 5)
+
+            (1..20).filter(subscription::isTickIncluded) shouldBe listOf(1, 5, 10, 15, 20)
+            (1..20).all(TickSubscription.ALL::isTickIncluded) shouldBe true
+        }
+
+        test("Positive: Results-only observers get no ticks") {
+            (1..20).none(TickSubscription(resultsOnly = true)::isTickIncluded) shouldBe true
+        }
+
+        test("Positive: Subscriptions from the handshake are mapped, where unknown fields are ignored") {
+            TickSubscription.from(null) shouldBe TickSubscription.ALL
+            TickSubscription.from(ObserverSubscription().apply {
+                tickInterval = 10
+                excludedFields = listOf("debugGraphics", "stdOut", "energy")
+            }) shouldBe TickSubscription(10, false, setOf(TickField.DEBUG_GRAPHICS, TickField.STD_OUT))
+        }
+
+        test("Positive: Excluded fields are left out of JSON ticks the same way as clearing them") {
+            val codec = SchemaJsonCodec(gson)
+            val tick = tick()
+            listOf(
+                emptySet(),
+                setOf(TickField.DEBUG_GRAPHICS),
+                setOf(TickField.STD_OUT, TickField.STD_ERR),
+                TickField.entries.toSet(),
+            ).forEach { excludedFields ->
+                codec.toJson(tick, excludedFields) shouldBe gson.toJson(masked(tick, excludedFields))
+            }
+            codec.toJson(tick, emptySet()) shouldBe gson.toJson(tick)
+        }
+
+        test("Positive: Excluded fields are left out of binary ticks") {
+            val tick = tick()
+            val excludedFields = setOf(TickField.DEBUG_GRAPHICS)
+
+            val decoded = BinaryTickCodec.decode(ByteBuffer.wrap(BinaryTickCodec.encode(tick, excludedFields)))
+
+            val botStates = decoded.shouldBeInstanceOf<TickEventForObserver>().botStates
+            botStates.map { it.debugGraphics } shouldBe listOf(null, null, null)
+            botStates.map { it.stdOut } shouldBe tick.botStates.map { it.stdOut }
+            botStates.map { it.stdErr } shouldBe tick.botStates.map { it.stdErr }
+        }
+
+        test("Positive: The subscription of an observer is kept, and delta ticks need all ticks and fields") {
+            val handler = ClientWebSocketsHandler(
+                setup = ServerSetup(setOf("classic")),
+                listener = mockk<IConnectionListener>(relaxed = true),
+                controllerSecrets = emptySet(),
+                botSecrets = emptySet(),
+                debugModeSupported = false,
+                breakpointModeSupported = false,
+                broadcastFunction = { _, _ -> },
+            )
+            try {
+                fun joinObserver(subscription: ObserverSubscription?): WebSocket {
+                    var sent: String? = null
+                    val socket = mockk<WebSocket>(relaxed = true)
+                    every { socket.send(any<String>()) } answers { sent = firstArg<String>() }
+                    handler.onOpen(socket, mockk<ClientHandshake>(relaxed = true))
+                    verify(timeout = 1_000, exactly = 1) { socket.send(any<String>()) }
+
+                    handler.onMessage(socket, gson.toJson(ObserverHandshake().apply {
+                        type = Message.Type.OBSERVER_HANDSHAKE
+                        sessionId = gson.fromJson(sent, ServerHandshake::class.java).sessionId
+                        name = "Observer"
+                        version = "1.0"
+                        deltaTicks = true
+                        this.subscription = subscription
+                    }))
+                    return socket
+                }
+
+                val dashboard = joinObserver(ObserverSubscription().apply { resultsOnly = true })
+                val viewer = joinObserver(null)
+
+                eventually(1.seconds) {
+                    handler.getObserverAndControllerSockets() shouldBe setOf(dashboard, viewer)
+                }
+                handler.getTickSubscription(dashboard) shouldBe TickSubscription(resultsOnly = true)
+                handler.isDeltaTicks(dashboard) shouldBe false
+                handler.getTickSubscription(viewer) shouldBe TickSubscription.ALL
+                handler.isDeltaTicks(viewer) shouldBe true
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: A tick interval below 1 is rejected") {
+            shouldThrow<IllegalArgumentException> { TickSubscription(tickInterval = 0) }
+            TickSubscription.from(ObserverSubscription().apply { tickInterval = 0 }) shouldBe TickSubscription.ALL
+        }
+    }
+})
@@ -0,0 +1,87 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import dev.robocode.tankroyale.server.core.BotInitializer
+import dev.robocode.tankroyale.server.model.*
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_DIAMETER
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.maps.shouldHaveSize
+import io.kotest.matchers.shouldBe
+
+class BotInitializerTest : FunSpec({
+
+    context("TR-SRV-PLN-006: Scalable bot placement").config(tags = setOf(Tag("TR-SRV-PLN-006"))) {
+
+        fun placeBots(arenaSize: Int, botCount: Int): Map<BotId, MutableBot> {
+            val setup = GameSetup(
+                arenaWidth = arenaSize, arenaHeight = arenaSize, maxNumberOfParticipants = botCount,
+                isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+                isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+                isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+            )
+            val participantIds = (1..botCount).map { ParticipantId(BotId(it), TeamId(it % 100)) }.toSet()
+            val initializer = BotInitializer(setup, participantIds, emptyMap(), emptyMap(), false)
+
+            val botsMap = mutableMapOf<BotId, MutableBot>()
+            initializer.initializeBotStates(botsMap, MutableTurn(0))
+            return botsMap
+        }
+
+        /** Returns the pairs of bots that overlap or the bots that are not fully inside the arena */
+        fun findMisplacedBots(botsMap: Map<BotId, MutableBot>, arenaSize: Int): List<String> {
+            val bots = botsMap.values.sortedBy { it.x }
+            val misplaced = mutableListOf<String>()
+            for (i in bots.indices) {
+                val bot = bots[i]
+                if (bot.x < BOT_BOUNDING_CIRCLE_RADIUS || bot.x > arenaSize - BOT_BOUNDING_CIRCLE_RADIUS ||
+                    bot.y < BOT_BOUNDING_CIRCLE_RADIUS || bot.y > arenaSize - BOT_BOUNDING_CIRCLE_RADIUS
+                ) {
+                    misplaced += "${bot.id} outside arena"
+                }
+                var j = i + 1
+                while (j < bots.size && bots[j].x - bot.x < BOT_BOUNDING_CIRCLE_DIAMETER) {
+                    val dx = bots[j].x - bot.x
+                    val dy = bots[j].y - bot.y
+                    if (dx * dx + dy * dy < BOT_BOUNDING_CIRCLE_DIAMETER * BOT_BOUNDING_CIRCLE_DIAMETER) {
+                        misplaced += "${bot.id} overlaps ${bots[j].id}"
+                    }
+                    j++
+                }
+            }
+            return misplaced
+        }
+
+        test("Positive: Thousands of bots are placed without overlapping") {
+            val botsMap = placeBots(arenaSize = 5000, botCount = 5000)
+
+            botsMap shouldHaveSize 5000
+            findMisplacedBots(botsMap, 5000).shouldBeEmpty()
+        }
+
+        test("Positive: Bots denser than one per 50 x 50 pixels are placed without overlapping") {
+            // 30 x 30 cells of 50 pixels do not suffice for 1200 bots
+            val botsMap = placeBots(arenaSize = 1500, botCount = 1200)
+
+            botsMap shouldHaveSize 1200
+            findMisplacedBots(botsMap, 1500).shouldBeEmpty()
+        }
+
+        test("Positive: Teammates are assigned to each bot") {
+            val botsMap = placeBots(arenaSize = 1000, botCount = 300)
+
+            botsMap.getValue(BotId(1)).teammateIds shouldBe setOf(BotId(101), BotId(201))
+        }
+
+        test("Negative: Arena too small to contain the bots without overlapping") {
+            // 10 x 10 cells of the bot diameter do not suffice for 101 bots
+            shouldThrow<IllegalArgumentException> {
+                placeBots(arenaSize = 10 * BOT_BOUNDING_CIRCLE_DIAMETER, botCount = 101)
+            }
+        }
+    }
+})
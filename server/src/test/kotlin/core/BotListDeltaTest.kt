@@ -0,0 +1,207 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotHandshake
+import dev.robocode.tankroyale.schema.BotJoined
+import dev.robocode.tankroyale.schema.BotLeft
+import dev.robocode.tankroyale.schema.BotListUpdate
+import dev.robocode.tankroyale.schema.ControllerHandshake
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.ObserverHandshake
+import dev.robocode.tankroyale.schema.ServerHandshake
+import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
+import dev.robocode.tankroyale.server.connection.ConnectionHandler
+import dev.robocode.tankroyale.server.connection.IConnectionListener
+import dev.robocode.tankroyale.server.core.MessageBroadcaster
+import dev.robocode.tankroyale.server.core.ServerSetup
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import org.java_websocket.handshake.ClientHandshake
+import java.net.InetSocketAddress
+import kotlin.time.Duration.Companion.seconds
+
+class BotListDeltaTest : FunSpec({
+
+    context("TR-SRV-CON-007: Bot list deltas").config(tags = setOf(Tag("TR-SRV-CON-007"))) {
+
+        val gson = Gson()
+
+        /** Bot list broadcast with the complete bot list and the deltas */
+        data class Broadcast(val full: BotListUpdate, val deltas: List<Message>)
+
+        /** Connection handler with bots that can join and leave, which records the bot list broadcasts */
+        class Bots {
+            val sockets = mutableSetOf<WebSocket>()
+            val handshakes = mutableMapOf<WebSocket, BotHandshake>()
+            val broadcasts = mutableListOf<Broadcast>()
+            val connectionHandler = mockk<ConnectionHandler>(relaxed = true).also { handler ->
+                every { handler.mapToBotSockets() } answers { sockets.toSet() }
+                every { handler.getBotHandshakes() } answers { handshakes.toMap() }
+                every { handler.broadcastBotListToObserverAndControllers(any(), any()) } answers {
+                    broadcasts += Broadcast(
+                        gson.fromJson(firstArg<() -> String>()(), BotListUpdate::class.java),
+                        secondArg<List<String>>().map { json ->
+                            when (gson.fromJson(json, Message::class.java).type) {
+                                Message.Type.BOT_JOINED -> gson.fromJson(json, BotJoined::class.java)
+                                else -> gson.fromJson(json, BotLeft::class.java)
+                            }
+                        }
+                    )
+                }
+            }
+
+            fun join(port: Int): WebSocket = mockk<WebSocket>().also { socket ->
+                every { socket.remoteSocketAddress } returns InetSocketAddress("localhost", port)
+                sockets += socket
+                handshakes[socket] = BotHandshake().apply {
+                    type = Message.Type.BOT_HANDSHAKE
+                    name = "Bot $port"
+                    version = "1.0"
+                }
+            }
+
+            fun leave(socket: WebSocket) {
+                sockets -= socket
+                handshakes -= socket
+            }
+        }
+
+        test("Positive: Only the bots joining or leaving are broadcast as deltas") {
+            val bots = Bots()
+            val broadcaster = MessageBroadcaster(bots.connectionHandler, gson)
+
+            val bot1 = bots.join(5001)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+
+            bots.join(5002)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+
+            bots.leave(bot1)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+
+            bots.broadcasts.map { broadcast ->
+                broadcast.deltas.map { delta ->
+                    when (delta) {
+                        is BotJoined -> "joined ${delta.bot.port}"
+                        is BotLeft -> "left ${delta.bot.port}"
+                        else -> delta.type.value()
+                    }
+                }
+            } shouldBe listOf(listOf("joined 5001"), listOf("joined 5002"), listOf("left 5001"))
+        }
+
+        test("Positive: The complete bot list is kept up to date for clients not selecting deltas") {
+            val bots = Bots()
+            val broadcaster = MessageBroadcaster(bots.connectionHandler, gson)
+
+            val bot1 = bots.join(5001)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+            bots.join(5002)
+            bots.join(5003)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+            bots.leave(bot1)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+
+            bots.broadcasts.map { broadcast -> broadcast.full.bots.map { it.port } } shouldBe
+                listOf(listOf(5001), listOf(5001, 5002, 5003), listOf(5002, 5003))
+
+            val client = mockk<WebSocket>()
+            broadcaster.sendBotListUpdate(client)
+            verify {
+                bots.connectionHandler.send(client, match {
+                    gson.fromJson(it, BotListUpdate::class.java).bots.map { bot -> bot.port } == listOf(5002, 5003)
+                })
+            }
+        }
+
+        test("Positive: Observers and controllers selecting bot list deltas in their handshake are known") {
+            val handler = ClientWebSocketsHandler(
+                setup = ServerSetup(setOf("classic")),
+                listener = mockk<IConnectionListener>(relaxed = true),
+                controllerSecrets = emptySet(),
+                botSecrets = emptySet(),
+                debugModeSupported = false,
+                breakpointModeSupported = false,
+                broadcastFunction = { _, _ -> },
+            )
+            try {
+                fun join(handshake: (sessionId: String) -> Message): WebSocket {
+                    var sent: String? = null
+                    val socket = mockk<WebSocket>(relaxed = true)
+                    every { socket.send(any<String>()) } answers { sent = firstArg<String>() }
+                    handler.onOpen(socket, mockk<ClientHandshake>(relaxed = true))
+                    verify(timeout = 1_000, exactly = 1) { socket.send(any<String>()) }
+
+                    val serverHandshake = gson.fromJson(sent, ServerHandshake::class.java)
+                    serverHandshake.features.botListDeltas shouldBe true
+
+                    handler.onMessage(socket, gson.toJson(handshake(serverHandshake.sessionId)))
+                    return socket
+                }
+
+                val observer = join { id ->
+                    ObserverHandshake().apply {
+                        type = Message.Type.OBSERVER_HANDSHAKE
+                        sessionId = id
+                        name = "Observer"
+                        version = "1.0"
+                        botListDeltas = true
+                    }
+                }
+                val controller = join { id ->
+                    ControllerHandshake().apply {
+                        type = Message.Type.CONTROLLER_HANDSHAKE
+                        sessionId = id
+                        name = "Controller"
+                        version = "1.0"
+                        botListDeltas = true
+                    }
+                }
+                val legacyObserver = join { id ->
+                    ObserverHandshake().apply {
+                        type = Message.Type.OBSERVER_HANDSHAKE
+                        sessionId = id
+                        name = "Legacy observer"
+                        version = "1.0"
+                    }
+                }
+
+                eventually(1.seconds) {
+                    handler.getObserverAndControllerSockets() shouldBe setOf(observer, controller, legacyObserver)
+                }
+                handler.isBotListDeltas(observer) shouldBe true
+                handler.isBotListDeltas(controller) shouldBe true
+                handler.isBotListDeltas(legacyObserver) shouldBe false
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: Nothing is broadcast as delta when the bot list is unchanged") {
+            val bots = Bots()
+            val broadcaster = MessageBroadcaster(bots.connectionHandler, gson)
+
+            bots.join(5001)
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+            broadcaster.updateBotListUpdateMessage()
+            broadcaster.broadcastBotListUpdate()
+
+            bots.broadcasts.map { it.deltas.size } shouldBe listOf(1, 0)
+        }
+    }
+})
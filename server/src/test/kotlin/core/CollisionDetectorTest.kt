@@ -3,6 +3,7 @@
 package core
 
 import dev.robocode.tankroyale.server.core.CollisionDetector
+import dev.robocode.tankroyale.server.core.PrecomputedBulletPhase
 import dev.robocode.tankroyale.server.model.*
 import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
 import io.kotest.core.spec.style.FunSpec
@@ -230,4 +231,144 @@ class CollisionDetectorTest : FunSpec({
             result.outcomes.shouldBeEmpty()
         }
     }
+
+    context("TR-SRV-PHY-006: Broad phase for bullet hits").config(tags = setOf(Tag("TR-SRV-PHY-006"))) {
+
+        test("Positive: Grid broad phase reports the same hits in the same order as the exhaustive path") {
+            val random = java.util.Random(42)
+            val botIds = (1..40).map { BotId(it) }
+            val manyParticipantIds = botIds.map { ParticipantId(it) }.toSet()
+
+            val gridDetector = CollisionDetector(setup, manyParticipantIds, isBroadPhaseEnabled = true)
+            val exhaustiveDetector = CollisionDetector(setup, manyParticipantIds, isBroadPhaseEnabled = false)
+
+            repeat(20) {
+                val bots = botIds.map {
+                    MutableBot(
+                        it, position = Point(random.nextDouble() * 1000, random.nextDouble() * 1000),
+                        direction = 0.0, gunDirection = 0.0, radarDirection = 0.0
+                    )
+                }
+                // Dense clusters of bullets around a few hot spots to get plenty of hits of both kinds
+                val bullets = (1..300).map { i ->
+                    val hotSpot = bots[random.nextInt(5)].position
+                    Bullet(
+                        id = BulletId(i), botId = botIds[random.nextInt(botIds.size)],
+                        power = 0.1 + random.nextDouble() * 2.9, direction = random.nextDouble() * 360, color = null,
+                        startPosition = Point(
+                            hotSpot.x + (random.nextDouble() - 0.5) * 120,
+                            hotSpot.y + (random.nextDouble() - 0.5) * 120
+                        ),
+                        tick = random.nextInt(3)
+                    )
+                }
+
+                val gridBullets = bullets.toMutableSet()
+                val gridBots = bots.associate { it.id to it.copy() }
+                val exhaustiveBullets = bullets.toMutableSet()
+                val exhaustiveBots = bots.associate { it.id to it.copy() }
+
+                val gridResult = gridDetector.checkAndHandleBulletHits(gridBullets, gridBots, MutableTurn(1))
+                val exhaustiveResult =
+                    exhaustiveDetector.checkAndHandleBulletHits(exhaustiveBullets, exhaustiveBots, MutableTurn(1))
+
+                gridResult shouldBe exhaustiveResult
+                gridBullets shouldBe exhaustiveBullets
+                gridBots.values.map { it.energy } shouldBe exhaustiveBots.values.map { it.energy }
+            }
+        }
+
+        test("Positive: Bullets outside the arena are still matched against each other") {
+            val b1 = Bullet(
+                id = BulletId(1), botId = botId1, power = 1.0, direction = 0.0, color = null,
+                startPosition = Point(-20.0, -10.0), tick = 0
+            )
+            val b2 = Bullet(
+                id = BulletId(2), botId = botId2, power = 1.0, direction = 180.0, color = null,
+                startPosition = Point(-10.0, -10.0), tick = 0
+            )
+
+            val bullets = mutableSetOf(b1, b2)
+            val result = detector.checkAndHandleBulletHits(bullets, emptyMap(), MutableTurn(1))
+
+            result.hitResults.bulletHitBullets shouldHaveSize 1
+        }
+
+        test("Negative: Bullets and bots in distant grid cells are not reported as hits") {
+            val bot = MutableBot(botId2, position = Point(900.0, 900.0), direction = 0.0, gunDirection = 0.0, radarDirection = 0.0)
+            val b1 = Bullet(
+                id = BulletId(1), botId = botId1, power = 1.0, direction = 0.0, color = null,
+                startPosition = Point(100.0, 100.0), tick = 0
+            )
+            val b2 = Bullet(
+                id = BulletId(2), botId = botId1, power = 1.0, direction = 180.0, color = null,
+                startPosition = Point(160.0, 100.0), tick = 0
+            )
+
+            val bullets = mutableSetOf(b1, b2)
+            val result = detector.checkAndHandleBulletHits(bullets, mapOf(botId2 to bot), MutableTurn(1))
+
+            result.hitResults.bulletHitBullets.shouldBeEmpty()
+            result.hitResults.bulletHitBots.shouldBeEmpty()
+            bullets shouldHaveSize 2
+        }
+    }
+
+    context("TR-SRV-PHY-009: Precomputed bullet phase").config(tags = setOf(Tag("TR-SRV-PHY-009"))) {
+
+        val random = java.util.Random(9)
+
+        fun randomBullet(id: Int, tick: Int) = Bullet(
+            id = BulletId(id), botId = if (random.nextBoolean()) botId1 else botId2,
+            power = 0.1 + random.nextDouble() * 2.9, direction = random.nextDouble() * 360, color = null,
+            startPosition = Point(random.nextDouble() * 1000, random.nextDouble() * 1000),
+            tick = tick
+        )
+
+        /** Runs the bullet phase for bullets that have been advanced, and describes the outcome */
+        fun runBulletPhase(bullets: MutableSet<MutableBullet>, precomputed: PrecomputedBulletPhase?): String {
+            val turn = MutableTurn(1)
+            val wallHits = detector.checkAndHandleBulletWallCollisions(bullets, turn, precomputed)
+            val result = detector.checkAndHandleBulletHits(bullets, emptyMap(), turn, precomputed)
+            return "$wallHits;${result.hitResults};${bullets.map { it.id }}"
+        }
+
+        test("Positive: Precomputed results give the same bullet phase, also with bullets fired in the turn") {
+            repeat(20) {
+                // Bullets far into their flight, so that plenty of them hit a wall in the next turn
+                val inFlight = (1..200).map { randomBullet(it, tick = random.nextInt(50)) }
+                val fired = (201..240).map { randomBullet(it, tick = 0) }
+
+                val bullets = inFlight.map { MutableBullet(it) }.toMutableSet<MutableBullet>()
+                val expectedBullets = inFlight.map { MutableBullet(it) }.toMutableSet<MutableBullet>()
+
+                val precomputed = detector.precomputeBulletPhase(bullets)
+                listOf(bullets, expectedBullets).forEach { set ->
+                    set.forEach(MutableBullet::advance)
+                    fired.forEach { set += MutableBullet(it) }
+                }
+
+                runBulletPhase(bullets, precomputed) shouldBe runBulletPhase(expectedBullets, null)
+            }
+        }
+
+        test("Negative: Precomputed results are ignored when the bullets do not match") {
+            val inFlight = (1..100).map { randomBullet(it, tick = random.nextInt(50)) }
+
+            // Bullets that have not been advanced since precomputing
+            val notAdvanced = inFlight.map { MutableBullet(it) }.toMutableSet<MutableBullet>()
+            val precomputed = detector.precomputeBulletPhase(notAdvanced)
+            val expected = runBulletPhase(inFlight.map { MutableBullet(it) }.toMutableSet(), null)
+
+            runBulletPhase(notAdvanced, precomputed) shouldBe expected
+
+            // Other bullet instances at the same positions
+            val otherInstances = inFlight.map { MutableBullet(it) }.toMutableSet<MutableBullet>()
+            otherInstances.forEach(MutableBullet::advance)
+            val expectedAdvanced = inFlight.map { MutableBullet(it) }.toMutableSet<MutableBullet>()
+            expectedAdvanced.forEach(MutableBullet::advance)
+
+            runBulletPhase(otherInstances, precomputed) shouldBe runBulletPhase(expectedAdvanced, null)
+        }
+    }
 })
@@ -0,0 +1,386 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import com.google.gson.JsonParser
+import dev.robocode.tankroyale.schema.BotAddress
+import dev.robocode.tankroyale.schema.BotHandshake
+import dev.robocode.tankroyale.schema.CheckpointCreatedEvent
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.server.connection.ConnectionHandler
+import dev.robocode.tankroyale.server.core.GameCheckpoint
+import dev.robocode.tankroyale.server.core.GameLifecycleManager
+import dev.robocode.tankroyale.server.core.GameServer
+import dev.robocode.tankroyale.server.core.MessageBroadcaster
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.ParticipantRegistry
+import dev.robocode.tankroyale.server.core.ServerConfig
+import dev.robocode.tankroyale.server.core.ServerState
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.BotIntent
+import dev.robocode.tankroyale.server.model.GameSetup
+import dev.robocode.tankroyale.server.model.ParticipantId
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.ints.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import java.io.ByteArrayOutputStream
+import java.util.Base64
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+class GameCheckpointTest : FunSpec({
+
+    context("TR-SRV-LIF-005: Game checkpoints").config(tags = setOf(Tag("TR-SRV-LIF-005"))) {
+
+        val botIds = (1..4).map { BotId(it) }
+        val participantIds = botIds.map { ParticipantId(it) }.toSet()
+
+        // Small arena and few inactivity turns, so the bots hit the walls and each other, and rounds end early
+        val setup = GameSetup(
+            arenaWidth = 400,
+            arenaHeight = 400,
+            maxNumberOfParticipants = botIds.size,
+            numberOfRounds = 3,
+            maxInactivityTurns = 50,
+            isArenaWidthLocked = true,
+            isArenaHeightLocked = true,
+            isMinNumberOfParticipantsLocked = true,
+            isMaxNumberOfParticipantsLocked = true,
+            isNumberOfRoundsLocked = true,
+            isGunCoolingRateLocked = true,
+            isMaxInactivityTurnsLocked = true,
+            isTurnTimeoutLocked = true,
+            isReadyTimeoutLocked = true,
+        )
+
+        fun createModelUpdater(ids: Set<ParticipantId> = participantIds, gameSetup: GameSetup = setup) =
+            ModelUpdater(gameSetup, ids, emptyMap(), ids.associate { it.botId to false }, false)
+
+        /** Intents depending on the turn only, so the game and its forks get the same intents */
+        fun intents(turn: Int) = botIds.associateWith { botId ->
+            BotIntent(
+                targetSpeed = if ((turn / 25 + botId.value) % 2 == 0) 8.0 else -6.0,
+                turnRate = ((turn + 7 * botId.value) % 21 - 10).toDouble(),
+                gunTurnRate = if ((turn / 10) % 2 == 0) 20.0 else -20.0,
+                radarTurnRate = 45.0,
+                firepower = 1.0 + (turn + botId.value) % 3,
+            )
+        }
+
+        /** Takes the next turn, and returns the state of the turn and the results so far */
+        fun takeTurn(updater: ModelUpdater, turn: Int): Pair<String, Boolean> {
+            val snapshot = updater.update(intents(turn))
+            val round = requireNotNull(snapshot.lastRound)
+            val lastTurn = requireNotNull(round.lastTurn)
+            val bots = lastTurn.bots.sortedBy { it.id.value }.joinToString("|") {
+                "${it.id}:${it.energy},${it.x},${it.y},${it.direction},${it.gunDirection},${it.radarDirection}," +
+                        "${it.speed},${it.gunHeat}"
+            }
+            val bullets = lastTurn.bullets.sortedBy { it.id.value }.joinToString("|") {
+                "${it.id.value}:${it.botId},${it.position()}"
+            }
+            // Recycled turns keep empty event sets of bots, which are left out like bots without events
+            val events = lastTurn.botEvents.entries.filter { it.value.isNotEmpty() }.sortedBy { it.key.value }
+                .joinToString("|") { (botId, events) ->
+                    "$botId:${events.map { it::class.simpleName }.sortedBy { it }}"
+                }
+            val state = "round=${round.roundNumber};turn=${lastTurn.turnNumber};bots=$bots;bullets=$bullets;" +
+                    "events=$events;results=${updater.getResults()}"
+            return state to snapshot.isGameEnded
+        }
+
+        /** Plays the game until it ends, and returns the states of the turns */
+        fun playToEnd(updater: ModelUpdater, firstTurn: Int): List<String> {
+            val states = mutableListOf<String>()
+            var turn = firstTurn
+            do {
+                val (state, isGameEnded) = takeTurn(updater, turn++)
+                states += state
+            } while (!isGameEnded && turn < firstTurn + 10_000)
+            return states
+        }
+
+        fun createConnectionHandler(
+            vararg bots: WebSocket,
+            names: List<String> = bots.indices.map { "Bot${it + 1}" },
+            sessionIds: List<String?> = bots.map { null },
+        ) = mockk<ConnectionHandler>(relaxed = true).also {
+            every { it.mapToBotSockets(any()) } returns bots.toSet()
+            every { it.getBotHandshakes() } returns bots.withIndex().associate { (index, bot) ->
+                bot to BotHandshake().apply {
+                    sessionId = sessionIds[index]
+                    name = names[index]
+                    version = "1.0"
+                    gameTypes = listOf("classic")
+                }
+            }
+        }
+
+        fun createGameServer(
+            connectionHandler: ConnectionHandler,
+            lifecycleManager: GameLifecycleManager,
+            broadcaster: MessageBroadcaster = mockk(relaxed = true),
+            participantRegistry: ParticipantRegistry = ParticipantRegistry(connectionHandler),
+        ) = GameServer(
+            config = ServerConfig(
+                port = 7654,
+                gameTypes = setOf("classic"),
+                controllerSecrets = emptySet(),
+                botSecrets = emptySet(),
+                initialPositionEnabled = false,
+                tps = 30
+            ),
+            connectionHandler = connectionHandler,
+            participantRegistry = participantRegistry,
+            lifecycleManager = lifecycleManager,
+            broadcaster = broadcaster,
+            resultsBuilder = mockk(relaxed = true)
+        )
+
+        fun createSchemaGameSetup(arenaWidth: Int, arenaHeight: Int) =
+            dev.robocode.tankroyale.schema.GameSetup().apply {
+                gameType = "classic"
+                this.arenaWidth = arenaWidth
+                this.arenaHeight = arenaHeight
+                minNumberOfParticipants = 2
+                maxNumberOfParticipants = 10
+                numberOfRounds = 3
+                gunCoolingRate = 0.1
+                maxInactivityTurns = 450
+                turnTimeout = 30000
+                readyTimeout = 1000000
+                defaultTurnsPerSecond = 30
+                isArenaWidthLocked = false
+                isArenaHeightLocked = false
+                isMinNumberOfParticipantsLocked = false
+                isMaxNumberOfParticipantsLocked = false
+                isNumberOfRoundsLocked = false
+                isGunCoolingRateLocked = false
+                isMaxInactivityTurnsLocked = false
+                isTurnTimeoutLocked = false
+                isReadyTimeoutLocked = false
+            }
+
+        test("Positive: A game forked from a checkpoint continues exactly like the game") {
+            val game = createModelUpdater()
+            repeat(120) { takeTurn(game, it) }
+
+            val encoded = game.checkpoint().encode()
+            val statesOfGame = playToEnd(game, 120)
+
+            val fork = createModelUpdater()
+            fork.restore(GameCheckpoint.decode(encoded))
+            val statesOfFork = playToEnd(fork, 120)
+
+            // The game is played over several rounds, so the fork also starts new rounds the same way
+            statesOfGame.last().substringBefore(';') shouldBe "round=${setup.numberOfRounds}"
+            statesOfFork shouldBe statesOfGame
+            fork.numberOfRounds shouldBe game.numberOfRounds
+        }
+
+        test("Positive: Taking a checkpoint leaves the game untouched") {
+            val game = createModelUpdater()
+            repeat(50) { takeTurn(game, it) }
+
+            // Taking a checkpoint draws no random numbers, so the next checkpoint is the same
+            game.checkpoint().encode() shouldBe game.checkpoint().encode()
+        }
+
+        test("Positive: Forks from the same checkpoint are independent of each other") {
+            val game = createModelUpdater()
+            repeat(80) { takeTurn(game, it) }
+            val checkpoint = GameCheckpoint.decode(game.checkpoint().encode())
+            checkpoint.turnNumber shouldBeGreaterThan 0
+
+            val fork1 = createModelUpdater().apply { restore(checkpoint) }
+            val fork2 = createModelUpdater().apply { restore(checkpoint) }
+
+            // Playing one fork to the end leaves the checkpoint and the other fork untouched
+            val statesOfFork1 = playToEnd(fork1, 80)
+            val statesOfFork2 = playToEnd(fork2, 80)
+            statesOfFork2 shouldBe statesOfFork1
+        }
+
+        test("Positive: A controller gets a checkpoint of the running game, and a new game can be forked from it") {
+            val bot1 = mockk<WebSocket>()
+            val bot2 = mockk<WebSocket>()
+            val controller = mockk<WebSocket>()
+            val connectionHandler = createConnectionHandler(bot1, bot2)
+            val broadcaster = mockk<MessageBroadcaster>(relaxed = true)
+            val sent = slot<Message>()
+            every { broadcaster.send(controller, capture(sent)) } answers {}
+            val lifecycleManager = GameLifecycleManager()
+            val game = createGameServer(connectionHandler, lifecycleManager, broadcaster)
+            val forkLifecycleManager = GameLifecycleManager()
+            val fork = createGameServer(connectionHandler, forkLifecycleManager)
+            val gameSetup = createSchemaGameSetup(arenaWidth = 800, arenaHeight = 600)
+            val botAddresses = listOf(mockk<BotAddress>(), mockk<BotAddress>())
+            try {
+                // No checkpoint is taken when no game is running
+                game.handleCreateCheckpoint(controller)
+                verify(exactly = 0) { broadcaster.send(controller, any()) }
+
+                game.handleStartGame(gameSetup, botAddresses)
+                game.handleBotReady(bot1)
+                game.handleBotReady(bot2)
+                lifecycleManager.serverState shouldBe ServerState.GAME_RUNNING
+                game.handlePauseGame()
+                game.handleNextTurn()
+
+                game.handleCreateCheckpoint(controller)
+                val event = sent.captured.shouldBeInstanceOf<CheckpointCreatedEvent>()
+                event.type shouldBe Message.Type.CHECKPOINT_CREATED_EVENT
+                val checkpoint = GameCheckpoint.decode(event.checkpoint)
+                checkpoint.roundNumber shouldBe event.roundNumber
+                checkpoint.turnNumber shouldBe event.turnNumber
+                checkpoint.turnNumber shouldBeGreaterThan 0
+
+                fork.handleStartGame(gameSetup, botAddresses, checkpoint = checkpoint)
+                forkLifecycleManager.serverState shouldBe ServerState.WAIT_FOR_READY_PARTICIPANTS
+                checkpoint.bots.size shouldBe 2
+                checkpoint.bots.forEach { bot ->
+                    fork.modelUpdater?.getBot(bot.id)?.position shouldBe bot.position
+                }
+            } finally {
+                game.handleAbortGame()
+                fork.handleAbortGame()
+            }
+        }
+
+        /** Starts a game with two bots named Bot1 and Bot2, and returns a checkpoint taken after the first turn */
+        fun takeCheckpointOfRunningGame(): GameCheckpoint {
+            val bot1 = mockk<WebSocket>()
+            val bot2 = mockk<WebSocket>()
+            val controller = mockk<WebSocket>()
+            val broadcaster = mockk<MessageBroadcaster>(relaxed = true)
+            val sent = slot<Message>()
+            every { broadcaster.send(controller, capture(sent)) } answers {}
+            val lifecycleManager = GameLifecycleManager()
+            val connectionHandler = createConnectionHandler(bot1, bot2, sessionIds = listOf("session-1", "session-2"))
+            val game = createGameServer(connectionHandler, lifecycleManager, broadcaster)
+            try {
+                game.handleStartGame(createSchemaGameSetup(800, 600), listOf(mockk(), mockk()))
+                game.handleBotReady(bot1)
+                game.handleBotReady(bot2)
+                game.handlePauseGame()
+                game.handleNextTurn()
+                game.handleCreateCheckpoint(controller)
+                return GameCheckpoint.decode(sent.captured.shouldBeInstanceOf<CheckpointCreatedEvent>().checkpoint)
+            } finally {
+                game.handleAbortGame()
+            }
+        }
+
+        test("Positive: A forked game gives the bots the bot ids they have in the checkpoint") {
+            val checkpoint = takeCheckpointOfRunningGame()
+            checkpoint.participants.sortedBy { it.botId } shouldBe listOf(
+                GameCheckpoint.ParticipantRecord(1, "Bot1", "1.0"),
+                GameCheckpoint.ParticipantRecord(2, "Bot2", "1.0"),
+            )
+
+            // The session ids of the bots are in the opposite order of the game the checkpoint was taken from
+            val bot1 = mockk<WebSocket>()
+            val bot2 = mockk<WebSocket>()
+            val connectionHandler = createConnectionHandler(
+                bot2, bot1, names = listOf("Bot2", "Bot1"), sessionIds = listOf("session-a", "session-b")
+            )
+            val participantRegistry = ParticipantRegistry(connectionHandler)
+            val lifecycleManager = GameLifecycleManager()
+            val fork = createGameServer(connectionHandler, lifecycleManager, participantRegistry = participantRegistry)
+            try {
+                fork.handleStartGame(createSchemaGameSetup(800, 600), listOf(mockk(), mockk()), checkpoint = checkpoint)
+
+                lifecycleManager.serverState shouldBe ServerState.WAIT_FOR_READY_PARTICIPANTS
+                participantRegistry.participantIds[bot1] shouldBe BotId(1)
+                participantRegistry.participantIds[bot2] shouldBe BotId(2)
+            } finally {
+                fork.handleAbortGame()
+            }
+        }
+
+        test("Negative: Forking a game with other bots than in the checkpoint aborts the game") {
+            val checkpoint = takeCheckpointOfRunningGame()
+
+            val connectionHandler = createConnectionHandler(mockk(), mockk(), names = listOf("Bot1", "Other"))
+            val lifecycleManager = GameLifecycleManager()
+            val fork = createGameServer(connectionHandler, lifecycleManager)
+            fork.handleStartGame(createSchemaGameSetup(800, 600), listOf(mockk(), mockk()), checkpoint = checkpoint)
+
+            lifecycleManager.serverState shouldBe ServerState.GAME_STOPPED
+            fork.modelUpdater shouldBe null
+        }
+
+        test("Negative: A checkpoint for other participants or another arena size is rejected") {
+            val game = createModelUpdater()
+            repeat(10) { takeTurn(game, it) }
+            val checkpoint = game.checkpoint()
+
+            shouldThrow<IllegalArgumentException> {
+                createModelUpdater(ids = participantIds.drop(1).toSet()).restore(checkpoint)
+            }
+            shouldThrow<IllegalArgumentException> {
+                createModelUpdater(gameSetup = setup.copy(arenaWidth = 800)).restore(checkpoint)
+            }
+        }
+
+        test("Negative: A malformed checkpoint or a checkpoint of another version is rejected") {
+            shouldThrow<IllegalArgumentException> { GameCheckpoint.decode("not a checkpoint") }
+            shouldThrow<IllegalArgumentException> {
+                GameCheckpoint.decode(Base64.getEncoder().encodeToString("not gzipped".toByteArray()))
+            }
+
+            val checkpoint = createModelUpdater().apply { takeTurn(this, 0) }.checkpoint()
+            shouldThrow<IllegalArgumentException> {
+                GameCheckpoint.decode(checkpoint.copy(version = GameCheckpoint.VERSION + 1).encode())
+            }
+        }
+
+        test("Positive: A checkpoint is encoded with plain ids and coordinates instead of the model classes") {
+            val encoded = createModelUpdater().apply { takeTurn(this, 0) }.checkpoint().encode()
+            val json = GZIPInputStream(Base64.getDecoder().decode(encoded).inputStream()).reader().use {
+                JsonParser.parseReader(it).asJsonObject
+            }
+
+            val bot = json.getAsJsonArray("bots")[0].asJsonObject
+            bot["id"].asJsonPrimitive.isNumber shouldBe true
+            bot.has("x") shouldBe true
+            bot.has("position") shouldBe false
+            json.getAsJsonArray("participantIds")[0].asJsonObject["botId"].asJsonPrimitive.isNumber shouldBe true
+        }
+
+        test("Negative: A checkpoint with missing fields is rejected") {
+            val bytes = ByteArrayOutputStream()
+            GZIPOutputStream(bytes).writer().use { it.write("{\"version\":${GameCheckpoint.VERSION}}") }
+
+            shouldThrow<IllegalArgumentException> {
+                GameCheckpoint.decode(Base64.getEncoder().encodeToString(bytes.toByteArray()))
+            }
+        }
+
+        test("Negative: Starting a game from a checkpoint that does not fit the bots aborts the game") {
+            val bot1 = mockk<WebSocket>()
+            val bot2 = mockk<WebSocket>()
+            val lifecycleManager = GameLifecycleManager()
+            val gameServer = createGameServer(createConnectionHandler(bot1, bot2), lifecycleManager)
+
+            // Checkpoint of a game with 4 bots, where only 2 bots are available
+            val checkpoint = createModelUpdater().apply { takeTurn(this, 0) }.checkpoint()
+            gameServer.handleStartGame(
+                createSchemaGameSetup(setup.arenaWidth, setup.arenaHeight),
+                listOf(mockk(), mockk()),
+                checkpoint = checkpoint
+            )
+
+            lifecycleManager.serverState shouldBe ServerState.GAME_STOPPED
+            gameServer.modelUpdater shouldBe null
+        }
+    }
+})
@@ -0,0 +1,275 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotAddress
+import dev.robocode.tankroyale.schema.ControllerHandshake
+import dev.robocode.tankroyale.schema.GameSetup
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.ObserverHandshake
+import dev.robocode.tankroyale.schema.ServerHandshake
+import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
+import dev.robocode.tankroyale.server.connection.ConnectionHandler
+import dev.robocode.tankroyale.server.connection.IConnectionListener
+import dev.robocode.tankroyale.server.core.GameLifecycleManager
+import dev.robocode.tankroyale.server.core.GameRooms
+import dev.robocode.tankroyale.server.core.GameServer
+import dev.robocode.tankroyale.server.core.ResettableTimer
+import dev.robocode.tankroyale.server.core.ServerSetup
+import dev.robocode.tankroyale.server.core.TurnScheduler
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.booleans.shouldBeFalse
+import io.kotest.matchers.booleans.shouldBeTrue
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
+import io.mockk.Called
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import org.java_websocket.handshake.ClientHandshake
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import kotlin.time.Duration.Companion.seconds
+
+class GameRoomsTest : FunSpec({
+
+    context("TR-SRV-LIF-003: Game rooms").config(tags = setOf(Tag("TR-SRV-LIF-003"))) {
+
+        /** Game rooms with mocked game servers, where a started game picks the available bots of [bots] */
+        class Rooms(val bots: List<WebSocket> = emptyList(), maxRooms: Int = GameRooms.DEFAULT_MAX_ROOMS) {
+            val connectionHandler = mockk<ConnectionHandler>(relaxed = true)
+            val createdRoomIds = mutableListOf<String>()
+            val gameRooms = GameRooms(connectionHandler, maxRooms) { roomId, _ ->
+                createdRoomIds += roomId
+                mockk<GameServer>(relaxed = true).also { room ->
+                    var participants = emptySet<WebSocket>()
+                    every { room.participants } answers { participants }
+                    every { room.isGameInProgress } answers { participants.isNotEmpty() }
+                    every { room.handleStartGame(any(), any(), any(), any(), any()) } answers {
+                        participants = bots.filter(arg<(WebSocket) -> Boolean>(4)).toSet()
+                    }
+                    every { room.handleAbortGame() } answers { participants = emptySet() }
+                }
+            }
+
+            fun startGame(roomId: String) =
+                gameRooms.handleStartGame(roomId, GameSetup(), emptyList<BotAddress>(), false)
+        }
+
+        test("Positive: The default room is used by clients not giving a room, and other rooms are created once") {
+            val rooms = Rooms()
+            val gameRooms = rooms.gameRooms
+
+            gameRooms.getRoom(GameRooms.DEFAULT_ROOM_ID) shouldBeSameInstanceAs gameRooms.defaultRoom
+            val room1 = gameRooms.getRoom("room1")
+            gameRooms.getRoom("room1") shouldBeSameInstanceAs room1
+            room1 shouldNotBeSameInstanceAs gameRooms.defaultRoom
+
+            rooms.createdRoomIds shouldBe listOf(GameRooms.DEFAULT_ROOM_ID, "room1")
+        }
+
+        test("Positive: Bots take part in one game at a time, and their messages go to the room of their game") {
+            val bot1 = mockk<WebSocket>()
+            val bot2 = mockk<WebSocket>()
+            val rooms = Rooms(listOf(bot1, bot2))
+            val gameRooms = rooms.gameRooms
+
+            rooms.startGame("room1")
+            val room1 = gameRooms.getRoom("room1")
+            room1.participants shouldBe setOf(bot1, bot2)
+            gameRooms.getRoomOfBot(bot1) shouldBeSameInstanceAs room1
+
+            // Both bots are busy in room 1
+            rooms.startGame("room2")
+            gameRooms.getRoom("room2").participants shouldBe emptySet()
+
+            // The bots are free again when the game in room 1 has ended
+            room1.handleAbortGame()
+            rooms.startGame("room2")
+            val room2 = gameRooms.getRoom("room2")
+            room2.participants shouldBe setOf(bot1, bot2)
+            gameRooms.getRoomOfBot(bot2) shouldBeSameInstanceAs room2
+        }
+
+        test("Positive: A bot leaving is removed from the bot list and from the game of its room") {
+            val bot = mockk<WebSocket>()
+            val rooms = Rooms(listOf(bot))
+            val gameRooms = rooms.gameRooms
+
+            rooms.startGame("room1")
+            gameRooms.handleBotLeft(bot)
+
+            verify { gameRooms.defaultRoom.handleBotLeft(bot) }
+            verify { gameRooms.getRoom("room1").handleParticipantLeft(bot) }
+            gameRooms.getRoomOfBot(bot) shouldBeSameInstanceAs gameRooms.defaultRoom
+        }
+
+        test("Positive: An idle room is removed when its last observer or controller has left") {
+            val bot = mockk<WebSocket>()
+            val rooms = Rooms(listOf(bot))
+            val gameRooms = rooms.gameRooms
+            val observer = mockk<WebSocket>()
+            every { rooms.connectionHandler.getObserverAndControllerSockets("room1") } returns setOf(observer)
+
+            rooms.startGame("room1")
+            val room1 = gameRooms.getRoom("room1")
+
+            // Kept while clients are left in the room
+            gameRooms.removeRoomIfIdle("room1")
+            gameRooms.getRoom("room1") shouldBeSameInstanceAs room1
+
+            // Kept while the game is in progress
+            every { rooms.connectionHandler.getObserverAndControllerSockets("room1") } returns emptySet()
+            gameRooms.removeRoomIfIdle("room1")
+            gameRooms.getRoom("room1") shouldBeSameInstanceAs room1
+
+            room1.handleAbortGame()
+            gameRooms.removeRoomIfIdle("room1")
+            gameRooms.getRoom("room1") shouldNotBeSameInstanceAs room1
+        }
+
+        test("Positive: Observers and controllers join the room given in their handshake") {
+            val gson = Gson()
+            val handler = ClientWebSocketsHandler(
+                setup = ServerSetup(setOf("classic")),
+                listener = mockk<IConnectionListener>(relaxed = true),
+                controllerSecrets = emptySet(),
+                botSecrets = emptySet(),
+                debugModeSupported = false,
+                breakpointModeSupported = false,
+                broadcastFunction = { _, _ -> },
+            )
+            try {
+                fun join(handshake: (sessionId: String) -> Message): WebSocket {
+                    var sent: String? = null
+                    val socket = mockk<WebSocket>(relaxed = true)
+                    every { socket.send(any<String>()) } answers { sent = firstArg<String>() }
+                    handler.onOpen(socket, mockk<ClientHandshake>(relaxed = true))
+                    verify(timeout = 1_000, exactly = 1) { socket.send(any<String>()) }
+
+                    val serverHandshake = gson.fromJson(sent, ServerHandshake::class.java)
+                    serverHandshake.features.gameRooms shouldBe true
+
+                    handler.onMessage(socket, gson.toJson(handshake(serverHandshake.sessionId)))
+                    return socket
+                }
+
+                val observer = join { id ->
+                    ObserverHandshake().apply {
+                        type = Message.Type.OBSERVER_HANDSHAKE
+                        sessionId = id
+                        name = "Observer"
+                        version = "1.0"
+                        roomId = "room1"
+                    }
+                }
+                val controller = join { id ->
+                    ControllerHandshake().apply {
+                        type = Message.Type.CONTROLLER_HANDSHAKE
+                        sessionId = id
+                        name = "Controller"
+                        version = "1.0"
+                        roomId = "room1"
+                    }
+                }
+                val legacyObserver = join { id ->
+                    ObserverHandshake().apply {
+                        type = Message.Type.OBSERVER_HANDSHAKE
+                        sessionId = id
+                        name = "Legacy observer"
+                        version = "1.0"
+                    }
+                }
+
+                eventually(1.seconds) {
+                    handler.getObserverAndControllerSockets() shouldBe setOf(observer, controller, legacyObserver)
+                }
+                handler.getObserverAndControllerSockets("room1") shouldBe setOf(observer, controller)
+                handler.getObserverAndControllerSockets(GameRooms.DEFAULT_ROOM_ID) shouldBe setOf(legacyObserver)
+                handler.getRoomId(controller) shouldBe "room1"
+                handler.getRoomId(legacyObserver) shouldBe GameRooms.DEFAULT_ROOM_ID
+            } finally {
+                handler.close()
+            }
+        }
+
+        test("Negative: A timer on a shared executor leaves the executor running when shut down") {
+            val executor = Executors.newSingleThreadScheduledExecutor()
+            try {
+                val timer = ResettableTimer({}, executor)
+                timer.schedule(TimeUnit.MINUTES.toNanos(1), TimeUnit.MINUTES.toNanos(1))
+                timer.shutdown()
+
+                executor.isShutdown.shouldBeFalse()
+                val ran = CountDownLatch(1)
+                executor.execute { ran.countDown() }
+                ran.await(1, TimeUnit.SECONDS) shouldBe true
+            } finally {
+                executor.shutdownNow()
+            }
+        }
+
+        test("Negative: A turn timer spinning until the turn starts does not run on the shared executor") {
+            val executor = mockk<ScheduledExecutorService>()
+            val lifecycleManager = GameLifecycleManager(executor)
+            val ran = CountDownLatch(1)
+
+            lifecycleManager.createTurnTimeoutTimer(isOwnThread = TurnScheduler.HIGH_RESOLUTION.isSpinning) {
+                ran.countDown()
+            }
+            lifecycleManager.turnTimeoutTimer!!.schedule(0L, 0L)
+
+            ran.await(1, TimeUnit.SECONDS) shouldBe true
+            lifecycleManager.stopTimers()
+            verify { executor wasNot Called }
+        }
+
+        test("Negative: No more rooms are created than the maximum number of rooms") {
+            val rooms = Rooms(maxRooms = 3)
+            val gameRooms = rooms.gameRooms
+            every { rooms.connectionHandler.getObserverAndControllerSockets(any()) } returns emptySet()
+
+            val room1 = gameRooms.getRoom("room1")
+            gameRooms.getRoom("room2")
+            shouldThrow<IllegalStateException> { gameRooms.getRoom("room3") }
+            gameRooms.getRoom("room1") shouldBeSameInstanceAs room1
+
+            gameRooms.removeRoomIfIdle("room2")
+            gameRooms.getRoom("room3")
+
+            rooms.createdRoomIds shouldBe listOf(GameRooms.DEFAULT_ROOM_ID, "room1", "room2", "room3")
+        }
+
+        test("Negative: Rooms are not created for invalid room ids") {
+            val rooms = Rooms()
+            val gameRooms = rooms.gameRooms
+
+            GameRooms.isValidRoomId("tournament-1.final_2").shouldBeTrue()
+            listOf("", "room 1", "../room", "room\n", "é", "r".repeat(GameRooms.MAX_ROOM_ID_LENGTH + 1)).forEach {
+                GameRooms.isValidRoomId(it).shouldBeFalse()
+                shouldThrow<IllegalArgumentException> { gameRooms.getRoom(it) }
+            }
+            rooms.createdRoomIds shouldBe listOf(GameRooms.DEFAULT_ROOM_ID)
+        }
+
+        test("Negative: The default room is never removed") {
+            val rooms = Rooms()
+            val gameRooms = rooms.gameRooms
+            every { rooms.connectionHandler.getObserverAndControllerSockets(any()) } returns emptySet()
+
+            gameRooms.removeRoomIfIdle(null)
+            gameRooms.removeRoomIfIdle(GameRooms.DEFAULT_ROOM_ID)
+
+            gameRooms.getRoom(GameRooms.DEFAULT_ROOM_ID) shouldBeSameInstanceAs gameRooms.defaultRoom
+            rooms.createdRoomIds shouldBe listOf(GameRooms.DEFAULT_ROOM_ID)
+        }
+    }
+})
@@ -34,7 +34,7 @@ class GunEngineTest : FunSpec({
             val botsMap = mapOf(botId1 to bot)
             val botIntentsMap = mapOf(botId1 to intent)
             val botsCopies = mapOf(botId1 to bot.copy())
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
 
             val outcomes = engine.coolDownAndFireGuns(botsMap, botIntentsMap, botsCopies, null, bullets, turn)
@@ -55,7 +55,7 @@ class GunEngineTest : FunSpec({
             val botsMap = mapOf(botId1 to bot)
             val botIntentsMap = mapOf(botId1 to intent)
             val botsCopies = mapOf(botId1 to bot.copy())
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
 
             val outcomes = engine.coolDownAndFireGuns(botsMap, botIntentsMap, botsCopies, null, bullets, turn)
@@ -75,7 +75,7 @@ class GunEngineTest : FunSpec({
             val botsMap = mapOf(botId1 to bot)
             val botIntentsMap = mapOf(botId1 to intent)
             val botsCopies = mapOf(botId1 to bot.copy())
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
 
             val outcomes = engine.coolDownAndFireGuns(botsMap, botIntentsMap, botsCopies, null, bullets, turn)
@@ -94,7 +94,7 @@ class GunEngineTest : FunSpec({
             val botsMap = mapOf(botId1 to bot)
             val botIntentsMap = mapOf(botId1 to intent)
             val botsCopies = mapOf(botId1 to bot.copy())
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
 
             val outcomes = engine.coolDownAndFireGuns(botsMap, botIntentsMap, botsCopies, null, bullets, turn)
@@ -0,0 +1,132 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.server.core.ParticipantSlots
+import dev.robocode.tankroyale.server.model.BotId
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+class IntentCollectionTest : FunSpec({
+
+    context("TR-SRV-PLN-008: Lock-free intent collection").config(tags = setOf(Tag("TR-SRV-PLN-008"))) {
+
+        val conns = (1..8).map { mockk<WebSocket>() }
+        val botIds = (1..8).map { BotId(it) }
+
+        fun createSlots() = ParticipantSlots(conns, botIds, conns.map { null })
+
+        fun intent(targetSpeed: Double? = null, turnRate: Double? = null) = BotIntent().apply {
+            type = Message.Type.BOT_INTENT
+            this.targetSpeed = targetSpeed
+            this.turnRate = turnRate
+        }
+
+        test("Positive: Intents are merged until the turn is taken, and later intents are for the next turn") {
+            val slots = createSlots()
+            slots.updateAliveStates { true }
+
+            slots.addIntent(conns[0], intent(targetSpeed = 5.0))
+            slots.addIntent(conns[0], intent(turnRate = 3.0))
+            slots.hasCollectingIntent(0) shouldBe true
+
+            slots.swapIntents()
+            slots.addIntent(conns[0], intent(targetSpeed = 8.0))
+
+            slots.collectedIntent(0)?.targetSpeed shouldBe 5.0
+            slots.collectedIntent(0)?.turnRate shouldBe 3.0
+            slots.collectedIntent(1) shouldBe null
+
+            slots.swapIntents()
+            slots.collectedIntent(0)?.targetSpeed shouldBe 8.0
+            slots.hasCollectingIntent(0) shouldBe false
+        }
+
+        test("Positive: No intent is lost when intents race with the buffer swaps") {
+            val slots = createSlots()
+            val intentsPerBot = 20_000
+            val executor = Executors.newFixedThreadPool(conns.size)
+            try {
+                val start = CountDownLatch(1)
+                val done = CountDownLatch(conns.size)
+                conns.forEach { conn ->
+                    executor.execute {
+                        start.await()
+                        (1..intentsPerBot).forEach { slots.addIntent(conn, intent(targetSpeed = it.toDouble())) }
+                        done.countDown()
+                    }
+                }
+
+                // The target speeds seen per bot must only increase, and the last one must be seen
+                val lastSeen = DoubleArray(conns.size)
+                val isIncreasing = AtomicBoolean(true)
+                fun takeTurn() {
+                    slots.swapIntents()
+                    conns.indices.forEach { slot ->
+                        slots.collectedIntent(slot)?.targetSpeed?.let { targetSpeed ->
+                            if (targetSpeed <= lastSeen[slot]) isIncreasing.set(false)
+                            lastSeen[slot] = targetSpeed
+                        }
+                    }
+                }
+
+                start.countDown()
+                while (!done.await(0, TimeUnit.MILLISECONDS)) takeTurn()
+                takeTurn()
+
+                isIncreasing.get() shouldBe true
+                lastSeen.toList() shouldBe conns.map { intentsPerBot.toDouble() }
+            } finally {
+                executor.shutdown()
+            }
+        }
+
+        test("Positive: All intents are received only when the last intent of the turn has been added concurrently") {
+            val slots = createSlots()
+            val executor = Executors.newFixedThreadPool(conns.size)
+            try {
+                repeat(500) {
+                    slots.updateAliveStates { true }
+
+                    val start = CountDownLatch(1)
+                    val done = CountDownLatch(conns.size - 1)
+                    conns.drop(1).forEach { conn ->
+                        executor.execute {
+                            start.await()
+                            slots.addIntent(conn, intent(targetSpeed = 1.0))
+                            done.countDown()
+                        }
+                    }
+                    start.countDown()
+                    done.await()
+                    slots.isAllIntentsReceived shouldBe false
+
+                    slots.addIntent(conns[0], intent(targetSpeed = 1.0))
+                    slots.isAllIntentsReceived shouldBe true
+                    slots.swapIntents()
+                }
+            } finally {
+                executor.shutdown()
+            }
+        }
+
+        test("Negative: Intents from unknown connections are not collected") {
+            val slots = createSlots()
+            slots.updateAliveStates { true }
+
+            slots.addIntent(mockk<WebSocket>(), intent(targetSpeed = 1.0)) shouldBe false
+            slots.swapIntents()
+
+            conns.indices.map { slots.collectedIntent(it) } shouldBe conns.map { null }
+        }
+    }
+})
@@ -0,0 +1,112 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import dev.robocode.tankroyale.server.core.LockstepClock
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.time.Duration.Companion.seconds
+
+class LockstepClockTest : FunSpec({
+
+    context("TR-SRV-LIF-002: Lockstep mode").config(tags = setOf(Tag("TR-SRV-LIF-002"))) {
+
+        val longTimeoutNanos = TimeUnit.MINUTES.toNanos(1)
+
+        test("Positive: The armed turn is taken as soon as the intents have arrived") {
+            val isReady = AtomicBoolean(false)
+            val turns = AtomicInteger()
+            val clock = LockstepClock(longTimeoutNanos, isReady::get) { turns.incrementAndGet() }
+            try {
+                clock.arm()
+                clock.advanceIfReady()
+                turns.get() shouldBe 0
+
+                isReady.set(true)
+                clock.advanceIfReady()
+                turns.get() shouldBe 1
+
+                // The turn did not arm the next turn, as the game has ended
+                clock.advanceIfReady()
+                turns.get() shouldBe 1
+            } finally {
+                clock.shutdown()
+            }
+        }
+
+        test("Positive: Turns taken in a row do not grow the call stack") {
+            val turns = AtomicInteger()
+            lateinit var clock: LockstepClock
+            clock = LockstepClock(longTimeoutNanos, { true }) {
+                if (turns.incrementAndGet() < 100_000) clock.arm()
+            }
+            try {
+                clock.arm()
+                clock.advanceIfReady()
+                turns.get() shouldBe 100_000
+            } finally {
+                clock.shutdown()
+            }
+        }
+
+        test("Positive: The first turn is taken when started, and a stalled turn is forced after the timeout") {
+            val turns = AtomicInteger()
+            lateinit var clock: LockstepClock
+            clock = LockstepClock(TimeUnit.MILLISECONDS.toNanos(50), { false }) {
+                if (turns.incrementAndGet() < 3) clock.arm()
+            }
+            try {
+                clock.start()
+                eventually(1.seconds) { turns.get() shouldBe 3 }
+            } finally {
+                clock.shutdown()
+            }
+        }
+
+        test("Negative: An armed turn is taken only once when intents race for it") {
+            val turns = AtomicInteger()
+            val clock = LockstepClock(longTimeoutNanos, { true }) { turns.incrementAndGet() }
+            val executor = Executors.newFixedThreadPool(8)
+            try {
+                repeat(1_000) {
+                    clock.arm()
+                    val start = CountDownLatch(1)
+                    val done = CountDownLatch(8)
+                    repeat(8) {
+                        executor.execute {
+                            start.await()
+                            clock.advanceIfReady()
+                            done.countDown()
+                        }
+                    }
+                    start.countDown()
+                    done.await()
+                }
+                turns.get() shouldBe 1_000
+            } finally {
+                executor.shutdown()
+                clock.shutdown()
+            }
+        }
+
+        test("Negative: No turns are taken after shutdown, and a non-positive timeout is rejected") {
+            val turns = AtomicInteger()
+            val clock = LockstepClock(longTimeoutNanos, { true }) { turns.incrementAndGet() }
+            clock.arm()
+            clock.shutdown()
+            clock.advanceIfReady()
+            clock.advance()
+            turns.get() shouldBe 0
+
+            shouldThrow<IllegalArgumentException> { LockstepClock(0L, { true }) {} }
+        }
+    }
+})
@@ -0,0 +1,79 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.server.core.BotPhaseExecutor
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.collections.shouldContainOnly
+import io.kotest.matchers.shouldBe
+import kotlin.random.Random
+
+class ParallelBotPhasesTest : FunSpec({
+
+    context("TR-SRV-PLN-005: Parallel per-bot phases").config(tags = setOf(Tag("TR-SRV-PLN-005"))) {
+
+        val gson = Gson()
+        val botCount = 100
+        val botIds = (1..botCount).map { BotId(it) }
+        val participantIds = botIds.map { ParticipantId(it, TeamId(it.value % 10)) }.toSet()
+        val initialPositions = botIds.associateWith {
+            InitialPosition(100.0 + (it.value % 10) * 180.0, 100.0 + (it.value / 10) * 160.0, it.value * 37.0 % 360)
+        }
+        val droidFlags = botIds.associateWith { false }
+        val setup = GameSetup(
+            arenaWidth = 2000, arenaHeight = 2000, maxNumberOfParticipants = botIds.size,
+            isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+            isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+            isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+        )
+
+        fun randomIntents(random: Random, turnNumber: Int) = botIds.associateWith { botId ->
+            BotIntent(
+                targetSpeed = random.nextDouble(-8.0, 8.0),
+                turnRate = random.nextDouble(-10.0, 10.0),
+                gunTurnRate = random.nextDouble(-20.0, 20.0),
+                radarTurnRate = random.nextDouble(-45.0, 45.0),
+                firepower = random.nextDouble(0.0, 3.0),
+                teamMessages = listOf(TeamMessage("turn $turnNumber from $botId", "String", null)),
+            )
+        }
+
+        /** Runs a battle and describes each turn, where the order of the observer events is kept */
+        fun runBattle(isParallel: Boolean): List<String> {
+            val updater = ModelUpdater(setup, participantIds, initialPositions, droidFlags, true, isParallel)
+            val random = Random(7)
+            return (1..50).map { turnNumber ->
+                val turn = updater.update(randomIntents(random, turnNumber)).lastRound!!.lastTurn!!
+                val bots = turn.bots.joinToString("|") { "${it.id}:${it.x},${it.y},${it.energy},${it.gunHeat}" }
+                val observerEvents = turn.observerEvents.joinToString("|") { gson.toJson(it) }
+                val botEvents = turn.botEvents.toSortedMap(compareBy { it.value }).entries.joinToString("|") { (id, events) ->
+                    "$id:" + events.map { gson.toJson(it) }.sorted()
+                }
+                "${turn.turnNumber};$bots;$observerEvents;$botEvents;${turn.bullets.map { it.id }}"
+            }
+        }
+
+        test("Positive: Parallel phases give the same turns as the sequential pipeline") {
+            runBattle(isParallel = true) shouldBe runBattle(isParallel = false)
+        }
+
+        test("Positive: Results are returned in the same order as the items") {
+            val items = (0 until 10_000).toList()
+
+            BotPhaseExecutor(isParallelEnabled = true).map(items) { it * 2 } shouldBe items.map { it * 2 }
+        }
+
+        test("Negative: Phases with few bots are not executed in parallel") {
+            val executor = BotPhaseExecutor(isParallelEnabled = true)
+            val callerThread = Thread.currentThread()
+
+            executor.isParallel(10) shouldBe false
+            executor.map((0 until 10).toList()) { Thread.currentThread() } shouldContainOnly listOf(callerThread)
+            BotPhaseExecutor(isParallelEnabled = false).isParallel(10_000) shouldBe false
+        }
+    }
+})
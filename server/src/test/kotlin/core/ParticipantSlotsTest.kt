@@ -0,0 +1,73 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import dev.robocode.tankroyale.server.core.ParticipantSlots
+import dev.robocode.tankroyale.server.model.BotId
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+
+class ParticipantSlotsTest : FunSpec({
+
+    context("TR-SRV-PLN-007: Participant slot bookkeeping").config(tags = setOf(Tag("TR-SRV-PLN-007"))) {
+
+        // Bots 1-3 in team 100, bots 4-5 in team 200, and bot 6 without a team
+        val conns = (1..6).map { mockk<WebSocket>() }
+        val botIds = (1..6).map { BotId(it) }
+        val teamIds = listOf(100, 100, 100, 200, 200, null)
+
+        fun createSlots() = ParticipantSlots(conns, botIds, teamIds)
+
+        test("Positive: Teammates and enemy counts follow the teams and alive states") {
+            val slots = createSlots()
+            val deadBotIds = setOf(BotId(2), BotId(5))
+            slots.updateAliveStates { it !in deadBotIds }
+
+            slots.teammateIds(slots.slotOf(BotId(1))) shouldBe setOf(BotId(2), BotId(3))
+            slots.teammateIds(slots.slotOf(BotId(6))) shouldBe emptySet()
+
+            // 4 alive bots: 1 and 3 in team 100, 4 in team 200, and 6
+            (1..6).map { slots.enemyCount(slots.slotOf(BotId(it))) } shouldBe listOf(2, 4, 2, 3, 4, 3)
+        }
+
+        test("Positive: All intents are received when every alive participant has sent one") {
+            val slots = createSlots()
+            slots.updateAliveStates { it != BotId(6) }
+
+            conns.take(4).forEach { slots.markIntentReceived(it) }
+            slots.isAllIntentsReceived shouldBe false
+
+            slots.markIntentReceived(conns[4])
+            slots.isAllIntentsReceived shouldBe true
+
+            // The next turn expects new intents
+            slots.updateAliveStates { it != BotId(6) }
+            slots.isAllIntentsReceived shouldBe false
+        }
+
+        test("Positive: A participant leaving is no longer waited for") {
+            val slots = createSlots()
+            slots.updateAliveStates { true }
+
+            conns.drop(1).forEach { slots.markIntentReceived(it) }
+            slots.isAllIntentsReceived shouldBe false
+
+            slots.removeConnection(conns[0])
+            slots.isAllIntentsReceived shouldBe true
+        }
+
+        test("Negative: Repeated intents and intents from dead bots or unknown connections are not counted") {
+            val slots = createSlots()
+            slots.updateAliveStates { it != BotId(6) }
+
+            repeat(5) { slots.markIntentReceived(conns[0]) }
+            slots.markIntentReceived(conns[5])
+            slots.markIntentReceived(mockk<WebSocket>())
+
+            slots.isAllIntentsReceived shouldBe false
+        }
+    }
+})
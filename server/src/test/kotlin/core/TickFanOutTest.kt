@@ -0,0 +1,82 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import com.google.gson.Gson
+import com.google.gson.JsonParser
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.TickFanOut
+import dev.robocode.tankroyale.server.core.TickRecipient
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForBotMapper
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+import kotlin.random.Random
+
+class TickFanOutTest : FunSpec({
+
+    context("TR-SRV-MAP-002: Tick fan-out").config(tags = setOf(Tag("TR-SRV-MAP-002"))) {
+
+        val gson = Gson()
+        val botIds = (1..80).map { BotId(it) }
+        val participantIds = botIds.map { ParticipantId(it, TeamId(it.value % 8)) }.toSet()
+        val initialPositions = botIds.associateWith {
+            InitialPosition(100.0 + (it.value % 10) * 80.0, 100.0 + (it.value / 10) * 80.0, it.value * 37.0 % 360)
+        }
+        val droidFlags = botIds.associateWith { false }
+        val setup = GameSetup(
+            arenaWidth = 1000, arenaHeight = 1000, maxNumberOfParticipants = botIds.size,
+            isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+            isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+            isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+        )
+
+        /** Runs a battle for some turns with bots firing and scanning, and returns the last turn */
+        fun runBattle(): ITurn {
+            val updater = ModelUpdater(setup, participantIds, initialPositions, droidFlags, true)
+            val random = Random(13)
+            var turn: ITurn? = null
+            repeat(30) {
+                val intents = botIds.associateWith {
+                    BotIntent(
+                        targetSpeed = random.nextDouble(-8.0, 8.0),
+                        turnRate = random.nextDouble(-10.0, 10.0),
+                        radarTurnRate = random.nextDouble(-45.0, 45.0),
+                        firepower = random.nextDouble(0.0, 3.0),
+                    )
+                }
+                turn = updater.update(intents).lastRound!!.lastTurn!!
+            }
+            return turn!!
+        }
+
+        val turn = runBattle()
+        val recipients = botIds.map { TickRecipient(mockk<WebSocket>(), it, it.value % 5) }
+
+        fun expectedTicks() = recipients.map { recipient ->
+            TurnToTickEventForBotMapper.map(7, turn, recipient.botId, recipient.enemyCount)
+                ?.let { JsonParser.parseString(gson.toJson(it)) }
+        }
+
+        test("Positive: Serialized ticks are the same as the mapped tick events serialized with Gson") {
+            val ticks = TickFanOut(gson, minParallelCount = Int.MAX_VALUE).serializeTicks(7, turn, recipients)
+
+            ticks.map { tick -> tick?.let { JsonParser.parseString(it) } } shouldBe expectedTicks()
+        }
+
+        test("Positive: Ticks serialized in parallel are the same and in recipient order") {
+            val ticks = TickFanOut(gson, minParallelCount = 1).serializeTicks(7, turn, recipients)
+
+            ticks.map { tick -> tick?.let { JsonParser.parseString(it) } } shouldBe expectedTicks()
+        }
+
+        test("Negative: Bots without a state in the turn get no tick") {
+            val unknownBot = TickRecipient(mockk<WebSocket>(), BotId(999), 0)
+
+            TickFanOut(gson).serializeTicks(7, turn, listOf(unknownBot)) shouldBe listOf(null)
+        }
+    }
+})
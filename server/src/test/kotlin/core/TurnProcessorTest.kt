@@ -3,6 +3,7 @@
 package core
 
 import dev.robocode.tankroyale.server.core.*
+import dev.robocode.tankroyale.server.event.ScannedBotEvent
 import dev.robocode.tankroyale.server.model.*
 import dev.robocode.tankroyale.server.score.ScoreTracker
 import dev.robocode.tankroyale.server.score.ScoreCalculator
@@ -47,13 +48,13 @@ class TurnProcessorTest : FunSpec({
                 botId1 to BotIntent().apply { targetSpeed = 8.0 },
                 botId2 to BotIntent().apply { targetSpeed = 8.0; rescan = true }
             )
-            val botsCopies = mutableMapOf<BotId, MutableBot>()
+            val previousStates = BotStateArrays()
             val round = MutableRound(1)
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
             
             val result = turnProcessor.processTurn(
-                turn, botsMap, botIntentsMap, botsCopies, round, bullets, 0
+                turn, botsMap, botIntentsMap, previousStates, round, bullets, 0
             )
             
             // Bot 1 moves from 100 to 101
@@ -79,13 +80,13 @@ class TurnProcessorTest : FunSpec({
             val botIntentsMap = mutableMapOf(
                 botId1 to BotIntent().apply { firepower = 1.0 }
             )
-            val botsCopies = mutableMapOf<BotId, MutableBot>()
+            val previousStates = BotStateArrays()
             val round = MutableRound(1)
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
             
             turnProcessor.processTurn(
-                turn, botsMap, botIntentsMap, botsCopies, round, bullets, 0
+                turn, botsMap, botIntentsMap, previousStates, round, bullets, 0
             )
             
             bullets shouldHaveSize 1
@@ -101,13 +102,13 @@ class TurnProcessorTest : FunSpec({
             val botIntentsMap = mutableMapOf(
                 botId1 to BotIntent().apply { targetSpeed = 8.0 }
             )
-            val botsCopies = mutableMapOf<BotId, MutableBot>()
+            val previousStates = BotStateArrays()
             val round = MutableRound(1)
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
             
             turnProcessor.processTurn(
-                turn, botsMap, botIntentsMap, botsCopies, round, bullets, 0
+                turn, botsMap, botIntentsMap, previousStates, round, bullets, 0
             )
             
             bot1.x shouldBe 100.0 // no movement
@@ -118,15 +119,15 @@ class TurnProcessorTest : FunSpec({
              val bot1 = MutableBot(botId1, position = Point(100.0, 100.0), direction = 0.0, gunDirection = 0.0, radarDirection = 0.0)
              val botsMap = mutableMapOf(botId1 to bot1)
              val botIntentsMap = mutableMapOf<BotId, BotIntent>()
-             val botsCopies = mutableMapOf<BotId, MutableBot>()
+             val previousStates = BotStateArrays()
              val round = MutableRound(1)
-             val bullets = mutableSetOf<Bullet>()
+             val bullets = mutableSetOf<MutableBullet>()
              val turn = MutableTurn(1)
              
              // setup says maxInactivityTurns = 100. 
              // We pass inactivityCounter = 101.
              val result = turnProcessor.processTurn(
-                 turn, botsMap, botIntentsMap, botsCopies, round, bullets, 101
+                 turn, botsMap, botIntentsMap, previousStates, round, bullets, 101
              )
              
              bot1.energy shouldBe 99.9 // INACTIVITY_DAMAGE is 0.1
@@ -140,20 +141,66 @@ class TurnProcessorTest : FunSpec({
             
             val botsMap = mutableMapOf(botId1 to bot1, botId2 to bot2)
             val botIntentsMap = mutableMapOf<BotId, BotIntent>()
-            val botsCopies = mutableMapOf<BotId, MutableBot>()
+            val previousStates = BotStateArrays()
             val round = MutableRound(1)
-            val bullets = mutableSetOf<Bullet>()
+            val bullets = mutableSetOf<MutableBullet>()
             val turn = MutableTurn(1)
 
             // Give bot 1 some score so it definitely wins
             scoreTracker.registerBulletHit(participantId1, participantId2, 10.0, false)
             
             val result = turnProcessor.processTurn(
-                turn, botsMap, botIntentsMap, botsCopies, round, bullets, 0
+                turn, botsMap, botIntentsMap, previousStates, round, bullets, 0
             )
             
             result.roundOutcome shouldNotBe null
             result.roundOutcome?.winnerBotIds shouldBe listOf(botId1)
         }
     }
+
+    context("TR-SRV-PLN-002: Scan culling").config(tags = setOf(Tag("TR-SRV-PLN-002"))) {
+
+        test("Positive: Scan arc crossing 0 degrees only scans the bots inside the arc") {
+            val botId3 = BotId(3)
+            val botId4 = BotId(4)
+            val scanner = MutableBot(botId1, position = Point(100.0, 300.0), direction = 0.0, gunDirection = 0.0, radarDirection = 350.0)
+            val inArc = MutableBot(botId2, position = Point(400.0, 300.0), direction = 0.0, gunDirection = 0.0, radarDirection = 0.0)
+            val aboveArc = MutableBot(botId3, position = Point(100.0, 500.0), direction = 0.0, gunDirection = 0.0, radarDirection = 0.0)
+            val behindArc = MutableBot(botId4, position = Point(30.0, 300.0), direction = 0.0, gunDirection = 0.0, radarDirection = 0.0)
+
+            val botsMap = mutableMapOf(botId1 to scanner, botId2 to inArc, botId3 to aboveArc, botId4 to behindArc)
+            val botIntentsMap = mutableMapOf(
+                botId1 to BotIntent().apply { radarTurnRate = 20.0 } // radar sweeps from 350 to 10 degrees
+            )
+            val turn = MutableTurn(1)
+
+            turnProcessor.processTurn(
+                turn, botsMap, botIntentsMap, BotStateArrays(), MutableRound(1), mutableSetOf(), 0
+            )
+
+            turn.getEvents(botId1).filterIsInstance<ScannedBotEvent>().map { it.scannedBotId } shouldBe listOf(botId2)
+            // Bots without intents are neither moving nor rescanning, so they do not scan
+            turn.getEvents(botId2).filterIsInstance<ScannedBotEvent>() shouldHaveSize 0
+        }
+
+        test("Negative: Bot outside the radar radius is not scanned") {
+            val wideSetup = setup.copy(arenaWidth = 2000, arenaHeight = 600)
+            val wideProcessor = TurnProcessor(
+                wideSetup, GunEngine(wideSetup), CollisionDetector(wideSetup, participantIds),
+                scoreTracker, scoreCalculator, participantIds
+            )
+            val scanner = MutableBot(botId1, position = Point(100.0, 300.0), direction = 0.0, gunDirection = 0.0, radarDirection = 350.0)
+            val farAway = MutableBot(botId2, position = Point(1350.0, 300.0), direction = 0.0, gunDirection = 0.0, radarDirection = 0.0)
+
+            val botsMap = mutableMapOf(botId1 to scanner, botId2 to farAway)
+            val botIntentsMap = mutableMapOf(botId1 to BotIntent().apply { radarTurnRate = 20.0 })
+            val turn = MutableTurn(1)
+
+            wideProcessor.processTurn(
+                turn, botsMap, botIntentsMap, BotStateArrays(), MutableRound(1), mutableSetOf(), 0
+            )
+
+            turn.getEvents(botId1).filterIsInstance<ScannedBotEvent>() shouldHaveSize 0
+        }
+    }
 })
@@ -0,0 +1,80 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.doubles.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
+
+class TurnRecyclingTest : FunSpec({
+
+    context("TR-SRV-PLN-004: Recycled turn records").config(tags = setOf(Tag("TR-SRV-PLN-004"))) {
+
+        val bot1 = BotId(1)
+        val bot2 = BotId(2)
+        val setup = GameSetup(
+            maxInactivityTurns = 1_000_000, maxNumberOfParticipants = 10,
+            isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+            isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+            isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+        )
+
+        fun createModelUpdater() = ModelUpdater(
+            setup,
+            setOf(ParticipantId(bot1), ParticipantId(bot2)),
+            mapOf(bot1 to InitialPosition(100.0, 100.0, 0.0), bot2 to InitialPosition(700.0, 500.0, 180.0)),
+            mapOf(bot1 to false, bot2 to false),
+            true
+        )
+
+        fun ModelUpdater.nextTurn(): ITurn = update(emptyMap()).lastRound!!.lastTurn!!
+
+        test("Positive: Turn records are reused every other turn") {
+            val updater = createModelUpdater()
+
+            val turn1 = updater.nextTurn()
+            val turn2 = updater.nextTurn()
+            val turn3 = updater.nextTurn()
+
+            turn2 shouldNotBeSameInstanceAs turn1
+            turn3 shouldBeSameInstanceAs turn1
+            turn3.turnNumber shouldBe 3
+        }
+
+        test("Positive: Recycled turn records reuse their bot views instead of copying the bots") {
+            val updater = createModelUpdater()
+
+            val turn1 = updater.nextTurn()
+            val bot1View = turn1.getBot(bot1)!!
+            val bot2View = turn1.getBot(bot2)!!
+            updater.nextTurn()
+            val turn3 = updater.nextTurn()
+
+            turn3 shouldBeSameInstanceAs turn1
+            turn3.getBot(bot1)!! shouldBeSameInstanceAs bot1View
+            turn3.getBot(bot2)!! shouldBeSameInstanceAs bot2View
+            turn3.bots.size shouldBe 2
+        }
+
+        test("Negative: Last published turn is not changed while the next turn is processed") {
+            val updater = createModelUpdater()
+            val intents = mapOf(bot1 to BotIntent(targetSpeed = 8.0), bot2 to BotIntent(targetSpeed = 0.0))
+
+            updater.update(intents)
+            val previousTurn = updater.update(intents).lastRound!!.lastTurn!!
+            val previousX = previousTurn.getBot(bot1)!!.x
+
+            val round = updater.update(intents).lastRound!!
+
+            round.turns.first() shouldBeSameInstanceAs previousTurn
+            previousTurn.turnNumber shouldBe 2
+            previousTurn.getBot(bot1)!!.x shouldBe previousX
+            round.lastTurn!!.getBot(bot1)!!.x shouldBeGreaterThan previousX
+        }
+    }
+})
@@ -0,0 +1,85 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package core
+
+import dev.robocode.tankroyale.server.core.ResettableTimer
+import dev.robocode.tankroyale.server.core.TurnScheduler
+import io.kotest.assertions.withClue
+import io.kotest.core.Tag
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.longs.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class TurnSchedulerTest : FunSpec({
+
+    context("TR-SRV-LIF-004: Turn scheduler").config(tags = setOf(Tag("TR-SRV-LIF-004"))) {
+
+        /**
+         * Paces turns the same way as the game server, where the turn timer fires the lead time of the scheduler before
+         * the start of the next turn and the scheduler waits for the rest of the time, and returns how late each turn
+         * started in nanoseconds, sorted.
+         */
+        fun measureLatenessNanos(scheduler: TurnScheduler, tps: Int, turns: Int): LongArray {
+            val turnPeriodNanos = 1_000_000_000L / tps
+            val latenessNanos = LongArray(turns)
+            val done = CountDownLatch(1)
+            var turn = 0
+            var deadlineNanos = 0L
+            lateinit var timer: ResettableTimer
+
+            fun scheduleNextTurn() {
+                deadlineNanos = System.nanoTime() + turnPeriodNanos
+                val minDelayNanos = (turnPeriodNanos - scheduler.leadNanos).coerceAtLeast(0L)
+                timer.schedule(minDelayNanos, maxDelayNanos = TimeUnit.SECONDS.toNanos(1))
+                timer.notifyReady() // all intents have arrived
+            }
+
+            timer = ResettableTimer({
+                scheduler.sleepUntil(deadlineNanos)
+                latenessNanos[turn] = System.nanoTime() - deadlineNanos
+                if (++turn == turns) done.countDown() else scheduleNextTurn()
+            })
+            try {
+                scheduleNextTurn()
+                done.await(30, TimeUnit.SECONDS) shouldBe true
+            } finally {
+                timer.shutdown()
+            }
+            return latenessNanos.apply { sort() }
+        }
+
+        test("Positive: Turns paced by the turn timer start at their deadline with each scheduler") {
+            val tps = 500
+            TurnScheduler.entries.forEach { scheduler ->
+                val latenessNanos = measureLatenessNanos(scheduler, tps, turns = 250)
+
+                withClue(scheduler) {
+                    latenessNanos.first() shouldBeGreaterThanOrEqual 0L
+                    // The bound is a whole turn period, as the timing depends on the load of the machine
+                    latenessNanos[latenessNanos.size / 2] shouldBeLessThan 1_000_000_000L / tps
+                }
+            }
+        }
+
+        test("Positive: The high-resolution scheduler never wakes up before the deadline") {
+            repeat(100) {
+                val deadlineNanos = System.nanoTime() + 300_000L
+                TurnScheduler.HIGH_RESOLUTION.sleepUntil(deadlineNanos)
+                System.nanoTime() shouldBeGreaterThanOrEqual deadlineNanos
+            }
+        }
+
+        test("Negative: A deadline that has passed returns right away") {
+            TurnScheduler.entries.forEach { scheduler ->
+                val startNanos = System.nanoTime()
+                scheduler.sleepUntil(startNanos - 1_000_000_000L)
+                withClue(scheduler) {
+                    System.nanoTime() - startNanos shouldBeLessThan 50_000_000L
+                }
+            }
+        }
+    }
+})
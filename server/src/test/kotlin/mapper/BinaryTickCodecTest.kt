@@ -0,0 +1,256 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package mapper
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotDeathEvent
+import dev.robocode.tankroyale.schema.BotHitBotEvent
+import dev.robocode.tankroyale.schema.BotState
+import dev.robocode.tankroyale.schema.BotStateWithId
+import dev.robocode.tankroyale.schema.BulletHitBotEvent
+import dev.robocode.tankroyale.schema.BulletState
+import dev.robocode.tankroyale.schema.HitByBulletEvent
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.schema.ScannedBotEvent
+import dev.robocode.tankroyale.schema.TeamMessageEvent
+import dev.robocode.tankroyale.schema.TickEventForBot
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.schema.WonRoundEvent
+import dev.robocode.tankroyale.server.connection.WireFormat
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.TickFanOut
+import dev.robocode.tankroyale.server.core.TickRecipient
+import dev.robocode.tankroyale.server.mapper.BinaryTickCodec
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForBotMapper
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.ints.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+import java.nio.ByteBuffer
+import kotlin.random.Random
+
+class BinaryTickCodecTest : FunSpec({
+
+    context("TR-SRV-MAP-004: Binary wire format").config(tags = setOf(Tag("TR-SRV-MAP-004"))) {
+
+        val gson = Gson()
+
+        val botIds = (1..16).map { BotId(it) }
+        val participantIds = botIds.map { ParticipantId(it, TeamId(it.value % 4)) }.toSet()
+        val initialPositions = botIds.associateWith {
+            InitialPosition(100.0 + (it.value % 4) * 150.0, 100.0 + (it.value / 4) * 150.0, it.value * 23.0 % 360)
+        }
+
+        /** Runs a battle for some turns with bots firing and scanning, and returns the last turn */
+        fun runBattle(): ITurn {
+            val setup = GameSetup(
+                arenaWidth = 800, arenaHeight = 800, maxNumberOfParticipants = botIds.size,
+                isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+                isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+                isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+            )
+            val updater = ModelUpdater(setup, participantIds, initialPositions, botIds.associateWith { false }, true)
+            val random = Random(5)
+            var turn: ITurn? = null
+            repeat(40) {
+                val intents = botIds.associateWith {
+                    BotIntent(
+                        targetSpeed = random.nextDouble(-8.0, 8.0),
+                        turnRate = random.nextDouble(-10.0, 10.0),
+                        radarTurnRate = random.nextDouble(-45.0, 45.0),
+                        firepower = random.nextDouble(0.0, 3.0),
+                        bodyColor = "#FF00" + (10 + it.value),
+                    )
+                }
+                turn = updater.update(intents).lastRound!!.lastTurn!!
+            }
+            return turn!!
+        }
+
+        val turn = runBattle()
+
+        fun observerTick() = TurnToTickEventForObserverMapper.map(
+            2,
+            turn,
+            botIds.associateWith { botId ->
+                Participant().apply {
+                    id = botId.value
+                    sessionId = "session-${botId.value}"
+                    name = "Bot ${botId.value} é中"
+                    version = "1.0"
+                }
+            },
+            botIds.associateWith { 3 },
+            botIds.associateWith { it.value % 2 == 0 },
+        )
+
+        fun bullet(bulletId: Int, ownerId: Int, color: String?) = BulletState().apply {
+            this.bulletId = bulletId
+            this.ownerId = ownerId
+            power = 2.5
+            x = 120.25
+            y = 340.5
+            direction = 90.0
+            this.color = color
+        }
+
+        fun <T : BotState> T.fill(isDroid: Boolean?, isDebuggingEnabled: Boolean?, bodyColor: String?): T = apply {
+            this.isDroid = isDroid
+            this.isDebuggingEnabled = isDebuggingEnabled
+            energy = 87.5
+            x = 400.0
+            y = 300.25
+            direction = 45.0
+            gunDirection = 90.5
+            radarDirection = 180.0
+            radarSweep = 22.5
+            speed = -4.0
+            turnRate = 10.0
+            gunTurnRate = -20.0
+            radarTurnRate = 45.0
+            gunHeat = 0.6
+            enemyCount = 3
+            this.bodyColor = bodyColor
+        }
+
+        /** Tick event for a bot in the golden fixture, which is decoded by the Bot API */
+        fun goldenTickForBot() = TickEventForBot().apply {
+            type = Message.Type.TICK_EVENT_FOR_BOT
+            roundNumber = 2
+            turnNumber = 42
+            botState = BotState().fill(isDroid = null, isDebuggingEnabled = true, bodyColor = "#FF0000")
+            bulletStates = listOf(bullet(7, 1, "#FFFF00"))
+            events = listOf(
+                BotDeathEvent().apply { type = Message.Type.BOT_DEATH_EVENT; turnNumber = 41; victimId = 5 },
+                ScannedBotEvent().apply {
+                    type = Message.Type.SCANNED_BOT_EVENT; turnNumber = 42
+                    scannedByBotId = 1; scannedBotId = 2; energy = 50.0; x = 10.0; y = 20.0; direction = 30.0; speed = 8.0
+                },
+                TeamMessageEvent().apply {
+                    type = Message.Type.TEAM_MESSAGE_EVENT; turnNumber = 42
+                    message = "{\"x\":1}"; messageType = "Point"; senderId = 3
+                },
+                WonRoundEvent().apply { type = Message.Type.WON_ROUND_EVENT; turnNumber = 42 },
+            )
+        }
+
+        /** Tick event for observers in the golden fixture, which is decoded by the client library */
+        fun goldenTickForObserver() = TickEventForObserver().apply {
+            type = Message.Type.TICK_EVENT_FOR_OBSERVER
+            roundNumber = 2
+            turnNumber = 42
+            botStates = listOf(
+                BotStateWithId().apply {
+                    id = 1; sessionId = "session-1"; name = "Bot é中"; version = "1.0"; stdOut = "out"
+                }.fill(isDroid = true, isDebuggingEnabled = false, bodyColor = "#FF0000"),
+                BotStateWithId().apply {
+                    id = 2; sessionId = "session-2"; name = "Other"; version = "2.0"
+                }.fill(isDroid = null, isDebuggingEnabled = null, bodyColor = null),
+            )
+            bulletStates = listOf(bullet(7, 1, null))
+            events = listOf(
+                BotHitBotEvent().apply {
+                    type = Message.Type.BOT_HIT_BOT_EVENT; turnNumber = 42
+                    victimId = 2; botId = 1; energy = 60.0; x = 10.0; y = 20.0; rammed = true
+                },
+                BulletHitBotEvent().apply {
+                    type = Message.Type.BULLET_HIT_BOT_EVENT; turnNumber = 42
+                    victimId = 2; bullet = bullet(8, 1, null); damage = 4.0; energy = 56.0
+                },
+                HitByBulletEvent().apply {
+                    type = Message.Type.HIT_BY_BULLET_EVENT; turnNumber = 42
+                    bullet = bullet(8, 1, null); damage = 4.0; energy = 56.0
+                },
+            )
+        }
+
+        /** Reads a golden fixture, which is hex text where whitespace is ignored */
+        fun readFixture(name: String): String =
+            BinaryTickCodecTest::class.java.getResource("/binary-v1/$name")!!.readText().filterNot { it.isWhitespace() }
+
+        fun ByteArray.toHex() = joinToString("") { "%02x".format(it) }
+
+        test("Positive: Tick events are encoded to the golden fixtures shared with the Bot API and client library") {
+            BinaryTickCodec.encode(goldenTickForBot()).toHex() shouldBe readFixture("tick-event-for-bot.hex")
+            BinaryTickCodec.encode(goldenTickForObserver()).toHex() shouldBe readFixture("tick-event-for-observer.hex")
+        }
+
+        test("Positive: Bot state flags that are null are decoded as null") {
+            val decoded = BinaryTickCodec.decode(ByteBuffer.wrap(BinaryTickCodec.encode(goldenTickForObserver())))
+
+            gson.toJson(decoded) shouldBe gson.toJson(goldenTickForObserver())
+            (decoded as TickEventForObserver).botStates[1].isDroid shouldBe null
+        }
+
+        test("Positive: Tick events for bots are decoded to the same tick events") {
+            botIds.forEach { botId ->
+                val tick = TurnToTickEventForBotMapper.map(2, turn, botId, 3)!!
+
+                val decoded = BinaryTickCodec.decode(ByteBuffer.wrap(BinaryTickCodec.encode(tick)))
+
+                gson.toJson(decoded) shouldBe gson.toJson(tick)
+            }
+        }
+
+        test("Positive: Tick events for observers are decoded to the same tick events") {
+            val tick = observerTick()
+
+            val decoded = BinaryTickCodec.decode(ByteBuffer.wrap(BinaryTickCodec.encode(tick)))
+
+            gson.toJson(decoded) shouldBe gson.toJson(tick)
+        }
+
+        test("Positive: Binary tick events are smaller than JSON tick events") {
+            val tick = observerTick()
+
+            BinaryTickCodec.encode(tick).size shouldBeLessThan gson.toJson(tick).toByteArray().size
+        }
+
+        test("Positive: Fanned-out binary ticks decode to the mapped tick events") {
+            val recipients = botIds.map { TickRecipient(mockk<WebSocket>(), it, it.value % 3) }
+
+            val ticks = TickFanOut(gson, minParallelCount = 1).encodeBinaryTicks(2, turn, recipients)
+
+            ticks.map { gson.toJson(BinaryTickCodec.decode(ByteBuffer.wrap(it!!))) } shouldBe
+                    recipients.map { gson.toJson(TurnToTickEventForBotMapper.map(2, turn, it.botId, it.enemyCount)) }
+        }
+
+        test("Positive: Clients not selecting a known wire format get JSON") {
+            WireFormat.fromValue(null) shouldBe WireFormat.JSON
+            WireFormat.fromValue("cbor") shouldBe WireFormat.JSON
+            WireFormat.fromValue("binary-v1") shouldBe WireFormat.BINARY_V1
+        }
+
+        test("Negative: Malformed and truncated binary tick events are rejected") {
+            val bytes = BinaryTickCodec.encode(observerTick())
+
+            shouldThrow<IllegalArgumentException> { BinaryTickCodec.decode(ByteBuffer.wrap("{}".toByteArray())) }
+            shouldThrow<IllegalArgumentException> {
+                BinaryTickCodec.decode(ByteBuffer.wrap(bytes.copyOf(bytes.size / 2)))
+            }
+        }
+
+        test("Negative: Lengths and counts beyond the end of the tick event are rejected before allocating") {
+            // The body color of the bot state is the first string of a tick event for a bot
+            val bytes = BinaryTickCodec.encode(goldenTickForBot())
+            val lengthAt = 3 + 2 * Int.SIZE_BYTES + 1 + 12 * Double.SIZE_BYTES + Int.SIZE_BYTES
+            ByteBuffer.wrap(bytes).getInt(lengthAt) shouldBe "#FF0000".length
+            ByteBuffer.wrap(bytes).putInt(lengthAt, Int.MAX_VALUE)
+
+            shouldThrow<IllegalArgumentException> { BinaryTickCodec.decode(ByteBuffer.wrap(bytes)) }.message shouldBe
+                    "String length exceeds binary-v1 tick event: ${Int.MAX_VALUE}"
+
+            val observerBytes = BinaryTickCodec.encode(goldenTickForObserver())
+            ByteBuffer.wrap(observerBytes).putInt(3 + 2 * Int.SIZE_BYTES, Int.MAX_VALUE) // bot state count
+
+            shouldThrow<IllegalArgumentException> { BinaryTickCodec.decode(ByteBuffer.wrap(observerBytes)) }.message shouldBe
+                    "Invalid count in binary-v1 tick event: ${Int.MAX_VALUE}"
+        }
+    }
+})
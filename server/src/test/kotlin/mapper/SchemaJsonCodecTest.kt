@@ -0,0 +1,191 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package mapper
+
+import com.google.gson.Gson
+import com.google.gson.JsonSyntaxException
+import dev.robocode.tankroyale.schema.*
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.TickFanOut
+import dev.robocode.tankroyale.server.core.TickRecipient
+import dev.robocode.tankroyale.server.mapper.SchemaJsonCodec
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForBotMapper
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.GameSetup
+import dev.robocode.tankroyale.server.model.ITurn
+import dev.robocode.tankroyale.server.model.InitialPosition
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.TeamId
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+import java.io.StringWriter
+import kotlin.random.Random
+import dev.robocode.tankroyale.server.model.BotIntent as ModelBotIntent
+
+class SchemaJsonCodecTest : FunSpec({
+
+    context("TR-SRV-MAP-003: Streaming JSON codec").config(tags = setOf(Tag("TR-SRV-MAP-003"))) {
+
+        val gson = Gson()
+        val codec = SchemaJsonCodec(gson)
+
+        val botIds = (1..12).map { BotId(it) }
+        val participantIds = botIds.map { ParticipantId(it, TeamId(it.value % 3)) }.toSet()
+        val initialPositions = botIds.associateWith {
+            InitialPosition(100.0 + (it.value % 4) * 150.0, 100.0 + (it.value / 4) * 150.0, it.value * 41.0 % 360)
+        }
+
+        /** Runs a battle for some turns with bots firing and scanning, and returns the last turn */
+        fun runBattle(): ITurn {
+            val setup = GameSetup(
+                arenaWidth = 800, arenaHeight = 600, maxNumberOfParticipants = botIds.size,
+                isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+                isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+                isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+            )
+            val updater = ModelUpdater(setup, participantIds, initialPositions, botIds.associateWith { false }, true)
+            val random = Random(17)
+            var turn: ITurn? = null
+            repeat(40) {
+                val intents = botIds.associateWith {
+                    ModelBotIntent(
+                        targetSpeed = random.nextDouble(-8.0, 8.0),
+                        turnRate = random.nextDouble(-10.0, 10.0),
+                        radarTurnRate = random.nextDouble(-45.0, 45.0),
+                        firepower = random.nextDouble(0.0, 3.0),
+                    )
+                }
+                turn = updater.update(intents).lastRound!!.lastTurn!!
+            }
+            return turn!!
+        }
+
+        val turn = runBattle()
+
+        fun bulletState(id: Int, color: String? = null) = BulletState().apply {
+            bulletId = id
+            ownerId = 3
+            power = 1.7
+            x = 12.5
+            y = 0.1
+            direction = 359.99999
+            this.color = color
+        }
+
+        val events: List<Event> = listOf(
+            BotDeathEvent().apply { victimId = 2 },
+            BotHitBotEvent().apply { victimId = 2; botId = 5; energy = 0.0; x = -1.0; y = 1e-9; rammed = true },
+            BotHitWallEvent().apply { victimId = 4 },
+            BulletFiredEvent().apply { bullet = bulletState(1, "#FFA07A") },
+            BulletHitBotEvent().apply { victimId = 1; bullet = bulletState(2); damage = 4.0; energy = 96.0 },
+            BulletHitBulletEvent().apply { bullet = bulletState(3); hitBullet = bulletState(4) },
+            BulletHitWallEvent().apply { bullet = bulletState(5) },
+            HitByBulletEvent().apply { bullet = bulletState(6); damage = 16.0; energy = 1.23456789012345E8 },
+            ScannedBotEvent().apply {
+                scannedByBotId = 1; scannedBotId = 2; energy = 50.5; x = 1.0; y = 2.0; direction = 3.0; speed = -8.0
+            },
+            SkippedTurnEvent(),
+            TeamMessageEvent().apply { message = "{\"a\":\"<b>&'=\u2028\"}"; messageType = "Point"; senderId = 7 },
+            WonRoundEvent(),
+        ).onEachIndexed { index, event ->
+            event.turnNumber = index + 1
+            event.type = Message.Type.entries.first { it.value() == event.javaClass.simpleName }
+        }
+
+        test("Positive: Each event is written byte for byte the same as with Gson") {
+            events.forEach { event ->
+                codec.toJson(event) shouldBe gson.toJson(event)
+            }
+        }
+
+        test("Positive: Events with null fields are written the same as with Gson") {
+            listOf(BotHitBotEvent(), BulletHitBulletEvent().apply { bullet = BulletState() }, TeamMessageEvent())
+                .forEach { event ->
+                    codec.toJson(event) shouldBe gson.toJson(event)
+                }
+        }
+
+        test("Positive: Tick events for bots are written byte for byte the same as with Gson") {
+            botIds.forEach { botId ->
+                val tick = TurnToTickEventForBotMapper.map(3, turn, botId, botId.value % 4)!!
+                tick.events = tick.events + events
+
+                codec.toJson(tick) shouldBe gson.toJson(tick)
+            }
+        }
+
+        test("Positive: Tick events for observers are written byte for byte the same as with Gson") {
+            val participants = botIds.associateWith { botId ->
+                Participant().apply {
+                    id = botId.value
+                    sessionId = "session-${botId.value}"
+                    name = "Bot <${botId.value}> & \"friends\""
+                    version = "1.0"
+                }
+            }
+            val tick = TurnToTickEventForObserverMapper.map(
+                3, turn, participants, botIds.associateWith { 2 }, botIds.associateWith { it.value % 2 == 0 }
+            )
+
+            codec.toJson(tick) shouldBe gson.toJson(tick)
+        }
+
+        test("Positive: Fanned-out ticks are byte for byte the same as the mapped tick events serialized with Gson") {
+            val recipients = botIds.map { TickRecipient(mockk<WebSocket>(), it, it.value % 4) }
+            val ticks = TickFanOut(gson).serializeTicks(3, turn, recipients)
+
+            ticks shouldBe recipients.map { gson.toJson(TurnToTickEventForBotMapper.map(3, turn, it.botId, it.enemyCount)) }
+        }
+
+        test("Positive: Bot intents are read the same as with Gson") {
+            listOf(
+                """{"type":"BotIntent"}""",
+                """{"type":"BotIntent","turnRate":10,"gunTurnRate":-20.5,"radarTurnRate":45,"targetSpeed":8,""" +
+                    """"firepower":3,"adjustGunForBodyTurn":true,"adjustRadarForBodyTurn":false,""" +
+                    """"adjustRadarForGunTurn":"true","rescan":true,"fireAssist":false,"bodyColor":"#FF0000",""" +
+                    """"turretColor":"#0F0","radarColor":null,"bulletColor":"#00F","scanColor":"#FFF",""" +
+                    """"tracksColor":"#000","gunColor":"#123456","stdOut":"line\n\u00e9","stdErr":"",""" +
+                    """"teamMessages":[{"message":"{}","messageType":"Point","receiverId":2},""" +
+                    """{"message":"x","messageType":"String","unknown":[1,{"a":2}]}],"debugGraphics":"<svg/>"}""",
+                """{"unknown":{"nested":[true,null]},"teamMessages":null,"type":"NotAMessageType","firepower":"1.5"}""",
+            ).forEach { json ->
+                codec.readBotIntent(json) shouldBe gson.fromJson(json, BotIntent::class.java)
+            }
+        }
+
+        test("Negative: Values other than strings end an excluded field") {
+            val out = StringWriter()
+            SchemaJsonCodec.ExcludingJsonWriter(out, setOf("stdOut")).apply {
+                serializeNulls = false
+                beginObject()
+                name("stdOut").value(1L)
+                name("name").value("kept")
+                name("stdOut").value(true as Boolean?)
+                name("bot").beginObject().name("name").value("kept").endObject()
+                name("stdOut").beginArray().value("kept").endArray()
+                name("stdOut").beginArray().beginObject().name("stdOut").value(false).endObject().value("kept").endArray()
+                name("stdOut").value("excluded")
+                endObject()
+                flush()
+            }
+            out.toString() shouldBe """{"stdOut":1,"name":"kept","stdOut":true,"bot":{"name":"kept"},"stdOut":["kept"],""" +
+                """"stdOut":[{"stdOut":false},"kept"]}"""
+        }
+
+        test("Negative: Malformed bot intents are rejected like with Gson") {
+            listOf(
+                """{"type":"BotIntent","firepower":}""",
+                """{"type":"BotIntent","teamMessages":[{"receiverId":1.5}]}""",
+                """["BotIntent"]""",
+            ).forEach { json ->
+                shouldThrow<JsonSyntaxException> { gson.fromJson(json, BotIntent::class.java) }
+                shouldThrow<JsonSyntaxException> { codec.readBotIntent(json) }
+            }
+        }
+    }
+})
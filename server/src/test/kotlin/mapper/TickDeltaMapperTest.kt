@@ -0,0 +1,191 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package mapper
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotStateWithId
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.ObserverTickStream
+import dev.robocode.tankroyale.server.mapper.TickDeltaMapper
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.GameSetup
+import dev.robocode.tankroyale.server.model.InitialPosition
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.TeamId
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.ints.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import org.java_websocket.WebSocket
+import kotlin.random.Random
+import dev.robocode.tankroyale.server.model.BotIntent as ModelBotIntent
+
+class TickDeltaMapperTest : FunSpec({
+
+    context("TR-SRV-MAP-005: Delta ticks for observers").config(tags = setOf(Tag("TR-SRV-MAP-005"))) {
+
+        val gson = Gson()
+
+        val botIds = (1..10).map { BotId(it) }
+        val participantIds = botIds.map { ParticipantId(it, TeamId(it.value % 3)) }.toSet()
+        val initialPositions = botIds.associateWith {
+            InitialPosition(100.0 + (it.value % 4) * 150.0, 100.0 + (it.value / 4) * 150.0, it.value * 41.0 % 360)
+        }
+        val participants = botIds.associateWith { botId ->
+            Participant().apply {
+                id = botId.value
+                sessionId = "session-${botId.value}"
+                name = "Bot ${botId.value}"
+                version = "1.0"
+            }
+        }
+
+        /** Runs a battle with bots firing, scanning and dying, and returns the observer tick of each turn */
+        fun runBattle(turns: Int): List<TickEventForObserver> {
+            val setup = GameSetup(
+                arenaWidth = 600, arenaHeight = 600, maxNumberOfParticipants = botIds.size,
+                isArenaWidthLocked = true, isArenaHeightLocked = true, isMinNumberOfParticipantsLocked = true,
+                isMaxNumberOfParticipantsLocked = true, isNumberOfRoundsLocked = true, isGunCoolingRateLocked = true,
+                isMaxInactivityTurnsLocked = true, isTurnTimeoutLocked = true, isReadyTimeoutLocked = true
+            )
+            val updater = ModelUpdater(setup, participantIds, initialPositions, botIds.associateWith { false }, true)
+            val random = Random(5)
+            return (1..turns).map {
+                val intents = botIds.associateWith {
+                    ModelBotIntent(
+                        targetSpeed = random.nextDouble(-8.0, 8.0),
+                        turnRate = random.nextDouble(-10.0, 10.0),
+                        radarTurnRate = random.nextDouble(-45.0, 45.0),
+                        firepower = random.nextDouble(0.0, 3.0),
+                    )
+                }
+                val turn = updater.update(intents).lastRound!!.lastTurn!!
+                TurnToTickEventForObserverMapper.map(
+                    1, turn, participants, botIds.associateWith { 2 }, botIds.associateWith { false }
+                )
+            }
+        }
+
+        val ticks = runBattle(120)
+
+        test("Positive: Applying each delta tick to the previous tick gives the full tick") {
+            var reconstructed = ticks.first()
+            ticks.zipWithNext().forEach { (previous, current) ->
+                reconstructed = TickDeltaMapper.reconstruct(reconstructed, TickDeltaMapper.map(previous, current))
+
+                gson.toJson(reconstructed) shouldBe gson.toJson(current)
+            }
+        }
+
+        test("Positive: Delta ticks are smaller than the full ticks") {
+            val fullSize = ticks.drop(1).sumOf { gson.toJson(it).length }
+            val deltaSize = ticks.zipWithNext().sumOf { (previous, current) ->
+                gson.toJson(TickDeltaMapper.map(previous, current)).length
+            }
+
+            deltaSize shouldBeLessThan fullSize
+        }
+
+        test("Positive: Fields changing to null are listed as cleared and cleared when reconstructed") {
+            fun tick(bodyColor: String?) = TickEventForObserver().apply {
+                type = Message.Type.TICK_EVENT_FOR_OBSERVER
+                roundNumber = 1
+                turnNumber = 1
+                botStates = listOf(BotStateWithId().apply { id = 1; energy = 100.0; this.bodyColor = bodyColor })
+            }
+            val previous = tick("#FF0000")
+            val current = tick(null)
+
+            val delta = TickDeltaMapper.map(previous, current)
+            delta.botStates.single().clearedFields shouldContainExactly listOf("bodyColor")
+            delta.botStates.single().energy shouldBe null
+
+            gson.toJson(TickDeltaMapper.reconstruct(previous, delta)) shouldBe gson.toJson(current)
+        }
+
+        test("Positive: Unchanged bots are left out and removed bots are listed") {
+            fun tick(vararg ids: Int) = TickEventForObserver().apply {
+                roundNumber = 1
+                turnNumber = 1
+                botStates = ids.map { BotStateWithId().apply { id = it; energy = 50.0 } }
+            }
+
+            val delta = TickDeltaMapper.map(tick(1, 2, 3), tick(1, 3))
+
+            delta.botStates shouldBe emptyList()
+            delta.removedBotIds shouldContainExactly listOf(2)
+        }
+
+        test("Positive: Keyframes are sent at the first turn of a round and at every keyframe interval") {
+            val stream = ObserverTickStream(keyframeInterval = 10)
+
+            val keyframeTurns = ticks.mapIndexedNotNull { index, tick ->
+                if (stream.next(tick).isKeyframe) index else null
+            }
+            keyframeTurns shouldContainExactly (0 until ticks.size step 10).toList()
+
+            val nextRoundTick = TickEventForObserver().apply { roundNumber = 2; turnNumber = 1 }
+            stream.next(nextRoundTick).isKeyframe shouldBe true
+        }
+
+        test("Positive: Delta ticks are only built when an observer receives them") {
+            val stream = ObserverTickStream(keyframeInterval = 10)
+            val observer = mockk<WebSocket>()
+
+            stream.next(ticks[0], isDeltaNeeded = false).isKeyframe shouldBe true
+
+            val frame = stream.next(ticks[1], isDeltaNeeded = false)
+            frame.isKeyframe shouldBe false
+            frame.delta shouldBe null
+            frame.isDeltaFor(observer) shouldBe false
+
+            stream.next(ticks[2]).isDeltaFor(observer) shouldBe true
+        }
+
+        test("Positive: An observer gets the full tick before its first delta tick") {
+            val stream = ObserverTickStream(keyframeInterval = 10)
+            val observer = mockk<WebSocket>()
+            val joiningObserver = mockk<WebSocket>()
+
+            stream.next(ticks[0]).isDeltaFor(observer) shouldBe false
+            stream.next(ticks[1]).isDeltaFor(observer) shouldBe true
+
+            val frame = stream.next(ticks[2])
+            frame.isDeltaFor(joiningObserver) shouldBe false
+            frame.isDeltaFor(observer) shouldBe true
+            stream.next(ticks[3]).isDeltaFor(joiningObserver) shouldBe true
+        }
+
+        test("Negative: Observers are not synced after a reset") {
+            val stream = ObserverTickStream(keyframeInterval = 10)
+            val observer = mockk<WebSocket>()
+
+            stream.next(ticks[0]).isDeltaFor(observer) shouldBe false
+            stream.reset()
+
+            val frame = stream.next(ticks[1])
+            frame.isKeyframe shouldBe true
+            frame.isDeltaFor(observer) shouldBe false
+        }
+
+        test("Negative: An observer that has left gets the full tick when it is back") {
+            val stream = ObserverTickStream(keyframeInterval = 10)
+            val observer = mockk<WebSocket>()
+
+            stream.next(ticks[0]).isDeltaFor(observer) shouldBe false
+            stream.next(ticks[1]).isDeltaFor(observer) shouldBe true
+            stream.remove(observer)
+
+            val frame = stream.next(ticks[2])
+            frame.isKeyframe shouldBe false
+            frame.isDeltaFor(observer) shouldBe false
+            stream.next(ticks[3]).isDeltaFor(observer) shouldBe true
+        }
+    }
+})
@@ -0,0 +1,113 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package model
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.server.mapper.BotToBotStateMapper
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+
+class BotStateArraysTest : FunSpec({
+
+    context("TR-SRV-PLN-003: Struct-of-arrays bot states").config(tags = setOf(Tag("TR-SRV-PLN-003"))) {
+
+        val gson = Gson()
+
+        fun bot(id: Int, x: Double) = MutableBot(
+            BotId(id), teammateIds = setOf(BotId(id + 100)), isDroid = id % 2 == 0, sessionId = "session-$id",
+            energy = 42.5, position = Point(x, 200.0), direction = 10.0, gunDirection = 20.0, radarDirection = 30.0,
+            radarSpreadAngle = -15.0, speed = 6.0, turnRate = 4.0, gunTurnRate = 8.0, radarTurnRate = 45.0,
+            gunHeat = 1.2, bodyColor = Color.from("#123"), gunColor = Color.from("#8B4513"), stdOut = "out",
+            isDebuggingEnabled = true, debugGraphics = "<svg/>",
+        )
+
+        test("Positive: Views map to the same protocol output as the captured bots") {
+            val bots = listOf(bot(1, 100.0), bot(2, 300.0))
+            val states = BotStateArrays(initialCapacity = 1)
+
+            states.capture(bots)
+
+            for (bot in bots) {
+                val view = states.bots.getValue(bot.id)
+                gson.toJson(BotToBotStateMapper.map(view, 3)) shouldBe gson.toJson(BotToBotStateMapper.map(bot, 3))
+                view.teammateIds shouldBe bot.teammateIds
+                view.sessionId shouldBe bot.sessionId
+                view.stdOut shouldBe bot.stdOut
+                view.debugGraphics shouldBe bot.debugGraphics
+            }
+        }
+
+        test("Positive: A new capture updates the existing views") {
+            val bot = bot(1, 100.0)
+            val states = BotStateArrays()
+
+            states.capture(listOf(bot))
+            val view = states.bots.getValue(bot.id)
+
+            bot.x = 150.0
+            bot.energy = 10.0
+            states.capture(listOf(bot))
+
+            states.bots.getValue(bot.id) shouldBeSameInstanceAs view
+            view.x shouldBe 150.0
+            view.energy shouldBe 10.0
+        }
+
+        test("Positive: Bots written are read by the views once the buffers are swapped") {
+            val bot = bot(1, 100.0)
+            val states = BotStateArrays()
+            states.capture(listOf(bot))
+            val view = states.bots.getValue(bot.id)
+
+            bot.x = 150.0
+            bot.direction = 90.0
+            states.write(listOf(bot))
+
+            view.x shouldBe 100.0
+            view.direction shouldBe 10.0
+
+            states.swap() shouldBe true
+
+            states.bots.getValue(bot.id) shouldBeSameInstanceAs view
+            view.x shouldBe 150.0
+            view.direction shouldBe 90.0
+        }
+
+        test("Negative: The buffers are not swapped when no bots have been written") {
+            val bot = bot(1, 100.0)
+            val states = BotStateArrays()
+            states.swap() shouldBe false
+
+            states.capture(listOf(bot))
+            bot.x = 150.0
+
+            states.swap() shouldBe false
+            states.bots.getValue(bot.id).x shouldBe 100.0
+        }
+
+        test("Negative: Changes to a bot after the capture are not visible in the views") {
+            val bot = bot(1, 100.0)
+            val states = BotStateArrays()
+
+            states.capture(listOf(bot))
+            bot.x = 999.0
+            bot.direction = 90.0
+
+            states.bots.getValue(bot.id).x shouldBe 100.0
+            states.bots.getValue(bot.id).direction shouldBe 10.0
+        }
+
+        test("Negative: Cleared states have no bots") {
+            val states = BotStateArrays()
+            states.capture(listOf(bot(1, 100.0)))
+
+            states.clear()
+
+            states.bots.isEmpty() shouldBe true
+            states.size shouldBe 0
+        }
+    }
+})
@@ -0,0 +1,49 @@
+@file:OptIn(io.kotest.common.ExperimentalKotest::class)
+
+package model
+
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.core.Tag
+import io.kotest.matchers.shouldBe
+
+class MutableBulletTest : FunSpec({
+
+    context("TR-SRV-PHY-007: In-place bullet advancement").config(tags = setOf(Tag("TR-SRV-PHY-007"))) {
+
+        fun bullet(direction: Double, power: Double) = Bullet(
+            BulletId(1), BotId(1), power = power, direction = direction, color = null,
+            startPosition = Point(123.456, 654.321)
+        )
+
+        test("Positive: Advanced bullet gives the same positions as an immutable bullet") {
+            for (direction in listOf(0.0, 33.3, 90.0, 181.7, 271.0, 359.9)) {
+                for (power in listOf(0.1, 1.7, 3.0)) {
+                    val immutable = bullet(direction, power)
+                    val mutable = MutableBullet(immutable)
+
+                    for (tick in 0..50) {
+                        val expected = immutable.copy(tick = tick)
+                        mutable.tick shouldBe tick
+                        mutable.position() shouldBe expected.position()
+                        mutable.nextPosition() shouldBe expected.nextPosition()
+                        mutable.advance()
+                    }
+                }
+            }
+        }
+
+        test("Negative: Snapshot is not changed when the bullet is advanced afterwards") {
+            val mutable = MutableBullet(bullet(45.0, 2.0))
+            mutable.advance()
+
+            val snapshot = mutable.toBullet()
+            val position = snapshot.position()
+            mutable.advance()
+
+            snapshot.tick shouldBe 1
+            snapshot.position() shouldBe position
+            mutable.tick shouldBe 2
+        }
+    }
+})